@@ -0,0 +1,245 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToIntFunction;
+
+/**
+ * Provides static utility methods for constructing HashStrategy instances.
+ */
+public final class HashStrategies
+{
+    private static final Standard STANDARD = new Standard();
+    private static final Mixed MIXED = new Mixed(0);
+
+    private HashStrategies()
+    {
+    }
+
+    /**
+     * Returns a strategy that uses each key's hashCode() unchanged.  This is the strategy
+     * used by hash collections unless another is explicitly requested.
+     */
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    public static <K> HashStrategy<K> standard()
+    {
+        return STANDARD;
+    }
+
+    /**
+     * Returns a strategy that passes each key's hashCode() through an avalanche mixing
+     * function.  Every bit of the result depends on every bit of the original hash code
+     * so keys whose hash codes differ only in a few bits, or only in their high bits,
+     * are still spread evenly across the tree.
+     */
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    public static <K> HashStrategy<K> mixed()
+    {
+        return MIXED;
+    }
+
+    /**
+     * Returns a mixing strategy that combines each key's hashCode() with the specified seed
+     * before mixing it.  Collections using different seeds place the same keys differently.
+     */
+    @Nonnull
+    public static <K> HashStrategy<K> seeded(int seed)
+    {
+        return new Mixed<>(seed);
+    }
+
+    /**
+     * Returns a mixing strategy using a randomly selected seed.  Since the placement of keys
+     * cannot be predicted in advance this protects against keys chosen to collide in the
+     * same position of the tree.  It does not help with keys whose hashCode() values are
+     * equal (for example the strings "Aa" and "BB") since those produce the same hash under
+     * every seed.  Use withSecondaryHash() to handle keys of that kind.
+     */
+    @Nonnull
+    public static <K> HashStrategy<K> randomlySeeded()
+    {
+        return seeded(ThreadLocalRandom.current().nextInt());
+    }
+
+    /**
+     * Returns a strategy that uses strategy for its primary hash and secondaryHash to distinguish
+     * keys whose primary hash codes collide.  The secondaryHash function must be immutable and
+     * consistent with equals().
+     * <p>
+     * Two strategies returned by this method are equal if their primary strategies are equal
+     * and their secondaryHash functions are equal.  Lambdas and method references are only
+     * equal to themselves so maps that need the structural assignAll(), merge() and diff()
+     * operations should be created using a single secondaryHash instance (or a single
+     * strategy returned by this method).
+     */
+    @Nonnull
+    public static <K> HashStrategy<K> withSecondaryHash(@Nonnull HashStrategy<K> strategy,
+                                                        @Nonnull ToIntFunction<? super K> secondaryHash)
+    {
+        return new Secondary<>(strategy, secondaryHash);
+    }
+
+    /**
+     * Avalanche mixing function from the finalization step of MurmurHash3.  The function is a
+     * bijection so distinct hash codes always produce distinct results.
+     */
+    public static int mix(int hashCode)
+    {
+        int h = hashCode;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    @Immutable
+    private static class Standard<K>
+        implements HashStrategy<K>
+    {
+        @Override
+        public int hash(@Nonnull K key)
+        {
+            return key.hashCode();
+        }
+
+        @Override
+        public String toString()
+        {
+            return "standard";
+        }
+    }
+
+    @Immutable
+    private static class Mixed<K>
+        implements HashStrategy<K>
+    {
+        private final int seed;
+
+        private Mixed(int seed)
+        {
+            this.seed = seed;
+        }
+
+        @Override
+        public int hash(@Nonnull K key)
+        {
+            return mix(key.hashCode() ^ seed);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            return (o == this) || ((o instanceof Mixed) && (((Mixed)o).seed == seed));
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return seed;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "mixed(" + seed + ")";
+        }
+    }
+
+    @Immutable
+    private static class Secondary<K>
+        implements HashStrategy<K>
+    {
+        private final HashStrategy<K> strategy;
+        private final ToIntFunction<? super K> secondaryHash;
+
+        private Secondary(@Nonnull HashStrategy<K> strategy,
+                          @Nonnull ToIntFunction<? super K> secondaryHash)
+        {
+            this.strategy = strategy;
+            this.secondaryHash = secondaryHash;
+        }
+
+        @Override
+        public int hash(@Nonnull K key)
+        {
+            return strategy.hash(key);
+        }
+
+        @Override
+        public boolean hasSecondaryHash()
+        {
+            return true;
+        }
+
+        @Override
+        public int secondaryHash(@Nonnull K key)
+        {
+            return secondaryHash.applyAsInt(key);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (o == this) {
+                return true;
+            } else if (o instanceof Secondary) {
+                final Secondary other = (Secondary)o;
+                return other.strategy.equals(strategy) && other.secondaryHash.equals(secondaryHash);
+            } else {
+                return false;
+            }
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * strategy.hashCode() + secondaryHash.hashCode();
+        }
+
+        @Override
+        public String toString()
+        {
+            return "secondary(" + strategy + ")";
+        }
+    }
+}
@@ -0,0 +1,77 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Determines how hash based collections convert keys into the hash codes used to place them
+ * in their internal trees.  Implementations must be immutable and must be consistent with
+ * equals(): keys that are equal must always produce the same hash codes.
+ * <p>
+ * A strategy can optionally provide a secondary hash.  Collections use the secondary hash to
+ * organize keys that do not implement Comparable but whose primary hash codes collide.  Without
+ * one such keys can only be found by comparing them one at a time using equals().
+ *
+ * @see HashStrategies
+ */
+@Immutable
+public interface HashStrategy<K>
+{
+    /**
+     * Computes the primary hash code for the key.
+     */
+    int hash(@Nonnull K key);
+
+    /**
+     * Determines whether secondaryHash() can be used to distinguish keys with the same primary hash code.
+     */
+    default boolean hasSecondaryHash()
+    {
+        return false;
+    }
+
+    /**
+     * Computes the secondary hash code for the key.  Only called if hasSecondaryHash() returns true.
+     * To be useful the secondary hash should be computed from different properties of the key than
+     * the primary hash.
+     */
+    default int secondaryHash(@Nonnull K key)
+    {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -226,6 +226,25 @@ public interface JImmutableList<T>
     @Nonnull
     List<T> getList();
 
+    /**
+     * Returns a Cursor that visits the values of the list from last to first.
+     */
+    @Nonnull
+    Cursor<T> descendingCursor();
+
+    /**
+     * Returns an iterator that visits the values of the list from last to first.
+     */
+    @Nonnull
+    SplitableIterator<T> descendingIterator();
+
+    /**
+     * Returns a view of the list's values from last to first.  For example
+     * reverse().stream().limit(100) produces the last 100 values of the list.
+     */
+    @Nonnull
+    IterableStreamable<T> reverse();
+
     /**
      * Returns a list of the same type as this containing only those elements for which
      * predicate returns true.  Implementations are optimized assuming predicate will
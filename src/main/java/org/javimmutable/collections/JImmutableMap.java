@@ -37,6 +37,7 @@ package org.javimmutable.collections;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collector;
 
@@ -85,6 +86,31 @@ public interface JImmutableMap<K, V>
     @Override
     Holder<V> find(@Nonnull K key);
 
+    /**
+     * Looks up the values of all of the specified keys in a single operation.  The returned
+     * list contains one value for each key in the same order as the keys.  Keys not contained
+     * in the map have a null value in the list.  Tree based implementations sort the keys
+     * internally so that each node of their tree is visited at most once.
+     *
+     * @param keys non-null keys to search for
+     * @return unmodifiable list of values in same order as keys
+     */
+    @Nonnull
+    List<V> getAll(@Nonnull Iterable<? extends K> keys);
+
+    /**
+     * Looks up the values of all of the specified keys in a single operation.  The returned
+     * list contains one value for each key in the same order as the keys.  Keys not contained
+     * in the map have defaultValue in the list.
+     *
+     * @param keys         non-null keys to search for
+     * @param defaultValue value to use for keys not contained in the map
+     * @return unmodifiable list of values in same order as keys
+     */
+    @Nonnull
+    List<V> getAll(@Nonnull Iterable<? extends K> keys,
+                   V defaultValue);
+
     /**
      * Search for an Entry within the map and return a Holder indicating if the Entry
      * was found and, if it was found, the Entry itself.
@@ -132,6 +158,33 @@ public interface JImmutableMap<K, V>
     @Nonnull
     JImmutableMap<K, V> assignAll(@Nonnull Map<? extends K, ? extends V> map);
 
+    /**
+     * Copies all key-value pairs from the given map.  Keys bound in only one of the two maps
+     * keep their values.  For keys bound in both maps the merger is called with the value
+     * from this map and the value from the other map and its result is stored in the
+     * returned map.  Returns a new JImmutableMap with the changes.
+     *
+     * @param map    JImmutableMap to take values from
+     * @param merger function to combine the values of keys bound in both maps
+     * @return new map reflecting the change
+     */
+    @Nonnull
+    JImmutableMap<K, V> merge(@Nonnull JImmutableMap<K, V> map,
+                              @Nonnull Func2<V, V, V> merger);
+
+    /**
+     * Returns a Cursor visiting the changes needed to transform this map into the other map.
+     * Keys only bound in this map are REMOVED, keys only bound in the other map are ADDED,
+     * and keys bound to unequal values in both maps are CHANGED.  Implementations may skip
+     * portions of the maps that they share so comparing two versions of the same map
+     * can be much faster than visiting every entry.  The order of the changes is unspecified.
+     *
+     * @param other JImmutableMap to compare with
+     * @return Cursor of the differences
+     */
+    @Nonnull
+    Cursor<MapChange<K, V>> diff(@Nonnull JImmutableMap<K, V> other);
+
     /**
      * Deletes the entry for the specified key (if any).  Returns a new map if the value
      * was deleted or the current map if the key was not contained in the map.
@@ -142,6 +195,18 @@ public interface JImmutableMap<K, V>
     @Nonnull
     JImmutableMap<K, V> delete(@Nonnull K key);
 
+    /**
+     * Deletes the entries for all of the specified keys (if any).  Returns a new map if any
+     * values were deleted or the current map if none of the keys were contained in the map.
+     * Tree based implementations group the keys by their position in the tree so that each
+     * node affected by the deletions is copied only once.
+     *
+     * @param keys non-null keys
+     * @return same or different map depending on whether any keys were removed
+     */
+    @Nonnull
+    JImmutableMap<K, V> deleteAll(@Nonnull Iterable<? extends K> keys);
+
     /**
      * Return the number of entries in the map.
      */
@@ -256,6 +256,27 @@ public interface JImmutableRandomAccessList<T>
     @Nonnull
     JImmutableRandomAccessList<T> delete(int index);
 
+    /**
+     * Delete all values with indexes from from (inclusive) to to (exclusive).  Shifts all values
+     * at and after to left by (to - from) positions and subtracts (to - from) from the size of
+     * the list.
+     *
+     * @throws IndexOutOfBoundsException if from is negative, to is greater than size(), or from is greater than to
+     */
+    @Nonnull
+    JImmutableRandomAccessList<T> deleteRange(int from,
+                                              int to);
+
+    /**
+     * Replaces the values with indexes from from (inclusive) to (from + values.size()) (exclusive)
+     * with the values from values.  Size of the list is unchanged.
+     *
+     * @throws IndexOutOfBoundsException if from is negative or (from + values.size()) is greater than size()
+     */
+    @Nonnull
+    JImmutableRandomAccessList<T> assignRange(int from,
+                                              @Nonnull Indexed<? extends T> values);
+
     /**
      * @return an equivalent collection with no values
      */
@@ -0,0 +1,160 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import java.util.Objects;
+
+/**
+ * Immutable description of a single difference between two versions of a JImmutableMap.
+ * An ADDED change has only a new value, a REMOVED change has only an old value, and a CHANGED
+ * change has both.  Since null is a valid value the type should be used to determine which
+ * of the values are meaningful.
+ */
+@Immutable
+public class MapChange<K, V>
+{
+    public enum Type
+    {
+        ADDED,
+        REMOVED,
+        CHANGED
+    }
+
+    @Nonnull
+    private final Type type;
+    @Nonnull
+    private final K key;
+    private final V oldValue;
+    private final V newValue;
+
+    private MapChange(@Nonnull Type type,
+                      @Nonnull K key,
+                      V oldValue,
+                      V newValue)
+    {
+        this.type = type;
+        this.key = key;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    @Nonnull
+    public static <K, V> MapChange<K, V> added(@Nonnull K key,
+                                               V newValue)
+    {
+        return new MapChange<>(Type.ADDED, key, null, newValue);
+    }
+
+    @Nonnull
+    public static <K, V> MapChange<K, V> removed(@Nonnull K key,
+                                                 V oldValue)
+    {
+        return new MapChange<>(Type.REMOVED, key, oldValue, null);
+    }
+
+    @Nonnull
+    public static <K, V> MapChange<K, V> changed(@Nonnull K key,
+                                                 V oldValue,
+                                                 V newValue)
+    {
+        return new MapChange<>(Type.CHANGED, key, oldValue, newValue);
+    }
+
+    @Nonnull
+    public Type getType()
+    {
+        return type;
+    }
+
+    @Nonnull
+    public K getKey()
+    {
+        return key;
+    }
+
+    /**
+     * @return value in the old map or null for ADDED changes
+     */
+    public V getOldValue()
+    {
+        return oldValue;
+    }
+
+    /**
+     * @return value in the new map or null for REMOVED changes
+     */
+    public V getNewValue()
+    {
+        return newValue;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MapChange)) {
+            return false;
+        }
+        final MapChange<?, ?> other = (MapChange<?, ?>)o;
+        return (type == other.type) &&
+               key.equals(other.key) &&
+               Objects.equals(oldValue, other.oldValue) &&
+               Objects.equals(newValue, other.newValue);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(type, key, oldValue, newValue);
+    }
+
+    @Override
+    public String toString()
+    {
+        switch (type) {
+            case ADDED:
+                return "+" + key + "=" + newValue;
+            case REMOVED:
+                return "-" + key + "=" + oldValue;
+            default:
+                return "*" + key + "=" + oldValue + "->" + newValue;
+        }
+    }
+}
@@ -41,6 +41,7 @@ import org.javimmutable.collections.Holders;
 import org.javimmutable.collections.JImmutableMap;
 import org.javimmutable.collections.SplitableIterator;
 import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.common.StructureStats;
 import org.javimmutable.collections.cursors.StandardCursor;
 import org.javimmutable.collections.iterators.EmptyIterator;
 
@@ -104,6 +105,12 @@ public class EmptyTrieNode<T>
         return 0;
     }
 
+    @Override
+    public void collectStats(@Nonnull StructureStats.Builder stats,
+                             int depth)
+    {
+    }
+
     @Override
     public boolean isLeaf()
     {
@@ -44,6 +44,7 @@ import org.javimmutable.collections.JImmutableMap;
 import org.javimmutable.collections.SplitableIterator;
 import org.javimmutable.collections.common.AbstractJImmutableArray;
 import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.common.StructureStats;
 import org.javimmutable.collections.iterators.IteratorHelper;
 import org.javimmutable.collections.iterators.TransformIterator;
 import org.javimmutable.collections.serialization.JImmutableArrayProxy;
@@ -190,6 +191,19 @@ public class JImmutableTrieArray<T>
         root.checkInvariants();
     }
 
+    /**
+     * Walks the entire trie and returns statistics describing its shape.  The fill factor
+     * describes the branches holding leaves.  Takes time proportional to the size of the array.
+     */
+    @Nonnull
+    public StructureStats stats()
+    {
+        final StructureStats.Builder stats = new StructureStats.Builder(this);
+        stats.addBytes(StructureStats.objectBytes(1, StructureStats.INT_BYTES));
+        root.collectStats(stats, 0);
+        return stats.build();
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -42,6 +42,7 @@ import org.javimmutable.collections.JImmutableMap;
 import org.javimmutable.collections.MapEntry;
 import org.javimmutable.collections.SplitableIterator;
 import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.common.StructureStats;
 import org.javimmutable.collections.cursors.SingleValueCursor;
 import org.javimmutable.collections.iterators.SingleValueIterator;
 
@@ -148,6 +149,14 @@ public class LeafTrieNode<T>
         return shift;
     }
 
+    @Override
+    public void collectStats(@Nonnull StructureStats.Builder stats,
+                             int depth)
+    {
+        stats.addNode(this, StructureStats.objectBytes(1, 2 * StructureStats.INT_BYTES));
+        stats.addValues(depth, 1);
+    }
+
     @Override
     public boolean isLeaf()
     {
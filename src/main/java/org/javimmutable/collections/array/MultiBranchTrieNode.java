@@ -42,6 +42,7 @@ import org.javimmutable.collections.Indexed;
 import org.javimmutable.collections.JImmutableMap;
 import org.javimmutable.collections.SplitableIterator;
 import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.common.StructureStats;
 import org.javimmutable.collections.cursors.LazyMultiCursor;
 import org.javimmutable.collections.indexed.IndexedArray;
 import org.javimmutable.collections.iterators.LazyMultiIterator;
@@ -220,6 +221,19 @@ public class MultiBranchTrieNode<T>
         return shift;
     }
 
+    @Override
+    public void collectStats(@Nonnull StructureStats.Builder stats,
+                             int depth)
+    {
+        stats.addNode(this, StructureStats.objectBytes(1, 2 * StructureStats.INT_BYTES) + StructureStats.arrayBytes(entries.length, StructureStats.REFERENCE_BYTES));
+        if (shift == 0) {
+            stats.addFill(entries.length, 32);
+        }
+        for (TrieNode<T> entry : entries) {
+            entry.collectStats(stats, depth + 1);
+        }
+    }
+
     @Override
     public boolean isLeaf()
     {
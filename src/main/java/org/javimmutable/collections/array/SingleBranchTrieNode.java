@@ -41,6 +41,7 @@ import org.javimmutable.collections.Holders;
 import org.javimmutable.collections.JImmutableMap;
 import org.javimmutable.collections.SplitableIterator;
 import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.common.StructureStats;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
@@ -140,6 +141,17 @@ public class SingleBranchTrieNode<T>
         return shift;
     }
 
+    @Override
+    public void collectStats(@Nonnull StructureStats.Builder stats,
+                             int depth)
+    {
+        stats.addNode(this, StructureStats.objectBytes(1, 2 * StructureStats.INT_BYTES));
+        if (shift == 0) {
+            stats.addFill(1, 32);
+        }
+        child.collectStats(stats, depth + 1);
+    }
+
     @Override
     public boolean isLeaf()
     {
@@ -41,7 +41,9 @@ import org.javimmutable.collections.InvariantCheckable;
 import org.javimmutable.collections.JImmutableMap;
 import org.javimmutable.collections.SplitableIterable;
 import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.common.StructureStats;
 
+import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
 
 @Immutable
@@ -74,6 +76,13 @@ public abstract class TrieNode<T>
 
     public abstract boolean isLeaf();
 
+    /**
+     * Adds this node and all of its descendants to stats.  depth is the number of nodes
+     * between this node and the root of the tree.
+     */
+    public abstract void collectStats(@Nonnull StructureStats.Builder stats,
+                                      int depth);
+
     public TrieNode<T> trimmedToMinimumDepth()
     {
         return this;
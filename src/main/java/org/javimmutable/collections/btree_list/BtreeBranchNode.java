@@ -40,8 +40,10 @@ import org.javimmutable.collections.Indexed;
 import org.javimmutable.collections.SplitableIterator;
 import org.javimmutable.collections.Tuple2;
 import org.javimmutable.collections.common.ArrayHelper;
+import org.javimmutable.collections.common.StructureStats;
 import org.javimmutable.collections.cursors.LazyMultiCursor;
 import org.javimmutable.collections.indexed.IndexedArray;
+import org.javimmutable.collections.indexed.IndexedHelper;
 import org.javimmutable.collections.iterators.IndexedIterator;
 import org.javimmutable.collections.iterators.LazyMultiIterator;
 
@@ -178,24 +180,7 @@ class BtreeBranchNode<T>
                                            @Nonnull BtreeNode<T> node)
     {
         if (addWhenZero == 0) {
-            final int totalChildren = childCount() + node.childCount();
-            if (totalChildren <= BtreeNode.MAX_CHILDREN) {
-                final BtreeNode<T> newNode;
-                if (atEnd) {
-                    newNode = mergeChildren(node);
-                } else {
-                    newNode = node.mergeChildren(this);
-                }
-                return BtreeInsertResult.createInPlace(newNode);
-            } else {
-                final Tuple2<BtreeNode<T>, BtreeNode<T>> newNodes;
-                if (atEnd) {
-                    newNodes = distributeChildren(node);
-                } else {
-                    newNodes = node.distributeChildren(this);
-                }
-                return BtreeInsertResult.createSplit(newNodes);
-            }
+            return atEnd ? BtreeInsertResult.createMerged(this, node) : BtreeInsertResult.createMerged(node, this);
         } else {
             final int childIndex = atEnd ? children.length - 1 : 0;
             final BtreeInsertResult<T> childResult = children[childIndex].insertNode(addWhenZero - 1, atEnd, node);
@@ -209,6 +194,69 @@ class BtreeBranchNode<T>
         return index < valueCount;
     }
 
+    @Nonnull
+    @Override
+    public BtreeNode<T> prefix(int limit)
+    {
+        if (limit == valueCount) {
+            return this;
+        }
+        final Location<T> loc = findIndexForGetAssign(limit - 1);
+        final BtreeNode<T> lastChild = loc.child.prefix(loc.logicalIndex + 1);
+        if (loc.childIndex == 0) {
+            return lastChild;
+        }
+        final BtreeNode<T> firstChildren = (loc.childIndex == 1) ? children[0] : new BtreeBranchNode<>(ArrayHelper.subArray(this, children, 0, loc.childIndex));
+        return join(firstChildren, lastChild);
+    }
+
+    @Nonnull
+    @Override
+    public BtreeNode<T> suffix(int offset)
+    {
+        if (offset == 0) {
+            return this;
+        }
+        final Location<T> loc = findIndexForGetAssign(offset);
+        final BtreeNode<T> firstChild = loc.child.suffix(loc.logicalIndex);
+        final int lastIndex = children.length - 1;
+        if (loc.childIndex == lastIndex) {
+            return firstChild;
+        }
+        final BtreeNode<T> lastChildren = (loc.childIndex == lastIndex - 1) ? children[lastIndex] : new BtreeBranchNode<>(ArrayHelper.subArray(this, children, loc.childIndex + 1, children.length));
+        return join(firstChild, lastChildren);
+    }
+
+    /**
+     * Joins two trees into a single tree containing the values of left followed by the values
+     * of right.  The shorter tree is merged into the edge of the taller one at the depth where
+     * their heights match so the cost is proportional to the difference in their depths.
+     * Both arguments and the result are valid roots.
+     */
+    @Nonnull
+    static <T> BtreeNode<T> join(@Nonnull BtreeNode<T> left,
+                                 @Nonnull BtreeNode<T> right)
+    {
+        if (left.valueCount() == 0) {
+            return right;
+        } else if (right.valueCount() == 0) {
+            return left;
+        }
+        final int leftDepth = left.depth();
+        final int rightDepth = right.depth();
+        final BtreeInsertResult<T> result;
+        if (leftDepth >= rightDepth) {
+            result = left.insertNode(leftDepth - rightDepth, true, right);
+        } else {
+            result = right.insertNode(rightDepth - leftDepth, false, left);
+        }
+        if (result.type == BtreeInsertResult.Type.INPLACE) {
+            return result.newNode;
+        } else {
+            return new BtreeBranchNode<>(result.newNode, result.extraNode);
+        }
+    }
+
     @Nonnull
     @Override
     public BtreeNode<T> delete(int index)
@@ -319,6 +367,20 @@ class BtreeBranchNode<T>
         return LazyMultiIterator.iterator(IndexedArray.retained(children));
     }
 
+    @Nonnull
+    @Override
+    public Cursor<T> descendingCursor()
+    {
+        return LazyMultiCursor.transformed(IndexedHelper.reversed(IndexedArray.retained(children)), child -> () -> child.descendingCursor());
+    }
+
+    @Nonnull
+    @Override
+    public SplitableIterator<T> descendingIterator()
+    {
+        return LazyMultiIterator.transformed(IndexedHelper.reversed(IndexedArray.retained(children)), child -> () -> child.descendingIterator());
+    }
+
     @Nonnull
     @Override
     public Iterator<BtreeNode<T>> childIterator()
@@ -332,6 +394,16 @@ class BtreeBranchNode<T>
         return 1 + children[0].depth();
     }
 
+    @Override
+    public void collectStats(@Nonnull StructureStats.Builder stats,
+                             int depth)
+    {
+        stats.addNode(this, StructureStats.objectBytes(1, StructureStats.INT_BYTES) + StructureStats.arrayBytes(children.length, StructureStats.REFERENCE_BYTES));
+        for (BtreeNode<T> child : children) {
+            child.collectStats(stats, depth + 1);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     @Nonnull
     @Override
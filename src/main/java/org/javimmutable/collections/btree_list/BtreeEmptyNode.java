@@ -38,6 +38,7 @@ package org.javimmutable.collections.btree_list;
 import org.javimmutable.collections.Cursor;
 import org.javimmutable.collections.SplitableIterator;
 import org.javimmutable.collections.Tuple2;
+import org.javimmutable.collections.common.StructureStats;
 import org.javimmutable.collections.cursors.StandardCursor;
 import org.javimmutable.collections.iterators.EmptyIterator;
 
@@ -119,6 +120,20 @@ class BtreeEmptyNode<T>
         throw new IndexOutOfBoundsException();
     }
 
+    @Nonnull
+    @Override
+    public BtreeNode<T> prefix(int limit)
+    {
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public BtreeNode<T> suffix(int offset)
+    {
+        return this;
+    }
+
     @Nonnull
     @Override
     public BtreeNode<T> mergeChildren(BtreeNode<T> sibling)
@@ -158,12 +173,32 @@ class BtreeEmptyNode<T>
         return EmptyIterator.of();
     }
 
+    @Nonnull
+    @Override
+    public Cursor<T> descendingCursor()
+    {
+        return StandardCursor.of();
+    }
+
+    @Nonnull
+    @Override
+    public SplitableIterator<T> descendingIterator()
+    {
+        return EmptyIterator.of();
+    }
+
     @Override
     public int depth()
     {
         return 1;
     }
 
+    @Override
+    public void collectStats(@Nonnull StructureStats.Builder stats,
+                             int depth)
+    {
+    }
+
     @Nonnull
     @Override
     public Iterator<BtreeNode<T>> childIterator()
@@ -74,6 +74,20 @@ class BtreeInsertResult<T>
         return createSplit(nodes.getFirst(), nodes.getSecond());
     }
 
+    /**
+     * Combines the children of two adjacent nodes of the same depth into a single node
+     * if they fit or distributes them evenly between two new nodes if they don't.
+     */
+    static <T> BtreeInsertResult<T> createMerged(BtreeNode<T> left,
+                                                 BtreeNode<T> right)
+    {
+        if ((left.childCount() + right.childCount()) <= BtreeNode.MAX_CHILDREN) {
+            return createInPlace(left.mergeChildren(right));
+        } else {
+            return createSplit(left.distributeChildren(right));
+        }
+    }
+
     @Override
     public String toString()
     {
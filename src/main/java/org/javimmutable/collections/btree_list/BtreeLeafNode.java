@@ -40,8 +40,10 @@ import org.javimmutable.collections.Indexed;
 import org.javimmutable.collections.SplitableIterator;
 import org.javimmutable.collections.Tuple2;
 import org.javimmutable.collections.common.ArrayHelper;
+import org.javimmutable.collections.common.StructureStats;
 import org.javimmutable.collections.cursors.StandardCursor;
 import org.javimmutable.collections.indexed.IndexedArray;
+import org.javimmutable.collections.indexed.IndexedHelper;
 import org.javimmutable.collections.iterators.EmptyIterator;
 import org.javimmutable.collections.iterators.IndexedIterator;
 
@@ -136,7 +138,24 @@ class BtreeLeafNode<T>
                                            boolean atEnd,
                                            @Nonnull BtreeNode<T> node)
     {
-        throw new UnsupportedOperationException();
+        if (addWhenZero != 0) {
+            throw new UnsupportedOperationException();
+        }
+        return atEnd ? BtreeInsertResult.createMerged(this, node) : BtreeInsertResult.createMerged(node, this);
+    }
+
+    @Nonnull
+    @Override
+    public BtreeNode<T> prefix(int limit)
+    {
+        return (limit == values.length) ? this : new BtreeLeafNode<>(ArrayHelper.subArray(this, values, 0, limit));
+    }
+
+    @Nonnull
+    @Override
+    public BtreeNode<T> suffix(int offset)
+    {
+        return (offset == 0) ? this : new BtreeLeafNode<>(ArrayHelper.subArray(this, values, offset, values.length));
     }
 
     @Override
@@ -170,6 +189,20 @@ class BtreeLeafNode<T>
         return IndexedIterator.iterator(IndexedArray.retained(values));
     }
 
+    @Nonnull
+    @Override
+    public Cursor<T> descendingCursor()
+    {
+        return StandardCursor.of(IndexedHelper.reversed(IndexedArray.retained(values)));
+    }
+
+    @Nonnull
+    @Override
+    public SplitableIterator<T> descendingIterator()
+    {
+        return IndexedIterator.reverse(IndexedArray.retained(values));
+    }
+
     @Nonnull
     @Override
     public Iterator<BtreeNode<T>> childIterator()
@@ -204,8 +237,10 @@ class BtreeLeafNode<T>
         final BtreeLeafNode<T> leaf = (BtreeLeafNode<T>)sibling;
         assert (leaf.values.length + values.length) >= MAX_CHILDREN;
         assert (leaf.values.length + values.length) <= (2 * MAX_CHILDREN);
-        return Tuple2.of(new BtreeLeafNode<>(ArrayHelper.subArray(this, values, leaf.values, 0, MIN_CHILDREN)),
-                         new BtreeLeafNode<>(ArrayHelper.subArray(this, values, leaf.values, MIN_CHILDREN, values.length + leaf.values.length)));
+        final int totalLength = values.length + leaf.values.length;
+        final int breakIndex = totalLength / 2;
+        return Tuple2.of(new BtreeLeafNode<>(ArrayHelper.subArray(this, values, leaf.values, 0, breakIndex)),
+                         new BtreeLeafNode<>(ArrayHelper.subArray(this, values, leaf.values, breakIndex, totalLength)));
     }
 
     @Override
@@ -214,6 +249,15 @@ class BtreeLeafNode<T>
         return 1;
     }
 
+    @Override
+    public void collectStats(@Nonnull StructureStats.Builder stats,
+                             int depth)
+    {
+        stats.addNode(this, StructureStats.objectBytes(1, 0) + StructureStats.arrayBytes(values.length, StructureStats.REFERENCE_BYTES));
+        stats.addValues(depth, values.length);
+        stats.addFill(values.length, MAX_CHILDREN);
+    }
+
     @SuppressWarnings("unchecked")
     @Nonnull
     @Override
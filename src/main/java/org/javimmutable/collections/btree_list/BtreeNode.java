@@ -35,9 +35,12 @@
 
 package org.javimmutable.collections.btree_list;
 
+import org.javimmutable.collections.Cursor;
 import org.javimmutable.collections.Cursorable;
 import org.javimmutable.collections.SplitableIterable;
+import org.javimmutable.collections.SplitableIterator;
 import org.javimmutable.collections.Tuple2;
+import org.javimmutable.collections.common.StructureStats;
 
 import javax.annotation.Nonnull;
 import java.util.Iterator;
@@ -80,6 +83,22 @@ interface BtreeNode<T>
     @Nonnull
     BtreeNode<T> delete(int index);
 
+    /**
+     * Returns a node containing the first limit values of this node.  Only nodes along the
+     * path to the last value kept are copied.  The result is a valid root but can have too
+     * few children to be used anywhere else in a tree.
+     */
+    @Nonnull
+    BtreeNode<T> prefix(int limit);
+
+    /**
+     * Returns a node containing the values of this node starting at offset.  Only nodes along
+     * the path to the first value kept are copied.  The result is a valid root but can have
+     * too few children to be used anywhere else in a tree.
+     */
+    @Nonnull
+    BtreeNode<T> suffix(int offset);
+
     @Nonnull
     BtreeNode<T> mergeChildren(BtreeNode<T> sibling);
 
@@ -96,8 +115,27 @@ interface BtreeNode<T>
 
     int depth();
 
+    /**
+     * Adds this node and all of its descendants to stats.  depth is the number of nodes
+     * between this node and the root of the tree.
+     */
+    void collectStats(@Nonnull StructureStats.Builder stats,
+                      int depth);
+
     void checkInvariants(boolean isRoot);
 
+    /**
+     * Returns a Cursor over the values of this node from last to first.
+     */
+    @Nonnull
+    Cursor<T> descendingCursor();
+
+    /**
+     * Returns an iterator over the values of this node from last to first.
+     */
+    @Nonnull
+    SplitableIterator<T> descendingIterator();
+
     @Nonnull
     Iterator<BtreeNode<T>> childIterator();
 }
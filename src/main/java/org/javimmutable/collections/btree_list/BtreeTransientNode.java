@@ -0,0 +1,540 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.btree_list;
+
+import org.javimmutable.collections.indexed.IndexedArray;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Mutable counterpart of the BtreeNode classes used by JImmutableBtreeList.Editor.  An editor
+ * starts with a single transient node copied from the root of a list.  The first time an edit
+ * reaches a child that is still an immutable BtreeNode the child is copied into a transient node
+ * owned by its parent.  From then on edits to that part of the tree modify the transient nodes
+ * in place, so a batch of edits allocates roughly what a mutable B-tree would.  Subtrees that
+ * are never edited stay shared with the original list.
+ * <p>
+ * The arrays of transient nodes have room for one more than MAX_CHILDREN entries.  An insert
+ * that fills a node beyond MAX_CHILDREN splits it and returns the new right sibling for the
+ * parent to add.  A delete that leaves a child with fewer than MIN_CHILDREN entries is fixed by
+ * the parent merging the child with a sibling or distributing their entries evenly.
+ * <p>
+ * freeze() creates immutable nodes for every transient node without modifying the transient
+ * nodes, so the editor can continue to be used afterwards.
+ */
+abstract class BtreeTransientNode<T>
+{
+    @Nonnull
+    static <T> BtreeTransientNode<T> of(@Nonnull BtreeNode<T> node)
+    {
+        return (node.depth() == 1) ? new Leaf<>(node) : new Branch<>(node);
+    }
+
+    /**
+     * @return number of values of descendants of this node
+     */
+    abstract int valueCount();
+
+    /**
+     * @return number of direct children (values for leaves) of this node
+     */
+    abstract int childCount();
+
+    abstract T get(int index);
+
+    abstract void assign(int index,
+                         T value);
+
+    /**
+     * Inserts value at index.  If this node has too many children as a result it keeps
+     * the first part of them and returns a new node containing the rest.
+     *
+     * @return null or the new right sibling of this node
+     */
+    @Nullable
+    abstract BtreeTransientNode<T> insertAt(int index,
+                                            T value);
+
+    abstract void delete(int index);
+
+    /**
+     * Moves all children of sibling (which must be the next node at the same depth) to the end of this node.
+     */
+    abstract void mergeChildren(@Nonnull BtreeTransientNode<T> sibling);
+
+    /**
+     * Moves children between this node and sibling (which must be the next node at the same
+     * depth) so that the two nodes have the same number of children or differ by one.
+     */
+    abstract void distributeChildren(@Nonnull BtreeTransientNode<T> sibling);
+
+    /**
+     * @return an immutable node containing the same values as this node
+     */
+    @Nonnull
+    abstract BtreeNode<T> freeze();
+
+    /**
+     * @return the node to use as the root of the tree in place of this node
+     */
+    @Nonnull
+    BtreeTransientNode<T> compress()
+    {
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private static <T> T[] allocateValues()
+    {
+        return (T[])new Object[BtreeNode.MAX_CHILDREN + 1];
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private static <T> BtreeNode<T>[] allocateNodes(int length)
+    {
+        return (BtreeNode<T>[])new BtreeNode[length];
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private static <T> BtreeTransientNode<T>[] allocateTransientNodes()
+    {
+        return (BtreeTransientNode<T>[])new BtreeTransientNode[BtreeNode.MAX_CHILDREN + 1];
+    }
+
+    private static int breakPoint(boolean appended,
+                                  int length)
+    {
+        return appended ? length - BtreeNode.MIN_CHILDREN : BtreeNode.MIN_CHILDREN;
+    }
+
+    static final class Leaf<T>
+        extends BtreeTransientNode<T>
+    {
+        private final T[] values;
+        private int count;
+
+        Leaf()
+        {
+            values = allocateValues();
+        }
+
+        private Leaf(@Nonnull BtreeNode<T> node)
+        {
+            this();
+            count = node.valueCount();
+            for (int i = 0; i < count; ++i) {
+                values[i] = node.get(i);
+            }
+        }
+
+        @Override
+        int valueCount()
+        {
+            return count;
+        }
+
+        @Override
+        int childCount()
+        {
+            return count;
+        }
+
+        @Override
+        T get(int index)
+        {
+            return values[index];
+        }
+
+        @Override
+        void assign(int index,
+                    T value)
+        {
+            values[index] = value;
+        }
+
+        @Nullable
+        @Override
+        BtreeTransientNode<T> insertAt(int index,
+                                       T value)
+        {
+            System.arraycopy(values, index, values, index + 1, count - index);
+            values[index] = value;
+            count += 1;
+            if (count <= BtreeNode.MAX_CHILDREN) {
+                return null;
+            }
+            final int breakPoint = breakPoint(index == count - 1, count);
+            final Leaf<T> sibling = new Leaf<>();
+            sibling.count = count - breakPoint;
+            System.arraycopy(values, breakPoint, sibling.values, 0, sibling.count);
+            Arrays.fill(values, breakPoint, count, null);
+            count = breakPoint;
+            return sibling;
+        }
+
+        @Override
+        void delete(int index)
+        {
+            count -= 1;
+            System.arraycopy(values, index + 1, values, index, count - index);
+            values[count] = null;
+        }
+
+        @Override
+        void mergeChildren(@Nonnull BtreeTransientNode<T> sibling)
+        {
+            final Leaf<T> leaf = (Leaf<T>)sibling;
+            assert (count + leaf.count) <= BtreeNode.MAX_CHILDREN;
+            System.arraycopy(leaf.values, 0, values, count, leaf.count);
+            count += leaf.count;
+        }
+
+        @Override
+        void distributeChildren(@Nonnull BtreeTransientNode<T> sibling)
+        {
+            final Leaf<T> leaf = (Leaf<T>)sibling;
+            final int total = count + leaf.count;
+            final int newCount = total / 2;
+            if (count > newCount) {
+                final int moved = count - newCount;
+                System.arraycopy(leaf.values, 0, leaf.values, moved, leaf.count);
+                System.arraycopy(values, newCount, leaf.values, 0, moved);
+                Arrays.fill(values, newCount, count, null);
+            } else {
+                final int moved = newCount - count;
+                System.arraycopy(leaf.values, 0, values, count, moved);
+                System.arraycopy(leaf.values, moved, leaf.values, 0, leaf.count - moved);
+                Arrays.fill(leaf.values, leaf.count - moved, leaf.count, null);
+            }
+            count = newCount;
+            leaf.count = total - newCount;
+        }
+
+        @Nonnull
+        @Override
+        BtreeNode<T> freeze()
+        {
+            return (count == 0) ? BtreeEmptyNode.of() : BtreeLeafNode.of(IndexedArray.retained(values), 0, count);
+        }
+    }
+
+    static final class Branch<T>
+        extends BtreeTransientNode<T>
+    {
+        /**
+         * For each child exactly one of frozen and owned is non-null.
+         */
+        private final BtreeNode<T>[] frozen;
+        private final BtreeTransientNode<T>[] owned;
+        private final int[] valueCounts;
+        private int count;
+        private int valueCount;
+
+        private Branch()
+        {
+            frozen = allocateNodes(BtreeNode.MAX_CHILDREN + 1);
+            owned = allocateTransientNodes();
+            valueCounts = new int[BtreeNode.MAX_CHILDREN + 1];
+        }
+
+        private Branch(@Nonnull BtreeNode<T> node)
+        {
+            this();
+            for (Iterator<BtreeNode<T>> children = node.childIterator(); children.hasNext(); ) {
+                final BtreeNode<T> child = children.next();
+                frozen[count] = child;
+                valueCounts[count] = child.valueCount();
+                count += 1;
+            }
+            valueCount = node.valueCount();
+        }
+
+        /**
+         * Creates a new root for a tree whose old root was split in two.
+         */
+        Branch(@Nonnull BtreeTransientNode<T> left,
+               @Nonnull BtreeTransientNode<T> right)
+        {
+            this();
+            owned[0] = left;
+            owned[1] = right;
+            valueCounts[0] = left.valueCount();
+            valueCounts[1] = right.valueCount();
+            count = 2;
+            valueCount = valueCounts[0] + valueCounts[1];
+        }
+
+        @Override
+        int valueCount()
+        {
+            return valueCount;
+        }
+
+        @Override
+        int childCount()
+        {
+            return count;
+        }
+
+        @Override
+        T get(int index)
+        {
+            int childIndex = 0;
+            while (index >= valueCounts[childIndex]) {
+                index -= valueCounts[childIndex];
+                childIndex += 1;
+            }
+            final BtreeTransientNode<T> child = owned[childIndex];
+            return (child != null) ? child.get(index) : frozen[childIndex].get(index);
+        }
+
+        @Override
+        void assign(int index,
+                    T value)
+        {
+            int childIndex = 0;
+            while (index >= valueCounts[childIndex]) {
+                index -= valueCounts[childIndex];
+                childIndex += 1;
+            }
+            edit(childIndex).assign(index, value);
+        }
+
+        @Nullable
+        @Override
+        BtreeTransientNode<T> insertAt(int index,
+                                       T value)
+        {
+            final boolean appended = index == valueCount;
+            int childIndex = 0;
+            if (appended) {
+                childIndex = count - 1;
+                index = valueCounts[childIndex];
+            } else {
+                while (index >= valueCounts[childIndex]) {
+                    index -= valueCounts[childIndex];
+                    childIndex += 1;
+                }
+            }
+            final BtreeTransientNode<T> child = edit(childIndex);
+            final BtreeTransientNode<T> newSibling = child.insertAt(index, value);
+            valueCount += 1;
+            valueCounts[childIndex] = child.valueCount();
+            if (newSibling == null) {
+                return null;
+            }
+            insertChild(childIndex + 1, newSibling);
+            if (count <= BtreeNode.MAX_CHILDREN) {
+                return null;
+            }
+            final int breakPoint = breakPoint(appended, count);
+            final Branch<T> sibling = new Branch<>();
+            sibling.count = count - breakPoint;
+            System.arraycopy(frozen, breakPoint, sibling.frozen, 0, sibling.count);
+            System.arraycopy(owned, breakPoint, sibling.owned, 0, sibling.count);
+            System.arraycopy(valueCounts, breakPoint, sibling.valueCounts, 0, sibling.count);
+            clearChildren(breakPoint, count);
+            count = breakPoint;
+            sibling.valueCount = sibling.sumValueCounts();
+            valueCount -= sibling.valueCount;
+            return sibling;
+        }
+
+        @Override
+        void delete(int index)
+        {
+            int childIndex = 0;
+            while (index >= valueCounts[childIndex]) {
+                index -= valueCounts[childIndex];
+                childIndex += 1;
+            }
+            final BtreeTransientNode<T> child = edit(childIndex);
+            child.delete(index);
+            valueCount -= 1;
+            valueCounts[childIndex] -= 1;
+            final int childCount = child.childCount();
+            if (childCount >= BtreeNode.MIN_CHILDREN) {
+                return;
+            }
+            if (childCount == 0) {
+                removeChild(childIndex);
+            } else if (count > 1) {
+                final int mergeIndex = (childIndex == count - 1) ? childIndex - 1 : childIndex;
+                final BtreeTransientNode<T> left = edit(mergeIndex);
+                final BtreeTransientNode<T> right = edit(mergeIndex + 1);
+                if ((left.childCount() + right.childCount()) <= BtreeNode.MAX_CHILDREN) {
+                    left.mergeChildren(right);
+                    valueCounts[mergeIndex] = left.valueCount();
+                    removeChild(mergeIndex + 1);
+                } else {
+                    left.distributeChildren(right);
+                    valueCounts[mergeIndex] = left.valueCount();
+                    valueCounts[mergeIndex + 1] = right.valueCount();
+                }
+            }
+        }
+
+        @Override
+        void mergeChildren(@Nonnull BtreeTransientNode<T> sibling)
+        {
+            final Branch<T> branch = (Branch<T>)sibling;
+            assert (count + branch.count) <= BtreeNode.MAX_CHILDREN;
+            System.arraycopy(branch.frozen, 0, frozen, count, branch.count);
+            System.arraycopy(branch.owned, 0, owned, count, branch.count);
+            System.arraycopy(branch.valueCounts, 0, valueCounts, count, branch.count);
+            count += branch.count;
+            valueCount += branch.valueCount;
+        }
+
+        @Override
+        void distributeChildren(@Nonnull BtreeTransientNode<T> sibling)
+        {
+            final Branch<T> branch = (Branch<T>)sibling;
+            final int total = count + branch.count;
+            final int newCount = total / 2;
+            if (count > newCount) {
+                final int moved = count - newCount;
+                branch.shiftChildren(0, moved);
+                System.arraycopy(frozen, newCount, branch.frozen, 0, moved);
+                System.arraycopy(owned, newCount, branch.owned, 0, moved);
+                System.arraycopy(valueCounts, newCount, branch.valueCounts, 0, moved);
+                clearChildren(newCount, count);
+            } else {
+                final int moved = newCount - count;
+                System.arraycopy(branch.frozen, 0, frozen, count, moved);
+                System.arraycopy(branch.owned, 0, owned, count, moved);
+                System.arraycopy(branch.valueCounts, 0, valueCounts, count, moved);
+                branch.shiftChildren(moved, 0);
+                branch.clearChildren(branch.count - moved, branch.count);
+            }
+            count = newCount;
+            branch.count = total - newCount;
+            valueCount = sumValueCounts();
+            branch.valueCount = branch.sumValueCounts();
+        }
+
+        @Nonnull
+        @Override
+        BtreeNode<T> freeze()
+        {
+            final BtreeNode<T>[] children = allocateNodes(count);
+            for (int i = 0; i < count; ++i) {
+                final BtreeTransientNode<T> child = owned[i];
+                children[i] = (child != null) ? child.freeze() : frozen[i];
+            }
+            return BtreeBranchNode.of(IndexedArray.retained(children), 0, count);
+        }
+
+        @Nonnull
+        @Override
+        BtreeTransientNode<T> compress()
+        {
+            if (count == 0) {
+                return new Leaf<>();
+            } else if (count == 1) {
+                return edit(0).compress();
+            } else {
+                return this;
+            }
+        }
+
+        /**
+         * @return the transient node for the child at childIndex, copying it from the frozen node if necessary
+         */
+        @Nonnull
+        private BtreeTransientNode<T> edit(int childIndex)
+        {
+            BtreeTransientNode<T> child = owned[childIndex];
+            if (child == null) {
+                child = of(frozen[childIndex]);
+                owned[childIndex] = child;
+                frozen[childIndex] = null;
+            }
+            return child;
+        }
+
+        private void insertChild(int childIndex,
+                                 @Nonnull BtreeTransientNode<T> child)
+        {
+            shiftChildren(childIndex, childIndex + 1);
+            frozen[childIndex] = null;
+            owned[childIndex] = child;
+            valueCounts[childIndex] = child.valueCount();
+            count += 1;
+        }
+
+        private void removeChild(int childIndex)
+        {
+            shiftChildren(childIndex + 1, childIndex);
+            count -= 1;
+            clearChildren(count, count + 1);
+        }
+
+        /**
+         * Moves the children starting at from (through the last child) so that they start at to.
+         */
+        private void shiftChildren(int from,
+                                   int to)
+        {
+            final int length = count - from;
+            System.arraycopy(frozen, from, frozen, to, length);
+            System.arraycopy(owned, from, owned, to, length);
+            System.arraycopy(valueCounts, from, valueCounts, to, length);
+        }
+
+        private void clearChildren(int from,
+                                   int to)
+        {
+            Arrays.fill(frozen, from, to, null);
+            Arrays.fill(owned, from, to, null);
+        }
+
+        private int sumValueCounts()
+        {
+            int answer = 0;
+            for (int i = 0; i < count; ++i) {
+                answer += valueCounts[i];
+            }
+            return answer;
+        }
+    }
+}
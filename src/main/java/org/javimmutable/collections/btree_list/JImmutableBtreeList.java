@@ -39,18 +39,22 @@ import org.javimmutable.collections.Cursor;
 import org.javimmutable.collections.Func1;
 import org.javimmutable.collections.Holder;
 import org.javimmutable.collections.Indexed;
+import org.javimmutable.collections.IterableStreamable;
 import org.javimmutable.collections.JImmutableList;
 import org.javimmutable.collections.JImmutableRandomAccessList;
 import org.javimmutable.collections.SplitableIterator;
 import org.javimmutable.collections.common.ListAdaptor;
+import org.javimmutable.collections.common.StructureStats;
 import org.javimmutable.collections.common.StreamConstants;
 import org.javimmutable.collections.indexed.IndexedList;
 import org.javimmutable.collections.iterators.IteratorHelper;
+import org.javimmutable.collections.iterators.SplitableIterableStreamable;
 import org.javimmutable.collections.serialization.JImmutableRandomAccessListProxy;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -373,6 +377,106 @@ public class JImmutableBtreeList<T>
         return of();
     }
 
+    /**
+     * Removes the values from the range by splitting the tree at from and to and joining
+     * the two outer pieces.  Takes O(log n) time regardless of how many values are removed.
+     */
+    @Nonnull
+    @Override
+    public JImmutableBtreeList<T> deleteRange(int from,
+                                              int to)
+    {
+        final int size = root.valueCount();
+        if ((from < 0) || (to > size) || (from > to)) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (from == to) {
+            return this;
+        }
+        return createForDelete(BtreeBranchNode.join(head(from), tail(to)));
+    }
+
+    /**
+     * Replaces the values in the range by splitting the tree at both ends of the range and
+     * joining the two outer pieces to a tree built from values.  Takes O(log n + k) time
+     * where k is the number of values replaced.
+     */
+    @Nonnull
+    @Override
+    public JImmutableBtreeList<T> assignRange(int from,
+                                              @Nonnull Indexed<? extends T> values)
+    {
+        final int count = values.size();
+        if ((from < 0) || ((from + count) > root.valueCount())) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (count == 0) {
+            return this;
+        }
+        final BtreeNodeBuilder<T> builder = new BtreeNodeBuilder<>();
+        for (int i = 0; i < count; ++i) {
+            builder.add(values.get(i));
+        }
+        final BtreeNode<T> middle = builder.build();
+        return new JImmutableBtreeList<>(BtreeBranchNode.join(BtreeBranchNode.join(head(from), middle), tail(from + count)));
+    }
+
+    /**
+     * Returns a list containing the values of this list followed by the values of other.
+     * When other is also a JImmutableBtreeList the two trees are joined by height in O(log n)
+     * time and every node of both lists except those along the seam is shared with the result.
+     * Otherwise a tree is first built from the values of other.
+     */
+    @Nonnull
+    public JImmutableBtreeList<T> concat(@Nonnull JImmutableRandomAccessList<T> other)
+    {
+        if (other instanceof JImmutableBtreeList) {
+            return combine(this, (JImmutableBtreeList<T>)other);
+        } else {
+            final Builder<T> builder = builder();
+            builder.add(other.iterator());
+            return combine(this, builder.build());
+        }
+    }
+
+    /**
+     * Returns a list containing the values of this list from index from (inclusive) to index
+     * to (exclusive).  Takes O(log n) time since the result shares every node of this list
+     * that lies entirely inside the range and only the nodes along the paths to the first and
+     * last values are rebuilt.
+     *
+     * @throws IndexOutOfBoundsException if from is negative, to is greater than size(), or from is greater than to
+     */
+    @Nonnull
+    public JImmutableBtreeList<T> slice(int from,
+                                        int to)
+    {
+        final int size = root.valueCount();
+        if ((from < 0) || (to > size) || (from > to)) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (from == to) {
+            return of();
+        } else if ((from == 0) && (to == size)) {
+            return this;
+        } else {
+            return new JImmutableBtreeList<>(root.prefix(to).suffix(from));
+        }
+    }
+
+    /**
+     * Returns an Editor containing the values of this list.  The Editor applies inserts,
+     * deletes and assignments at any index by modifying its own copies of the nodes of this
+     * list in place.  Each node is copied at most once, the first time an edit reaches it,
+     * so a large batch of edits allocates far less than performing the same edits on the
+     * immutable list.  This list is not modified by the Editor.
+     */
+    @Nonnull
+    public Editor<T> editor()
+    {
+        return new Editor<>(root);
+    }
+
     @Override
     public int size()
     {
@@ -442,6 +546,35 @@ public class JImmutableBtreeList<T>
         return root.iterator();
     }
 
+    /**
+     * Returns a Cursor that visits the values from last to first.  The nodes are walked from
+     * right to left so reading the last k values takes O(log n + k) time.
+     */
+    @Nonnull
+    @Override
+    public Cursor<T> descendingCursor()
+    {
+        return root.descendingCursor();
+    }
+
+    /**
+     * Returns an iterator that visits the values from last to first.  The nodes are walked from
+     * right to left so reading the last k values takes O(log n + k) time.
+     */
+    @Nonnull
+    @Override
+    public SplitableIterator<T> descendingIterator()
+    {
+        return root.descendingIterator();
+    }
+
+    @Nonnull
+    @Override
+    public IterableStreamable<T> reverse()
+    {
+        return SplitableIterableStreamable.of(this::descendingIterator, getSpliteratorCharacteristics());
+    }
+
     @Override
     public int getSpliteratorCharacteristics()
     {
@@ -454,6 +587,19 @@ public class JImmutableBtreeList<T>
         root.checkInvariants(true);
     }
 
+    /**
+     * Walks the entire tree and returns statistics describing its shape.  The fill factor
+     * describes the leaf nodes.  Takes time proportional to the size of the list.
+     */
+    @Nonnull
+    public StructureStats stats()
+    {
+        final StructureStats.Builder stats = new StructureStats.Builder(this);
+        stats.addBytes(StructureStats.objectBytes(1, 0));
+        root.collectStats(stats, 0);
+        return stats.build();
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -480,20 +626,13 @@ public class JImmutableBtreeList<T>
     private static <T> JImmutableBtreeList<T> combine(JImmutableBtreeList<T> left,
                                                       JImmutableBtreeList<T> right)
     {
-        final BtreeNode<T> leftRoot = left.root;
-        final BtreeNode<T> rightRoot = right.root;
-        final int leftDepth = leftRoot.depth();
-        final int rightDepth = rightRoot.depth();
-        if (leftDepth == 1) {
-            return right.insertAll(0, left.iterator());
-        } else if (rightDepth == 1) {
-            return left.insertAll(left.size(), right.iterator());
-        } else if (leftDepth < rightDepth) {
-            final BtreeInsertResult<T> insertResult = rightRoot.insertNode(rightDepth - leftDepth, false, leftRoot);
-            return create(insertResult);
+        final BtreeNode<T> newRoot = BtreeBranchNode.join(left.root, right.root);
+        if (newRoot == left.root) {
+            return left;
+        } else if (newRoot == right.root) {
+            return right;
         } else {
-            final BtreeInsertResult<T> insertResult = leftRoot.insertNode(leftDepth - rightDepth, true, rightRoot);
-            return create(insertResult);
+            return new JImmutableBtreeList<>(newRoot);
         }
     }
 
@@ -502,6 +641,24 @@ public class JImmutableBtreeList<T>
         return root;
     }
 
+    /**
+     * @return a tree containing the first limit values of this list
+     */
+    @Nonnull
+    private BtreeNode<T> head(int limit)
+    {
+        return (limit == 0) ? BtreeEmptyNode.of() : root.prefix(limit);
+    }
+
+    /**
+     * @return a tree containing the values of this list starting at offset
+     */
+    @Nonnull
+    private BtreeNode<T> tail(int offset)
+    {
+        return (offset == root.valueCount()) ? BtreeEmptyNode.of() : root.suffix(offset);
+    }
+
     public static class Builder<T>
         implements JImmutableRandomAccessList.Builder<T>
     {
@@ -548,4 +705,94 @@ public class JImmutableBtreeList<T>
             builder.checkInvariants();
         }
     }
+
+    /**
+     * Mutable object for applying a batch of edits to a JImmutableBtreeList.  Values can be
+     * inserted, deleted or assigned at any index and build() freezes the current values into
+     * an immutable list.  build() does not affect the Editor so editing can continue afterwards
+     * and build() can be called any number of times.  Like other transient objects an Editor
+     * is not thread safe and must only be used by one thread at a time.
+     */
+    @NotThreadSafe
+    public static class Editor<T>
+        implements JImmutableRandomAccessList.Builder<T>
+    {
+        private BtreeTransientNode<T> root;
+
+        private Editor(@Nonnull BtreeNode<T> root)
+        {
+            this.root = BtreeTransientNode.of(root);
+        }
+
+        @Override
+        public int size()
+        {
+            return root.valueCount();
+        }
+
+        public T get(int index)
+        {
+            checkIndex(index, root.valueCount() - 1);
+            return root.get(index);
+        }
+
+        @Nonnull
+        public Editor<T> assign(int index,
+                                @Nullable T value)
+        {
+            checkIndex(index, root.valueCount() - 1);
+            root.assign(index, value);
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public Editor<T> add(@Nullable T value)
+        {
+            insertImpl(root.valueCount(), value);
+            return this;
+        }
+
+        @Nonnull
+        public Editor<T> insert(int index,
+                                @Nullable T value)
+        {
+            checkIndex(index, root.valueCount());
+            insertImpl(index, value);
+            return this;
+        }
+
+        @Nonnull
+        public Editor<T> delete(int index)
+        {
+            checkIndex(index, root.valueCount() - 1);
+            root.delete(index);
+            root = root.compress();
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public JImmutableBtreeList<T> build()
+        {
+            return (root.valueCount() == 0) ? of() : new JImmutableBtreeList<>(root.freeze());
+        }
+
+        private void insertImpl(int index,
+                                @Nullable T value)
+        {
+            final BtreeTransientNode<T> sibling = root.insertAt(index, value);
+            if (sibling != null) {
+                root = new BtreeTransientNode.Branch<>(root, sibling);
+            }
+        }
+
+        private static void checkIndex(int index,
+                                       int maxIndex)
+        {
+            if ((index < 0) || (index > maxIndex)) {
+                throw new IndexOutOfBoundsException();
+            }
+        }
+    }
 }
@@ -36,15 +36,22 @@
 package org.javimmutable.collections.common;
 
 import org.javimmutable.collections.Cursor;
+import org.javimmutable.collections.Func2;
 import org.javimmutable.collections.IterableStreamable;
 import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.MapChange;
 import org.javimmutable.collections.MapEntry;
+import org.javimmutable.collections.cursors.DiffCursor;
+import org.javimmutable.collections.cursors.StandardCursor;
 import org.javimmutable.collections.cursors.TransformCursor;
 import org.javimmutable.collections.iterators.TransformStreamable;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 @Immutable
@@ -58,6 +65,25 @@ public abstract class AbstractJImmutableMap<K, V>
         return getValueOr(key, null);
     }
 
+    @Nonnull
+    @Override
+    public List<V> getAll(@Nonnull Iterable<? extends K> keys)
+    {
+        return getAll(keys, null);
+    }
+
+    @Nonnull
+    @Override
+    public List<V> getAll(@Nonnull Iterable<? extends K> keys,
+                          V defaultValue)
+    {
+        final List<V> answer = new ArrayList<>();
+        for (K key : keys) {
+            answer.add(getValueOr(key, defaultValue));
+        }
+        return Collections.unmodifiableList(answer);
+    }
+
     /**
      * Adds the key/value pair to this map.  Any value already existing for the specified key
      * is replaced with the new value.
@@ -94,6 +120,41 @@ public abstract class AbstractJImmutableMap<K, V>
         return answer;
     }
 
+    @Nonnull
+    @Override
+    public JImmutableMap<K, V> merge(@Nonnull JImmutableMap<K, V> map,
+                                     @Nonnull Func2<V, V, V> merger)
+    {
+        JImmutableMap<K, V> answer = this;
+        for (Cursor<Entry<K, V>> c = map.cursor().start(); c.hasValue(); c = c.next()) {
+            final Entry<K, V> e = c.getValue();
+            final V otherValue = e.getValue();
+            answer = answer.update(e.getKey(), h -> h.isFilled() ? merger.apply(h.getValue(), otherValue) : otherValue);
+        }
+        return answer;
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableMap<K, V> deleteAll(@Nonnull Iterable<? extends K> keys)
+    {
+        JImmutableMap<K, V> answer = this;
+        for (K key : keys) {
+            answer = answer.delete(key);
+        }
+        return answer;
+    }
+
+    @Nonnull
+    @Override
+    public Cursor<MapChange<K, V>> diff(@Nonnull JImmutableMap<K, V> other)
+    {
+        if (other == this) {
+            return StandardCursor.of();
+        }
+        return DiffCursor.of(this, this::find, other, other::find);
+    }
+
     @Override
     public boolean isEmpty()
     {
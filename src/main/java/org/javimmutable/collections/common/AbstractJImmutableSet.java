@@ -45,7 +45,9 @@ import org.javimmutable.collections.cursors.Cursors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 @Immutable
@@ -183,13 +185,14 @@ public abstract class AbstractJImmutableSet<T>
     @Override
     public JImmutableSet<T> deleteAll(@Nonnull Iterator<? extends T> values)
     {
-        JImmutableMap<T, Boolean> newMap = map;
+        final List<T> keys = new ArrayList<>();
         while (values.hasNext()) {
             final T value = values.next();
             if (value != null) {
-                newMap = newMap.delete(value);
+                keys.add(value);
             }
         }
+        final JImmutableMap<T, Boolean> newMap = map.deleteAll(keys);
         return (newMap != map) ? create(newMap) : this;
     }
 
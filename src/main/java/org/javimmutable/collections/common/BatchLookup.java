@@ -0,0 +1,209 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.common;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Working storage for looking up many keys in a map in a single pass over its tree.  The keys
+ * are sorted into the order in which the tree stores them so that every key that passes through
+ * a given node is adjacent to the others and each node is visited at most once.  The original
+ * position of each key is retained so that the values found can be returned in the same order
+ * as the keys were provided.  Keys that are not found keep the default value.
+ */
+@NotThreadSafe
+public class BatchLookup<K, V>
+{
+    private final Object[] keys;
+    private final int[] hashCodes;
+    private final int[] positions;
+    private final Object[] values;
+    private final V defaultValue;
+
+    private BatchLookup(@Nonnull Object[] keys,
+                        @Nonnull int[] hashCodes,
+                        @Nonnull int[] positions,
+                        V defaultValue)
+    {
+        this.keys = keys;
+        this.hashCodes = hashCodes;
+        this.positions = positions;
+        this.values = new Object[keys.length];
+        this.defaultValue = defaultValue;
+        if (defaultValue != null) {
+            Arrays.fill(values, defaultValue);
+        }
+    }
+
+    /**
+     * Creates a batch whose keys are sorted for a hash array mapped trie.  A HAMT consumes
+     * the bits of a hash code starting with the least significant so the keys are ordered
+     * by their bit reversed hash codes.  This places all keys sharing a path prefix together.
+     */
+    @Nonnull
+    public static <K, V> BatchLookup<K, V> sortedByHashCode(@Nonnull Iterable<? extends K> keys,
+                                                            @Nonnull ToIntFunction<? super K> hasher,
+                                                            V defaultValue)
+    {
+        final Object[] unsorted = toArray(keys);
+        final int count = unsorted.length;
+        // pack the sort order and position into a long so that sorting needs no boxing
+        final long[] order = new long[count];
+        for (int i = 0; i < count; ++i) {
+            @SuppressWarnings("unchecked") final int hashCode = hasher.applyAsInt((K)unsorted[i]);
+            order[i] = ((long)(Integer.reverse(hashCode) ^ Integer.MIN_VALUE) << 32) | i;
+        }
+        Arrays.sort(order);
+        final Object[] sortedKeys = new Object[count];
+        final int[] hashCodes = new int[count];
+        final int[] positions = new int[count];
+        for (int i = 0; i < count; ++i) {
+            final int position = (int)order[i];
+            sortedKeys[i] = unsorted[position];
+            hashCodes[i] = Integer.reverse((int)(order[i] >>> 32) ^ Integer.MIN_VALUE);
+            positions[i] = position;
+        }
+        return new BatchLookup<>(sortedKeys, hashCodes, positions, defaultValue);
+    }
+
+    /**
+     * Creates a batch whose keys are sorted in ascending order using the specified Comparator.
+     */
+    @Nonnull
+    public static <K, V> BatchLookup<K, V> sortedByComparator(@Nonnull Iterable<? extends K> keys,
+                                                              @Nonnull Comparator<? super K> comparator,
+                                                              V defaultValue)
+    {
+        final Object[] unsorted = toArray(keys);
+        final int count = unsorted.length;
+        if (isSorted(unsorted, comparator)) {
+            final int[] positions = new int[count];
+            for (int i = 0; i < count; ++i) {
+                positions[i] = i;
+            }
+            return new BatchLookup<>(unsorted, new int[0], positions, defaultValue);
+        }
+        final Integer[] order = new Integer[count];
+        for (int i = 0; i < count; ++i) {
+            order[i] = i;
+        }
+        @SuppressWarnings("unchecked") final Comparator<Integer> positionComparator = (a, b) -> comparator.compare((K)unsorted[a], (K)unsorted[b]);
+        Arrays.sort(order, positionComparator);
+        final Object[] sortedKeys = new Object[count];
+        final int[] positions = new int[count];
+        for (int i = 0; i < count; ++i) {
+            final int position = order[i];
+            sortedKeys[i] = unsorted[position];
+            positions[i] = position;
+        }
+        return new BatchLookup<>(sortedKeys, new int[0], positions, defaultValue);
+    }
+
+    public int size()
+    {
+        return keys.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    public K getKey(int index)
+    {
+        return (K)keys[index];
+    }
+
+    /**
+     * Only available for batches created using sortedByHashCode().
+     */
+    public int getHashCode(int index)
+    {
+        return hashCodes[index];
+    }
+
+    public V getDefaultValue()
+    {
+        return defaultValue;
+    }
+
+    /**
+     * Stores the value found for the key at the specified index (in sorted order).
+     */
+    public void setValue(int index,
+                         V value)
+    {
+        values[positions[index]] = value;
+    }
+
+    /**
+     * Returns the values found in the same order as the keys were originally provided.
+     */
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    public List<V> values()
+    {
+        return Collections.unmodifiableList(Arrays.asList((V[])values));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> boolean isSorted(@Nonnull Object[] keys,
+                                        @Nonnull Comparator<? super K> comparator)
+    {
+        for (int i = 1; i < keys.length; ++i) {
+            if (comparator.compare((K)keys[i - 1], (K)keys[i]) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Object[] toArray(@Nonnull Iterable<?> keys)
+    {
+        if (keys instanceof Collection) {
+            return ((Collection<?>)keys).toArray();
+        }
+        final List<Object> answer = new ArrayList<>();
+        for (Object key : keys) {
+            answer.add(key);
+        }
+        return answer.toArray();
+    }
+}
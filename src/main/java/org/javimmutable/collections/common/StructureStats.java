@@ -0,0 +1,327 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.common;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Snapshot of the internal shape of a collection's tree structure.  Intended for diagnosing
+ * collections that are slower or larger than expected, for example maps whose keys have poorly
+ * distributed hash codes or B-trees with many half empty nodes.
+ * <p>
+ * Depths are measured from the root node, which has depth zero.  The depth histogram counts
+ * values by the depth of the node that holds them.  Node counts are keyed by the simple name
+ * of each node's class.  The collision histogram counts hash buckets by the number of keys
+ * sharing each bucket and is empty for structures that do not hash their keys.  The fill
+ * factor covers the nodes whose children are values (or leaves holding single values) and
+ * is the fraction of their capacity in use.
+ * <p>
+ * Byte estimates assume a 64-bit JVM using compressed object pointers.  They include the nodes
+ * and arrays making up the structure but not the keys and values stored in it.  Nodes shared
+ * with other collections are counted as though they belonged to this one alone.
+ */
+@Immutable
+public final class StructureStats
+{
+    public static final int OBJECT_HEADER_BYTES = 12;
+    public static final int ARRAY_HEADER_BYTES = 16;
+    public static final int REFERENCE_BYTES = 4;
+    public static final int INT_BYTES = 4;
+
+    private final String name;
+    private final int size;
+    private final SortedMap<Integer, Integer> depthHistogram;
+    private final SortedMap<String, Integer> nodeCounts;
+    private final SortedMap<Integer, Integer> collisionHistogram;
+    private final long fillUsed;
+    private final long fillCapacity;
+    private final int underfilledNodeCount;
+    private final long estimatedBytes;
+
+    private StructureStats(@Nonnull Builder builder)
+    {
+        name = builder.name;
+        size = builder.size;
+        depthHistogram = Collections.unmodifiableSortedMap(new TreeMap<>(builder.depthHistogram));
+        nodeCounts = Collections.unmodifiableSortedMap(new TreeMap<>(builder.nodeCounts));
+        collisionHistogram = Collections.unmodifiableSortedMap(new TreeMap<>(builder.collisionHistogram));
+        fillUsed = builder.fillUsed;
+        fillCapacity = builder.fillCapacity;
+        underfilledNodeCount = builder.underfilledNodeCount;
+        estimatedBytes = builder.estimatedBytes;
+    }
+
+    /**
+     * Estimated size in bytes of an object with the specified number of reference fields
+     * and bytes of primitive fields, including its header and alignment padding.
+     */
+    public static long objectBytes(int referenceFields,
+                                   int primitiveBytes)
+    {
+        return align(OBJECT_HEADER_BYTES + (long)referenceFields * REFERENCE_BYTES + primitiveBytes);
+    }
+
+    /**
+     * Estimated size in bytes of an array with the specified length and element size,
+     * including its header and alignment padding.
+     */
+    public static long arrayBytes(int length,
+                                  int elementBytes)
+    {
+        return align(ARRAY_HEADER_BYTES + (long)length * elementBytes);
+    }
+
+    private static long align(long bytes)
+    {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * Class name of the collection that produced these statistics.
+     */
+    @Nonnull
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Number of values found while walking the structure.
+     */
+    public int getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Number of values stored at each depth.  Depths holding no values are omitted.
+     */
+    @Nonnull
+    public SortedMap<Integer, Integer> getDepthHistogram()
+    {
+        return depthHistogram;
+    }
+
+    /**
+     * Depth of the deepest value or zero if the structure is empty.
+     */
+    public int getMaxDepth()
+    {
+        return depthHistogram.isEmpty() ? 0 : depthHistogram.lastKey();
+    }
+
+    /**
+     * Average depth of all values or zero if the structure is empty.
+     */
+    public double getAverageDepth()
+    {
+        long total = 0;
+        for (Map.Entry<Integer, Integer> entry : depthHistogram.entrySet()) {
+            total += (long)entry.getKey() * entry.getValue();
+        }
+        return (size == 0) ? 0.0 : (double)total / size;
+    }
+
+    /**
+     * Number of nodes of each type keyed by the simple name of the node's class.
+     */
+    @Nonnull
+    public SortedMap<String, Integer> getNodeCounts()
+    {
+        return nodeCounts;
+    }
+
+    public int getNodeCount(@Nonnull String nodeType)
+    {
+        final Integer count = nodeCounts.get(nodeType);
+        return (count == null) ? 0 : count;
+    }
+
+    public int getTotalNodeCount()
+    {
+        int total = 0;
+        for (Integer count : nodeCounts.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Number of hash buckets keyed by the number of keys in each bucket.  A well distributed
+     * hash map has nearly all of its buckets at length one.
+     */
+    @Nonnull
+    public SortedMap<Integer, Integer> getCollisionHistogram()
+    {
+        return collisionHistogram;
+    }
+
+    /**
+     * Number of keys in the most crowded hash bucket or zero if there are no buckets.
+     */
+    public int getMaxCollisionLength()
+    {
+        return collisionHistogram.isEmpty() ? 0 : collisionHistogram.lastKey();
+    }
+
+    /**
+     * Fraction of the capacity of the bottom level nodes that is in use or zero if the
+     * structure has no such nodes.
+     */
+    public double getFillFactor()
+    {
+        return (fillCapacity == 0) ? 0.0 : (double)fillUsed / fillCapacity;
+    }
+
+    /**
+     * Number of bottom level nodes that are less than half full.
+     */
+    public int getUnderfilledNodeCount()
+    {
+        return underfilledNodeCount;
+    }
+
+    /**
+     * Estimated number of bytes retained by the structure, excluding its keys and values.
+     */
+    public long getEstimatedBytes()
+    {
+        return estimatedBytes;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s[size=%d, maxDepth=%d, averageDepth=%.2f, depths=%s, nodes=%s, collisions=%s, fillFactor=%.3f, underfilledNodes=%d, estimatedBytes=%d]",
+                             name, size, getMaxDepth(), getAverageDepth(), depthHistogram, nodeCounts, collisionHistogram,
+                             getFillFactor(), underfilledNodeCount, estimatedBytes);
+    }
+
+    /**
+     * Accumulates statistics while a collection walks its nodes.
+     */
+    @NotThreadSafe
+    public static class Builder
+    {
+        private final String name;
+        private final Map<Integer, Integer> depthHistogram = new TreeMap<>();
+        private final Map<String, Integer> nodeCounts = new TreeMap<>();
+        private final Map<Integer, Integer> collisionHistogram = new TreeMap<>();
+        private int size;
+        private long fillUsed;
+        private long fillCapacity;
+        private int underfilledNodeCount;
+        private long estimatedBytes;
+
+        public Builder(@Nonnull Object collection)
+        {
+            name = collection.getClass().getSimpleName();
+        }
+
+        /**
+         * Counts node as one node of its class and adds bytes to the estimated size.
+         */
+        @Nonnull
+        public Builder addNode(@Nonnull Object node,
+                               long bytes)
+        {
+            nodeCounts.merge(node.getClass().getSimpleName(), 1, Integer::sum);
+            estimatedBytes += bytes;
+            return this;
+        }
+
+        /**
+         * Adds bytes that do not belong to any node to the estimated size.
+         */
+        @Nonnull
+        public Builder addBytes(long bytes)
+        {
+            estimatedBytes += bytes;
+            return this;
+        }
+
+        /**
+         * Records count values stored at the specified depth.
+         */
+        @Nonnull
+        public Builder addValues(int depth,
+                                 int count)
+        {
+            if (count > 0) {
+                depthHistogram.merge(depth, count, Integer::sum);
+                size += count;
+            }
+            return this;
+        }
+
+        /**
+         * Records a hash bucket containing length keys.
+         */
+        @Nonnull
+        public Builder addCollisionGroup(int length)
+        {
+            collisionHistogram.merge(length, 1, Integer::sum);
+            return this;
+        }
+
+        /**
+         * Records a bottom level node using used of its capacity slots.
+         */
+        @Nonnull
+        public Builder addFill(int used,
+                               int capacity)
+        {
+            fillUsed += used;
+            fillCapacity += capacity;
+            if (2 * used < capacity) {
+                underfilledNodeCount += 1;
+            }
+            return this;
+        }
+
+        @Nonnull
+        public StructureStats build()
+        {
+            return new StructureStats(this);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.cursors;
+
+import org.javimmutable.collections.Cursor;
+import org.javimmutable.collections.Func1;
+import org.javimmutable.collections.Holder;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.MapChange;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Utility methods for producing Cursors over the MapChanges needed to transform one set
+ * of map entries into another.  The entries are visited lazily so even very large
+ * differences are never collected in memory.
+ */
+@Immutable
+public final class DiffCursor
+{
+    private DiffCursor()
+    {
+    }
+
+    /**
+     * Creates a Cursor that visits the changes needed to turn the old entries into the new entries.
+     * Each old entry is looked up using newLookup to find REMOVED and CHANGED entries and each new
+     * entry is looked up using oldLookup to find ADDED entries.  Values are compared using equals().
+     */
+    @Nonnull
+    public static <K, V> Cursor<MapChange<K, V>> of(@Nonnull Iterable<JImmutableMap.Entry<K, V>> oldEntries,
+                                                    @Nonnull Func1<K, Holder<V>> oldLookup,
+                                                    @Nonnull Iterable<JImmutableMap.Entry<K, V>> newEntries,
+                                                    @Nonnull Func1<K, Holder<V>> newLookup)
+    {
+        return IterableCursor.of(() -> new DiffIterator<>(oldEntries.iterator(), oldLookup, newEntries, newLookup));
+    }
+
+    /**
+     * Creates a Cursor that reports every entry visited by entries as ADDED.
+     */
+    @Nonnull
+    public static <K, V> Cursor<MapChange<K, V>> added(@Nonnull Cursor<JImmutableMap.Entry<K, V>> entries)
+    {
+        return TransformCursor.of(entries, e -> MapChange.added(e.getKey(), e.getValue()));
+    }
+
+    /**
+     * Creates a Cursor that reports every entry visited by entries as REMOVED.
+     */
+    @Nonnull
+    public static <K, V> Cursor<MapChange<K, V>> removed(@Nonnull Cursor<JImmutableMap.Entry<K, V>> entries)
+    {
+        return TransformCursor.of(entries, e -> MapChange.removed(e.getKey(), e.getValue()));
+    }
+
+    private static class DiffIterator<K, V>
+        implements Iterator<MapChange<K, V>>
+    {
+        private final Func1<K, Holder<V>> oldLookup;
+        private final Iterable<JImmutableMap.Entry<K, V>> newEntries;
+        private final Func1<K, Holder<V>> newLookup;
+        private final Iterator<JImmutableMap.Entry<K, V>> oldIterator;
+        private Iterator<JImmutableMap.Entry<K, V>> newIterator;
+        private MapChange<K, V> nextChange;
+
+        private DiffIterator(@Nonnull Iterator<JImmutableMap.Entry<K, V>> oldIterator,
+                             @Nonnull Func1<K, Holder<V>> oldLookup,
+                             @Nonnull Iterable<JImmutableMap.Entry<K, V>> newEntries,
+                             @Nonnull Func1<K, Holder<V>> newLookup)
+        {
+            this.oldIterator = oldIterator;
+            this.oldLookup = oldLookup;
+            this.newEntries = newEntries;
+            this.newLookup = newLookup;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            while ((nextChange == null) && oldIterator.hasNext()) {
+                final JImmutableMap.Entry<K, V> entry = oldIterator.next();
+                final Holder<V> newValue = newLookup.apply(entry.getKey());
+                if (newValue.isEmpty()) {
+                    nextChange = MapChange.removed(entry.getKey(), entry.getValue());
+                } else if (!Objects.equals(entry.getValue(), newValue.getValue())) {
+                    nextChange = MapChange.changed(entry.getKey(), entry.getValue(), newValue.getValue());
+                }
+            }
+            if ((nextChange == null) && (newIterator == null)) {
+                newIterator = newEntries.iterator();
+            }
+            while ((nextChange == null) && newIterator.hasNext()) {
+                final JImmutableMap.Entry<K, V> entry = newIterator.next();
+                if (oldLookup.apply(entry.getKey()).isEmpty()) {
+                    nextChange = MapChange.added(entry.getKey(), entry.getValue());
+                }
+            }
+            return nextChange != null;
+        }
+
+        @Override
+        public MapChange<K, V> next()
+        {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final MapChange<K, V> answer = nextChange;
+            nextChange = null;
+            return answer;
+        }
+    }
+}
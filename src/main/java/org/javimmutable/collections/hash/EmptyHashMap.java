@@ -36,6 +36,9 @@
 package org.javimmutable.collections.hash;
 
 import org.javimmutable.collections.Cursor;
+import org.javimmutable.collections.Func2;
+import org.javimmutable.collections.HashStrategies;
+import org.javimmutable.collections.HashStrategy;
 import org.javimmutable.collections.Holder;
 import org.javimmutable.collections.Holders;
 import org.javimmutable.collections.JImmutableMap;
@@ -43,10 +46,13 @@ import org.javimmutable.collections.SplitableIterator;
 import org.javimmutable.collections.common.AbstractJImmutableMap;
 import org.javimmutable.collections.common.StreamConstants;
 import org.javimmutable.collections.cursors.StandardCursor;
+import org.javimmutable.collections.hash.collision_map.CollisionMap;
+import org.javimmutable.collections.hash.collision_map.SecondaryHashCollisionMap;
 import org.javimmutable.collections.iterators.EmptyIterator;
 import org.javimmutable.collections.serialization.JImmutableHashMapProxy;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 import java.io.Serializable;
 
@@ -54,18 +60,72 @@ import java.io.Serializable;
  * Singleton implementation of JImmutableMap that contains no elements.
  * When a value is assigned to the map a JImmutableHashMap is created that
  * manages hash collisions using a tree if key is Comparable or a list otherwise.
+ * A second instance exists for creating maps that use the compact node layout.
+ * Additional instances are created for maps using a non-standard HashStrategy.
+ * If the strategy provides a secondary hash it is used in place of a list to
+ * manage collisions for keys that are not Comparable.
  */
 @Immutable
 public class EmptyHashMap<K, V>
     extends AbstractJImmutableMap<K, V>
     implements Serializable
 {
-    static final EmptyHashMap INSTANCE = new EmptyHashMap();
+    static final EmptyHashMap INSTANCE = new EmptyHashMap<>(false, HashStrategies.standard());
+    static final EmptyHashMap COMPACT_INSTANCE = new EmptyHashMap<>(true, HashStrategies.standard());
 
     private static final long serialVersionUID = -121805;
 
-    private EmptyHashMap()
+    private final boolean compact;
+    private final HashStrategy<K> hashStrategy;
+    @Nullable
+    private final CollisionMap secondaryCollisionMap;
+
+    private EmptyHashMap(boolean compact,
+                         @Nonnull HashStrategy<K> hashStrategy)
+    {
+        this.compact = compact;
+        this.hashStrategy = hashStrategy;
+        this.secondaryCollisionMap = hashStrategy.hasSecondaryHash() ? new SecondaryHashCollisionMap<>(hashStrategy) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    static <K, V> EmptyHashMap<K, V> of(boolean compact,
+                                        @Nonnull HashStrategy<K> hashStrategy)
     {
+        if (hashStrategy == HashStrategies.standard()) {
+            return compact ? COMPACT_INSTANCE : INSTANCE;
+        } else {
+            return new EmptyHashMap<>(compact, hashStrategy);
+        }
+    }
+
+    /**
+     * Returns an empty Transient for efficiently building a new map.  Transients for the
+     * compact layout do not edit nodes in place and simply apply each change to an
+     * immutable compact map.
+     */
+    @Nonnull
+    public JImmutableHashMap.Transient<K, V> toTransient()
+    {
+        return JImmutableHashMap.Transient.forEmpty(this);
+    }
+
+    /**
+     * Determines whether maps created by assigning values to this map use the compact node layout.
+     */
+    public boolean isCompact()
+    {
+        return compact;
+    }
+
+    /**
+     * Returns the HashStrategy used by maps created by assigning values to this map.
+     */
+    @Nonnull
+    public HashStrategy<K> getHashStrategy()
+    {
+        return hashStrategy;
     }
 
     @Nonnull
@@ -87,7 +147,30 @@ public class EmptyHashMap<K, V>
     public JImmutableMap<K, V> assign(@Nonnull K key,
                                       V value)
     {
-        return JImmutableHashMap.<K, V>forKey(key).assign(key, value);
+        return emptyForKey(key).assign(key, value);
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableMap<K, V> assignAll(@Nonnull JImmutableMap<? extends K, ? extends V> map)
+    {
+        if ((map instanceof JImmutableHashMap) && !map.isEmpty()) {
+            return emptyForKey(map.iterator().next().getKey()).assignAll(map);
+        } else {
+            return super.assignAll(map);
+        }
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableMap<K, V> merge(@Nonnull JImmutableMap<K, V> map,
+                                     @Nonnull Func2<V, V, V> merger)
+    {
+        if ((map instanceof JImmutableHashMap) && !map.isEmpty()) {
+            return emptyForKey(map.iterator().next().getKey()).merge(map, merger);
+        } else {
+            return super.merge(map, merger);
+        }
     }
 
     @Nonnull
@@ -143,6 +226,27 @@ public class EmptyHashMap<K, V>
         //TODO: fix empty checkInvariants()
     }
 
+    /**
+     * Selects the collision handling strategy for a map whose first key is key.
+     */
+    @Nonnull
+    CollisionMap collisionMapForKey(@Nonnull K key)
+    {
+        if (key instanceof Comparable) {
+            return JImmutableHashMap.TREE_COLLISION_MAP;
+        } else if (secondaryCollisionMap != null) {
+            return secondaryCollisionMap;
+        } else {
+            return JImmutableHashMap.LIST_COLLISION_MAP;
+        }
+    }
+
+    @Nonnull
+    private JImmutableMap<K, V> emptyForKey(@Nonnull K key)
+    {
+        return JImmutableHashMap.emptyFor(compact, collisionMapForKey(key), hashStrategy);
+    }
+
     private Object writeReplace()
     {
         return new JImmutableHashMapProxy(this);
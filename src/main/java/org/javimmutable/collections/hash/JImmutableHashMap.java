@@ -37,23 +37,38 @@ package org.javimmutable.collections.hash;
 
 import org.javimmutable.collections.Cursor;
 import org.javimmutable.collections.Func1;
+import org.javimmutable.collections.Func2;
+import org.javimmutable.collections.HashStrategies;
+import org.javimmutable.collections.HashStrategy;
 import org.javimmutable.collections.Holder;
 import org.javimmutable.collections.Holders;
 import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.MapChange;
 import org.javimmutable.collections.MapEntry;
+import org.javimmutable.collections.MutableBuilder;
 import org.javimmutable.collections.SplitableIterator;
 import org.javimmutable.collections.common.AbstractJImmutableMap;
+import org.javimmutable.collections.common.BatchLookup;
 import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.common.StructureStats;
 import org.javimmutable.collections.hash.collision_map.CollisionMap;
 import org.javimmutable.collections.hash.collision_map.ListCollisionMap;
 import org.javimmutable.collections.hash.collision_map.TreeCollisionMap;
+import org.javimmutable.collections.hash.hamt.HamtCompactNode;
 import org.javimmutable.collections.hash.hamt.HamtEmptyNode;
+import org.javimmutable.collections.hash.hamt.HamtMergeCounts;
 import org.javimmutable.collections.hash.hamt.HamtNode;
+import org.javimmutable.collections.hash.hamt.HamtTransient;
 import org.javimmutable.collections.serialization.JImmutableHashMapProxy;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
 import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 
 @Immutable
 public class JImmutableHashMap<T, K, V>
@@ -68,25 +83,36 @@ public class JImmutableHashMap<T, K, V>
 
     // this is safe since the transformations object works for any possible K and V
     @SuppressWarnings("unchecked")
-    static final JImmutableHashMap LIST_EMPTY = new JImmutableHashMap(HamtEmptyNode.of(), 0, LIST_COLLISION_MAP);
+    static final JImmutableHashMap LIST_EMPTY = new JImmutableHashMap(HamtEmptyNode.of(), 0, LIST_COLLISION_MAP, HashStrategies.standard());
 
     // this is safe since the transformations object works for any possible K and V
     @SuppressWarnings("unchecked")
-    static final JImmutableHashMap TREE_EMPTY = new JImmutableHashMap(HamtEmptyNode.of(), 0, TREE_COLLISION_MAP);
+    static final JImmutableHashMap TREE_EMPTY = new JImmutableHashMap(HamtEmptyNode.of(), 0, TREE_COLLISION_MAP, HashStrategies.standard());
+
+    // this is safe since the transformations object works for any possible K and V
+    @SuppressWarnings("unchecked")
+    static final JImmutableHashMap COMPACT_LIST_EMPTY = new JImmutableHashMap(HamtCompactNode.of(), 0, LIST_COLLISION_MAP, HashStrategies.standard());
+
+    // this is safe since the transformations object works for any possible K and V
+    @SuppressWarnings("unchecked")
+    static final JImmutableHashMap COMPACT_TREE_EMPTY = new JImmutableHashMap(HamtCompactNode.of(), 0, TREE_COLLISION_MAP, HashStrategies.standard());
 
     private static final long serialVersionUID = -121805;
 
     private final HamtNode<T, K, V> root;
     private final int size;
     private final CollisionMap<T, K, V> collisionMap;
+    private final HashStrategy<K> hashStrategy;
 
-    private JImmutableHashMap(HamtNode<T, K, V> root,
-                              int size,
-                              CollisionMap<T, K, V> collisionMap)
+    JImmutableHashMap(HamtNode<T, K, V> root,
+                      int size,
+                      CollisionMap<T, K, V> collisionMap,
+                      HashStrategy<K> hashStrategy)
     {
         this.root = root;
         this.size = size;
         this.collisionMap = collisionMap;
+        this.hashStrategy = hashStrategy;
     }
 
     /**
@@ -145,18 +171,148 @@ public class JImmutableHashMap<T, K, V>
         return (JImmutableMap<K, V>)TREE_EMPTY;
     }
 
+    /**
+     * Returns an empty hash map that uses the compact (CHAMP style) node layout.  Compact maps store
+     * entries inline in their parent node rather than in separate leaf nodes which reduces the number
+     * of objects per entry and the number of pointers followed during lookups and iteration.
+     * As with of() the collision handling strategy is selected on the first call to assign().
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> EmptyHashMap<K, V> compactOf()
+    {
+        return EmptyHashMap.COMPACT_INSTANCE;
+    }
+
+    /**
+     * Returns an empty compact map using the appropriate collision handling strategy for the given key's
+     * class.  All keys used with that map should derive from the specified key's class to avoid runtime
+     * problems with incompatible keys.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> JImmutableMap<K, V> compactForKey(K key)
+    {
+        return (key instanceof Comparable) ? COMPACT_TREE_EMPTY : COMPACT_LIST_EMPTY;
+    }
+
+    /**
+     * Returns an empty compact map using linked lists for handling hash code collisions.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> JImmutableMap<K, V> compactUsingList()
+    {
+        return (JImmutableMap<K, V>)COMPACT_LIST_EMPTY;
+    }
+
+    /**
+     * Returns an empty compact map using trees for handling hash code collisions.  Keys must
+     * implement Comparable and be able to compare themselves to all other keys.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K extends Comparable<K>, V> JImmutableMap<K, V> compactUsingTree()
+    {
+        return (JImmutableMap<K, V>)COMPACT_TREE_EMPTY;
+    }
+
+    /**
+     * Returns an empty hash map that uses the specified HashStrategy to compute the hash codes of
+     * its keys.  As with of() the collision handling strategy is selected on the first call to assign().
+     * Keys that do not implement Comparable use the strategy's secondary hash (if it has one) to
+     * handle collisions efficiently.  Maps returned by deleteAll() retain the strategy but
+     * it is not preserved by serialization.
+     */
+    @Nonnull
+    public static <K, V> EmptyHashMap<K, V> usingStrategy(@Nonnull HashStrategy<K> hashStrategy)
+    {
+        return EmptyHashMap.of(false, hashStrategy);
+    }
+
+    /**
+     * Returns an empty compact hash map that uses the specified HashStrategy to compute the hash
+     * codes of its keys.
+     *
+     * @see #usingStrategy(HashStrategy)
+     */
+    @Nonnull
+    public static <K, V> EmptyHashMap<K, V> compactUsingStrategy(@Nonnull HashStrategy<K> hashStrategy)
+    {
+        return EmptyHashMap.of(true, hashStrategy);
+    }
+
+    /**
+     * Returns an empty Transient for efficiently building a new map.  As with of() the
+     * collision handling strategy is selected based on the first key assigned to the Transient.
+     * The Transient builds a map with the standard node layout so its nodes are edited in place.
+     */
+    @Nonnull
+    public static <K, V> Transient<K, V> builder()
+    {
+        return new Transient<>();
+    }
+
+    /**
+     * Builds a map containing all of the entries in the stream using multiple threads of the
+     * common ForkJoinPool.  If a key appears more than once the last value encountered for it
+     * is stored in the map.  As with of() the collision handling strategy is selected based on
+     * the first key encountered.
+     *
+     * @see #fromParallel(EmptyHashMap, Stream, ForkJoinPool)
+     */
+    @Nonnull
+    public static <K, V> JImmutableMap<K, V> fromParallel(@Nonnull Stream<? extends JImmutableMap.Entry<K, V>> entries)
+    {
+        return fromParallel(of(), entries, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Builds a map containing all of the entries in the stream using multiple threads.  The
+     * entries are first grouped by the lowest 5 bits of their hash codes (using the stream's
+     * own parallelism if it is a parallel stream).  Each group is then built into a separate
+     * tree by a task running in the specified pool and the trees are combined into the final
+     * map.  The resulting map uses the same layout and hash strategy as emptyMap.  If a key
+     * appears more than once the last value encountered for it is stored in the map.
+     */
+    @Nonnull
+    public static <K, V> JImmutableMap<K, V> fromParallel(@Nonnull EmptyHashMap<K, V> emptyMap,
+                                                          @Nonnull Stream<? extends JImmutableMap.Entry<K, V>> entries,
+                                                          @Nonnull ForkJoinPool pool)
+    {
+        return ParallelHashMapBuilder.build(emptyMap, entries, pool);
+    }
+
+    /**
+     * Returns a Transient initially containing all of the entries in this map.  Changes made
+     * to the Transient do not affect this map.  If this map uses the compact layout the
+     * Transient cannot edit nodes in place and simply applies each change to an immutable
+     * compact map.
+     */
+    @Nonnull
+    public Transient<K, V> toTransient()
+    {
+        return new Transient<>(this);
+    }
+
     @Override
     public V getValueOr(K key,
                         V defaultValue)
     {
-        return root.getValueOr(collisionMap, key.hashCode(), key, defaultValue);
+        return root.getValueOr(collisionMap, hashStrategy.hash(key), key, defaultValue);
+    }
+
+    @Nonnull
+    @Override
+    public List<V> getAll(@Nonnull Iterable<? extends K> keys,
+                          V defaultValue)
+    {
+        final BatchLookup<K, V> batch = BatchLookup.sortedByHashCode(keys, hashStrategy::hash, defaultValue);
+        root.getAll(collisionMap, batch, 0, batch.size(), 0);
+        return batch.values();
     }
 
     @Nonnull
     @Override
     public Holder<V> find(@Nonnull K key)
     {
-        return root.find(collisionMap, key.hashCode(), key);
+        return root.find(collisionMap, hashStrategy.hash(key), key);
     }
 
     @Nonnull
@@ -177,11 +333,11 @@ public class JImmutableHashMap<T, K, V>
                                       V value)
     {
         MutableDelta sizeDelta = new MutableDelta();
-        HamtNode<T, K, V> newRoot = root.assign(collisionMap, key.hashCode(), key, value, sizeDelta);
+        HamtNode<T, K, V> newRoot = root.assign(collisionMap, hashStrategy.hash(key), key, value, sizeDelta);
         if (newRoot == root) {
             return this;
         } else {
-            return new JImmutableHashMap<>(newRoot, size + sizeDelta.getValue(), collisionMap);
+            return new JImmutableHashMap<>(newRoot, size + sizeDelta.getValue(), collisionMap, hashStrategy);
         }
     }
 
@@ -191,11 +347,11 @@ public class JImmutableHashMap<T, K, V>
                                       @Nonnull Func1<Holder<V>, V> generator)
     {
         MutableDelta sizeDelta = new MutableDelta();
-        HamtNode<T, K, V> newRoot = root.update(collisionMap, key.hashCode(), key, generator, sizeDelta);
+        HamtNode<T, K, V> newRoot = root.update(collisionMap, hashStrategy.hash(key), key, generator, sizeDelta);
         if (newRoot == root) {
             return this;
         } else {
-            return new JImmutableHashMap<>(newRoot, size + sizeDelta.getValue(), collisionMap);
+            return new JImmutableHashMap<>(newRoot, size + sizeDelta.getValue(), collisionMap, hashStrategy);
         }
     }
 
@@ -204,13 +360,91 @@ public class JImmutableHashMap<T, K, V>
     public JImmutableMap<K, V> delete(@Nonnull K key)
     {
         MutableDelta sizeDelta = new MutableDelta();
-        HamtNode<T, K, V> newRoot = root.delete(collisionMap, key.hashCode(), key, sizeDelta);
+        HamtNode<T, K, V> newRoot = root.delete(collisionMap, hashStrategy.hash(key), key, sizeDelta);
         if (newRoot == root) {
             return this;
         } else if (newRoot.isEmpty()) {
-            return of();
+            return emptyMap();
         } else {
-            return new JImmutableHashMap<>(newRoot, size + sizeDelta.getValue(), collisionMap);
+            return new JImmutableHashMap<>(newRoot, size + sizeDelta.getValue(), collisionMap, hashStrategy);
+        }
+    }
+
+    /**
+     * Deletes all of the specified keys.  The keys are sorted by hash path so that every
+     * node on the paths to the deleted keys is copied only once.
+     */
+    @Nonnull
+    @Override
+    public JImmutableMap<K, V> deleteAll(@Nonnull Iterable<? extends K> keys)
+    {
+        final BatchLookup<K, V> batch = BatchLookup.sortedByHashCode(keys, hashStrategy::hash, null);
+        final MutableDelta sizeDelta = new MutableDelta();
+        final HamtNode<T, K, V> newRoot = root.deleteAll(collisionMap, batch, 0, batch.size(), 0, sizeDelta);
+        if (newRoot == root) {
+            return this;
+        } else if (newRoot.isEmpty()) {
+            return emptyMap();
+        } else {
+            return new JImmutableHashMap<>(newRoot, size + sizeDelta.getValue(), collisionMap, hashStrategy);
+        }
+    }
+
+    /**
+     * Copies all entries from the other map.  If the other map is a JImmutableHashMap using the
+     * same node layout and collision handling strategy the two trees are merged node by node.
+     * Subtrees present in only one map are reused intact and subtrees shared by both maps are
+     * skipped entirely.  Neither kind of subtree is visited unless a single merge encounters
+     * both kinds, in which case the reused subtrees are walked to count their entries.
+     * Otherwise the entries are assigned one at a time.
+     */
+    @Nonnull
+    @Override
+    public JImmutableMap<K, V> assignAll(@Nonnull JImmutableMap<? extends K, ? extends V> map)
+    {
+        if (isMergeableWith(map)) {
+            return mergeNodes(map, null);
+        } else {
+            return super.assignAll(map);
+        }
+    }
+
+    /**
+     * Combines the entries of the two maps.  If the other map is a JImmutableHashMap using the
+     * same node layout and collision handling strategy the two trees are merged node by node
+     * and subtrees present in only one map are reused intact.  Unlike assignAll() subtrees
+     * shared by both maps are still visited since the merger is called for every key
+     * bound in both maps.
+     */
+    @Nonnull
+    @Override
+    public JImmutableMap<K, V> merge(@Nonnull JImmutableMap<K, V> map,
+                                     @Nonnull Func2<V, V, V> merger)
+    {
+        if (isMergeableWith(map)) {
+            return mergeNodes(map, merger);
+        } else {
+            return super.merge(map, merger);
+        }
+    }
+
+    /**
+     * Produces the changes needed to turn this map into the other map.  If the other map is a
+     * JImmutableHashMap using the same node layout and collision handling strategy the two trees
+     * are compared node by node and subtrees shared by both maps are skipped entirely.  This makes
+     * comparing two versions of the same map proportional to the number of differences rather
+     * than to the size of the maps.
+     */
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    @Override
+    public Cursor<MapChange<K, V>> diff(@Nonnull JImmutableMap<K, V> map)
+    {
+        if (isMergeableWith(map)) {
+            final JImmutableHashMap<T, K, V> other = (JImmutableHashMap<T, K, V>)map;
+            return root.diff(collisionMap, other.root);
+        } else {
+            return super.diff(map);
         }
     }
 
@@ -224,7 +458,7 @@ public class JImmutableHashMap<T, K, V>
     @Override
     public JImmutableMap<K, V> deleteAll()
     {
-        return of();
+        return emptyMap();
     }
 
     @Override
@@ -247,14 +481,264 @@ public class JImmutableHashMap<T, K, V>
         root.checkInvariants();
     }
 
+    /**
+     * Walks the entire tree and returns statistics describing its shape.  Useful for finding
+     * keys whose hash codes collide or cluster into long paths.  Takes time proportional to
+     * the size of the map.
+     */
+    @Nonnull
+    public StructureStats stats()
+    {
+        final StructureStats.Builder stats = new StructureStats.Builder(this);
+        stats.addBytes(StructureStats.objectBytes(3, StructureStats.INT_BYTES));
+        root.collectStats(collisionMap, stats, 0);
+        return stats.build();
+    }
+
+    /**
+     * Determines whether this map uses the compact node layout.
+     */
+    public boolean isCompact()
+    {
+        return root instanceof HamtCompactNode;
+    }
+
+    /**
+     * Returns the HashStrategy used to compute the hash codes of this map's keys.
+     */
+    @Nonnull
+    public HashStrategy<K> getHashStrategy()
+    {
+        return hashStrategy;
+    }
+
+    private JImmutableMap<K, V> emptyMap()
+    {
+        return EmptyHashMap.of(isCompact(), hashStrategy);
+    }
+
+    /**
+     * Returns an empty map using the specified layout, collision map, and hash strategy.  The shared
+     * empty instances are used whenever possible.
+     */
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    static <K, V> JImmutableMap<K, V> emptyFor(boolean compact,
+                                               @Nonnull CollisionMap collisionMap,
+                                               @Nonnull HashStrategy<K> hashStrategy)
+    {
+        if (hashStrategy == HashStrategies.standard()) {
+            if (collisionMap == TREE_COLLISION_MAP) {
+                return compact ? COMPACT_TREE_EMPTY : TREE_EMPTY;
+            } else if (collisionMap == LIST_COLLISION_MAP) {
+                return compact ? COMPACT_LIST_EMPTY : LIST_EMPTY;
+            }
+        }
+        return new JImmutableHashMap<>(compact ? HamtCompactNode.of() : HamtEmptyNode.of(), 0, collisionMap, hashStrategy);
+    }
+
     // for unit test to verify proper transforms selected
     CollisionMap getCollisionMap()
     {
         return collisionMap;
     }
 
+    private boolean isMergeableWith(@Nonnull JImmutableMap<?, ?> map)
+    {
+        if (map instanceof JImmutableHashMap) {
+            final JImmutableHashMap<?, ?, ?> other = (JImmutableHashMap<?, ?, ?>)map;
+            return other.collisionMap.equals(collisionMap) && other.hashStrategy.equals(hashStrategy) && (other.isCompact() == isCompact());
+        } else {
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private JImmutableMap<K, V> mergeNodes(@Nonnull JImmutableMap<?, ?> map,
+                                           @Nullable Func2<V, V, V> merger)
+    {
+        final JImmutableHashMap<T, K, V> other = (JImmutableHashMap<T, K, V>)map;
+        if (other.size == 0) {
+            return this;
+        } else if (size == 0) {
+            return other;
+        }
+        final HamtMergeCounts<T, K, V> counts = new HamtMergeCounts<>(collisionMap);
+        final HamtNode<T, K, V> newRoot = root.merge(collisionMap, other.root, merger, counts);
+        if (newRoot == root) {
+            return this;
+        } else if (newRoot == other.root) {
+            return other;
+        } else {
+            return new JImmutableHashMap<>(newRoot, size + counts.sizeDelta(other.size), collisionMap, hashStrategy);
+        }
+    }
+
     private Object writeReplace()
     {
         return new JImmutableHashMapProxy(this);
     }
+
+    /**
+     * Editable version of a JImmutableHashMap.  Rather than path copying the tree for
+     * every change a Transient modifies any nodes it has created in place.  Nodes shared
+     * with an existing map are copied the first time a change touches them and are never
+     * modified.  Call freeze() (or build()) to obtain an immutable map containing the
+     * current entries.  The Transient remains usable after freeze() and further changes
+     * do not affect previously frozen maps.
+     * <p>
+     * Only the standard node layout is edited in place.  A Transient created from a compact
+     * map applies each change to an immutable compact map using its normal assign() and
+     * delete() methods so it allocates as much as changing the map directly would.
+     */
+    @NotThreadSafe
+    public static class Transient<K, V>
+        implements MutableBuilder<Entry<K, V>, JImmutableMap<K, V>>
+    {
+        private EmptyHashMap<K, V> emptyMap;
+        private HashStrategy<K> hashStrategy;
+        private CollisionMap<Object, K, V> collisionMap;
+        private HamtTransient<Object, K, V> hamt;
+        private int baseSize;
+        private JImmutableMap<K, V> compactMap;
+
+        private Transient()
+        {
+            this(JImmutableHashMap.<K, V>of());
+        }
+
+        @SuppressWarnings("unchecked")
+        private Transient(@Nonnull JImmutableHashMap<?, K, V> map)
+        {
+            if (map.isCompact()) {
+                compactMap = map;
+            } else {
+                emptyMap = EmptyHashMap.of(false, map.hashStrategy);
+                hashStrategy = map.hashStrategy;
+                collisionMap = (CollisionMap<Object, K, V>)map.collisionMap;
+                hamt = new HamtTransient<>(collisionMap, (HamtNode<Object, K, V>)map.root);
+                baseSize = map.size;
+            }
+        }
+
+        private Transient(@Nonnull EmptyHashMap<K, V> emptyMap)
+        {
+            if (emptyMap.isCompact()) {
+                compactMap = emptyMap;
+            } else {
+                this.emptyMap = emptyMap;
+                hashStrategy = emptyMap.getHashStrategy();
+            }
+        }
+
+        @Override
+        public int size()
+        {
+            if (compactMap != null) {
+                return compactMap.size();
+            }
+            return (hamt == null) ? 0 : baseSize + hamt.getSizeDelta();
+        }
+
+        @Nonnull
+        @Override
+        public Transient<K, V> add(Entry<K, V> value)
+        {
+            return assign(value.getKey(), value.getValue());
+        }
+
+        @Nonnull
+        public Transient<K, V> assign(@Nonnull K key,
+                                      V value)
+        {
+            if (compactMap != null) {
+                compactMap = compactMap.assign(key, value);
+                return this;
+            }
+            hamtForKey(key).assign(hashStrategy.hash(key), key, value);
+            return this;
+        }
+
+        @Nonnull
+        public Transient<K, V> update(@Nonnull K key,
+                                      @Nonnull Func1<Holder<V>, V> generator)
+        {
+            if (compactMap != null) {
+                compactMap = compactMap.update(key, generator);
+                return this;
+            }
+            hamtForKey(key).update(hashStrategy.hash(key), key, generator);
+            return this;
+        }
+
+        @Nonnull
+        public Transient<K, V> delete(@Nonnull K key)
+        {
+            if (compactMap != null) {
+                compactMap = compactMap.delete(key);
+            } else if (hamt != null) {
+                hamt.delete(hashStrategy.hash(key), key);
+            }
+            return this;
+        }
+
+        @Nonnull
+        public Holder<V> find(@Nonnull K key)
+        {
+            if (compactMap != null) {
+                return compactMap.find(key);
+            }
+            return (hamt == null) ? Holders.of() : hamt.find(hashStrategy.hash(key), key);
+        }
+
+        public V getValueOr(@Nonnull K key,
+                            V defaultValue)
+        {
+            if (compactMap != null) {
+                return compactMap.getValueOr(key, defaultValue);
+            }
+            return (hamt == null) ? defaultValue : hamt.getValueOr(hashStrategy.hash(key), key, defaultValue);
+        }
+
+        /**
+         * Produces an immutable map containing all of the current entries.
+         */
+        @Nonnull
+        public JImmutableMap<K, V> freeze()
+        {
+            if (compactMap != null) {
+                return compactMap;
+            }
+            final int size = size();
+            if (size == 0) {
+                return emptyMap;
+            } else {
+                return new JImmutableHashMap<>(hamt.freeze(), size, collisionMap, hashStrategy);
+            }
+        }
+
+        @Nonnull
+        @Override
+        public JImmutableMap<K, V> build()
+        {
+            return freeze();
+        }
+
+        @Nonnull
+        static <K, V> Transient<K, V> forEmpty(@Nonnull EmptyHashMap<K, V> emptyMap)
+        {
+            return new Transient<>(emptyMap);
+        }
+
+        @SuppressWarnings("unchecked")
+        private HamtTransient<Object, K, V> hamtForKey(@Nonnull K key)
+        {
+            if (hamt == null) {
+                collisionMap = emptyMap.collisionMapForKey(key);
+                hamt = new HamtTransient<>(collisionMap, HamtEmptyNode.of());
+            }
+            return hamt;
+        }
+    }
 }
@@ -35,13 +35,17 @@
 
 package org.javimmutable.collections.hash;
 
+import org.javimmutable.collections.HashStrategies;
+import org.javimmutable.collections.HashStrategy;
 import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.MutableBuilder;
 import org.javimmutable.collections.JImmutableSet;
 import org.javimmutable.collections.common.AbstractJImmutableSet;
 import org.javimmutable.collections.serialization.JImmutableHashSetProxy;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
 import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
@@ -53,6 +57,8 @@ public class JImmutableHashSet<T>
 {
     @SuppressWarnings("unchecked")
     private static final JImmutableHashSet EMPTY = new JImmutableHashSet(JImmutableHashMap.of());
+    @SuppressWarnings("unchecked")
+    private static final JImmutableHashSet COMPACT_EMPTY = new JImmutableHashSet(JImmutableHashMap.compactOf());
     private static final long serialVersionUID = -121805;
 
     private JImmutableHashSet(JImmutableMap<T, Boolean> map)
@@ -66,11 +72,112 @@ public class JImmutableHashSet<T>
         return (JImmutableHashSet<T>)EMPTY;
     }
 
+    /**
+     * Returns an empty set that uses the compact (CHAMP style) node layout.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> JImmutableHashSet<T> compactOf()
+    {
+        return (JImmutableHashSet<T>)COMPACT_EMPTY;
+    }
+
+    /**
+     * Returns an empty set that uses the specified HashStrategy to compute the hash codes of its values.
+     *
+     * @see JImmutableHashMap#usingStrategy(HashStrategy)
+     */
+    @Nonnull
+    public static <T> JImmutableHashSet<T> usingStrategy(@Nonnull HashStrategy<T> hashStrategy)
+    {
+        return (hashStrategy == HashStrategies.standard()) ? of() : new JImmutableHashSet<>(JImmutableHashMap.usingStrategy(hashStrategy));
+    }
+
+    /**
+     * Returns an empty Transient for efficiently building a new set.
+     */
+    @Nonnull
+    public static <T> Transient<T> builder()
+    {
+        return new Transient<>(JImmutableHashMap.builder());
+    }
+
+    /**
+     * Returns a Transient initially containing all of the values in this set.  Changes made
+     * to the Transient do not affect this set.  As with JImmutableHashMap.toTransient() a
+     * Transient for a compact set does not edit nodes in place.
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    public Transient<T> toTransient()
+    {
+        if (map instanceof JImmutableHashMap) {
+            return new Transient<>(((JImmutableHashMap<?, T, Boolean>)map).toTransient());
+        } else {
+            return new Transient<>(((EmptyHashMap<T, Boolean>)map).toTransient());
+        }
+    }
+
+    /**
+     * Determines whether this set uses the compact node layout.
+     */
+    public boolean isCompact()
+    {
+        if (map instanceof JImmutableHashMap) {
+            return ((JImmutableHashMap)map).isCompact();
+        } else {
+            return ((EmptyHashMap)map).isCompact();
+        }
+    }
+
+    /**
+     * Returns the HashStrategy used to compute the hash codes of this set's values.
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    public HashStrategy<T> getHashStrategy()
+    {
+        if (map instanceof JImmutableHashMap) {
+            return ((JImmutableHashMap<?, T, Boolean>)map).getHashStrategy();
+        } else {
+            return ((EmptyHashMap<T, Boolean>)map).getHashStrategy();
+        }
+    }
+
     @Nonnull
     @Override
     public JImmutableSet<T> deleteAll()
     {
-        return of();
+        if (getHashStrategy() != HashStrategies.standard()) {
+            return create(map.deleteAll());
+        }
+        return isCompact() ? compactOf() : of();
+    }
+
+    /**
+     * Adds all values from the other collection.  If the other collection is a JImmutableHashSet
+     * using the same node layout the two trees are merged node by node.
+     */
+    @Nonnull
+    @Override
+    public JImmutableSet<T> insertAll(@Nonnull Iterable<? extends T> values)
+    {
+        return union(values);
+    }
+
+    /**
+     * Adds all values from the other collection.  If the other collection is a JImmutableHashSet
+     * using the same node layout the two trees are merged node by node.
+     */
+    @Nonnull
+    @Override
+    public JImmutableSet<T> union(@Nonnull Iterable<? extends T> other)
+    {
+        if (other instanceof JImmutableHashSet) {
+            final JImmutableMap<T, Boolean> newMap = map.assignAll(((JImmutableHashSet<? extends T>)other).map);
+            return (newMap == map) ? this : create(newMap);
+        } else {
+            return super.union(other);
+        }
     }
 
     @Override
@@ -89,4 +196,64 @@ public class JImmutableHashSet<T>
     {
         return new JImmutableHashSetProxy(this);
     }
+
+    /**
+     * Editable version of a JImmutableHashSet.  Uses a JImmutableHashMap.Transient
+     * to modify its nodes in place.  Call freeze() (or build()) to obtain an immutable
+     * set containing the current values.
+     */
+    @NotThreadSafe
+    public static class Transient<T>
+        implements MutableBuilder<T, JImmutableSet<T>>
+    {
+        private final JImmutableHashMap.Transient<T, Boolean> map;
+
+        private Transient(@Nonnull JImmutableHashMap.Transient<T, Boolean> map)
+        {
+            this.map = map;
+        }
+
+        @Override
+        public int size()
+        {
+            return map.size();
+        }
+
+        @Nonnull
+        @Override
+        public Transient<T> add(T value)
+        {
+            map.assign(value, Boolean.TRUE);
+            return this;
+        }
+
+        @Nonnull
+        public Transient<T> delete(@Nonnull T value)
+        {
+            map.delete(value);
+            return this;
+        }
+
+        public boolean contains(@Nonnull T value)
+        {
+            return map.getValueOr(value, Boolean.FALSE);
+        }
+
+        /**
+         * Produces an immutable set containing all of the current values.
+         */
+        @Nonnull
+        public JImmutableSet<T> freeze()
+        {
+            final JImmutableMap<T, Boolean> frozen = map.freeze();
+            return (frozen == JImmutableHashMap.<T, Boolean>of()) ? of() : new JImmutableHashSet<>(frozen);
+        }
+
+        @Nonnull
+        @Override
+        public JImmutableSet<T> build()
+        {
+            return freeze();
+        }
+    }
 }
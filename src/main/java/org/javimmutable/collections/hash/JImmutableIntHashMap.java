@@ -0,0 +1,246 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.hash;
+
+import org.javimmutable.collections.Cursor;
+import org.javimmutable.collections.Holder;
+import org.javimmutable.collections.Holders;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.MapEntry;
+import org.javimmutable.collections.SplitableIterator;
+import org.javimmutable.collections.common.AbstractJImmutableMap;
+import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.hash.hamt.IntHamtNode;
+import org.javimmutable.collections.serialization.JImmutableIntHashMapProxy;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.io.Serializable;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * JImmutableMap implementation keyed by primitive int values.  Keys are stored as primitives
+ * inside the trie and the key itself serves as the hash code so lookups and updates
+ * using the int based methods never allocate Integer objects.  The methods inherited from
+ * JImmutableMap accept boxed keys and simply delegate to the primitive versions.
+ * Iteration order is determined by the bits of the keys and should not be relied upon.
+ */
+@Immutable
+public class JImmutableIntHashMap<V>
+    extends AbstractJImmutableMap<Integer, V>
+    implements Serializable
+{
+    @SuppressWarnings("unchecked")
+    private static final JImmutableIntHashMap EMPTY = new JImmutableIntHashMap(IntHamtNode.of(), 0);
+    private static final long serialVersionUID = -121805;
+
+    private final IntHamtNode<V> root;
+    private final int size;
+
+    private JImmutableIntHashMap(@Nonnull IntHamtNode<V> root,
+                                 int size)
+    {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> JImmutableIntHashMap<V> of()
+    {
+        return EMPTY;
+    }
+
+    @Nullable
+    public V get(int key)
+    {
+        return root.getValueOr(key, null);
+    }
+
+    /**
+     * Primitive key version of getValueOr().  Named differently from getValueOr(Integer, V) so that
+     * calls with a literal key are not ambiguous when V is itself a boxed number type.
+     */
+    public V getValueOrInt(int key,
+                           V defaultValue)
+    {
+        return root.getValueOr(key, defaultValue);
+    }
+
+    @Nonnull
+    public Holder<V> find(int key)
+    {
+        return root.find(key);
+    }
+
+    public boolean containsKey(int key)
+    {
+        return root.find(key).isFilled();
+    }
+
+    /**
+     * Primitive key version of assign().  Named differently from assign(Integer, V) so that
+     * calls with a literal key are not ambiguous when V is itself a boxed number type.
+     */
+    @Nonnull
+    public JImmutableIntHashMap<V> assignInt(int key,
+                                             V value)
+    {
+        final MutableDelta sizeDelta = new MutableDelta();
+        final IntHamtNode<V> newRoot = root.assign(key, value, sizeDelta);
+        if (newRoot == root) {
+            return this;
+        } else {
+            return new JImmutableIntHashMap<>(newRoot, size + sizeDelta.getValue());
+        }
+    }
+
+    @Nonnull
+    public JImmutableIntHashMap<V> delete(int key)
+    {
+        final MutableDelta sizeDelta = new MutableDelta();
+        final IntHamtNode<V> newRoot = root.delete(key, sizeDelta);
+        if (newRoot == root) {
+            return this;
+        } else if (newRoot.isEmpty()) {
+            return of();
+        } else {
+            return new JImmutableIntHashMap<>(newRoot, size + sizeDelta.getValue());
+        }
+    }
+
+    @Override
+    public V getValueOr(Integer key,
+                        V defaultValue)
+    {
+        return getValueOrInt(key.intValue(), defaultValue);
+    }
+
+    @Nonnull
+    @Override
+    public Holder<V> find(@Nonnull Integer key)
+    {
+        return find(key.intValue());
+    }
+
+    @Nonnull
+    @Override
+    public Holder<Entry<Integer, V>> findEntry(@Nonnull Integer key)
+    {
+        final Holder<V> value = find(key.intValue());
+        if (value.isEmpty()) {
+            return Holders.of();
+        } else {
+            return Holders.of(MapEntry.of(key, value.getValue()));
+        }
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableIntHashMap<V> assign(@Nonnull Integer key,
+                                          V value)
+    {
+        return assignInt(key.intValue(), value);
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableIntHashMap<V> delete(@Nonnull Integer key)
+    {
+        return delete(key.intValue());
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableIntHashMap<V> deleteAll()
+    {
+        return of();
+    }
+
+    /**
+     * Iterates over the keys of this map without boxing them.
+     */
+    @Nonnull
+    public PrimitiveIterator.OfInt intKeysIterator()
+    {
+        return root.keysIterator();
+    }
+
+    /**
+     * Streams the keys of this map without boxing them.
+     */
+    @Nonnull
+    public IntStream intKeysStream()
+    {
+        final Spliterator.OfInt spliterator = Spliterators.spliterator(intKeysIterator(), size, Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+        return StreamSupport.intStream(spliterator, false);
+    }
+
+    @Nonnull
+    @Override
+    public Cursor<Entry<Integer, V>> cursor()
+    {
+        return root.cursor();
+    }
+
+    @Nonnull
+    @Override
+    public SplitableIterator<Entry<Integer, V>> iterator()
+    {
+        return root.iterator();
+    }
+
+    @Override
+    public void checkInvariants()
+    {
+        root.checkInvariants();
+    }
+
+    private Object writeReplace()
+    {
+        return new JImmutableIntHashMapProxy(this);
+    }
+}
@@ -0,0 +1,121 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.hash;
+
+import org.javimmutable.collections.JImmutableMap;
+
+import java.util.Random;
+
+/**
+ * Measures memory use and throughput of either the standard or the compact hash map node layout.
+ * Memory use is estimated from the heap size after garbage collection so each layout should
+ * be measured in its own JVM with a fixed heap size and the serial collector
+ * (e.g. -XX:+UseSerialGC -Xms2g -Xmx2g) for stable numbers.
+ * <p>
+ * Arguments: standard|compact [size] [passes]
+ */
+public final class LayoutTimingComparison
+{
+    private LayoutTimingComparison()
+    {
+    }
+
+    public static void main(String[] args)
+    {
+        final boolean compact = (args.length > 0) && args[0].equals("compact");
+        final int size = (args.length > 1) ? Integer.parseInt(args[1]) : 1000000;
+        final int passes = (args.length > 2) ? Integer.parseInt(args[2]) : 3;
+        final Integer[] keys = new Integer[size];
+        final Random random = new Random(1000);
+        for (int i = 0; i < size; ++i) {
+            keys[i] = random.nextInt();
+        }
+        for (int pass = 1; pass <= passes; ++pass) {
+            run(compact ? "compact" : "standard", compact ? JImmutableHashMap.compactOf() : JImmutableHashMap.of(), keys);
+        }
+    }
+
+    private static void run(String name,
+                            JImmutableMap<Integer, Integer> map,
+                            Integer[] keys)
+    {
+        final long baseMemory = usedMemory();
+        long start = System.currentTimeMillis();
+        for (Integer key : keys) {
+            map = map.assign(key, key);
+        }
+        final long assignElapsed = System.currentTimeMillis() - start;
+        final long mapMemory = usedMemory() - baseMemory;
+
+        start = System.currentTimeMillis();
+        int found = 0;
+        for (Integer key : keys) {
+            if (map.getValueOr(key, null) != null) {
+                found += 1;
+            }
+        }
+        final long getElapsed = System.currentTimeMillis() - start;
+
+        start = System.currentTimeMillis();
+        int iterated = 0;
+        for (JImmutableMap.Entry<Integer, Integer> entry : map) {
+            if (entry.getValue() != null) {
+                iterated += 1;
+            }
+        }
+        final long iterateElapsed = System.currentTimeMillis() - start;
+
+        start = System.currentTimeMillis();
+        JImmutableMap<Integer, Integer> deleted = map;
+        for (Integer key : keys) {
+            deleted = deleted.delete(key);
+        }
+        final long deleteElapsed = System.currentTimeMillis() - start;
+
+        System.out.printf("%-8s size %d bytes/entry %.1f assign %d ms get %d ms iterate %d ms delete %d ms (%s)%n",
+                          name, map.size(), (double)mapMemory / map.size(), assignElapsed, getElapsed, iterateElapsed, deleteElapsed,
+                          (found == keys.length && iterated == map.size() && deleted.isEmpty()) ? "ok" : "MISMATCH");
+    }
+
+    private static long usedMemory()
+    {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; ++i) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,85 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.hash;
+
+import org.javimmutable.collections.JImmutableMap;
+
+import java.util.Random;
+
+/**
+ * Compares the time needed to overlay a delta map onto a large base map using
+ * one assign() per entry with the time needed using the structural assignAll().
+ */
+public final class MergeTimingLoop
+{
+    private MergeTimingLoop()
+    {
+    }
+
+    public static void main(String[] args)
+    {
+        final int size = (args.length > 0) ? Integer.parseInt(args[0]) : 1000000;
+        final int deltaSize = (args.length > 1) ? Integer.parseInt(args[1]) : 100000;
+        final int passes = (args.length > 2) ? Integer.parseInt(args[2]) : 5;
+        final Random random = new Random(1000);
+        final JImmutableHashMap.Transient<Integer, Integer> builder = JImmutableHashMap.builder();
+        for (int i = 0; i < size; ++i) {
+            builder.assign(random.nextInt(), i);
+        }
+        final JImmutableMap<Integer, Integer> base = builder.freeze();
+        JImmutableMap<Integer, Integer> delta = JImmutableHashMap.of();
+        for (int i = 0; i < deltaSize; ++i) {
+            delta = delta.assign(random.nextInt(), i);
+        }
+        for (int pass = 1; pass <= passes; ++pass) {
+            long start = System.currentTimeMillis();
+            JImmutableMap<Integer, Integer> assigned = base;
+            for (JImmutableMap.Entry<Integer, Integer> e : delta) {
+                assigned = assigned.assign(e.getKey(), e.getValue());
+            }
+            final long assignElapsed = System.currentTimeMillis() - start;
+
+            start = System.currentTimeMillis();
+            final JImmutableMap<Integer, Integer> merged = base.assignAll(delta);
+            final long mergeElapsed = System.currentTimeMillis() - start;
+
+            if (assigned.size() != merged.size()) {
+                throw new IllegalStateException("maps do not match");
+            }
+            System.out.printf("pass %d size %d assign %d ms merge %d ms%n", pass, merged.size(), assignElapsed, mergeElapsed);
+        }
+    }
+}
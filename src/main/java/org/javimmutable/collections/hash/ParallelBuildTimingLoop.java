@@ -0,0 +1,108 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.hash;
+
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.MapEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how the time needed to build a large map with fromParallel() scales with the number
+ * of threads available to it.  Each thread count gets its own ForkJoinPool and the build is
+ * started from inside that pool so that the stream used to partition the entries also runs
+ * in it.  The time for a sequential build using a Transient is printed for comparison.
+ */
+public final class ParallelBuildTimingLoop
+{
+    private ParallelBuildTimingLoop()
+    {
+    }
+
+    public static void main(String[] args)
+        throws InterruptedException,
+               ExecutionException
+    {
+        final int size = (args.length > 0) ? Integer.parseInt(args[0]) : 2000000;
+        final int maxThreads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        final int passes = (args.length > 2) ? Integer.parseInt(args[2]) : 5;
+        final boolean compact = (args.length > 3) && Boolean.parseBoolean(args[3]);
+        final EmptyHashMap<Integer, Integer> empty = compact ? JImmutableHashMap.compactOf() : JImmutableHashMap.of();
+
+        final Random random = new Random(1000);
+        final List<JImmutableMap.Entry<Integer, Integer>> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            entries.add(MapEntry.of(random.nextInt(), i));
+        }
+
+        for (int pass = 1; pass <= passes; ++pass) {
+            long start = System.currentTimeMillis();
+            final JImmutableHashMap.Transient<Integer, Integer> builder = empty.toTransient();
+            for (JImmutableMap.Entry<Integer, Integer> entry : entries) {
+                builder.assign(entry.getKey(), entry.getValue());
+            }
+            final JImmutableMap<Integer, Integer> expected = builder.freeze();
+            final long sequentialElapsed = System.currentTimeMillis() - start;
+            System.out.printf("pass %d size %d sequential %d ms%n", pass, expected.size(), sequentialElapsed);
+
+            for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+                final ForkJoinPool pool = new ForkJoinPool(threads);
+                try {
+                    start = System.currentTimeMillis();
+                    final JImmutableMap<Integer, Integer> map = pool.submit(() -> JImmutableHashMap.fromParallel(empty, entries.parallelStream(), pool)).get();
+                    final long elapsed = System.currentTimeMillis() - start;
+                    if (!map.equals(expected)) {
+                        throw new IllegalStateException("maps do not match");
+                    }
+                    System.out.printf("pass %d size %d threads %d parallel %d ms speedup %.2f%n",
+                                      pass, map.size(), threads, elapsed, (double)sequentialElapsed / Math.max(1, elapsed));
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        }
+    }
+
+    private static int nextThreadCount(int threads,
+                                       int maxThreads)
+    {
+        return (threads < maxThreads) ? Math.min(2 * threads, maxThreads) : (maxThreads + 1);
+    }
+}
@@ -0,0 +1,314 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.hash;
+
+import org.javimmutable.collections.HashStrategy;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.hash.collision_map.CollisionMap;
+import org.javimmutable.collections.hash.hamt.HamtBranchNode;
+import org.javimmutable.collections.hash.hamt.HamtCompactNode;
+import org.javimmutable.collections.hash.hamt.HamtEmptyNode;
+import org.javimmutable.collections.hash.hamt.HamtNode;
+import org.javimmutable.collections.hash.hamt.HamtTransient;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * Builds a JImmutableHashMap from a stream of entries using multiple threads.  The root of a
+ * HAMT selects a child using only the lowest 5 bits of the hash code so the entries are first
+ * distributed into 32 partitions by those bits (using the parallelism of the stream itself).
+ * Each partition is then built into an independent tree by its own ForkJoinTask.  Since no
+ * two partitions share a slot in the root the finished trees are combined into the final
+ * root without merging any of their nodes.
+ */
+final class ParallelHashMapBuilder
+{
+    private static final int PARTITION_COUNT = 32;
+    private static final int PARTITION_MASK = PARTITION_COUNT - 1;
+
+    private ParallelHashMapBuilder()
+    {
+    }
+
+    @Nonnull
+    static <K, V> JImmutableMap<K, V> build(@Nonnull EmptyHashMap<K, V> emptyMap,
+                                            @Nonnull Stream<? extends JImmutableMap.Entry<K, V>> entries,
+                                            @Nonnull ForkJoinPool pool)
+    {
+        final HashStrategy<K> hashStrategy = emptyMap.getHashStrategy();
+        final Partitions<K, V> partitions = entries.collect(() -> new Partitions<>(hashStrategy), Partitions::add, Partitions::addAll);
+        final K firstKey = partitions.firstKey();
+        if (firstKey == null) {
+            return emptyMap;
+        }
+        return build(emptyMap.isCompact(), emptyMap.collisionMapForKey(firstKey), hashStrategy, partitions, pool);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, K, V> JImmutableMap<K, V> build(boolean compact,
+                                                       @Nonnull CollisionMap collisionMap,
+                                                       @Nonnull HashStrategy<K> hashStrategy,
+                                                       @Nonnull Partitions<K, V> partitions,
+                                                       @Nonnull ForkJoinPool pool)
+    {
+        return pool.invoke(new BuildTask<T, K, V>(compact, (CollisionMap<T, K, V>)collisionMap, hashStrategy, partitions));
+    }
+
+    /**
+     * Entries collected from the stream grouped by the lowest digit of their hash codes.
+     * Entries within each partition retain their encounter order so that when a key appears
+     * more than once its last value is the one stored in the map.
+     */
+    private static class Partitions<K, V>
+    {
+        private final HashStrategy<K> hashStrategy;
+        private final Partition[] partitions;
+
+        private Partitions(@Nonnull HashStrategy<K> hashStrategy)
+        {
+            this.hashStrategy = hashStrategy;
+            this.partitions = new Partition[PARTITION_COUNT];
+        }
+
+        private void add(@Nonnull JImmutableMap.Entry<K, V> entry)
+        {
+            final K key = entry.getKey();
+            final int hashCode = hashStrategy.hash(key);
+            final int index = hashCode & PARTITION_MASK;
+            Partition partition = partitions[index];
+            if (partition == null) {
+                partition = new Partition();
+                partitions[index] = partition;
+            }
+            partition.add(hashCode, key, entry.getValue());
+        }
+
+        private void addAll(@Nonnull Partitions<K, V> other)
+        {
+            for (int index = 0; index < PARTITION_COUNT; ++index) {
+                final Partition otherPartition = other.partitions[index];
+                if (otherPartition != null) {
+                    if (partitions[index] == null) {
+                        partitions[index] = otherPartition;
+                    } else {
+                        partitions[index].addAll(otherPartition);
+                    }
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private K firstKey()
+        {
+            for (Partition partition : partitions) {
+                if (partition != null) {
+                    return (K)partition.keys[0];
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Growable parallel arrays of hash codes, keys, and values.  The hash codes are retained
+     * so that they are only computed once per entry.
+     */
+    private static class Partition
+    {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private int[] hashCodes;
+        private Object[] keys;
+        private Object[] values;
+        private int size;
+
+        private Partition()
+        {
+            hashCodes = new int[INITIAL_CAPACITY];
+            keys = new Object[INITIAL_CAPACITY];
+            values = new Object[INITIAL_CAPACITY];
+        }
+
+        private void add(int hashCode,
+                         Object key,
+                         Object value)
+        {
+            ensureCapacity(size + 1);
+            hashCodes[size] = hashCode;
+            keys[size] = key;
+            values[size] = value;
+            size += 1;
+        }
+
+        private void addAll(@Nonnull Partition other)
+        {
+            ensureCapacity(size + other.size);
+            System.arraycopy(other.hashCodes, 0, hashCodes, size, other.size);
+            System.arraycopy(other.keys, 0, keys, size, other.size);
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+
+        private void ensureCapacity(int capacity)
+        {
+            if (capacity > keys.length) {
+                final int newLength = Math.max(capacity, keys.length * 2);
+                hashCodes = Arrays.copyOf(hashCodes, newLength);
+                keys = Arrays.copyOf(keys, newLength);
+                values = Arrays.copyOf(values, newLength);
+            }
+        }
+    }
+
+    /**
+     * Builds every non-empty partition in its own task and combines the resulting trees.
+     */
+    private static class BuildTask<T, K, V>
+        extends RecursiveTask<JImmutableMap<K, V>>
+    {
+        private static final long serialVersionUID = 0L;
+
+        private final boolean compact;
+        private final CollisionMap<T, K, V> collisionMap;
+        private final HashStrategy<K> hashStrategy;
+        private final Partitions<K, V> partitions;
+
+        private BuildTask(boolean compact,
+                          @Nonnull CollisionMap<T, K, V> collisionMap,
+                          @Nonnull HashStrategy<K> hashStrategy,
+                          @Nonnull Partitions<K, V> partitions)
+        {
+            this.compact = compact;
+            this.collisionMap = collisionMap;
+            this.hashStrategy = hashStrategy;
+            this.partitions = partitions;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected JImmutableMap<K, V> compute()
+        {
+            final List<PartitionTask<T, K, V>> tasks = new ArrayList<>();
+            for (int index = 0; index < PARTITION_COUNT; ++index) {
+                final Partition partition = partitions.partitions[index];
+                if (partition != null) {
+                    tasks.add(new PartitionTask<>(index, compact, collisionMap, partition));
+                }
+            }
+            invokeAll(tasks);
+
+            int size = 0;
+            final HamtNode<T, K, V> root;
+            if (compact) {
+                final HamtCompactNode<T, K, V>[] roots = new HamtCompactNode[PARTITION_COUNT];
+                for (PartitionTask<T, K, V> task : tasks) {
+                    roots[task.index] = (HamtCompactNode<T, K, V>)task.join();
+                    size += task.size;
+                }
+                root = HamtCompactNode.forPartitions(roots);
+            } else {
+                final HamtNode<T, K, V>[] roots = new HamtNode[PARTITION_COUNT];
+                for (PartitionTask<T, K, V> task : tasks) {
+                    roots[task.index] = task.join();
+                    size += task.size;
+                }
+                root = HamtBranchNode.forPartitions(roots);
+            }
+            return new JImmutableHashMap<>(root, size, collisionMap, hashStrategy);
+        }
+    }
+
+    /**
+     * Builds a complete tree containing only the entries of one partition.  Standard trees
+     * are built using a HamtTransient to avoid path copying.  Compact trees are built
+     * by normal assignment since they have no transient form.
+     */
+    private static class PartitionTask<T, K, V>
+        extends RecursiveTask<HamtNode<T, K, V>>
+    {
+        private static final long serialVersionUID = 0L;
+
+        private final int index;
+        private final boolean compact;
+        private final CollisionMap<T, K, V> collisionMap;
+        private final Partition partition;
+        private int size;
+
+        private PartitionTask(int index,
+                              boolean compact,
+                              @Nonnull CollisionMap<T, K, V> collisionMap,
+                              @Nonnull Partition partition)
+        {
+            this.index = index;
+            this.compact = compact;
+            this.collisionMap = collisionMap;
+            this.partition = partition;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected HamtNode<T, K, V> compute()
+        {
+            final int[] hashCodes = partition.hashCodes;
+            final Object[] keys = partition.keys;
+            final Object[] values = partition.values;
+            final int count = partition.size;
+            if (compact) {
+                final MutableDelta sizeDelta = new MutableDelta();
+                HamtNode<T, K, V> root = HamtCompactNode.of();
+                for (int i = 0; i < count; ++i) {
+                    root = root.assign(collisionMap, hashCodes[i], (K)keys[i], (V)values[i], sizeDelta);
+                }
+                size = sizeDelta.getValue();
+                return root;
+            } else {
+                final HamtTransient<T, K, V> hamt = new HamtTransient<>(collisionMap, HamtEmptyNode.of());
+                for (int i = 0; i < count; ++i) {
+                    hamt.assign(hashCodes[i], (K)keys[i], (V)values[i]);
+                }
+                size = hamt.getSizeDelta();
+                return hamt.freeze();
+            }
+        }
+    }
+}
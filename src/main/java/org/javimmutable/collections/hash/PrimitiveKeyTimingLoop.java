@@ -0,0 +1,102 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.hash;
+
+import org.javimmutable.collections.JImmutableMap;
+
+import java.util.Random;
+
+/**
+ * Compares the time needed to load and query a large map with int keys using
+ * JImmutableHashMap (boxed keys) and JImmutableIntHashMap (primitive keys).
+ */
+public final class PrimitiveKeyTimingLoop
+{
+    private PrimitiveKeyTimingLoop()
+    {
+    }
+
+    public static void main(String[] args)
+    {
+        final int size = (args.length > 0) ? Integer.parseInt(args[0]) : 1000000;
+        final int passes = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+        final int[] keys = new int[size];
+        final Random random = new Random(1000);
+        for (int i = 0; i < size; ++i) {
+            keys[i] = random.nextInt();
+        }
+        final String value = "x";
+        for (int pass = 1; pass <= passes; ++pass) {
+            long start = System.currentTimeMillis();
+            JImmutableMap<Integer, String> boxed = JImmutableHashMap.of();
+            for (int key : keys) {
+                boxed = boxed.assign(key, value);
+            }
+            final long boxedAssignElapsed = System.currentTimeMillis() - start;
+
+            start = System.currentTimeMillis();
+            int boxedFound = 0;
+            for (int key : keys) {
+                if (boxed.getValueOr(key, null) != null) {
+                    boxedFound += 1;
+                }
+            }
+            final long boxedLookupElapsed = System.currentTimeMillis() - start;
+
+            start = System.currentTimeMillis();
+            JImmutableIntHashMap<String> primitive = JImmutableIntHashMap.of();
+            for (int key : keys) {
+                primitive = primitive.assignInt(key, value);
+            }
+            final long primitiveAssignElapsed = System.currentTimeMillis() - start;
+
+            start = System.currentTimeMillis();
+            int primitiveFound = 0;
+            for (int key : keys) {
+                if (primitive.getValueOrInt(key, null) != null) {
+                    primitiveFound += 1;
+                }
+            }
+            final long primitiveLookupElapsed = System.currentTimeMillis() - start;
+
+            if ((boxedFound != primitiveFound) || (boxed.size() != primitive.size())) {
+                throw new IllegalStateException("maps do not match");
+            }
+            System.out.printf("pass %d size %d boxed assign %d ms lookup %d ms primitive assign %d ms lookup %d ms%n",
+                              pass, primitive.size(), boxedAssignElapsed, boxedLookupElapsed, primitiveAssignElapsed, primitiveLookupElapsed);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.hash;
+
+import org.javimmutable.collections.JImmutableMap;
+
+import java.util.Random;
+
+/**
+ * Compares the time needed to load a large map using repeated calls to assign()
+ * with the time needed to load the same map using a Transient.
+ */
+public final class TransientTimingLoop
+{
+    private TransientTimingLoop()
+    {
+    }
+
+    public static void main(String[] args)
+    {
+        final int size = (args.length > 0) ? Integer.parseInt(args[0]) : 2000000;
+        final int passes = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+        final int[] keys = new int[size];
+        final Random random = new Random(1000);
+        for (int i = 0; i < size; ++i) {
+            keys[i] = random.nextInt();
+        }
+        for (int pass = 1; pass <= passes; ++pass) {
+            long start = System.currentTimeMillis();
+            JImmutableMap<Integer, Integer> map = JImmutableHashMap.of();
+            for (int key : keys) {
+                map = map.assign(key, key);
+            }
+            final long assignElapsed = System.currentTimeMillis() - start;
+
+            start = System.currentTimeMillis();
+            final JImmutableHashMap.Transient<Integer, Integer> builder = JImmutableHashMap.builder();
+            for (int key : keys) {
+                builder.assign(key, key);
+            }
+            final JImmutableMap<Integer, Integer> built = builder.freeze();
+            final long transientElapsed = System.currentTimeMillis() - start;
+
+            start = System.currentTimeMillis();
+            final JImmutableHashMap.Transient<Integer, Integer> updater = ((JImmutableHashMap<?, Integer, Integer>)built).toTransient();
+            for (int i = 0; i < size; i += 2) {
+                updater.assign(keys[i], -keys[i]);
+            }
+            updater.freeze();
+            final long updateElapsed = System.currentTimeMillis() - start;
+
+            System.out.printf("pass %d size %d assign %d ms transient %d ms transient update %d ms%n",
+                              pass, map.size(), assignElapsed, transientElapsed, updateElapsed);
+        }
+    }
+}
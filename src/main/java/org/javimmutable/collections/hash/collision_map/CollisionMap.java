@@ -41,9 +41,11 @@ import org.javimmutable.collections.Holder;
 import org.javimmutable.collections.JImmutableMap;
 import org.javimmutable.collections.SplitableIterator;
 import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.common.StructureStats;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.Iterator;
 
 /**
  * Interface for transformation objects that manage the leaf nodes in the hash table.
@@ -122,4 +124,22 @@ public interface CollisionMap<T, K, V>
      * in the specified leaf object.
      */
     SplitableIterator<JImmutableMap.Entry<K, V>> iterator(@Nonnull T leaf);
+
+    /**
+     * Add the specified leaf object to stats as a collision group holding values at
+     * the specified depth.  The default implementation estimates the leaf's size as
+     * one key/value pair object per entry.
+     */
+    default void collectStats(@Nonnull T leaf,
+                              @Nonnull StructureStats.Builder stats,
+                              int depth)
+    {
+        int length = 0;
+        for (Iterator<JImmutableMap.Entry<K, V>> entries = iterator(leaf); entries.hasNext(); entries.next()) {
+            length += 1;
+        }
+        stats.addNode(leaf, length * StructureStats.objectBytes(2, 0));
+        stats.addValues(depth, length);
+        stats.addCollisionGroup(length);
+    }
 }
@@ -0,0 +1,164 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.hash.collision_map;
+
+import org.javimmutable.collections.Cursor;
+import org.javimmutable.collections.Func1;
+import org.javimmutable.collections.HashStrategy;
+import org.javimmutable.collections.Holder;
+import org.javimmutable.collections.Holders;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.MapEntry;
+import org.javimmutable.collections.SplitableIterator;
+import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.hash.hamt.HamtEmptyNode;
+import org.javimmutable.collections.hash.hamt.HamtNode;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Transforms implementation for keys that do not implement Comparable.  Keys whose primary
+ * hash codes collide are stored in a nested hash tree keyed by the secondary hash provided by
+ * a HashStrategy.  Only keys with the same primary and secondary hash codes have to be compared
+ * using equals() so lookups remain fast even when many keys share the same hashCode().
+ */
+@Immutable
+public class SecondaryHashCollisionMap<K, V>
+    implements CollisionMap<HamtNode<ListNode<K, V>, K, V>, K, V>
+{
+    private final ListCollisionMap<K, V> listCollisionMap = new ListCollisionMap<>();
+    private final HashStrategy<K> strategy;
+
+    public SecondaryHashCollisionMap(@Nonnull HashStrategy<K> strategy)
+    {
+        if (!strategy.hasSecondaryHash()) {
+            throw new IllegalArgumentException("strategy does not provide a secondary hash");
+        }
+        this.strategy = strategy;
+    }
+
+    @Nonnull
+    @Override
+    public HamtNode<ListNode<K, V>, K, V> update(@Nullable HamtNode<ListNode<K, V>, K, V> leaf,
+                                                 @Nonnull K key,
+                                                 @Nullable V value,
+                                                 @Nonnull MutableDelta delta)
+    {
+        return nodeFor(leaf).assign(listCollisionMap, strategy.secondaryHash(key), key, value, delta);
+    }
+
+    @Nonnull
+    @Override
+    public HamtNode<ListNode<K, V>, K, V> update(@Nullable HamtNode<ListNode<K, V>, K, V> leaf,
+                                                 @Nonnull K key,
+                                                 @Nonnull Func1<Holder<V>, V> generator,
+                                                 @Nonnull MutableDelta delta)
+    {
+        return nodeFor(leaf).update(listCollisionMap, strategy.secondaryHash(key), key, generator, delta);
+    }
+
+    @Nullable
+    @Override
+    public HamtNode<ListNode<K, V>, K, V> delete(@Nonnull HamtNode<ListNode<K, V>, K, V> leaf,
+                                                 @Nonnull K key,
+                                                 @Nonnull MutableDelta delta)
+    {
+        final HamtNode<ListNode<K, V>, K, V> newLeaf = leaf.delete(listCollisionMap, strategy.secondaryHash(key), key, delta);
+        return newLeaf.isEmpty() ? null : newLeaf;
+    }
+
+    @Override
+    public V getValueOr(@Nonnull HamtNode<ListNode<K, V>, K, V> leaf,
+                        @Nonnull K key,
+                        V defaultValue)
+    {
+        return leaf.getValueOr(listCollisionMap, strategy.secondaryHash(key), key, defaultValue);
+    }
+
+    @Override
+    public Holder<V> findValue(@Nonnull HamtNode<ListNode<K, V>, K, V> leaf,
+                               @Nonnull K key)
+    {
+        return leaf.find(listCollisionMap, strategy.secondaryHash(key), key);
+    }
+
+    @Override
+    public Holder<JImmutableMap.Entry<K, V>> findEntry(@Nonnull HamtNode<ListNode<K, V>, K, V> leaf,
+                                                       @Nonnull K key)
+    {
+        final Holder<V> value = findValue(leaf, key);
+        if (value.isEmpty()) {
+            return Holders.of();
+        } else {
+            return Holders.of(MapEntry.of(key, value.getValue()));
+        }
+    }
+
+    @Override
+    public Cursor<JImmutableMap.Entry<K, V>> cursor(@Nonnull HamtNode<ListNode<K, V>, K, V> leaf)
+    {
+        return leaf.cursor(listCollisionMap);
+    }
+
+    @Override
+    public SplitableIterator<JImmutableMap.Entry<K, V>> iterator(@Nonnull HamtNode<ListNode<K, V>, K, V> leaf)
+    {
+        return leaf.iterator(listCollisionMap);
+    }
+
+    /**
+     * Two instances are interchangeable if they use the same HashStrategy.
+     */
+    @Override
+    public boolean equals(Object o)
+    {
+        return (o == this) || ((o instanceof SecondaryHashCollisionMap) && ((SecondaryHashCollisionMap)o).strategy.equals(strategy));
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return strategy.hashCode();
+    }
+
+    @Nonnull
+    private HamtNode<ListNode<K, V>, K, V> nodeFor(@Nullable HamtNode<ListNode<K, V>, K, V> leaf)
+    {
+        return (leaf == null) ? HamtEmptyNode.of() : leaf;
+    }
+}
@@ -38,14 +38,18 @@ package org.javimmutable.collections.hash.hamt;
 import org.javimmutable.collections.Cursor;
 import org.javimmutable.collections.Cursorable;
 import org.javimmutable.collections.Func1;
+import org.javimmutable.collections.Func2;
 import org.javimmutable.collections.Holder;
 import org.javimmutable.collections.Holders;
 import org.javimmutable.collections.Indexed;
 import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.MapChange;
 import org.javimmutable.collections.SplitableIterable;
 import org.javimmutable.collections.SplitableIterator;
 import org.javimmutable.collections.common.ArrayHelper;
+import org.javimmutable.collections.common.BatchLookup;
 import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.common.StructureStats;
 import org.javimmutable.collections.cursors.LazyMultiCursor;
 import org.javimmutable.collections.cursors.SingleValueCursor;
 import org.javimmutable.collections.cursors.StandardCursor;
@@ -57,6 +61,8 @@ import org.javimmutable.collections.iterators.SingleValueIterator;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
+import java.util.Arrays;
+import java.util.Iterator;
 
 @Immutable
 public class HamtBranchNode<T, K, V>
@@ -74,9 +80,9 @@ public class HamtBranchNode<T, K, V>
     @Nonnull
     private final HamtNode<T, K, V>[] children;
 
-    private HamtBranchNode(int bitmask,
-                           @Nullable T value,
-                           @Nonnull HamtNode<T, K, V>[] children)
+    HamtBranchNode(int bitmask,
+                   @Nullable T value,
+                   @Nonnull HamtNode<T, K, V>[] children)
     {
         this.bitmask = bitmask;
         this.value = value;
@@ -148,6 +154,38 @@ public class HamtBranchNode<T, K, V>
         }
     }
 
+    @Override
+    public void getAll(@Nonnull CollisionMap<T, K, V> collisionMap,
+                       @Nonnull BatchLookup<K, V> batch,
+                       int offset,
+                       int limit,
+                       int shift)
+    {
+        final int bitmask = this.bitmask;
+        int index = offset;
+        while (index < limit) {
+            final int remainder = remainder(batch.getHashCode(index), shift);
+            if (remainder == 0) {
+                if (value != null) {
+                    batch.setValue(index, collisionMap.getValueOr(value, batch.getKey(index), batch.getDefaultValue()));
+                }
+                index += 1;
+            } else {
+                // batch order places all keys sharing a child next to each other
+                final int digit = remainder & MASK;
+                int end = index + 1;
+                while ((end < limit) && ((remainder(batch.getHashCode(end), shift) & MASK) == digit)) {
+                    end += 1;
+                }
+                final int bit = 1 << digit;
+                if ((bitmask & bit) != 0) {
+                    children[realIndex(bitmask, bit)].getAll(collisionMap, batch, index, end, shift + SHIFT);
+                }
+                index = end;
+            }
+        }
+    }
+
     @Override
     @Nonnull
     public HamtNode<T, K, V> assign(@Nonnull CollisionMap<T, K, V> collisionMap,
@@ -283,6 +321,204 @@ public class HamtBranchNode<T, K, V>
         }
     }
 
+    @Nonnull
+    @Override
+    public HamtNode<T, K, V> merge(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                   @Nonnull HamtNode<T, K, V> other,
+                                   @Nullable Func2<V, V, V> merger,
+                                   @Nonnull HamtMergeCounts<T, K, V> counts)
+    {
+        if (other.isEmpty()) {
+            return this;
+        } else if ((other == this) && (merger == null)) {
+            counts.subtreeShared();
+            return this;
+        }
+        if (other instanceof HamtLeafNode) {
+            final HamtLeafNode<T, K, V> leaf = (HamtLeafNode<T, K, V>)other;
+            final Iterator<JImmutableMap.Entry<K, V>> entries = collisionMap.iterator(leaf.getValue());
+            final MutableDelta added = new MutableDelta();
+            HamtNode<T, K, V> answer = this;
+            int count = 0;
+            while (entries.hasNext()) {
+                final JImmutableMap.Entry<K, V> entry = entries.next();
+                answer = answer.update(collisionMap, leaf.getHashCode(), entry.getKey(), HamtMerger.forwardGenerator(entry.getValue(), merger), added);
+                count += 1;
+            }
+            counts.leafMerged(count, added.getValue());
+            return answer;
+        }
+
+        final HamtBranchNode<T, K, V> branch = (HamtBranchNode<T, K, V>)other;
+        final T thisValue = this.value;
+        final int bitmask = this.bitmask;
+        final HamtNode<T, K, V>[] children = this.children;
+        final HamtNode<T, K, V>[] otherChildren = branch.children;
+        T newValue = thisValue;
+        if (branch.value != null) {
+            if (thisValue == null) {
+                counts.leafAdded(HamtMerger.countLeaf(collisionMap, branch.value));
+                newValue = branch.value;
+            } else {
+                newValue = HamtMerger.mergeLeaves(collisionMap, thisValue, branch.value, merger, counts);
+            }
+        }
+        final int newBitmask = bitmask | branch.bitmask;
+        final HamtNode<T, K, V>[] newChildren = allocate(Integer.bitCount(newBitmask));
+        boolean changed = (newValue != thisValue) || (newBitmask != bitmask);
+        int thisIndex = 0;
+        int otherIndex = 0;
+        int newIndex = 0;
+        for (int remaining = newBitmask; remaining != 0; remaining &= remaining - 1) {
+            final int bit = Integer.lowestOneBit(remaining);
+            if ((bitmask & bit) == 0) {
+                final HamtNode<T, K, V> otherChild = otherChildren[otherIndex++];
+                counts.subtreeReused(otherChild);
+                newChildren[newIndex++] = otherChild;
+            } else if ((branch.bitmask & bit) == 0) {
+                newChildren[newIndex++] = children[thisIndex++];
+            } else {
+                final HamtNode<T, K, V> child = children[thisIndex++];
+                final HamtNode<T, K, V> newChild = child.merge(collisionMap, otherChildren[otherIndex++], merger, counts);
+                changed = changed || (newChild != child);
+                newChildren[newIndex++] = newChild;
+            }
+        }
+        return changed ? new HamtBranchNode<>(newBitmask, newValue, newChildren) : this;
+    }
+
+    @Nonnull
+    @Override
+    public HamtNode<T, K, V> deleteAll(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                       @Nonnull BatchLookup<K, V> batch,
+                                       int offset,
+                                       int limit,
+                                       int shift,
+                                       @Nonnull MutableDelta sizeDelta)
+    {
+        final int bitmask = this.bitmask;
+        final HamtNode<T, K, V>[] children = this.children;
+        T newValue = value;
+        HamtNode<T, K, V>[] newChildren = null;
+        int index = offset;
+        while (index < limit) {
+            final int remainder = remainder(batch.getHashCode(index), shift);
+            if (remainder == 0) {
+                if (newValue != null) {
+                    newValue = collisionMap.delete(newValue, batch.getKey(index), sizeDelta);
+                }
+                index += 1;
+            } else {
+                final int digit = remainder & MASK;
+                int end = index + 1;
+                while ((end < limit) && ((remainder(batch.getHashCode(end), shift) & MASK) == digit)) {
+                    end += 1;
+                }
+                final int bit = 1 << digit;
+                if ((bitmask & bit) != 0) {
+                    final int childIndex = realIndex(bitmask, bit);
+                    final HamtNode<T, K, V> child = children[childIndex];
+                    final HamtNode<T, K, V> newChild = child.deleteAll(collisionMap, batch, index, end, shift + SHIFT, sizeDelta);
+                    if (newChild != child) {
+                        if (newChildren == null) {
+                            newChildren = children.clone();
+                        }
+                        newChildren[childIndex] = newChild;
+                    }
+                }
+                index = end;
+            }
+        }
+
+        int newBitmask = bitmask;
+        if (newChildren == null) {
+            if (newValue == value) {
+                return this;
+            }
+            newChildren = children;
+        } else {
+            // remove any children that are now empty
+            newBitmask = 0;
+            int newChildCount = 0;
+            int remaining = bitmask;
+            for (HamtNode<T, K, V> child : newChildren) {
+                final int bit = Integer.lowestOneBit(remaining);
+                remaining &= remaining - 1;
+                if (!child.isEmpty()) {
+                    newBitmask |= bit;
+                    newChildren[newChildCount++] = child;
+                }
+            }
+            if (newChildCount < newChildren.length) {
+                newChildren = Arrays.copyOf(newChildren, newChildCount);
+            }
+        }
+        if (newBitmask == 0) {
+            return (newValue == null) ? HamtEmptyNode.of() : new HamtLeafNode<>(0, newValue);
+        }
+        return createForDelete(newBitmask, newValue, newChildren);
+    }
+
+    /**
+     * Combines the roots of trees built independently from keys partitioned by their lowest
+     * hash digit (every key in partitions[i] has (hashCode &amp; MASK) == i) into a single root.
+     * The partitions never share a slot in the combined root so their children are reused
+     * as is without merging.  Null or empty partitions are ignored.
+     */
+    @Nonnull
+    public static <T, K, V> HamtNode<T, K, V> forPartitions(@Nonnull HamtNode<T, K, V>[] partitions)
+    {
+        if (partitions.length > MASK + 1) {
+            throw new IllegalArgumentException();
+        }
+        @SuppressWarnings("unchecked") final HamtNode<T, K, V>[] children = new HamtNode[partitions.length];
+        HamtNode<T, K, V> lastPartition = HamtEmptyNode.of();
+        int partitionCount = 0;
+        T value = null;
+        int bitmask = 0;
+        int childCount = 0;
+        for (int index = 0; index < partitions.length; ++index) {
+            final HamtNode<T, K, V> partition = partitions[index];
+            if (partition == null || partition.isEmpty()) {
+                continue;
+            }
+            HamtNode<T, K, V> child = null;
+            if (partition instanceof HamtLeafNode) {
+                final HamtLeafNode<T, K, V> leaf = (HamtLeafNode<T, K, V>)partition;
+                if ((leaf.getHashCode() & MASK) != index) {
+                    throw new IllegalArgumentException("partition contains keys of another partition");
+                }
+                if (leaf.getHashCode() == 0) {
+                    value = leaf.getValue();
+                } else {
+                    child = new HamtLeafNode<>(leaf.getHashCode() >>> SHIFT, leaf.getValue());
+                }
+            } else {
+                final HamtBranchNode<T, K, V> branch = (HamtBranchNode<T, K, V>)partition;
+                if ((branch.bitmask & ~(1 << index)) != 0) {
+                    throw new IllegalArgumentException("partition contains keys of another partition");
+                }
+                if (branch.value != null) {
+                    value = branch.value;
+                }
+                if (branch.children.length > 0) {
+                    child = branch.children[0];
+                }
+            }
+            if (child != null) {
+                bitmask |= 1 << index;
+                children[childCount++] = child;
+            }
+            lastPartition = partition;
+            partitionCount += 1;
+        }
+        if (partitionCount <= 1) {
+            // a lone partition is already the correct root
+            return lastPartition;
+        }
+        return new HamtBranchNode<>(bitmask, value, Arrays.copyOf(children, childCount));
+    }
+
     private HamtNode<T, K, V> createForDelete(int bitmask,
                                               T value,
                                               @Nonnull HamtNode<T, K, V>[] children)
@@ -303,12 +539,73 @@ public class HamtBranchNode<T, K, V>
         return new HamtBranchNode<>(bitmask, value, children);
     }
 
+    @Nonnull
+    @Override
+    public Cursor<MapChange<K, V>> diff(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                        @Nonnull HamtNode<T, K, V> other)
+    {
+        return HamtDiff.diff(collisionMap, this, other);
+    }
+
     @Override
     public boolean isEmpty()
     {
         return bitmask == 0 && value == null;
     }
 
+    @Override
+    public void collectStats(@Nonnull CollisionMap<T, K, V> collisionMap,
+                             @Nonnull StructureStats.Builder stats,
+                             int depth)
+    {
+        stats.addNode(this, StructureStats.objectBytes(2, StructureStats.INT_BYTES) + StructureStats.arrayBytes(children.length, StructureStats.REFERENCE_BYTES));
+        if (value != null) {
+            collisionMap.collectStats(value, stats, depth);
+        }
+        for (HamtNode<T, K, V> child : children) {
+            child.collectStats(collisionMap, stats, depth + 1);
+        }
+    }
+
+    int getBitmask()
+    {
+        return bitmask;
+    }
+
+    @Nullable
+    T getValue()
+    {
+        return value;
+    }
+
+    @Nonnull
+    HamtNode<T, K, V>[] getChildren()
+    {
+        return children;
+    }
+
+    /**
+     * Determines whether this node has a value or child that could contain the specified hashCode.
+     */
+    boolean hasPathFor(int hashCode)
+    {
+        if (hashCode == 0) {
+            return value != null;
+        } else {
+            return (bitmask & (1 << (hashCode & MASK))) != 0;
+        }
+    }
+
+    /**
+     * Hash code bits remaining after shift bits have been consumed.  Leaves can exist below
+     * the last full digit so shift can exceed the number of bits in the hash code.
+     */
+    static int remainder(int hashCode,
+                         int shift)
+    {
+        return (shift < Integer.SIZE) ? (hashCode >>> shift) : 0;
+    }
+
     private static int realIndex(int bitmask,
                                  int bit)
     {
@@ -0,0 +1,934 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.hash.hamt;
+
+import org.javimmutable.collections.Cursor;
+import org.javimmutable.collections.Cursorable;
+import org.javimmutable.collections.Func1;
+import org.javimmutable.collections.Func2;
+import org.javimmutable.collections.Holder;
+import org.javimmutable.collections.Holders;
+import org.javimmutable.collections.Indexed;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.MapChange;
+import org.javimmutable.collections.SplitableIterable;
+import org.javimmutable.collections.SplitableIterator;
+import org.javimmutable.collections.common.BatchLookup;
+import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.common.StructureStats;
+import org.javimmutable.collections.cursors.DiffCursor;
+import org.javimmutable.collections.cursors.LazyMultiCursor;
+import org.javimmutable.collections.cursors.SingleValueCursor;
+import org.javimmutable.collections.cursors.StandardCursor;
+import org.javimmutable.collections.hash.collision_map.CollisionMap;
+import org.javimmutable.collections.indexed.IndexedArray;
+import org.javimmutable.collections.iterators.LazyMultiIterator;
+import org.javimmutable.collections.iterators.SingleValueIterator;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.util.Arrays;
+
+/**
+ * Compact (CHAMP style) alternative to HamtBranchNode/HamtLeafNode.  Each node stores
+ * its inline entries and its child nodes in a single array.  Two bitmasks indicate which
+ * hash digits are bound to inline entries (dataMap) and which to child nodes (nodeMap).
+ * Inline entries occupy the front of the array and child nodes follow them.  The full
+ * hash code of each inline entry is kept in a parallel int array so that entries can be
+ * pushed down into a new child node without calling hashCode() again.
+ * <p>
+ * Every node consumes exactly SHIFT bits of the hash code so unlike HamtBranchNode the
+ * shift for a node is determined by its depth in the tree.  The HamtNode methods must only
+ * be called on the root of a tree and must be passed the full hash code.  Each leaf object
+ * produced by the CollisionMap contains only keys having the same full hash code.
+ * <p>
+ * The tree is kept in canonical form: no node other than the root ever contains a single
+ * inline entry and no children.  Such nodes are always replaced by an inline entry in their
+ * parent.  This guarantees that two trees containing the same keys have the same shape.
+ */
+@Immutable
+public class HamtCompactNode<T, K, V>
+    implements HamtNode<T, K, V>
+{
+    private static final int SHIFT = HamtBranchNode.SHIFT;
+    private static final int MASK = HamtBranchNode.MASK;
+    private static final int[] NO_HASHES = new int[0];
+    private static final Object[] NO_CONTENT = new Object[0];
+
+    @SuppressWarnings("unchecked")
+    private static final HamtCompactNode EMPTY = new HamtCompactNode(0, 0, NO_HASHES, NO_CONTENT);
+
+    private final int dataMap;
+    private final int nodeMap;
+    @Nonnull
+    private final int[] hashes;
+    @Nonnull
+    private final Object[] content;
+
+    private HamtCompactNode(int dataMap,
+                            int nodeMap,
+                            @Nonnull int[] hashes,
+                            @Nonnull Object[] content)
+    {
+        this.dataMap = dataMap;
+        this.nodeMap = nodeMap;
+        this.hashes = hashes;
+        this.content = content;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T, K, V> HamtCompactNode<T, K, V> of()
+    {
+        return EMPTY;
+    }
+
+    /**
+     * Combines the roots of trees built independently from keys partitioned by their lowest
+     * hash digit (every key in partitions[i] has (hashCode &amp; MASK) == i) into a single root.
+     * Each partition occupies a single slot of the combined root so its inline entry or child
+     * node is moved into the new root without merging.  Null partitions are ignored.
+     */
+    @Nonnull
+    public static <T, K, V> HamtCompactNode<T, K, V> forPartitions(@Nonnull HamtCompactNode<T, K, V>[] partitions)
+    {
+        if (partitions.length > MASK + 1) {
+            throw new IllegalArgumentException();
+        }
+        int dataMap = 0;
+        int nodeMap = 0;
+        for (int index = 0; index < partitions.length; ++index) {
+            final HamtCompactNode<T, K, V> partition = partitions[index];
+            if (partition != null) {
+                if (((partition.dataMap | partition.nodeMap) & ~(1 << index)) != 0) {
+                    throw new IllegalArgumentException("partition contains keys of another partition");
+                }
+                dataMap |= partition.dataMap;
+                nodeMap |= partition.nodeMap;
+            }
+        }
+        if ((dataMap | nodeMap) == 0) {
+            return of();
+        }
+        final int dataCount = Integer.bitCount(dataMap);
+        final int[] hashes = new int[dataCount];
+        final Object[] content = new Object[dataCount + Integer.bitCount(nodeMap)];
+        int dataIndex = 0;
+        int nodeIndex = dataCount;
+        for (HamtCompactNode<T, K, V> partition : partitions) {
+            if (partition != null) {
+                if (partition.dataMap != 0) {
+                    hashes[dataIndex] = partition.hashes[0];
+                    content[dataIndex++] = partition.content[0];
+                } else if (partition.nodeMap != 0) {
+                    content[nodeIndex++] = partition.content[0];
+                }
+            }
+        }
+        return new HamtCompactNode<>(dataMap, nodeMap, hashes, content);
+    }
+
+    @Override
+    public Holder<V> find(@Nonnull CollisionMap<T, K, V> collisionMap,
+                          int hashCode,
+                          @Nonnull K hashKey)
+    {
+        return find(collisionMap, hashCode, hashKey, 0);
+    }
+
+    @Override
+    public V getValueOr(@Nonnull CollisionMap<T, K, V> collisionMap,
+                        int hashCode,
+                        @Nonnull K hashKey,
+                        V defaultValue)
+    {
+        HamtCompactNode<T, K, V> node = this;
+        int shift = 0;
+        while (true) {
+            final int bit = bitFor(hashCode, shift);
+            if ((node.dataMap & bit) != 0) {
+                final int dataIndex = realIndex(node.dataMap, bit);
+                if (node.hashes[dataIndex] == hashCode) {
+                    return collisionMap.getValueOr(node.dataAt(dataIndex), hashKey, defaultValue);
+                } else {
+                    return defaultValue;
+                }
+            } else if ((node.nodeMap & bit) != 0) {
+                node = node.nodeAt(node.nodeIndex(bit));
+                shift += SHIFT;
+            } else {
+                return defaultValue;
+            }
+        }
+    }
+
+    @Override
+    public void getAll(@Nonnull CollisionMap<T, K, V> collisionMap,
+                       @Nonnull BatchLookup<K, V> batch,
+                       int offset,
+                       int limit,
+                       int shift)
+    {
+        int index = offset;
+        while (index < limit) {
+            // batch order places all keys sharing a digit next to each other
+            final int bit = bitFor(batch.getHashCode(index), shift);
+            int end = index + 1;
+            while ((end < limit) && (bitFor(batch.getHashCode(end), shift) == bit)) {
+                end += 1;
+            }
+            if ((dataMap & bit) != 0) {
+                final int dataIndex = realIndex(dataMap, bit);
+                final int hashCode = hashes[dataIndex];
+                for (int i = index; i < end; ++i) {
+                    if (batch.getHashCode(i) == hashCode) {
+                        batch.setValue(i, collisionMap.getValueOr(dataAt(dataIndex), batch.getKey(i), batch.getDefaultValue()));
+                    }
+                }
+            } else if ((nodeMap & bit) != 0) {
+                nodeAt(nodeIndex(bit)).getAll(collisionMap, batch, index, end, shift + SHIFT);
+            }
+            index = end;
+        }
+    }
+
+    @Nonnull
+    @Override
+    public HamtNode<T, K, V> assign(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                    int hashCode,
+                                    @Nonnull K hashKey,
+                                    @Nullable V value,
+                                    @Nonnull MutableDelta sizeDelta)
+    {
+        return assign(hashCode, 0, leaf -> collisionMap.update(leaf, hashKey, value, sizeDelta));
+    }
+
+    @Nonnull
+    @Override
+    public HamtNode<T, K, V> update(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                    int hashCode,
+                                    @Nonnull K hashKey,
+                                    @Nonnull Func1<Holder<V>, V> generator,
+                                    @Nonnull MutableDelta sizeDelta)
+    {
+        return assign(hashCode, 0, leaf -> collisionMap.update(leaf, hashKey, generator, sizeDelta));
+    }
+
+    @Nonnull
+    @Override
+    public HamtNode<T, K, V> delete(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                    int hashCode,
+                                    @Nonnull K hashKey,
+                                    @Nonnull MutableDelta sizeDelta)
+    {
+        return delete(collisionMap, hashCode, 0, hashKey, sizeDelta);
+    }
+
+    @Nonnull
+    @Override
+    public HamtNode<T, K, V> merge(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                   @Nonnull HamtNode<T, K, V> other,
+                                   @Nullable Func2<V, V, V> merger,
+                                   @Nonnull HamtMergeCounts<T, K, V> counts)
+    {
+        if (other.isEmpty()) {
+            return this;
+        } else if (isEmpty()) {
+            counts.subtreeReused(other);
+            return other;
+        } else {
+            return merge(collisionMap, (HamtCompactNode<T, K, V>)other, 0, merger, counts);
+        }
+    }
+
+    @Nonnull
+    @Override
+    public Cursor<MapChange<K, V>> diff(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                        @Nonnull HamtNode<T, K, V> other)
+    {
+        if (other == this) {
+            return StandardCursor.of();
+        } else if (other.isEmpty()) {
+            return DiffCursor.removed(cursor(collisionMap));
+        } else if (isEmpty()) {
+            return DiffCursor.added(other.cursor(collisionMap));
+        } else {
+            return diff(collisionMap, (HamtCompactNode<T, K, V>)other, 0);
+        }
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return (dataMap | nodeMap) == 0;
+    }
+
+    @Override
+    public void collectStats(@Nonnull CollisionMap<T, K, V> collisionMap,
+                             @Nonnull StructureStats.Builder stats,
+                             int depth)
+    {
+        stats.addNode(this, StructureStats.objectBytes(2, 2 * StructureStats.INT_BYTES)
+                            + StructureStats.arrayBytes(hashes.length, StructureStats.INT_BYTES)
+                            + StructureStats.arrayBytes(content.length, StructureStats.REFERENCE_BYTES));
+        for (int i = 0; i < hashes.length; ++i) {
+            collisionMap.collectStats(dataAt(i), stats, depth);
+        }
+        for (int i = hashes.length; i < content.length; ++i) {
+            nodeAt(i).collectStats(collisionMap, stats, depth + 1);
+        }
+    }
+
+    @Nonnull
+    private HamtCompactNode<T, K, V> assign(int hashCode,
+                                            int shift,
+                                            @Nonnull Func1<T, T> updater)
+    {
+        final int bit = bitFor(hashCode, shift);
+        if ((dataMap & bit) != 0) {
+            final int dataIndex = realIndex(dataMap, bit);
+            final T oldLeaf = dataAt(dataIndex);
+            final int oldHashCode = hashes[dataIndex];
+            if (oldHashCode == hashCode) {
+                final T newLeaf = updater.apply(oldLeaf);
+                if (newLeaf == oldLeaf) {
+                    return this;
+                } else {
+                    final Object[] newContent = content.clone();
+                    newContent[dataIndex] = newLeaf;
+                    return new HamtCompactNode<>(dataMap, nodeMap, hashes, newContent);
+                }
+            } else {
+                final HamtCompactNode<T, K, V> child = forPair(oldHashCode, oldLeaf, hashCode, updater.apply(null), shift + SHIFT);
+                return copyAndMigrateToNode(bit, dataIndex, child);
+            }
+        } else if ((nodeMap & bit) != 0) {
+            final int nodeIndex = nodeIndex(bit);
+            final HamtCompactNode<T, K, V> child = nodeAt(nodeIndex);
+            final HamtCompactNode<T, K, V> newChild = child.assign(hashCode, shift + SHIFT, updater);
+            if (newChild == child) {
+                return this;
+            } else {
+                final Object[] newContent = content.clone();
+                newContent[nodeIndex] = newChild;
+                return new HamtCompactNode<>(dataMap, nodeMap, hashes, newContent);
+            }
+        } else {
+            return copyAndInsertData(bit, hashCode, updater.apply(null));
+        }
+    }
+
+    @Nonnull
+    private HamtCompactNode<T, K, V> delete(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                            int hashCode,
+                                            int shift,
+                                            @Nonnull K hashKey,
+                                            @Nonnull MutableDelta sizeDelta)
+    {
+        final int bit = bitFor(hashCode, shift);
+        if ((dataMap & bit) != 0) {
+            final int dataIndex = realIndex(dataMap, bit);
+            if (hashes[dataIndex] != hashCode) {
+                return this;
+            }
+            final T oldLeaf = dataAt(dataIndex);
+            final T newLeaf = collisionMap.delete(oldLeaf, hashKey, sizeDelta);
+            if (newLeaf == oldLeaf) {
+                return this;
+            } else if (newLeaf == null) {
+                return copyAndRemoveData(bit, dataIndex);
+            } else {
+                final Object[] newContent = content.clone();
+                newContent[dataIndex] = newLeaf;
+                return new HamtCompactNode<>(dataMap, nodeMap, hashes, newContent);
+            }
+        } else if ((nodeMap & bit) != 0) {
+            final int nodeIndex = nodeIndex(bit);
+            final HamtCompactNode<T, K, V> child = nodeAt(nodeIndex);
+            final HamtCompactNode<T, K, V> newChild = child.delete(collisionMap, hashCode, shift + SHIFT, hashKey, sizeDelta);
+            if (newChild == child) {
+                return this;
+            } else if (newChild.isSingleEntry()) {
+                return copyAndMigrateToData(bit, nodeIndex, newChild.hashes[0], newChild.dataAt(0));
+            } else {
+                final Object[] newContent = content.clone();
+                newContent[nodeIndex] = newChild;
+                return new HamtCompactNode<>(dataMap, nodeMap, hashes, newContent);
+            }
+        } else {
+            return this;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    @Override
+    public HamtCompactNode<T, K, V> deleteAll(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                              @Nonnull BatchLookup<K, V> batch,
+                                              int offset,
+                                              int limit,
+                                              int shift,
+                                              @Nonnull MutableDelta sizeDelta)
+    {
+        // new leaf or node for every digit changed by the deletions indexed by digit
+        Object[] updates = null;
+        int updatedBits = 0;
+        int index = offset;
+        while (index < limit) {
+            final int bit = bitFor(batch.getHashCode(index), shift);
+            int end = index + 1;
+            while ((end < limit) && (bitFor(batch.getHashCode(end), shift) == bit)) {
+                end += 1;
+            }
+            Object update = null;
+            boolean changed = false;
+            if ((dataMap & bit) != 0) {
+                final int dataIndex = realIndex(dataMap, bit);
+                final int hashCode = hashes[dataIndex];
+                final T oldLeaf = dataAt(dataIndex);
+                T newLeaf = oldLeaf;
+                for (int i = index; (i < end) && (newLeaf != null); ++i) {
+                    if (batch.getHashCode(i) == hashCode) {
+                        newLeaf = collisionMap.delete(newLeaf, batch.getKey(i), sizeDelta);
+                    }
+                }
+                update = newLeaf;
+                changed = (newLeaf != oldLeaf);
+            } else if ((nodeMap & bit) != 0) {
+                final HamtCompactNode<T, K, V> child = nodeAt(nodeIndex(bit));
+                final HamtCompactNode<T, K, V> newChild = child.deleteAll(collisionMap, batch, index, end, shift + SHIFT, sizeDelta);
+                update = newChild;
+                changed = (newChild != child);
+            }
+            if (changed) {
+                if (updates == null) {
+                    updates = new Object[MASK + 1];
+                }
+                updates[Integer.numberOfTrailingZeros(bit)] = update;
+                updatedBits |= bit;
+            }
+            index = end;
+        }
+        if (updatedBits == 0) {
+            return this;
+        }
+
+        final int allBits = dataMap | nodeMap;
+        final int maxSize = Integer.bitCount(allBits);
+        final int[] newHashes = new int[maxSize];
+        final Object[] newData = new Object[maxSize];
+        final Object[] newNodes = new Object[maxSize];
+        int newDataMap = 0;
+        int newNodeMap = 0;
+        int dataCount = 0;
+        int nodeCount = 0;
+        for (int remaining = allBits; remaining != 0; remaining &= remaining - 1) {
+            final int bit = Integer.lowestOneBit(remaining);
+            if ((dataMap & bit) != 0) {
+                final int dataIndex = realIndex(dataMap, bit);
+                final Object leaf = ((updatedBits & bit) != 0) ? updates[Integer.numberOfTrailingZeros(bit)] : content[dataIndex];
+                if (leaf != null) {
+                    newDataMap |= bit;
+                    newHashes[dataCount] = hashes[dataIndex];
+                    newData[dataCount++] = leaf;
+                }
+            } else if ((updatedBits & bit) != 0) {
+                final HamtCompactNode<T, K, V> child = (HamtCompactNode<T, K, V>)updates[Integer.numberOfTrailingZeros(bit)];
+                if (child.isSingleEntry()) {
+                    newDataMap |= bit;
+                    newHashes[dataCount] = child.hashes[0];
+                    newData[dataCount++] = child.content[0];
+                } else if (!child.isEmpty()) {
+                    newNodeMap |= bit;
+                    newNodes[nodeCount++] = child;
+                }
+            } else {
+                newNodeMap |= bit;
+                newNodes[nodeCount++] = content[nodeIndex(bit)];
+            }
+        }
+        if (dataCount + nodeCount == 0) {
+            return of();
+        }
+        final Object[] newContent = new Object[dataCount + nodeCount];
+        System.arraycopy(newData, 0, newContent, 0, dataCount);
+        System.arraycopy(newNodes, 0, newContent, dataCount, nodeCount);
+        return new HamtCompactNode<>(newDataMap, newNodeMap, Arrays.copyOf(newHashes, dataCount), newContent);
+    }
+
+    @Nonnull
+    private HamtCompactNode<T, K, V> merge(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                           @Nonnull HamtCompactNode<T, K, V> other,
+                                           int shift,
+                                           @Nullable Func2<V, V, V> merger,
+                                           @Nonnull HamtMergeCounts<T, K, V> counts)
+    {
+        if ((other == this) && (merger == null)) {
+            counts.subtreeShared();
+            return this;
+        }
+        final int allBits = dataMap | nodeMap | other.dataMap | other.nodeMap;
+        final int maxSize = Integer.bitCount(allBits);
+        final int[] newHashes = new int[maxSize];
+        final Object[] newData = new Object[maxSize];
+        final Object[] newNodes = new Object[maxSize];
+        int newDataMap = 0;
+        int newNodeMap = 0;
+        int dataCount = 0;
+        int nodeCount = 0;
+        boolean changed = false;
+        for (int remaining = allBits; remaining != 0; remaining &= remaining - 1) {
+            final int bit = Integer.lowestOneBit(remaining);
+            if ((dataMap & bit) != 0) {
+                final int dataIndex = realIndex(dataMap, bit);
+                final int hashCode = hashes[dataIndex];
+                final T leaf = dataAt(dataIndex);
+                if ((other.dataMap & bit) != 0) {
+                    final int otherIndex = realIndex(other.dataMap, bit);
+                    final int otherHashCode = other.hashes[otherIndex];
+                    final T otherLeaf = other.dataAt(otherIndex);
+                    if (otherHashCode == hashCode) {
+                        final T newLeaf = HamtMerger.mergeLeaves(collisionMap, leaf, otherLeaf, merger, counts);
+                        changed = changed || (newLeaf != leaf);
+                        newDataMap |= bit;
+                        newHashes[dataCount] = hashCode;
+                        newData[dataCount++] = newLeaf;
+                    } else {
+                        counts.leafAdded(HamtMerger.countLeaf(collisionMap, otherLeaf));
+                        changed = true;
+                        newNodeMap |= bit;
+                        newNodes[nodeCount++] = forPair(hashCode, leaf, otherHashCode, otherLeaf, shift + SHIFT);
+                    }
+                } else if ((other.nodeMap & bit) != 0) {
+                    // other's child is larger than our single entry so add our entry to it
+                    final HamtCompactNode<T, K, V> otherChild = other.nodeAt(other.nodeIndex(bit));
+                    counts.subtreeReused(otherChild);
+                    changed = true;
+                    newNodeMap |= bit;
+                    newNodes[nodeCount++] = otherChild.assign(hashCode, shift + SHIFT, otherLeaf -> {
+                        if (otherLeaf == null) {
+                            return leaf;
+                        } else {
+                            return HamtMerger.mergeLeavesInReused(collisionMap, leaf, otherLeaf, merger, counts);
+                        }
+                    });
+                } else {
+                    newDataMap |= bit;
+                    newHashes[dataCount] = hashCode;
+                    newData[dataCount++] = leaf;
+                }
+            } else if ((nodeMap & bit) != 0) {
+                final HamtCompactNode<T, K, V> child = nodeAt(nodeIndex(bit));
+                final HamtCompactNode<T, K, V> newChild;
+                if ((other.dataMap & bit) != 0) {
+                    final int otherIndex = realIndex(other.dataMap, bit);
+                    final T otherLeaf = other.dataAt(otherIndex);
+                    newChild = child.assign(other.hashes[otherIndex], shift + SHIFT, leaf -> {
+                        if (leaf == null) {
+                            counts.leafAdded(HamtMerger.countLeaf(collisionMap, otherLeaf));
+                            return otherLeaf;
+                        } else {
+                            return HamtMerger.mergeLeaves(collisionMap, leaf, otherLeaf, merger, counts);
+                        }
+                    });
+                } else if ((other.nodeMap & bit) != 0) {
+                    newChild = child.merge(collisionMap, other.nodeAt(other.nodeIndex(bit)), shift + SHIFT, merger, counts);
+                } else {
+                    newChild = child;
+                }
+                changed = changed || (newChild != child);
+                newNodeMap |= bit;
+                newNodes[nodeCount++] = newChild;
+            } else if ((other.dataMap & bit) != 0) {
+                final int otherIndex = realIndex(other.dataMap, bit);
+                final T otherLeaf = other.dataAt(otherIndex);
+                counts.leafAdded(HamtMerger.countLeaf(collisionMap, otherLeaf));
+                changed = true;
+                newDataMap |= bit;
+                newHashes[dataCount] = other.hashes[otherIndex];
+                newData[dataCount++] = otherLeaf;
+            } else {
+                final HamtCompactNode<T, K, V> otherChild = other.nodeAt(other.nodeIndex(bit));
+                counts.subtreeReused(otherChild);
+                changed = true;
+                newNodeMap |= bit;
+                newNodes[nodeCount++] = otherChild;
+            }
+        }
+        if (!changed) {
+            return this;
+        }
+        final Object[] newContent = new Object[dataCount + nodeCount];
+        System.arraycopy(newData, 0, newContent, 0, dataCount);
+        System.arraycopy(newNodes, 0, newContent, dataCount, nodeCount);
+        return new HamtCompactNode<>(newDataMap, newNodeMap, Arrays.copyOf(newHashes, dataCount), newContent);
+    }
+
+    private Holder<V> find(@Nonnull CollisionMap<T, K, V> collisionMap,
+                           int hashCode,
+                           @Nonnull K hashKey,
+                           int shift)
+    {
+        HamtCompactNode<T, K, V> node = this;
+        while (true) {
+            final int bit = bitFor(hashCode, shift);
+            if ((node.dataMap & bit) != 0) {
+                final int dataIndex = realIndex(node.dataMap, bit);
+                if (node.hashes[dataIndex] == hashCode) {
+                    return collisionMap.findValue(node.dataAt(dataIndex), hashKey);
+                } else {
+                    return Holders.of();
+                }
+            } else if ((node.nodeMap & bit) != 0) {
+                node = node.nodeAt(node.nodeIndex(bit));
+                shift += SHIFT;
+            } else {
+                return Holders.of();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private Cursor<MapChange<K, V>> diff(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                         @Nonnull HamtCompactNode<T, K, V> other,
+                                         int shift)
+    {
+        if (other == this) {
+            return StandardCursor.of();
+        }
+        final int allBits = dataMap | nodeMap | other.dataMap | other.nodeMap;
+        final Cursorable<MapChange<K, V>>[] diffs = new Cursorable[Integer.bitCount(allBits)];
+        int diffIndex = 0;
+        for (int remaining = allBits; remaining != 0; remaining &= remaining - 1) {
+            final int bit = Integer.lowestOneBit(remaining);
+            if ((dataMap & bit) != 0) {
+                final int dataIndex = realIndex(dataMap, bit);
+                final int hashCode = hashes[dataIndex];
+                final T leaf = dataAt(dataIndex);
+                if ((other.dataMap & bit) != 0) {
+                    final int otherIndex = realIndex(other.dataMap, bit);
+                    final T otherLeaf = other.dataAt(otherIndex);
+                    if (other.hashes[otherIndex] == hashCode) {
+                        diffs[diffIndex++] = () -> HamtDiff.diffLeaves(collisionMap, leaf, otherLeaf);
+                    } else {
+                        diffs[diffIndex++] = () -> HamtDiff.concat(DiffCursor.removed(collisionMap.cursor(leaf)), DiffCursor.added(collisionMap.cursor(otherLeaf)));
+                    }
+                } else if ((other.nodeMap & bit) != 0) {
+                    final HamtCompactNode<T, K, V> otherChild = other.nodeAt(other.nodeIndex(bit));
+                    diffs[diffIndex++] = () -> DiffCursor.of(() -> collisionMap.iterator(leaf),
+                                                             key -> collisionMap.findValue(leaf, key),
+                                                             () -> otherChild.iterator(collisionMap),
+                                                             key -> otherChild.find(collisionMap, hashCode, key, shift + SHIFT));
+                } else {
+                    diffs[diffIndex++] = () -> DiffCursor.removed(collisionMap.cursor(leaf));
+                }
+            } else if ((nodeMap & bit) != 0) {
+                final HamtCompactNode<T, K, V> child = nodeAt(nodeIndex(bit));
+                if ((other.dataMap & bit) != 0) {
+                    final int otherIndex = realIndex(other.dataMap, bit);
+                    final int otherHashCode = other.hashes[otherIndex];
+                    final T otherLeaf = other.dataAt(otherIndex);
+                    diffs[diffIndex++] = () -> DiffCursor.of(() -> child.iterator(collisionMap),
+                                                             key -> child.find(collisionMap, otherHashCode, key, shift + SHIFT),
+                                                             () -> collisionMap.iterator(otherLeaf),
+                                                             key -> collisionMap.findValue(otherLeaf, key));
+                } else if ((other.nodeMap & bit) != 0) {
+                    final HamtCompactNode<T, K, V> otherChild = other.nodeAt(other.nodeIndex(bit));
+                    diffs[diffIndex++] = () -> child.diff(collisionMap, otherChild, shift + SHIFT);
+                } else {
+                    diffs[diffIndex++] = () -> DiffCursor.removed(child.cursor(collisionMap));
+                }
+            } else if ((other.dataMap & bit) != 0) {
+                final T otherLeaf = other.dataAt(realIndex(other.dataMap, bit));
+                diffs[diffIndex++] = () -> DiffCursor.added(collisionMap.cursor(otherLeaf));
+            } else {
+                final HamtCompactNode<T, K, V> otherChild = other.nodeAt(other.nodeIndex(bit));
+                diffs[diffIndex++] = () -> DiffCursor.added(otherChild.cursor(collisionMap));
+            }
+        }
+        return LazyMultiCursor.cursor(IndexedArray.retained(diffs));
+    }
+
+    private boolean isSingleEntry()
+    {
+        return (nodeMap == 0) && (Integer.bitCount(dataMap) == 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private static <T, K, V> HamtCompactNode<T, K, V> forPair(int hashCode1,
+                                                              @Nonnull T leaf1,
+                                                              int hashCode2,
+                                                              @Nonnull T leaf2,
+                                                              int shift)
+    {
+        final int digit1 = (hashCode1 >>> shift) & MASK;
+        final int digit2 = (hashCode2 >>> shift) & MASK;
+        if (digit1 == digit2) {
+            final HamtCompactNode<T, K, V> child = forPair(hashCode1, leaf1, hashCode2, leaf2, shift + SHIFT);
+            return new HamtCompactNode<>(0, 1 << digit1, NO_HASHES, new Object[]{child});
+        } else if (digit1 < digit2) {
+            return new HamtCompactNode<>((1 << digit1) | (1 << digit2), 0, new int[]{hashCode1, hashCode2}, new Object[]{leaf1, leaf2});
+        } else {
+            return new HamtCompactNode<>((1 << digit1) | (1 << digit2), 0, new int[]{hashCode2, hashCode1}, new Object[]{leaf2, leaf1});
+        }
+    }
+
+    @Nonnull
+    private HamtCompactNode<T, K, V> copyAndInsertData(int bit,
+                                                       int hashCode,
+                                                       @Nonnull T leaf)
+    {
+        final int dataIndex = realIndex(dataMap, bit);
+        final int[] newHashes = new int[hashes.length + 1];
+        System.arraycopy(hashes, 0, newHashes, 0, dataIndex);
+        System.arraycopy(hashes, dataIndex, newHashes, dataIndex + 1, hashes.length - dataIndex);
+        newHashes[dataIndex] = hashCode;
+        final Object[] newContent = new Object[content.length + 1];
+        System.arraycopy(content, 0, newContent, 0, dataIndex);
+        System.arraycopy(content, dataIndex, newContent, dataIndex + 1, content.length - dataIndex);
+        newContent[dataIndex] = leaf;
+        return new HamtCompactNode<>(dataMap | bit, nodeMap, newHashes, newContent);
+    }
+
+    @Nonnull
+    private HamtCompactNode<T, K, V> copyAndRemoveData(int bit,
+                                                       int dataIndex)
+    {
+        if (content.length == 1) {
+            return of();
+        }
+        final int[] newHashes = new int[hashes.length - 1];
+        System.arraycopy(hashes, 0, newHashes, 0, dataIndex);
+        System.arraycopy(hashes, dataIndex + 1, newHashes, dataIndex, newHashes.length - dataIndex);
+        final Object[] newContent = new Object[content.length - 1];
+        System.arraycopy(content, 0, newContent, 0, dataIndex);
+        System.arraycopy(content, dataIndex + 1, newContent, dataIndex, newContent.length - dataIndex);
+        return new HamtCompactNode<>(dataMap & ~bit, nodeMap, newHashes, newContent);
+    }
+
+    @Nonnull
+    private HamtCompactNode<T, K, V> copyAndMigrateToNode(int bit,
+                                                          int dataIndex,
+                                                          @Nonnull HamtCompactNode<T, K, V> child)
+    {
+        // data index is removed and node is inserted at its position among the nodes
+        final int newDataMap = dataMap & ~bit;
+        final int newNodeMap = nodeMap | bit;
+        final int newNodeIndex = Integer.bitCount(newDataMap) + realIndex(newNodeMap, bit);
+        final int[] newHashes = new int[hashes.length - 1];
+        System.arraycopy(hashes, 0, newHashes, 0, dataIndex);
+        System.arraycopy(hashes, dataIndex + 1, newHashes, dataIndex, newHashes.length - dataIndex);
+        final Object[] newContent = new Object[content.length];
+        System.arraycopy(content, 0, newContent, 0, dataIndex);
+        System.arraycopy(content, dataIndex + 1, newContent, dataIndex, newNodeIndex - dataIndex);
+        newContent[newNodeIndex] = child;
+        System.arraycopy(content, newNodeIndex + 1, newContent, newNodeIndex + 1, content.length - newNodeIndex - 1);
+        return new HamtCompactNode<>(newDataMap, newNodeMap, newHashes, newContent);
+    }
+
+    @Nonnull
+    private HamtCompactNode<T, K, V> copyAndMigrateToData(int bit,
+                                                          int nodeIndex,
+                                                          int hashCode,
+                                                          @Nonnull T leaf)
+    {
+        // node is removed and data is inserted at its position among the data
+        final int newDataMap = dataMap | bit;
+        final int newDataIndex = realIndex(newDataMap, bit);
+        final int[] newHashes = new int[hashes.length + 1];
+        System.arraycopy(hashes, 0, newHashes, 0, newDataIndex);
+        System.arraycopy(hashes, newDataIndex, newHashes, newDataIndex + 1, hashes.length - newDataIndex);
+        newHashes[newDataIndex] = hashCode;
+        final Object[] newContent = new Object[content.length];
+        System.arraycopy(content, 0, newContent, 0, newDataIndex);
+        newContent[newDataIndex] = leaf;
+        System.arraycopy(content, newDataIndex, newContent, newDataIndex + 1, nodeIndex - newDataIndex);
+        System.arraycopy(content, nodeIndex + 1, newContent, nodeIndex + 1, content.length - nodeIndex - 1);
+        return new HamtCompactNode<>(newDataMap, nodeMap & ~bit, newHashes, newContent);
+    }
+
+    private static int bitFor(int hashCode,
+                              int shift)
+    {
+        return 1 << ((hashCode >>> shift) & MASK);
+    }
+
+    private static int realIndex(int bitmask,
+                                 int bit)
+    {
+        return Integer.bitCount(bitmask & (bit - 1));
+    }
+
+    private int nodeIndex(int bit)
+    {
+        return hashes.length + realIndex(nodeMap, bit);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T dataAt(int index)
+    {
+        return (T)content[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    private HamtCompactNode<T, K, V> nodeAt(int index)
+    {
+        return (HamtCompactNode<T, K, V>)content[index];
+    }
+
+    @Override
+    @Nonnull
+    public SplitableIterator<JImmutableMap.Entry<K, V>> iterator(CollisionMap<T, K, V> collisionMap)
+    {
+        return LazyMultiIterator.transformed(iterator(), t -> () -> collisionMap.iterator(t));
+    }
+
+    @Nonnull
+    @Override
+    public SplitableIterator<T> iterator()
+    {
+        return LazyMultiIterator.iterator(indexedForIterator());
+    }
+
+    @Override
+    @Nonnull
+    public Cursor<JImmutableMap.Entry<K, V>> cursor(CollisionMap<T, K, V> collisionMap)
+    {
+        return LazyMultiCursor.transformed(cursor(), t -> () -> collisionMap.cursor(t));
+    }
+
+    @Nonnull
+    @Override
+    public Cursor<T> cursor()
+    {
+        return LazyMultiCursor.cursor(indexedForCursor());
+    }
+
+    @Override
+    public String toString()
+    {
+        return "(0x" + Integer.toHexString(dataMap) + ",0x" + Integer.toHexString(nodeMap) + "," + content.length + ")";
+    }
+
+    @Override
+    public void checkInvariants()
+    {
+        checkInvariants(0, 0, 0);
+    }
+
+    private void checkInvariants(int shift,
+                                 int prefix,
+                                 int prefixMask)
+    {
+        if ((dataMap & nodeMap) != 0) {
+            throw new IllegalStateException("data and node bitmaps overlap");
+        }
+        if (hashes.length != Integer.bitCount(dataMap)) {
+            throw new IllegalStateException("hashes length does not match dataMap");
+        }
+        if (content.length != hashes.length + Integer.bitCount(nodeMap)) {
+            throw new IllegalStateException("content length does not match bitmaps");
+        }
+        if ((shift > 0) && (isEmpty() || isSingleEntry())) {
+            throw new IllegalStateException("non-root node should have been inlined into parent");
+        }
+        for (int i = 0; i < hashes.length; ++i) {
+            if ((hashes[i] & prefixMask) != prefix) {
+                throw new IllegalStateException("hash code does not match path");
+            }
+            if ((dataMap & bitFor(hashes[i], shift)) == 0) {
+                throw new IllegalStateException("hash code does not match dataMap");
+            }
+            if ((i > 0) && (Integer.compareUnsigned(hashes[i - 1] >>> shift & MASK, hashes[i] >>> shift & MASK) >= 0)) {
+                throw new IllegalStateException("data out of order");
+            }
+        }
+        int remaining = nodeMap;
+        for (int i = hashes.length; i < content.length; ++i) {
+            final int digit = Integer.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            nodeAt(i).checkInvariants(shift + SHIFT, prefix | (digit << shift), prefixMask | (MASK << shift));
+        }
+    }
+
+    private Indexed<SplitableIterable<T>> indexedForIterator()
+    {
+        return new Indexed<SplitableIterable<T>>()
+        {
+            @Override
+            public SplitableIterable<T> get(int index)
+            {
+                if (index < hashes.length) {
+                    final T leaf = dataAt(index);
+                    return () -> SingleValueIterator.of(leaf);
+                } else {
+                    return nodeAt(index);
+                }
+            }
+
+            @Override
+            public int size()
+            {
+                return content.length;
+            }
+        };
+    }
+
+    private Indexed<Cursorable<T>> indexedForCursor()
+    {
+        return new Indexed<Cursorable<T>>()
+        {
+            @Override
+            public Cursorable<T> get(int index)
+            {
+                if (index < hashes.length) {
+                    final T leaf = dataAt(index);
+                    return () -> SingleValueCursor.of(leaf);
+                } else {
+                    return nodeAt(index);
+                }
+            }
+
+            @Override
+            public int size()
+            {
+                return content.length;
+            }
+        };
+    }
+}
@@ -0,0 +1,167 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.hash.hamt;
+
+import org.javimmutable.collections.Cursor;
+import org.javimmutable.collections.Cursorable;
+import org.javimmutable.collections.MapChange;
+import org.javimmutable.collections.cursors.DiffCursor;
+import org.javimmutable.collections.cursors.LazyMultiCursor;
+import org.javimmutable.collections.cursors.StandardCursor;
+import org.javimmutable.collections.hash.collision_map.CollisionMap;
+import org.javimmutable.collections.indexed.IndexedArray;
+import org.javimmutable.collections.indexed.IndexedHelper;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Helper methods shared by the HamtNode implementations to compare two trees node by node.
+ * Subtrees shared by both trees are skipped entirely so comparing two versions of the same
+ * map only visits the paths that differ between them.  Since equal keys always have equal
+ * hash codes the keys of a leaf can only be bound in a leaf with the same hash code which
+ * allows lookups to be performed without recomputing any hash codes.
+ */
+final class HamtDiff
+{
+    private HamtDiff()
+    {
+    }
+
+    /**
+     * Produces a Cursor over the changes needed to turn node into other.  Both nodes must
+     * occupy the same position in trees using the standard node layout and the same CollisionMap.
+     */
+    @Nonnull
+    static <T, K, V> Cursor<MapChange<K, V>> diff(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                                  @Nonnull HamtNode<T, K, V> node,
+                                                  @Nonnull HamtNode<T, K, V> other)
+    {
+        if (node == other) {
+            return StandardCursor.of();
+        } else if (node.isEmpty()) {
+            return DiffCursor.added(other.cursor(collisionMap));
+        } else if (other.isEmpty()) {
+            return DiffCursor.removed(node.cursor(collisionMap));
+        } else if (node instanceof HamtLeafNode) {
+            final HamtLeafNode<T, K, V> leaf = (HamtLeafNode<T, K, V>)node;
+            if (other instanceof HamtLeafNode) {
+                final HamtLeafNode<T, K, V> otherLeaf = (HamtLeafNode<T, K, V>)other;
+                if (leaf.getHashCode() == otherLeaf.getHashCode()) {
+                    return diffLeaves(collisionMap, leaf.getValue(), otherLeaf.getValue());
+                } else {
+                    return concat(DiffCursor.removed(node.cursor(collisionMap)), DiffCursor.added(other.cursor(collisionMap)));
+                }
+            }
+            return DiffCursor.of(() -> collisionMap.iterator(leaf.getValue()),
+                                 key -> collisionMap.findValue(leaf.getValue(), key),
+                                 () -> other.iterator(collisionMap),
+                                 key -> other.find(collisionMap, leaf.getHashCode(), key));
+        } else if (other instanceof HamtLeafNode) {
+            final HamtLeafNode<T, K, V> otherLeaf = (HamtLeafNode<T, K, V>)other;
+            return DiffCursor.of(() -> node.iterator(collisionMap),
+                                 key -> node.find(collisionMap, otherLeaf.getHashCode(), key),
+                                 () -> collisionMap.iterator(otherLeaf.getValue()),
+                                 key -> collisionMap.findValue(otherLeaf.getValue(), key));
+        } else {
+            return diffBranches(collisionMap, (HamtBranchNode<T, K, V>)node, (HamtBranchNode<T, K, V>)other);
+        }
+    }
+
+    /**
+     * Produces a Cursor over the changes needed to turn leaf into otherLeaf.  Both leaves
+     * must contain only keys having the same hash code.  Either leaf can be null to indicate
+     * that there are no keys with that hash code.
+     */
+    @Nonnull
+    static <T, K, V> Cursor<MapChange<K, V>> diffLeaves(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                                        @Nullable T leaf,
+                                                        @Nullable T otherLeaf)
+    {
+        if (leaf == otherLeaf) {
+            return StandardCursor.of();
+        } else if (leaf == null) {
+            return DiffCursor.added(collisionMap.cursor(otherLeaf));
+        } else if (otherLeaf == null) {
+            return DiffCursor.removed(collisionMap.cursor(leaf));
+        } else {
+            return DiffCursor.of(() -> collisionMap.iterator(leaf),
+                                 key -> collisionMap.findValue(leaf, key),
+                                 () -> collisionMap.iterator(otherLeaf),
+                                 key -> collisionMap.findValue(otherLeaf, key));
+        }
+    }
+
+    @Nonnull
+    static <T> Cursor<T> concat(@Nonnull Cursor<T> first,
+                                @Nonnull Cursor<T> second)
+    {
+        return LazyMultiCursor.cursor(IndexedHelper.<Cursorable<T>, Cursorable<T>>indexed(() -> first, () -> second));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private static <T, K, V> Cursor<MapChange<K, V>> diffBranches(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                                                  @Nonnull HamtBranchNode<T, K, V> node,
+                                                                  @Nonnull HamtBranchNode<T, K, V> other)
+    {
+        final int bitmask = node.getBitmask();
+        final int otherBitmask = other.getBitmask();
+        final HamtNode<T, K, V>[] children = node.getChildren();
+        final HamtNode<T, K, V>[] otherChildren = other.getChildren();
+        final int allBits = bitmask | otherBitmask;
+        final Cursorable<MapChange<K, V>>[] diffs = new Cursorable[1 + Integer.bitCount(allBits)];
+        diffs[0] = () -> diffLeaves(collisionMap, node.getValue(), other.getValue());
+        int thisIndex = 0;
+        int otherIndex = 0;
+        int diffIndex = 1;
+        for (int remaining = allBits; remaining != 0; remaining &= remaining - 1) {
+            final int bit = Integer.lowestOneBit(remaining);
+            if ((otherBitmask & bit) == 0) {
+                final HamtNode<T, K, V> child = children[thisIndex++];
+                diffs[diffIndex++] = () -> DiffCursor.removed(child.cursor(collisionMap));
+            } else if ((bitmask & bit) == 0) {
+                final HamtNode<T, K, V> otherChild = otherChildren[otherIndex++];
+                diffs[diffIndex++] = () -> DiffCursor.added(otherChild.cursor(collisionMap));
+            } else {
+                final HamtNode<T, K, V> child = children[thisIndex++];
+                final HamtNode<T, K, V> otherChild = otherChildren[otherIndex++];
+                diffs[diffIndex++] = () -> child.diff(collisionMap, otherChild);
+            }
+        }
+        return LazyMultiCursor.cursor(IndexedArray.retained(diffs));
+    }
+}
@@ -37,11 +37,15 @@ package org.javimmutable.collections.hash.hamt;
 
 import org.javimmutable.collections.Cursor;
 import org.javimmutable.collections.Func1;
+import org.javimmutable.collections.Func2;
 import org.javimmutable.collections.Holder;
 import org.javimmutable.collections.Holders;
 import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.MapChange;
 import org.javimmutable.collections.SplitableIterator;
+import org.javimmutable.collections.common.BatchLookup;
 import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.common.StructureStats;
 import org.javimmutable.collections.cursors.StandardCursor;
 import org.javimmutable.collections.hash.collision_map.CollisionMap;
 import org.javimmutable.collections.iterators.EmptyIterator;
@@ -78,6 +82,15 @@ public class HamtEmptyNode<T, K, V>
         return defaultValue;
     }
 
+    @Override
+    public void getAll(@Nonnull CollisionMap<T, K, V> collisionMap,
+                       @Nonnull BatchLookup<K, V> batch,
+                       int offset,
+                       int limit,
+                       int shift)
+    {
+    }
+
     @Nonnull
     @Override
     public HamtNode<T, K, V> assign(@Nonnull CollisionMap<T, K, V> collisionMap,
@@ -110,12 +123,50 @@ public class HamtEmptyNode<T, K, V>
         return this;
     }
 
+    @Nonnull
+    @Override
+    public HamtNode<T, K, V> deleteAll(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                       @Nonnull BatchLookup<K, V> batch,
+                                       int offset,
+                                       int limit,
+                                       int shift,
+                                       @Nonnull MutableDelta sizeDelta)
+    {
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public HamtNode<T, K, V> merge(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                   @Nonnull HamtNode<T, K, V> other,
+                                   @Nullable Func2<V, V, V> merger,
+                                   @Nonnull HamtMergeCounts<T, K, V> counts)
+    {
+        counts.subtreeReused(other);
+        return other;
+    }
+
+    @Nonnull
+    @Override
+    public Cursor<MapChange<K, V>> diff(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                        @Nonnull HamtNode<T, K, V> other)
+    {
+        return HamtDiff.diff(collisionMap, this, other);
+    }
+
     @Override
     public boolean isEmpty()
     {
         return true;
     }
 
+    @Override
+    public void collectStats(@Nonnull CollisionMap<T, K, V> collisionMap,
+                             @Nonnull StructureStats.Builder stats,
+                             int depth)
+    {
+    }
+
     @Nonnull
     @Override
     public SplitableIterator<JImmutableMap.Entry<K, V>> iterator(CollisionMap<T, K, V> collisionMap)
@@ -37,11 +37,15 @@ package org.javimmutable.collections.hash.hamt;
 
 import org.javimmutable.collections.Cursor;
 import org.javimmutable.collections.Func1;
+import org.javimmutable.collections.Func2;
 import org.javimmutable.collections.Holder;
 import org.javimmutable.collections.Holders;
 import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.MapChange;
 import org.javimmutable.collections.SplitableIterator;
+import org.javimmutable.collections.common.BatchLookup;
 import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.common.StructureStats;
 import org.javimmutable.collections.cursors.SingleValueCursor;
 import org.javimmutable.collections.hash.collision_map.CollisionMap;
 import org.javimmutable.collections.iterators.SingleValueIterator;
@@ -94,6 +98,20 @@ public class HamtLeafNode<T, K, V>
         }
     }
 
+    @Override
+    public void getAll(@Nonnull CollisionMap<T, K, V> collisionMap,
+                       @Nonnull BatchLookup<K, V> batch,
+                       int offset,
+                       int limit,
+                       int shift)
+    {
+        for (int index = offset; index < limit; ++index) {
+            if (HamtBranchNode.remainder(batch.getHashCode(index), shift) == hashCode) {
+                batch.setValue(index, collisionMap.getValueOr(value, batch.getKey(index), batch.getDefaultValue()));
+            }
+        }
+    }
+
     @Nonnull
     @Override
     public HamtNode<T, K, V> assign(@Nonnull CollisionMap<T, K, V> collisionMap,
@@ -185,17 +203,101 @@ public class HamtLeafNode<T, K, V>
         }
     }
 
+    @Nonnull
+    @Override
+    public HamtNode<T, K, V> deleteAll(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                       @Nonnull BatchLookup<K, V> batch,
+                                       int offset,
+                                       int limit,
+                                       int shift,
+                                       @Nonnull MutableDelta sizeDelta)
+    {
+        T newValue = value;
+        for (int index = offset; (index < limit) && (newValue != null); ++index) {
+            if (HamtBranchNode.remainder(batch.getHashCode(index), shift) == hashCode) {
+                newValue = collisionMap.delete(newValue, batch.getKey(index), sizeDelta);
+            }
+        }
+        if (newValue == value) {
+            return this;
+        } else if (newValue == null) {
+            return HamtEmptyNode.of();
+        } else {
+            return new HamtLeafNode<>(hashCode, newValue);
+        }
+    }
+
+    @Nonnull
+    @Override
+    public HamtNode<T, K, V> merge(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                   @Nonnull HamtNode<T, K, V> other,
+                                   @Nullable Func2<V, V, V> merger,
+                                   @Nonnull HamtMergeCounts<T, K, V> counts)
+    {
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (other instanceof HamtLeafNode) {
+            final HamtLeafNode<T, K, V> otherLeaf = (HamtLeafNode<T, K, V>)other;
+            if (otherLeaf.hashCode == hashCode) {
+                final T newValue = HamtMerger.mergeLeaves(collisionMap, value, otherLeaf.value, merger, counts);
+                return (newValue == value) ? this : new HamtLeafNode<>(hashCode, newValue);
+            }
+        }
+        // other is at least as large as we are so add our entries to it instead
+        final MutableDelta added = new MutableDelta();
+        final Iterator<JImmutableMap.Entry<K, V>> entries = collisionMap.iterator(value);
+        HamtNode<T, K, V> answer = other;
+        int count = 0;
+        while (entries.hasNext()) {
+            final JImmutableMap.Entry<K, V> entry = entries.next();
+            answer = answer.update(collisionMap, hashCode, entry.getKey(), HamtMerger.reverseGenerator(entry.getValue(), merger), added);
+            count += 1;
+        }
+        counts.subtreeReused(other);
+        counts.overlapInReused(count - added.getValue());
+        return answer;
+    }
+
+    int getHashCode()
+    {
+        return hashCode;
+    }
+
+    @Nonnull
+    T getValue()
+    {
+        return value;
+    }
+
     public HamtNode<T, K, V> liftNode(int index)
     {
         return new HamtLeafNode<>(hashCode << HamtBranchNode.SHIFT | index, value);
     }
 
+    @Nonnull
+    @Override
+    public Cursor<MapChange<K, V>> diff(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                        @Nonnull HamtNode<T, K, V> other)
+    {
+        return HamtDiff.diff(collisionMap, this, other);
+    }
+
     @Override
     public boolean isEmpty()
     {
         return false;
     }
 
+    @Override
+    public void collectStats(@Nonnull CollisionMap<T, K, V> collisionMap,
+                             @Nonnull StructureStats.Builder stats,
+                             int depth)
+    {
+        stats.addNode(this, StructureStats.objectBytes(1, StructureStats.INT_BYTES));
+        collisionMap.collectStats(value, stats, depth);
+    }
+
     @Nonnull
     @Override
     public SplitableIterator<JImmutableMap.Entry<K, V>> iterator(CollisionMap<T, K, V> collisionMap)
@@ -0,0 +1,135 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.hash.hamt;
+
+import org.javimmutable.collections.hash.collision_map.CollisionMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the information needed to compute the size of the tree produced by HamtNode.merge()
+ * without visiting subtrees that the merge itself skips.  Every entry of the other tree falls
+ * into exactly one of these categories:
+ * <ul>
+ * <li>entries of leaves visited by the merge, for which both the number of new keys and the
+ * number of keys already present in this tree are known</li>
+ * <li>entries of subtrees of the other tree that are reused intact because this tree has no
+ * entries in the same position (all of them are new keys)</li>
+ * <li>entries of subtrees shared by both trees and skipped entirely (none of them are new keys)</li>
+ * </ul>
+ * If no shared subtrees were skipped the number of new keys is the size of the other tree minus
+ * the keys found in both trees so reused subtrees never have to be counted.  If no subtrees
+ * were reused the number of new keys is simply the number found in the visited leaves.  Only
+ * when a merge both reuses and skips subtrees are the reused subtrees walked to count them.
+ */
+@NotThreadSafe
+public class HamtMergeCounts<T, K, V>
+{
+    private final CollisionMap<T, K, V> collisionMap;
+    private final List<HamtNode<T, K, V>> reused;
+    private int added;
+    private int overlap;
+    private boolean shared;
+
+    public HamtMergeCounts(@Nonnull CollisionMap<T, K, V> collisionMap)
+    {
+        this.collisionMap = collisionMap;
+        reused = new ArrayList<>();
+    }
+
+    /**
+     * Records a leaf of the other tree containing otherCount keys of which newCount were not in this tree.
+     */
+    void leafMerged(int otherCount,
+                    int newCount)
+    {
+        added += newCount;
+        overlap += otherCount - newCount;
+    }
+
+    /**
+     * Records a leaf of the other tree containing count keys none of which were in this tree.
+     */
+    void leafAdded(int count)
+    {
+        leafMerged(count, count);
+    }
+
+    /**
+     * Records a subtree of the other tree that became part of the result without being visited.
+     */
+    void subtreeReused(@Nonnull HamtNode<T, K, V> node)
+    {
+        reused.add(node);
+    }
+
+    /**
+     * Records that count keys of a subtree passed to subtreeReused() were also present in this tree.
+     */
+    void overlapInReused(int count)
+    {
+        added -= count;
+        overlap += count;
+    }
+
+    /**
+     * Records that a subtree common to both trees was skipped without being visited.
+     */
+    void subtreeShared()
+    {
+        shared = true;
+    }
+
+    /**
+     * Returns the number of keys in the other tree that were not in this tree.
+     *
+     * @param otherSize number of keys in the other tree
+     */
+    public int sizeDelta(int otherSize)
+    {
+        if (!shared) {
+            return otherSize - overlap;
+        }
+        int answer = added;
+        for (HamtNode<T, K, V> node : reused) {
+            answer += HamtMerger.countEntries(collisionMap, node);
+        }
+        return answer;
+    }
+}
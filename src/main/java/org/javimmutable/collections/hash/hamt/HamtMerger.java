@@ -0,0 +1,161 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.hash.hamt;
+
+import org.javimmutable.collections.Func1;
+import org.javimmutable.collections.Func2;
+import org.javimmutable.collections.Holder;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.hash.collision_map.CollisionMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Iterator;
+
+/**
+ * Helper methods shared by the HamtNode implementations to merge two trees node by node.
+ * A null merger indicates that values from the other tree simply replace values in this
+ * tree which makes it safe to reuse subtrees that both trees have in common.
+ */
+final class HamtMerger
+{
+    private HamtMerger()
+    {
+    }
+
+    /**
+     * Produces a leaf containing all of the entries from both leaves.  Records the number of
+     * keys in otherLeaf and how many of them were not in leaf in counts.
+     */
+    @Nonnull
+    static <T, K, V> T mergeLeaves(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                   @Nonnull T leaf,
+                                   @Nonnull T otherLeaf,
+                                   @Nullable Func2<V, V, V> merger,
+                                   @Nonnull HamtMergeCounts<T, K, V> counts)
+    {
+        final MutableDelta added = new MutableDelta();
+        final T answer = mergeLeaves(collisionMap, leaf, otherLeaf, merger, added);
+        counts.leafMerged(countLeaf(collisionMap, otherLeaf), added.getValue());
+        return answer;
+    }
+
+    /**
+     * Same as mergeLeaves() except that otherLeaf belongs to a subtree that has already been
+     * passed to HamtMergeCounts.subtreeReused() so only the keys found in both leaves are recorded.
+     */
+    @Nonnull
+    static <T, K, V> T mergeLeavesInReused(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                           @Nonnull T leaf,
+                                           @Nonnull T otherLeaf,
+                                           @Nullable Func2<V, V, V> merger,
+                                           @Nonnull HamtMergeCounts<T, K, V> counts)
+    {
+        final MutableDelta added = new MutableDelta();
+        final T answer = mergeLeaves(collisionMap, leaf, otherLeaf, merger, added);
+        counts.overlapInReused(countLeaf(collisionMap, otherLeaf) - added.getValue());
+        return answer;
+    }
+
+    @Nonnull
+    private static <T, K, V> T mergeLeaves(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                           @Nonnull T leaf,
+                                           @Nonnull T otherLeaf,
+                                           @Nullable Func2<V, V, V> merger,
+                                           @Nonnull MutableDelta sizeDelta)
+    {
+        if ((leaf == otherLeaf) && (merger == null)) {
+            return leaf;
+        }
+        T answer = leaf;
+        for (Iterator<JImmutableMap.Entry<K, V>> i = collisionMap.iterator(otherLeaf); i.hasNext(); ) {
+            final JImmutableMap.Entry<K, V> entry = i.next();
+            if (merger == null) {
+                answer = collisionMap.update(answer, entry.getKey(), entry.getValue(), sizeDelta);
+            } else {
+                answer = collisionMap.update(answer, entry.getKey(), forwardGenerator(entry.getValue(), merger), sizeDelta);
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Returns a generator for use when a value from the other tree is being added to this tree.
+     */
+    @Nonnull
+    static <V> Func1<Holder<V>, V> forwardGenerator(V otherValue,
+                                                    @Nullable Func2<V, V, V> merger)
+    {
+        return h -> (h.isFilled() && (merger != null)) ? merger.apply(h.getValue(), otherValue) : otherValue;
+    }
+
+    /**
+     * Returns a generator for use when a value from this tree is being added to the other tree.
+     */
+    @Nonnull
+    static <V> Func1<Holder<V>, V> reverseGenerator(V thisValue,
+                                                    @Nullable Func2<V, V, V> merger)
+    {
+        return h -> h.isFilled() ? ((merger != null) ? merger.apply(thisValue, h.getValue()) : h.getValue()) : thisValue;
+    }
+
+    /**
+     * Returns the number of entries contained in a single leaf.
+     */
+    static <T, K, V> int countLeaf(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                   @Nonnull T leaf)
+    {
+        int answer = 0;
+        for (Iterator<JImmutableMap.Entry<K, V>> i = collisionMap.iterator(leaf); i.hasNext(); i.next()) {
+            answer += 1;
+        }
+        return answer;
+    }
+
+    /**
+     * Returns the number of entries contained in a subtree.
+     */
+    static <T, K, V> int countEntries(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                      @Nonnull HamtNode<T, K, V> node)
+    {
+        int answer = 0;
+        for (Iterator<T> i = node.iterator(); i.hasNext(); ) {
+            answer += countLeaf(collisionMap, i.next());
+        }
+        return answer;
+    }
+}
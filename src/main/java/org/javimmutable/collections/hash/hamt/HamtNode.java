@@ -38,12 +38,16 @@ package org.javimmutable.collections.hash.hamt;
 import org.javimmutable.collections.Cursor;
 import org.javimmutable.collections.Cursorable;
 import org.javimmutable.collections.Func1;
+import org.javimmutable.collections.Func2;
 import org.javimmutable.collections.Holder;
 import org.javimmutable.collections.InvariantCheckable;
 import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.MapChange;
 import org.javimmutable.collections.SplitableIterable;
 import org.javimmutable.collections.SplitableIterator;
+import org.javimmutable.collections.common.BatchLookup;
 import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.common.StructureStats;
 import org.javimmutable.collections.hash.collision_map.CollisionMap;
 
 import javax.annotation.Nonnull;
@@ -64,6 +68,19 @@ public interface HamtNode<T, K, V>
                  @Nonnull K hashKey,
                  V defaultValue);
 
+    /**
+     * Looks up the keys at positions offset (inclusive) through limit (exclusive) of a batch
+     * created using BatchLookup.sortedByHashCode() and stores the values found in the batch.
+     * The keys in that range must be exactly the keys whose paths lead to this node and
+     * shift must be the number of hash code bits consumed by those paths.  On the root
+     * of a tree the range covers the whole batch and shift is zero.
+     */
+    void getAll(@Nonnull CollisionMap<T, K, V> collisionMap,
+                @Nonnull BatchLookup<K, V> batch,
+                int offset,
+                int limit,
+                int shift);
+
     @Nonnull
     HamtNode<T, K, V> assign(@Nonnull CollisionMap<T, K, V> collisionMap,
                              int hashCode,
@@ -84,8 +101,51 @@ public interface HamtNode<T, K, V>
                              @Nonnull K hashKey,
                              @Nonnull MutableDelta sizeDelta);
 
+    /**
+     * Deletes the keys at positions offset (inclusive) through limit (exclusive) of a batch
+     * created using BatchLookup.sortedByHashCode().  The range and shift have the same meaning
+     * as for getAll().  Each node affected by the deletions is copied only once.
+     */
+    @Nonnull
+    HamtNode<T, K, V> deleteAll(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                @Nonnull BatchLookup<K, V> batch,
+                                int offset,
+                                int limit,
+                                int shift,
+                                @Nonnull MutableDelta sizeDelta);
+
+    /**
+     * Merges the entries of other into this node and returns the resulting node.  Both nodes must
+     * occupy the same position in trees that use the same node layout and CollisionMap.  For keys
+     * bound in both nodes the merger is called with the value from this node and the value from
+     * other.  A null merger means that values from other replace those in this node.
+     * The information needed to compute the size of the result is recorded in counts.
+     */
+    @Nonnull
+    HamtNode<T, K, V> merge(@Nonnull CollisionMap<T, K, V> collisionMap,
+                            @Nonnull HamtNode<T, K, V> other,
+                            @Nullable Func2<V, V, V> merger,
+                            @Nonnull HamtMergeCounts<T, K, V> counts);
+
+    /**
+     * Returns a Cursor over the changes needed to turn this node into other.  Both nodes must
+     * occupy the same position in trees that use the same node layout and CollisionMap.
+     * Subtrees shared by both nodes are skipped without visiting their entries.
+     */
+    @Nonnull
+    Cursor<MapChange<K, V>> diff(@Nonnull CollisionMap<T, K, V> collisionMap,
+                                 @Nonnull HamtNode<T, K, V> other);
+
     boolean isEmpty();
 
+    /**
+     * Adds this node and all of its descendants to stats.  depth is the number of nodes
+     * between this node and the root of the tree.
+     */
+    void collectStats(@Nonnull CollisionMap<T, K, V> collisionMap,
+                      @Nonnull StructureStats.Builder stats,
+                      int depth);
+
     @Nonnull
     SplitableIterator<JImmutableMap.Entry<K, V>> iterator(CollisionMap<T, K, V> collisionMap);
 
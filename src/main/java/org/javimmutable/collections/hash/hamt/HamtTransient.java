@@ -0,0 +1,368 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.hash.hamt;
+
+import org.javimmutable.collections.Func1;
+import org.javimmutable.collections.Holder;
+import org.javimmutable.collections.Holders;
+import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.hash.collision_map.CollisionMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Editable-in-place version of a HAMT used to apply large numbers of changes without
+ * path copying the tree for every change.  The transient owns any branches it creates
+ * and modifies them directly.  Nodes taken from an existing immutable tree are never
+ * modified.  Instead they are copied into owned branches the first time a change passes
+ * through them.  Calling freeze() converts all owned branches into normal immutable nodes
+ * and relinquishes ownership of them so the transient can continue to be used without
+ * affecting the frozen tree.
+ */
+@NotThreadSafe
+public class HamtTransient<T, K, V>
+{
+    private static final int MIN_CAPACITY = 4;
+    private static final int MAX_CAPACITY = 32;
+
+    private final CollisionMap<T, K, V> collisionMap;
+    private final MutableDelta sizeDelta;
+    private Object root;
+
+    public HamtTransient(@Nonnull CollisionMap<T, K, V> collisionMap,
+                         @Nonnull HamtNode<T, K, V> root)
+    {
+        this.collisionMap = collisionMap;
+        this.sizeDelta = new MutableDelta();
+        this.root = root;
+    }
+
+    /**
+     * Number of entries added (positive) or removed (negative) since this transient was created.
+     */
+    public int getSizeDelta()
+    {
+        return sizeDelta.getValue();
+    }
+
+    public Holder<V> find(int hashCode,
+                          @Nonnull K hashKey)
+    {
+        Object node = root;
+        while (node instanceof Branch) {
+            final Branch<T> branch = cast(node);
+            if (hashCode == 0) {
+                return (branch.value == null) ? Holders.of() : collisionMap.findValue(branch.value, hashKey);
+            }
+            final int bit = 1 << (hashCode & HamtBranchNode.MASK);
+            if ((branch.bitmask & bit) == 0) {
+                return Holders.of();
+            }
+            node = branch.children[realIndex(branch.bitmask, bit)];
+            hashCode >>>= HamtBranchNode.SHIFT;
+        }
+        return this.<HamtNode<T, K, V>>cast(node).find(collisionMap, hashCode, hashKey);
+    }
+
+    public V getValueOr(int hashCode,
+                        @Nonnull K hashKey,
+                        V defaultValue)
+    {
+        Object node = root;
+        while (node instanceof Branch) {
+            final Branch<T> branch = cast(node);
+            if (hashCode == 0) {
+                return (branch.value == null) ? defaultValue : collisionMap.getValueOr(branch.value, hashKey, defaultValue);
+            }
+            final int bit = 1 << (hashCode & HamtBranchNode.MASK);
+            if ((branch.bitmask & bit) == 0) {
+                return defaultValue;
+            }
+            node = branch.children[realIndex(branch.bitmask, bit)];
+            hashCode >>>= HamtBranchNode.SHIFT;
+        }
+        return this.<HamtNode<T, K, V>>cast(node).getValueOr(collisionMap, hashCode, hashKey, defaultValue);
+    }
+
+    public void assign(int hashCode,
+                       @Nonnull K hashKey,
+                       @Nullable V value)
+    {
+        root = assign(root, hashCode, hashKey, leaf -> collisionMap.update(leaf, hashKey, value, sizeDelta));
+    }
+
+    public void update(int hashCode,
+                       @Nonnull K hashKey,
+                       @Nonnull Func1<Holder<V>, V> generator)
+    {
+        root = assign(root, hashCode, hashKey, leaf -> collisionMap.update(leaf, hashKey, generator, sizeDelta));
+    }
+
+    public void delete(int hashCode,
+                       @Nonnull K hashKey)
+    {
+        root = delete(root, hashCode, hashKey);
+    }
+
+    /**
+     * Converts all owned branches into immutable nodes and returns the resulting tree.
+     * The transient gives up ownership of all of its branches so subsequent changes
+     * to the transient will not be visible in the returned tree.
+     */
+    @Nonnull
+    public HamtNode<T, K, V> freeze()
+    {
+        final HamtNode<T, K, V> frozen = freeze(root);
+        root = frozen;
+        return frozen;
+    }
+
+    private Object assign(Object node,
+                          int hashCode,
+                          @Nonnull K hashKey,
+                          @Nonnull Func1<T, T> updater)
+    {
+        if (node instanceof Branch) {
+            final Branch<T> branch = cast(node);
+            assignInto(branch, hashCode, hashKey, updater);
+            return branch;
+        } else if (node instanceof HamtLeafNode) {
+            final HamtLeafNode<T, K, V> leaf = cast(node);
+            if (leaf.getHashCode() == hashCode) {
+                final T oldValue = leaf.getValue();
+                final T newValue = updater.apply(oldValue);
+                return (newValue == oldValue) ? leaf : new HamtLeafNode<>(hashCode, newValue);
+            } else {
+                final Branch<T> branch = Branch.forLeaf(leaf.getHashCode(), leaf.getValue());
+                assignInto(branch, hashCode, hashKey, updater);
+                return branch;
+            }
+        } else if (node instanceof HamtBranchNode) {
+            final Branch<T> branch = Branch.forBranch(cast(node));
+            assignInto(branch, hashCode, hashKey, updater);
+            return branch;
+        } else {
+            return new HamtLeafNode<>(hashCode, updater.apply(null));
+        }
+    }
+
+    private void assignInto(@Nonnull Branch<T> branch,
+                            int hashCode,
+                            @Nonnull K hashKey,
+                            @Nonnull Func1<T, T> updater)
+    {
+        if (hashCode == 0) {
+            branch.value = updater.apply(branch.value);
+        } else {
+            final int remainder = hashCode >>> HamtBranchNode.SHIFT;
+            final int bit = 1 << (hashCode & HamtBranchNode.MASK);
+            final int childIndex = realIndex(branch.bitmask, bit);
+            if ((branch.bitmask & bit) == 0) {
+                branch.insert(bit, childIndex, new HamtLeafNode<>(remainder, updater.apply(null)));
+            } else {
+                branch.children[childIndex] = assign(branch.children[childIndex], remainder, hashKey, updater);
+            }
+        }
+    }
+
+    private Object delete(Object node,
+                          int hashCode,
+                          @Nonnull K hashKey)
+    {
+        if (node instanceof Branch) {
+            final Branch<T> branch = cast(node);
+            deleteFrom(branch, hashCode, hashKey);
+            return branch;
+        } else if (node instanceof HamtBranchNode) {
+            final HamtBranchNode<T, K, V> original = cast(node);
+            if (!original.hasPathFor(hashCode)) {
+                return original;
+            }
+            final Branch<T> branch = Branch.forBranch(original);
+            deleteFrom(branch, hashCode, hashKey);
+            return branch;
+        } else {
+            return this.<HamtNode<T, K, V>>cast(node).delete(collisionMap, hashCode, hashKey, sizeDelta);
+        }
+    }
+
+    private void deleteFrom(@Nonnull Branch<T> branch,
+                            int hashCode,
+                            @Nonnull K hashKey)
+    {
+        if (hashCode == 0) {
+            if (branch.value != null) {
+                branch.value = collisionMap.delete(branch.value, hashKey, sizeDelta);
+            }
+        } else {
+            final int remainder = hashCode >>> HamtBranchNode.SHIFT;
+            final int bit = 1 << (hashCode & HamtBranchNode.MASK);
+            if ((branch.bitmask & bit) != 0) {
+                final int childIndex = realIndex(branch.bitmask, bit);
+                final Object newChild = delete(branch.children[childIndex], remainder, hashKey);
+                if (isEmpty(newChild)) {
+                    branch.remove(bit, childIndex);
+                } else {
+                    branch.children[childIndex] = newChild;
+                }
+            }
+        }
+    }
+
+    private HamtNode<T, K, V> freeze(Object node)
+    {
+        if (!(node instanceof Branch)) {
+            return cast(node);
+        }
+
+        final Branch<T> branch = cast(node);
+        final int count = Integer.bitCount(branch.bitmask);
+        if (count == 0) {
+            return (branch.value == null) ? HamtEmptyNode.of() : new HamtLeafNode<>(0, branch.value);
+        }
+
+        @SuppressWarnings("unchecked") final HamtNode<T, K, V>[] children = new HamtNode[count];
+        for (int i = 0; i < count; ++i) {
+            children[i] = freeze(branch.children[i]);
+        }
+        if ((branch.value == null) && (count == 1)) {
+            final HamtNode<T, K, V> child = children[0];
+            if (child instanceof HamtLeafNode) {
+                return ((HamtLeafNode<T, K, V>)child).liftNode(Integer.numberOfTrailingZeros(branch.bitmask));
+            }
+            if (child instanceof HamtBranchNode) {
+                final HamtBranchNode<T, K, V> childBranch = (HamtBranchNode<T, K, V>)child;
+                if ((childBranch.getValue() != null) && (childBranch.getBitmask() == 0)) {
+                    return new HamtLeafNode<>(Integer.numberOfTrailingZeros(branch.bitmask), childBranch.getValue());
+                }
+            }
+        }
+        return new HamtBranchNode<>(branch.bitmask, branch.value, children);
+    }
+
+    private static boolean isEmpty(Object node)
+    {
+        if (node instanceof Branch) {
+            final Branch branch = (Branch)node;
+            return (branch.bitmask == 0) && (branch.value == null);
+        } else {
+            return ((HamtNode)node).isEmpty();
+        }
+    }
+
+    private static int realIndex(int bitmask,
+                                 int bit)
+    {
+        return Integer.bitCount(bitmask & (bit - 1));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <N> N cast(Object node)
+    {
+        return (N)node;
+    }
+
+    /**
+     * Mutable branch owned by the transient.  Children are either immutable HamtNodes
+     * or other owned Branches.  The children array has spare capacity so that inserts
+     * rarely require a new array.
+     */
+    private static class Branch<T>
+    {
+        private int bitmask;
+        @Nullable
+        private T value;
+        @Nonnull
+        private Object[] children;
+
+        private Branch(int bitmask,
+                       @Nullable T value,
+                       @Nonnull Object[] children)
+        {
+            this.bitmask = bitmask;
+            this.value = value;
+            this.children = children;
+        }
+
+        private static <T> Branch<T> forLeaf(int hashCode,
+                                             @Nonnull T value)
+        {
+            if (hashCode == 0) {
+                return new Branch<>(0, value, new Object[MIN_CAPACITY]);
+            } else {
+                final Object[] children = new Object[MIN_CAPACITY];
+                children[0] = new HamtLeafNode<>(hashCode >>> HamtBranchNode.SHIFT, value);
+                return new Branch<>(1 << (hashCode & HamtBranchNode.MASK), null, children);
+            }
+        }
+
+        private static <T> Branch<T> forBranch(@Nonnull HamtBranchNode<T, ?, ?> node)
+        {
+            final HamtNode<T, ?, ?>[] original = node.getChildren();
+            final Object[] children = new Object[Math.min(MAX_CAPACITY, Math.max(MIN_CAPACITY, original.length + 1))];
+            System.arraycopy(original, 0, children, 0, original.length);
+            return new Branch<>(node.getBitmask(), node.getValue(), children);
+        }
+
+        private void insert(int bit,
+                            int index,
+                            @Nonnull Object child)
+        {
+            final int count = Integer.bitCount(bitmask);
+            if (count == children.length) {
+                final Object[] newChildren = new Object[Math.min(MAX_CAPACITY, 2 * count)];
+                System.arraycopy(children, 0, newChildren, 0, index);
+                System.arraycopy(children, index, newChildren, index + 1, count - index);
+                children = newChildren;
+            } else {
+                System.arraycopy(children, index, children, index + 1, count - index);
+            }
+            children[index] = child;
+            bitmask |= bit;
+        }
+
+        private void remove(int bit,
+                            int index)
+        {
+            final int count = Integer.bitCount(bitmask);
+            System.arraycopy(children, index + 1, children, index, count - index - 1);
+            children[count - 1] = null;
+            bitmask &= ~bit;
+        }
+    }
+}
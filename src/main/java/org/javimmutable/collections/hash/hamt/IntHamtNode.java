@@ -0,0 +1,543 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.hash.hamt;
+
+import org.javimmutable.collections.Cursor;
+import org.javimmutable.collections.Cursorable;
+import org.javimmutable.collections.Holder;
+import org.javimmutable.collections.Holders;
+import org.javimmutable.collections.Indexed;
+import org.javimmutable.collections.InvariantCheckable;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.MapEntry;
+import org.javimmutable.collections.SplitableIterable;
+import org.javimmutable.collections.SplitableIterator;
+import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.cursors.LazyMultiCursor;
+import org.javimmutable.collections.cursors.SingleValueCursor;
+import org.javimmutable.collections.iterators.LazyMultiIterator;
+import org.javimmutable.collections.iterators.SingleValueIterator;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Compact HAMT node for maps keyed by primitive int values.  The layout matches
+ * HamtCompactNode except that the key itself is used as the hash code so keys are stored
+ * directly in an int array and no collision handling is ever needed.  Each node consumes
+ * SHIFT bits of the key starting with the low order bits so dense ranges of keys
+ * produce full nodes.
+ * <p>
+ * No node other than the root ever contains a single inline entry and no children.
+ * Such nodes are always replaced by an inline entry in their parent.
+ */
+@Immutable
+public class IntHamtNode<V>
+    implements SplitableIterable<JImmutableMap.Entry<Integer, V>>,
+               Cursorable<JImmutableMap.Entry<Integer, V>>,
+               InvariantCheckable
+{
+    private static final int SHIFT = HamtBranchNode.SHIFT;
+    private static final int MASK = HamtBranchNode.MASK;
+    private static final int MAX_DEPTH = (32 + SHIFT - 1) / SHIFT;
+    private static final int[] NO_KEYS = new int[0];
+    private static final Object[] NO_CONTENT = new Object[0];
+
+    @SuppressWarnings("unchecked")
+    private static final IntHamtNode EMPTY = new IntHamtNode(0, 0, NO_KEYS, NO_CONTENT);
+
+    private final int dataMap;
+    private final int nodeMap;
+    @Nonnull
+    private final int[] keys;
+    @Nonnull
+    private final Object[] content;
+
+    private IntHamtNode(int dataMap,
+                        int nodeMap,
+                        @Nonnull int[] keys,
+                        @Nonnull Object[] content)
+    {
+        this.dataMap = dataMap;
+        this.nodeMap = nodeMap;
+        this.keys = keys;
+        this.content = content;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> IntHamtNode<V> of()
+    {
+        return EMPTY;
+    }
+
+    public V getValueOr(int key,
+                        V defaultValue)
+    {
+        IntHamtNode<V> node = this;
+        int shift = 0;
+        while (true) {
+            final int bit = bitFor(key, shift);
+            if ((node.dataMap & bit) != 0) {
+                final int dataIndex = realIndex(node.dataMap, bit);
+                return (node.keys[dataIndex] == key) ? node.valueAt(dataIndex) : defaultValue;
+            } else if ((node.nodeMap & bit) != 0) {
+                node = node.nodeAt(node.nodeIndex(bit));
+                shift += SHIFT;
+            } else {
+                return defaultValue;
+            }
+        }
+    }
+
+    @Nonnull
+    public Holder<V> find(int key)
+    {
+        IntHamtNode<V> node = this;
+        int shift = 0;
+        while (true) {
+            final int bit = bitFor(key, shift);
+            if ((node.dataMap & bit) != 0) {
+                final int dataIndex = realIndex(node.dataMap, bit);
+                return (node.keys[dataIndex] == key) ? Holders.of(node.valueAt(dataIndex)) : Holders.of();
+            } else if ((node.nodeMap & bit) != 0) {
+                node = node.nodeAt(node.nodeIndex(bit));
+                shift += SHIFT;
+            } else {
+                return Holders.of();
+            }
+        }
+    }
+
+    @Nonnull
+    public IntHamtNode<V> assign(int key,
+                                 @Nullable V value,
+                                 @Nonnull MutableDelta sizeDelta)
+    {
+        return assign(key, 0, value, sizeDelta);
+    }
+
+    @Nonnull
+    public IntHamtNode<V> delete(int key,
+                                 @Nonnull MutableDelta sizeDelta)
+    {
+        return delete(key, 0, sizeDelta);
+    }
+
+    public boolean isEmpty()
+    {
+        return (dataMap | nodeMap) == 0;
+    }
+
+    @Nonnull
+    private IntHamtNode<V> assign(int key,
+                                  int shift,
+                                  @Nullable V value,
+                                  @Nonnull MutableDelta sizeDelta)
+    {
+        final int bit = bitFor(key, shift);
+        if ((dataMap & bit) != 0) {
+            final int dataIndex = realIndex(dataMap, bit);
+            final int oldKey = keys[dataIndex];
+            if (oldKey == key) {
+                if (content[dataIndex] == value) {
+                    return this;
+                } else {
+                    final Object[] newContent = content.clone();
+                    newContent[dataIndex] = value;
+                    return new IntHamtNode<>(dataMap, nodeMap, keys, newContent);
+                }
+            } else {
+                sizeDelta.add(1);
+                final IntHamtNode<V> child = forPair(oldKey, valueAt(dataIndex), key, value, shift + SHIFT);
+                return copyAndMigrateToNode(bit, dataIndex, child);
+            }
+        } else if ((nodeMap & bit) != 0) {
+            final int nodeIndex = nodeIndex(bit);
+            final IntHamtNode<V> child = nodeAt(nodeIndex);
+            final IntHamtNode<V> newChild = child.assign(key, shift + SHIFT, value, sizeDelta);
+            if (newChild == child) {
+                return this;
+            } else {
+                final Object[] newContent = content.clone();
+                newContent[nodeIndex] = newChild;
+                return new IntHamtNode<>(dataMap, nodeMap, keys, newContent);
+            }
+        } else {
+            sizeDelta.add(1);
+            return copyAndInsertData(bit, key, value);
+        }
+    }
+
+    @Nonnull
+    private IntHamtNode<V> delete(int key,
+                                  int shift,
+                                  @Nonnull MutableDelta sizeDelta)
+    {
+        final int bit = bitFor(key, shift);
+        if ((dataMap & bit) != 0) {
+            final int dataIndex = realIndex(dataMap, bit);
+            if (keys[dataIndex] != key) {
+                return this;
+            }
+            sizeDelta.subtract(1);
+            return copyAndRemoveData(bit, dataIndex);
+        } else if ((nodeMap & bit) != 0) {
+            final int nodeIndex = nodeIndex(bit);
+            final IntHamtNode<V> child = nodeAt(nodeIndex);
+            final IntHamtNode<V> newChild = child.delete(key, shift + SHIFT, sizeDelta);
+            if (newChild == child) {
+                return this;
+            } else if (newChild.isSingleEntry()) {
+                return copyAndMigrateToData(bit, nodeIndex, newChild.keys[0], newChild.content[0]);
+            } else {
+                final Object[] newContent = content.clone();
+                newContent[nodeIndex] = newChild;
+                return new IntHamtNode<>(dataMap, nodeMap, keys, newContent);
+            }
+        } else {
+            return this;
+        }
+    }
+
+    private boolean isSingleEntry()
+    {
+        return (nodeMap == 0) && (Integer.bitCount(dataMap) == 1);
+    }
+
+    @Nonnull
+    private static <V> IntHamtNode<V> forPair(int key1,
+                                              V value1,
+                                              int key2,
+                                              V value2,
+                                              int shift)
+    {
+        final int digit1 = digitFor(key1, shift);
+        final int digit2 = digitFor(key2, shift);
+        if (digit1 == digit2) {
+            final IntHamtNode<V> child = forPair(key1, value1, key2, value2, shift + SHIFT);
+            return new IntHamtNode<>(0, 1 << digit1, NO_KEYS, new Object[]{child});
+        } else if (digit1 < digit2) {
+            return new IntHamtNode<>((1 << digit1) | (1 << digit2), 0, new int[]{key1, key2}, new Object[]{value1, value2});
+        } else {
+            return new IntHamtNode<>((1 << digit1) | (1 << digit2), 0, new int[]{key2, key1}, new Object[]{value2, value1});
+        }
+    }
+
+    @Nonnull
+    private IntHamtNode<V> copyAndInsertData(int bit,
+                                             int key,
+                                             @Nullable V value)
+    {
+        final int dataIndex = realIndex(dataMap, bit);
+        final int[] newKeys = new int[keys.length + 1];
+        System.arraycopy(keys, 0, newKeys, 0, dataIndex);
+        System.arraycopy(keys, dataIndex, newKeys, dataIndex + 1, keys.length - dataIndex);
+        newKeys[dataIndex] = key;
+        final Object[] newContent = new Object[content.length + 1];
+        System.arraycopy(content, 0, newContent, 0, dataIndex);
+        System.arraycopy(content, dataIndex, newContent, dataIndex + 1, content.length - dataIndex);
+        newContent[dataIndex] = value;
+        return new IntHamtNode<>(dataMap | bit, nodeMap, newKeys, newContent);
+    }
+
+    @Nonnull
+    private IntHamtNode<V> copyAndRemoveData(int bit,
+                                             int dataIndex)
+    {
+        if (content.length == 1) {
+            return of();
+        }
+        final int[] newKeys = new int[keys.length - 1];
+        System.arraycopy(keys, 0, newKeys, 0, dataIndex);
+        System.arraycopy(keys, dataIndex + 1, newKeys, dataIndex, newKeys.length - dataIndex);
+        final Object[] newContent = new Object[content.length - 1];
+        System.arraycopy(content, 0, newContent, 0, dataIndex);
+        System.arraycopy(content, dataIndex + 1, newContent, dataIndex, newContent.length - dataIndex);
+        return new IntHamtNode<>(dataMap & ~bit, nodeMap, newKeys, newContent);
+    }
+
+    @Nonnull
+    private IntHamtNode<V> copyAndMigrateToNode(int bit,
+                                                int dataIndex,
+                                                @Nonnull IntHamtNode<V> child)
+    {
+        // data index is removed and node is inserted at its position among the nodes
+        final int newDataMap = dataMap & ~bit;
+        final int newNodeMap = nodeMap | bit;
+        final int newNodeIndex = Integer.bitCount(newDataMap) + realIndex(newNodeMap, bit);
+        final int[] newKeys = new int[keys.length - 1];
+        System.arraycopy(keys, 0, newKeys, 0, dataIndex);
+        System.arraycopy(keys, dataIndex + 1, newKeys, dataIndex, newKeys.length - dataIndex);
+        final Object[] newContent = new Object[content.length];
+        System.arraycopy(content, 0, newContent, 0, dataIndex);
+        System.arraycopy(content, dataIndex + 1, newContent, dataIndex, newNodeIndex - dataIndex);
+        newContent[newNodeIndex] = child;
+        System.arraycopy(content, newNodeIndex + 1, newContent, newNodeIndex + 1, content.length - newNodeIndex - 1);
+        return new IntHamtNode<>(newDataMap, newNodeMap, newKeys, newContent);
+    }
+
+    @Nonnull
+    private IntHamtNode<V> copyAndMigrateToData(int bit,
+                                                int nodeIndex,
+                                                int key,
+                                                @Nullable Object value)
+    {
+        // node is removed and data is inserted at its position among the data
+        final int newDataMap = dataMap | bit;
+        final int newDataIndex = realIndex(newDataMap, bit);
+        final int[] newKeys = new int[keys.length + 1];
+        System.arraycopy(keys, 0, newKeys, 0, newDataIndex);
+        System.arraycopy(keys, newDataIndex, newKeys, newDataIndex + 1, keys.length - newDataIndex);
+        newKeys[newDataIndex] = key;
+        final Object[] newContent = new Object[content.length];
+        System.arraycopy(content, 0, newContent, 0, newDataIndex);
+        newContent[newDataIndex] = value;
+        System.arraycopy(content, newDataIndex, newContent, newDataIndex + 1, nodeIndex - newDataIndex);
+        System.arraycopy(content, nodeIndex + 1, newContent, nodeIndex + 1, content.length - nodeIndex - 1);
+        return new IntHamtNode<>(newDataMap, nodeMap & ~bit, newKeys, newContent);
+    }
+
+    private static int digitFor(int key,
+                                int shift)
+    {
+        return (key >>> shift) & MASK;
+    }
+
+    private static int bitFor(int key,
+                              int shift)
+    {
+        return 1 << digitFor(key, shift);
+    }
+
+    private static int realIndex(int bitmask,
+                                 int bit)
+    {
+        return Integer.bitCount(bitmask & (bit - 1));
+    }
+
+    private int nodeIndex(int bit)
+    {
+        return keys.length + realIndex(nodeMap, bit);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int index)
+    {
+        return (V)content[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    private IntHamtNode<V> nodeAt(int index)
+    {
+        return (IntHamtNode<V>)content[index];
+    }
+
+    /**
+     * Iterates over all keys in the tree without boxing them.
+     */
+    @Nonnull
+    public PrimitiveIterator.OfInt keysIterator()
+    {
+        return new KeyIterator(this);
+    }
+
+    @Nonnull
+    @Override
+    public SplitableIterator<JImmutableMap.Entry<Integer, V>> iterator()
+    {
+        return LazyMultiIterator.iterator(indexedForIterator());
+    }
+
+    @Nonnull
+    @Override
+    public Cursor<JImmutableMap.Entry<Integer, V>> cursor()
+    {
+        return LazyMultiCursor.cursor(indexedForCursor());
+    }
+
+    @Override
+    public String toString()
+    {
+        return "(0x" + Integer.toHexString(dataMap) + ",0x" + Integer.toHexString(nodeMap) + "," + content.length + ")";
+    }
+
+    @Override
+    public void checkInvariants()
+    {
+        checkInvariants(0, 0, 0);
+    }
+
+    private void checkInvariants(int shift,
+                                 int prefix,
+                                 int prefixMask)
+    {
+        if ((dataMap & nodeMap) != 0) {
+            throw new IllegalStateException("data and node bitmaps overlap");
+        }
+        if (keys.length != Integer.bitCount(dataMap)) {
+            throw new IllegalStateException("keys length does not match dataMap");
+        }
+        if (content.length != keys.length + Integer.bitCount(nodeMap)) {
+            throw new IllegalStateException("content length does not match bitmaps");
+        }
+        if ((shift > 0) && (isEmpty() || isSingleEntry())) {
+            throw new IllegalStateException("non-root node should have been inlined into parent");
+        }
+        for (int i = 0; i < keys.length; ++i) {
+            if ((keys[i] & prefixMask) != prefix) {
+                throw new IllegalStateException("key does not match path");
+            }
+            if ((dataMap & bitFor(keys[i], shift)) == 0) {
+                throw new IllegalStateException("key does not match dataMap");
+            }
+            if ((i > 0) && (digitFor(keys[i - 1], shift) >= digitFor(keys[i], shift))) {
+                throw new IllegalStateException("keys out of order");
+            }
+        }
+        int remaining = nodeMap;
+        for (int i = keys.length; i < content.length; ++i) {
+            final int digit = Integer.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            nodeAt(i).checkInvariants(shift + SHIFT, prefix | (digit << shift), prefixMask | (MASK << shift));
+        }
+    }
+
+    private Indexed<SplitableIterable<JImmutableMap.Entry<Integer, V>>> indexedForIterator()
+    {
+        return new Indexed<SplitableIterable<JImmutableMap.Entry<Integer, V>>>()
+        {
+            @Override
+            public SplitableIterable<JImmutableMap.Entry<Integer, V>> get(int index)
+            {
+                if (index < keys.length) {
+                    final JImmutableMap.Entry<Integer, V> entry = MapEntry.of(keys[index], valueAt(index));
+                    return () -> SingleValueIterator.of(entry);
+                } else {
+                    return nodeAt(index);
+                }
+            }
+
+            @Override
+            public int size()
+            {
+                return content.length;
+            }
+        };
+    }
+
+    private Indexed<Cursorable<JImmutableMap.Entry<Integer, V>>> indexedForCursor()
+    {
+        return new Indexed<Cursorable<JImmutableMap.Entry<Integer, V>>>()
+        {
+            @Override
+            public Cursorable<JImmutableMap.Entry<Integer, V>> get(int index)
+            {
+                if (index < keys.length) {
+                    final JImmutableMap.Entry<Integer, V> entry = MapEntry.of(keys[index], valueAt(index));
+                    return () -> SingleValueCursor.of(entry);
+                } else {
+                    return nodeAt(index);
+                }
+            }
+
+            @Override
+            public int size()
+            {
+                return content.length;
+            }
+        };
+    }
+
+    /**
+     * Depth first traversal of the tree using an explicit stack of nodes and positions.
+     */
+    private static class KeyIterator
+        implements PrimitiveIterator.OfInt
+    {
+        private final IntHamtNode[] nodes = new IntHamtNode[MAX_DEPTH + 1];
+        private final int[] positions = new int[MAX_DEPTH + 1];
+        private int depth;
+
+        private KeyIterator(@Nonnull IntHamtNode root)
+        {
+            nodes[0] = root;
+            advance();
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return depth >= 0;
+        }
+
+        @Override
+        public int nextInt()
+        {
+            if (depth < 0) {
+                throw new NoSuchElementException();
+            }
+            final int answer = nodes[depth].keys[positions[depth]];
+            positions[depth] += 1;
+            advance();
+            return answer;
+        }
+
+        /**
+         * Moves to the next position that contains a key or sets depth to -1 if there are no more keys.
+         */
+        private void advance()
+        {
+            while (depth >= 0) {
+                final IntHamtNode node = nodes[depth];
+                final int position = positions[depth];
+                if (position < node.keys.length) {
+                    return;
+                } else if (position < node.content.length) {
+                    positions[depth] += 1;
+                    depth += 1;
+                    nodes[depth] = node.nodeAt(position);
+                    positions[depth] = 0;
+                } else {
+                    nodes[depth] = null;
+                    depth -= 1;
+                }
+            }
+        }
+    }
+}
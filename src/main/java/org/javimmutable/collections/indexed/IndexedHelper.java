@@ -248,6 +248,32 @@ public class IndexedHelper
         };
     }
 
+    /**
+     * Returns a view of source whose values are in the reverse order.  No values are copied.
+     */
+    @Nonnull
+    public static <T> Indexed<T> reversed(@Nonnull Indexed<T> source)
+    {
+        return new Indexed<T>()
+        {
+            @Override
+            public T get(int index)
+            {
+                final int size = source.size();
+                if (index < 0 || index >= size) {
+                    throw new ArrayIndexOutOfBoundsException();
+                }
+                return source.get(size - 1 - index);
+            }
+
+            @Override
+            public int size()
+            {
+                return source.size();
+            }
+        };
+    }
+
     /**
      * Creates a mutable List containing all values from the Indexed.
      */
@@ -40,6 +40,7 @@ import org.javimmutable.collections.Cursorable;
 import org.javimmutable.collections.Indexed;
 import org.javimmutable.collections.SplitableIterable;
 import org.javimmutable.collections.SplitableIterator;
+import org.javimmutable.collections.common.StructureStats;
 import org.javimmutable.collections.cursors.LazyMultiCursor;
 import org.javimmutable.collections.indexed.IndexedArray;
 import org.javimmutable.collections.iterators.LazyMultiIterator;
@@ -222,6 +223,18 @@ class BranchNode<T>
         return depth;
     }
 
+    @Override
+    public void collectStats(@Nonnull StructureStats.Builder stats,
+                             int depth)
+    {
+        stats.addNode(this, StructureStats.objectBytes(3, 2 * StructureStats.INT_BYTES) + StructureStats.arrayBytes(nodes.length, StructureStats.REFERENCE_BYTES));
+        prefix.collectStats(stats, depth + 1);
+        for (Node<T> node : nodes) {
+            node.collectStats(stats, depth + 1);
+        }
+        suffix.collectStats(stats, depth + 1);
+    }
+
     private static <T> Node<T> forDelete(int size,
                                          Node<T> prefix,
                                          Node<T>[] nodes,
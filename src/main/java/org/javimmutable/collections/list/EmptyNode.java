@@ -37,6 +37,7 @@ package org.javimmutable.collections.list;
 
 import org.javimmutable.collections.Cursor;
 import org.javimmutable.collections.SplitableIterator;
+import org.javimmutable.collections.common.StructureStats;
 import org.javimmutable.collections.cursors.StandardCursor;
 import org.javimmutable.collections.iterators.EmptyIterator;
 
@@ -87,6 +88,12 @@ final class EmptyNode<T>
         return 1;
     }
 
+    @Override
+    public void collectStats(@Nonnull StructureStats.Builder stats,
+                             int depth)
+    {
+    }
+
     @Override
     public Node<T> deleteFirst()
     {
@@ -40,15 +40,20 @@ import org.javimmutable.collections.Func1;
 import org.javimmutable.collections.Holder;
 import org.javimmutable.collections.Indexed;
 import org.javimmutable.collections.InsertableSequence;
+import org.javimmutable.collections.IterableStreamable;
 import org.javimmutable.collections.JImmutableList;
 import org.javimmutable.collections.SplitableIterator;
 import org.javimmutable.collections.common.ListAdaptor;
 import org.javimmutable.collections.common.StreamConstants;
+import org.javimmutable.collections.common.StructureStats;
 import org.javimmutable.collections.common.Subindexed;
+import org.javimmutable.collections.cursors.StandardCursor;
+import org.javimmutable.collections.indexed.IndexedHelper;
 import org.javimmutable.collections.indexed.IndexedList;
 import org.javimmutable.collections.iterators.IndexedIterator;
 import org.javimmutable.collections.iterators.IteratorHelper;
 import org.javimmutable.collections.iterators.SequenceIterator;
+import org.javimmutable.collections.iterators.SplitableIterableStreamable;
 import org.javimmutable.collections.sequence.EmptySequenceNode;
 import org.javimmutable.collections.serialization.JImmutableListProxy;
 
@@ -348,6 +353,27 @@ public class JImmutableArrayList<T>
         return root.iterator();
     }
 
+    @Nonnull
+    @Override
+    public Cursor<T> descendingCursor()
+    {
+        return StandardCursor.of(IndexedHelper.reversed(this));
+    }
+
+    @Nonnull
+    @Override
+    public SplitableIterator<T> descendingIterator()
+    {
+        return IndexedIterator.reverse(this);
+    }
+
+    @Nonnull
+    @Override
+    public IterableStreamable<T> reverse()
+    {
+        return SplitableIterableStreamable.of(this::descendingIterator, getSpliteratorCharacteristics());
+    }
+
     @Override
     public <A> JImmutableList<A> transform(@Nonnull Func1<T, A> transform)
     {
@@ -383,6 +409,19 @@ public class JImmutableArrayList<T>
         root.checkInvariants();
     }
 
+    /**
+     * Walks the entire tree and returns statistics describing its shape.  The fill factor
+     * describes the leaf nodes.  Takes time proportional to the size of the list.
+     */
+    @Nonnull
+    public StructureStats stats()
+    {
+        final StructureStats.Builder stats = new StructureStats.Builder(this);
+        stats.addBytes(StructureStats.objectBytes(1, 0));
+        root.collectStats(stats, 0);
+        return stats.build();
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -0,0 +1,633 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.list;
+
+import org.javimmutable.collections.Cursor;
+import org.javimmutable.collections.Func1;
+import org.javimmutable.collections.Holder;
+import org.javimmutable.collections.Indexed;
+import org.javimmutable.collections.IterableStreamable;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableRandomAccessList;
+import org.javimmutable.collections.SplitableIterator;
+import org.javimmutable.collections.Tuple2;
+import org.javimmutable.collections.common.ListAdaptor;
+import org.javimmutable.collections.common.StreamConstants;
+import org.javimmutable.collections.common.StructureStats;
+import org.javimmutable.collections.indexed.IndexedList;
+import org.javimmutable.collections.iterators.IteratorHelper;
+import org.javimmutable.collections.iterators.SplitableIterableStreamable;
+import org.javimmutable.collections.serialization.JImmutableRrbListProxy;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collector;
+
+/**
+ * JImmutableRandomAccessList implementation using a relaxed radix balanced (RRB) tree.  Lists
+ * built by appending values are laid out exactly like the 32-way trees of JImmutableArrayList
+ * so get() uses shifts to find values.  Inserting or deleting values anywhere in the list,
+ * concatenating two lists, and splitting a list in two each take O(log n) time and share all
+ * nodes other than those along the affected paths.  Nodes touched by these operations keep
+ * a table of child sizes which adds at most a few steps to finding a value beneath them.
+ */
+@Immutable
+public class JImmutableRrbList<T>
+    implements JImmutableRandomAccessList<T>,
+               Serializable
+{
+    @SuppressWarnings("unchecked")
+    private static final JImmutableRrbList EMPTY = new JImmutableRrbList(RrbNode.of());
+    private static final long serialVersionUID = -121805;
+
+    private final RrbNode<T> root;
+
+    private JImmutableRrbList(@Nonnull RrbNode<T> root)
+    {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    public static <T> JImmutableRrbList<T> of()
+    {
+        return (JImmutableRrbList<T>)EMPTY;
+    }
+
+    @Nonnull
+    public static <T> JImmutableRrbList<T> of(@Nonnull Indexed<? extends T> source)
+    {
+        return create(RrbNode.of(source, 0, source.size()));
+    }
+
+    @Nonnull
+    public static <T> Builder<T> builder()
+    {
+        return new Builder<>();
+    }
+
+    @Nonnull
+    public static <T> Collector<T, ?, JImmutableRandomAccessList<T>> collector()
+    {
+        return Collector.<T, Builder<T>, JImmutableRandomAccessList<T>>of(() -> new Builder<>(),
+                                                                          (b, v) -> b.add(v),
+                                                                          (b1, b2) -> b1.combineWith(b2),
+                                                                          b -> b.build());
+    }
+
+    @Override
+    public int size()
+    {
+        return root.size();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return root.isEmpty();
+    }
+
+    @Override
+    public T get(int index)
+    {
+        return root.get(index);
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableRrbList<T> assign(int index,
+                                       @Nullable T value)
+    {
+        checkIndex(index, size() - 1);
+        return new JImmutableRrbList<>(root.assign(index, value));
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableRrbList<T> insert(@Nullable T value)
+    {
+        return insertLast(value);
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableRrbList<T> insert(int index,
+                                       @Nullable T value)
+    {
+        checkIndex(index, size());
+        return new JImmutableRrbList<>(root.insertRoot(index, value));
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableRrbList<T> insert(@Nonnull Iterable<? extends T> values)
+    {
+        return insertAllLast(values);
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableRrbList<T> getInsertableSelf()
+    {
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableRrbList<T> insertFirst(@Nullable T value)
+    {
+        return new JImmutableRrbList<>(root.insertRoot(0, value));
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableRrbList<T> insertLast(@Nullable T value)
+    {
+        return new JImmutableRrbList<>(root.insertRoot(root.size(), value));
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableRrbList<T> insertAll(@Nonnull Iterable<? extends T> values)
+    {
+        return insertAllLast(values);
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableRrbList<T> insertAll(@Nonnull Cursor<? extends T> values)
+    {
+        return insertAllLast(values);
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableRrbList<T> insertAll(@Nonnull Iterator<? extends T> values)
+    {
+        return insertAllLast(values);
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableRrbList<T> insertAll(int index,
+                                          @Nonnull Iterable<? extends T> values)
+    {
+        checkIndex(index, size());
+        return splice(index, nodeFor(values));
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableRrbList<T> insertAll(int index,
+                                          @Nonnull Cursor<? extends T> values)
+    {
+        return insertAll(index, values.iterator());
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableRrbList<T> insertAll(int index,
+                                          @Nonnull Iterator<? extends T> values)
+    {
+        checkIndex(index, size());
+        return splice(index, JImmutableRrbList.<T>builder().add(values).root());
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableRrbList<T> insertAllFirst(@Nonnull Iterable<? extends T> values)
+    {
+        return insertAll(0, values);
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableRrbList<T> insertAllFirst(@Nonnull Cursor<? extends T> values)
+    {
+        return insertAll(0, values.iterator());
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableRrbList<T> insertAllFirst(@Nonnull Iterator<? extends T> values)
+    {
+        return insertAll(0, values);
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableRrbList<T> insertAllLast(@Nonnull Iterable<? extends T> values)
+    {
+        return insertAll(size(), values);
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableRrbList<T> insertAllLast(@Nonnull Cursor<? extends T> values)
+    {
+        return insertAll(size(), values.iterator());
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableRrbList<T> insertAllLast(@Nonnull Iterator<? extends T> values)
+    {
+        return insertAll(size(), values);
+    }
+
+    /**
+     * Returns a list containing the values of this list followed by the values of other.
+     * When other is also a JImmutableRrbList the two trees are joined in O(log n) time
+     * and nearly all of their nodes are shared with the result.  Otherwise a tree is built
+     * from the values of other first.
+     */
+    @Nonnull
+    public JImmutableRrbList<T> concat(@Nonnull JImmutableRandomAccessList<T> other)
+    {
+        return insertAllLast(other);
+    }
+
+    /**
+     * Returns a list containing the first limit values of this list.  Takes O(log n) time
+     * and shares all nodes not along the path to the last value kept.
+     *
+     * @throws IndexOutOfBoundsException if limit is negative or greater than size()
+     */
+    @Nonnull
+    public JImmutableRrbList<T> prefix(int limit)
+    {
+        checkIndex(limit, size());
+        if (limit == 0) {
+            return of();
+        }
+        return (limit == size()) ? this : create(root.prefix(limit));
+    }
+
+    /**
+     * Returns a list containing the values of this list starting at offset.  Takes O(log n)
+     * time and shares all nodes not along the path to the first value kept.
+     *
+     * @throws IndexOutOfBoundsException if offset is negative or greater than size()
+     */
+    @Nonnull
+    public JImmutableRrbList<T> suffix(int offset)
+    {
+        checkIndex(offset, size());
+        if (offset == size()) {
+            return of();
+        }
+        return (offset == 0) ? this : create(root.suffix(offset));
+    }
+
+    /**
+     * Splits this list into the values before index and the values starting at index.
+     * Equivalent to calling prefix(index) and suffix(index).
+     *
+     * @throws IndexOutOfBoundsException if index is negative or greater than size()
+     */
+    @Nonnull
+    public Tuple2<JImmutableRrbList<T>, JImmutableRrbList<T>> splitAt(int index)
+    {
+        return Tuple2.of(prefix(index), suffix(index));
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableRrbList<T> deleteFirst()
+    {
+        return delete(0);
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableRrbList<T> deleteLast()
+    {
+        return delete(size() - 1);
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableRrbList<T> delete(int index)
+    {
+        checkIndex(index, size() - 1);
+        return create(root.delete(index));
+    }
+
+    /**
+     * Removes the values in the range by splitting the tree at from and to and concatenating
+     * the two outer pieces.  Takes O(log n) time regardless of how many values are removed.
+     */
+    @Nonnull
+    @Override
+    public JImmutableRrbList<T> deleteRange(int from,
+                                            int to)
+    {
+        checkIndex(to, size());
+        checkIndex(from, to);
+        if (from == to) {
+            return this;
+        }
+        return create(RrbNode.concat(head(from), tail(to)));
+    }
+
+    /**
+     * Replaces the values in the range by splitting the tree at both ends of the range and
+     * concatenating the two outer pieces with a tree built from values.  Takes O(log n + k)
+     * time where k is the number of values replaced.
+     */
+    @Nonnull
+    @Override
+    public JImmutableRrbList<T> assignRange(int from,
+                                            @Nonnull Indexed<? extends T> values)
+    {
+        final int count = values.size();
+        checkIndex(from, size() - count);
+        if (count == 0) {
+            return this;
+        }
+        final RrbNode<T> middle = RrbNode.of(values, 0, count);
+        return create(RrbNode.concat(RrbNode.concat(head(from), middle), tail(from + count)));
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableRrbList<T> deleteAll()
+    {
+        return of();
+    }
+
+    @Override
+    public <A> JImmutableRandomAccessList<A> transform(@Nonnull Func1<T, A> transform)
+    {
+        final Builder<A> builder = builder();
+        for (T t : this) {
+            builder.add(transform.apply(t));
+        }
+        return builder.build();
+    }
+
+    @Override
+    public <A> JImmutableRandomAccessList<A> transformSome(@Nonnull Func1<T, Holder<A>> transform)
+    {
+        final Builder<A> builder = builder();
+        for (T t : this) {
+            final Holder<A> ha = transform.apply(t);
+            if (ha.isFilled()) {
+                builder.add(ha.getValue());
+            }
+        }
+        return builder.build();
+    }
+
+    @Nonnull
+    @Override
+    public List<T> getList()
+    {
+        return new ListAdaptor<>(this);
+    }
+
+    @Nonnull
+    @Override
+    public Cursor<T> cursor()
+    {
+        return root.cursor();
+    }
+
+    @Nonnull
+    @Override
+    public SplitableIterator<T> iterator()
+    {
+        return root.iterator();
+    }
+
+    @Nonnull
+    @Override
+    public Cursor<T> descendingCursor()
+    {
+        return root.descendingCursor();
+    }
+
+    @Nonnull
+    @Override
+    public SplitableIterator<T> descendingIterator()
+    {
+        return root.descendingIterator();
+    }
+
+    @Nonnull
+    @Override
+    public IterableStreamable<T> reverse()
+    {
+        return SplitableIterableStreamable.of(this::descendingIterator, getSpliteratorCharacteristics());
+    }
+
+    @Override
+    public int getSpliteratorCharacteristics()
+    {
+        return StreamConstants.SPLITERATOR_ORDERED;
+    }
+
+    @Override
+    public void checkInvariants()
+    {
+        root.checkInvariants(true);
+    }
+
+    /**
+     * Walks the entire tree and returns statistics describing its shape.  The fill factor
+     * describes the leaf nodes.  Takes time proportional to the size of the list.
+     */
+    @Nonnull
+    public StructureStats stats()
+    {
+        final StructureStats.Builder stats = new StructureStats.Builder(this);
+        stats.addBytes(StructureStats.objectBytes(1, 0));
+        root.collectStats(stats, 0);
+        return stats.build();
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        return (o == this) || ((o instanceof JImmutableList) && IteratorHelper.iteratorEquals(iterator(), ((JImmutableList)o).iterator()));
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return IteratorHelper.iteratorHashCode(iterator());
+    }
+
+    @Override
+    public String toString()
+    {
+        return IteratorHelper.iteratorToString(iterator());
+    }
+
+    private Object writeReplace()
+    {
+        return new JImmutableRrbListProxy(this);
+    }
+
+    @Nonnull
+    private static <T> JImmutableRrbList<T> create(@Nonnull RrbNode<T> root)
+    {
+        final RrbNode<T> newRoot = root.asRoot();
+        return newRoot.isEmpty() ? of() : new JImmutableRrbList<>(newRoot);
+    }
+
+    private static void checkIndex(int index,
+                                   int maxIndex)
+    {
+        if ((index < 0) || (index > maxIndex)) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    /**
+     * Inserts the values of node at index by splitting this list there and joining
+     * the three pieces.
+     */
+    @Nonnull
+    private JImmutableRrbList<T> splice(int index,
+                                        @Nonnull RrbNode<T> node)
+    {
+        if (node.isEmpty()) {
+            return this;
+        }
+        return create(RrbNode.concat(RrbNode.concat(head(index), node), tail(index)));
+    }
+
+    /**
+     * @return a tree containing the first limit values of this list
+     */
+    @Nonnull
+    private RrbNode<T> head(int limit)
+    {
+        return (limit == 0) ? RrbNode.of() : root.prefix(limit).asRoot();
+    }
+
+    /**
+     * @return a tree containing the values of this list starting at offset
+     */
+    @Nonnull
+    private RrbNode<T> tail(int offset)
+    {
+        return (offset == root.size()) ? RrbNode.of() : root.suffix(offset).asRoot();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private static <T> RrbNode<T> nodeFor(@Nonnull Iterable<? extends T> values)
+    {
+        if (values instanceof JImmutableRrbList) {
+            return ((JImmutableRrbList<T>)values).root;
+        } else if (values instanceof Indexed) {
+            final Indexed<? extends T> indexed = (Indexed<? extends T>)values;
+            return RrbNode.of(indexed, 0, indexed.size());
+        } else if (values instanceof List) {
+            final List<? extends T> list = (List<? extends T>)values;
+            return RrbNode.of(IndexedList.retained(list), 0, list.size());
+        } else {
+            return JImmutableRrbList.<T>builder().add(values.iterator()).root();
+        }
+    }
+
+    public static class Builder<T>
+        implements JImmutableRandomAccessList.Builder<T>
+    {
+        private final List<T> leafValues = new ArrayList<>(RrbNode.MAX_SLOTS);
+        private RrbNode<T> root = RrbNode.of();
+
+        private Builder()
+        {
+        }
+
+        @Override
+        public synchronized int size()
+        {
+            return root.size() + leafValues.size();
+        }
+
+        @Nonnull
+        @Override
+        public synchronized Builder<T> add(T value)
+        {
+            leafValues.add(value);
+            if (leafValues.size() == RrbNode.MAX_SLOTS) {
+                root = root();
+                leafValues.clear();
+            }
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public synchronized Builder<T> add(Iterator<? extends T> source)
+        {
+            while (source.hasNext()) {
+                add(source.next());
+            }
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public synchronized JImmutableRrbList<T> build()
+        {
+            return create(root());
+        }
+
+        @Nonnull
+        public synchronized Builder<T> combineWith(@Nonnull Builder<T> other)
+        {
+            root = RrbNode.concat(root(), other.root());
+            leafValues.clear();
+            return this;
+        }
+
+        @Nonnull
+        private synchronized RrbNode<T> root()
+        {
+            return RrbNode.concat(root, RrbNode.of(IndexedList.retained(leafValues), 0, leafValues.size()));
+        }
+    }
+}
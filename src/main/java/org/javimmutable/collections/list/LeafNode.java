@@ -38,6 +38,7 @@ package org.javimmutable.collections.list;
 import org.javimmutable.collections.Cursor;
 import org.javimmutable.collections.Indexed;
 import org.javimmutable.collections.SplitableIterator;
+import org.javimmutable.collections.common.StructureStats;
 import org.javimmutable.collections.cursors.StandardCursor;
 import org.javimmutable.collections.indexed.IndexedArray;
 import org.javimmutable.collections.indexed.IndexedList;
@@ -118,6 +119,15 @@ class LeafNode<T>
         return 1;
     }
 
+    @Override
+    public void collectStats(@Nonnull StructureStats.Builder stats,
+                             int depth)
+    {
+        stats.addNode(this, StructureStats.objectBytes(1, 0) + StructureStats.arrayBytes(values.length, StructureStats.REFERENCE_BYTES));
+        stats.addValues(depth, values.length);
+        stats.addFill(values.length, 32);
+    }
+
     @Override
     public Node<T> deleteFirst()
     {
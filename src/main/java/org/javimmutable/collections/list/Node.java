@@ -39,6 +39,7 @@ import org.javimmutable.collections.Cursorable;
 import org.javimmutable.collections.Indexed;
 import org.javimmutable.collections.InvariantCheckable;
 import org.javimmutable.collections.SplitableIterable;
+import org.javimmutable.collections.common.StructureStats;
 
 import javax.annotation.Nonnull;
 import java.util.Iterator;
@@ -59,6 +60,13 @@ interface Node<T>
 
     int getDepth();
 
+    /**
+     * Adds this node and all of its descendants to stats.  depth is the number of nodes
+     * between this node and the root of the tree.
+     */
+    void collectStats(@Nonnull StructureStats.Builder stats,
+                      int depth);
+
     Node<T> deleteFirst();
 
     Node<T> deleteLast();
@@ -0,0 +1,898 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.list;
+
+import org.javimmutable.collections.Cursor;
+import org.javimmutable.collections.Cursorable;
+import org.javimmutable.collections.Indexed;
+import org.javimmutable.collections.SplitableIterable;
+import org.javimmutable.collections.SplitableIterator;
+import org.javimmutable.collections.common.StructureStats;
+import org.javimmutable.collections.cursors.LazyMultiCursor;
+import org.javimmutable.collections.cursors.StandardCursor;
+import org.javimmutable.collections.indexed.IndexedArray;
+import org.javimmutable.collections.indexed.IndexedHelper;
+import org.javimmutable.collections.iterators.IndexedIterator;
+import org.javimmutable.collections.iterators.LazyMultiIterator;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.util.Arrays;
+
+/**
+ * Node of a relaxed radix balanced (RRB) tree.  Leaves hold up to 32 values and branches hold
+ * up to 32 children all of the same height.  A branch whose children are all full except for
+ * its last child finds the child containing an index using shifts exactly like a 32-way trie.
+ * Any other branch keeps a table of cumulative child sizes.  Lookups in such a relaxed branch
+ * start at the child the radix calculation would pick and step forward through the table,
+ * which is never more than a few steps since children are kept close to full.
+ * <p>
+ * insertAt() can return a node with 33 slots.  The parent of such a node splits it in two and
+ * insertRoot() does the same for the root of the tree.  delete() can return a node with fewer
+ * than 16 slots and the parent merges it with a sibling.  concat() joins two trees by merging
+ * only the nodes along the seam between them and redistributing their slots so that the
+ * number of extra search steps stays bounded.
+ */
+@Immutable
+abstract class RrbNode<T>
+    implements SplitableIterable<T>,
+               Cursorable<T>
+{
+    static final int SHIFT = 5;
+    static final int MAX_SLOTS = 1 << SHIFT;
+    static final int MIN_SLOTS = MAX_SLOTS / 2;
+
+    /**
+     * Number of nodes beyond the optimum that concat() allows along the seam.
+     */
+    static final int EXTRA_NODES = 2;
+
+    /**
+     * Largest shift that can be applied to an int index.  Branches tall enough to need
+     * a larger shift can never be full so they always use their size table.
+     */
+    private static final int MAX_SHIFT = 31;
+
+    @SuppressWarnings("unchecked")
+    private static final RrbNode EMPTY = new Leaf(new Object[0]);
+
+    @SuppressWarnings("unchecked")
+    static <T> RrbNode<T> of()
+    {
+        return EMPTY;
+    }
+
+    /**
+     * Builds a tree containing the values in the specified range of source with every
+     * node full except for those along the right edge.
+     */
+    @Nonnull
+    static <T> RrbNode<T> of(@Nonnull Indexed<? extends T> source,
+                             int offset,
+                             int limit)
+    {
+        final int count = limit - offset;
+        if (count == 0) {
+            return of();
+        }
+        RrbNode<T>[] nodes = allocateNodes((count + MAX_SLOTS - 1) / MAX_SLOTS);
+        for (int i = 0; i < nodes.length; ++i) {
+            final int start = offset + i * MAX_SLOTS;
+            final int length = Math.min(MAX_SLOTS, limit - start);
+            final Object[] values = new Object[length];
+            for (int k = 0; k < length; ++k) {
+                values[k] = source.get(start + k);
+            }
+            nodes[i] = new Leaf<>(values);
+        }
+        int height = 1;
+        while (nodes.length > 1) {
+            final RrbNode<T>[] branches = allocateNodes((nodes.length + MAX_SLOTS - 1) / MAX_SLOTS);
+            for (int i = 0; i < branches.length; ++i) {
+                final int start = i * MAX_SLOTS;
+                branches[i] = new Branch<>(height, Arrays.copyOfRange(nodes, start, Math.min(nodes.length, start + MAX_SLOTS)));
+            }
+            nodes = branches;
+            height += 1;
+        }
+        return nodes[0];
+    }
+
+    /**
+     * Joins two trees into a single tree containing the values of left followed by
+     * the values of right.  Only nodes along the right edge of left and the left
+     * edge of right are copied.
+     */
+    @Nonnull
+    static <T> RrbNode<T> concat(@Nonnull RrbNode<T> left,
+                                 @Nonnull RrbNode<T> right)
+    {
+        if (left.isEmpty()) {
+            return right;
+        } else if (right.isEmpty()) {
+            return left;
+        } else {
+            return concatSubTrees(left, right, true).asRoot();
+        }
+    }
+
+    boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    abstract int size();
+
+    /**
+     * @return number of levels below this node (zero for leaves)
+     */
+    abstract int height();
+
+    /**
+     * @return number of values (for leaves) or children (for branches) in this node
+     */
+    abstract int slotCount();
+
+    abstract T get(int index);
+
+    @Nonnull
+    abstract RrbNode<T> assign(int index,
+                               T value);
+
+    /**
+     * Inserts value so that it will be at index in the resulting node.  Index can be
+     * equal to size() to append the value.  The result can have one slot too many.
+     */
+    @Nonnull
+    abstract RrbNode<T> insertAt(int index,
+                                 T value);
+
+    /**
+     * Removes the value at index.  The result can have too few slots or even be empty.
+     */
+    @Nonnull
+    abstract RrbNode<T> delete(int index);
+
+    /**
+     * Returns a node of the same height containing the first limit values of this node.
+     * The result can contain a chain of single child branches along its right edge.
+     */
+    @Nonnull
+    abstract RrbNode<T> prefix(int limit);
+
+    /**
+     * Returns a node of the same height containing all values starting at offset.
+     * The result can contain a chain of single child branches along its left edge.
+     */
+    @Nonnull
+    abstract RrbNode<T> suffix(int offset);
+
+    abstract void collectStats(@Nonnull StructureStats.Builder stats,
+                               int depth);
+
+    abstract void checkInvariants(boolean isRoot);
+
+    /**
+     * Returns a Cursor over the values of this node from last to first.
+     */
+    @Nonnull
+    abstract Cursor<T> descendingCursor();
+
+    /**
+     * Returns an iterator over the values of this node from last to first.
+     */
+    @Nonnull
+    abstract SplitableIterator<T> descendingIterator();
+
+    /**
+     * @return the array holding this node's values or children (never modified by callers)
+     */
+    @Nonnull
+    abstract Object[] slots();
+
+    /**
+     * Inserts value at index and splits the resulting node if it has grown too large.  Values
+     * added at either end of a full node fill the new node from that end.  Other inserts split
+     * a full node evenly.
+     */
+    @Nonnull
+    RrbNode<T> insertRoot(int index,
+                          T value)
+    {
+        final RrbNode<T> node = insertAt(index, value);
+        if (node.slotCount() <= MAX_SLOTS) {
+            return node;
+        }
+        return new Branch<>(node.height() + 1, node.split(splitPoint(index, size())));
+    }
+
+    /**
+     * Removes any chain of single child branches above the real root of the tree
+     * and replaces an empty tree with the shared empty leaf.
+     */
+    @Nonnull
+    RrbNode<T> asRoot()
+    {
+        RrbNode<T> node = this;
+        while ((node.height() > 0) && (node.slotCount() == 1)) {
+            node = ((Branch<T>)node).children[0];
+        }
+        return node.isEmpty() ? of() : node;
+    }
+
+    @Nonnull
+    private RrbNode<T>[] split(int splitPoint)
+    {
+        final Object[] slots = slots();
+        final RrbNode<T>[] answer = allocateNodes(2);
+        answer[0] = withSlots(height(), Arrays.copyOfRange(slots, 0, splitPoint));
+        answer[1] = withSlots(height(), Arrays.copyOfRange(slots, splitPoint, slots.length));
+        return answer;
+    }
+
+    private static int splitPoint(int index,
+                                  int oldSize)
+    {
+        if (index == oldSize) {
+            return MAX_SLOTS;
+        } else if (index == 0) {
+            return 1;
+        } else {
+            return MIN_SLOTS;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private static <T> RrbNode<T> withSlots(int height,
+                                            @Nonnull Object[] slots)
+    {
+        if (height == 0) {
+            return new Leaf<>(slots);
+        } else {
+            return new Branch<>(height, (RrbNode<T>[])slots);
+        }
+    }
+
+    @Nonnull
+    private static Object[] allocateSlots(int height,
+                                          int length)
+    {
+        return (height == 0) ? new Object[length] : new RrbNode[length];
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private static <T> RrbNode<T>[] allocateNodes(int length)
+    {
+        return (RrbNode<T>[])new RrbNode[length];
+    }
+
+    /**
+     * Joins two subtrees.  Unless isTop is true the result always has a height one greater
+     * than the taller of the two subtrees so that it can replace the seam nodes of its
+     * parents.
+     */
+    @Nonnull
+    private static <T> RrbNode<T> concatSubTrees(@Nonnull RrbNode<T> left,
+                                                 @Nonnull RrbNode<T> right,
+                                                 boolean isTop)
+    {
+        final int leftHeight = left.height();
+        final int rightHeight = right.height();
+        if (leftHeight > rightHeight) {
+            final Branch<T> leftBranch = (Branch<T>)left;
+            final RrbNode<T> middle = concatSubTrees(leftBranch.lastChild(), right, false);
+            return rebalance(leftBranch, (Branch<T>)middle, null, isTop);
+        } else if (leftHeight < rightHeight) {
+            final Branch<T> rightBranch = (Branch<T>)right;
+            final RrbNode<T> middle = concatSubTrees(left, rightBranch.firstChild(), false);
+            return rebalance(null, (Branch<T>)middle, rightBranch, isTop);
+        } else if (leftHeight == 0) {
+            final RrbNode<T>[] leaves;
+            if (left.size() + right.size() <= MAX_SLOTS) {
+                final Leaf<T> merged = new Leaf<>(concatSlots(left.slots(), right.slots()));
+                if (isTop) {
+                    return merged;
+                }
+                leaves = allocateNodes(1);
+                leaves[0] = merged;
+            } else {
+                leaves = allocateNodes(2);
+                leaves[0] = left;
+                leaves[1] = right;
+            }
+            return new Branch<>(1, leaves);
+        } else {
+            final Branch<T> leftBranch = (Branch<T>)left;
+            final Branch<T> rightBranch = (Branch<T>)right;
+            final RrbNode<T> middle = concatSubTrees(leftBranch.lastChild(), rightBranch.firstChild(), false);
+            return rebalance(leftBranch, (Branch<T>)middle, rightBranch, isTop);
+        }
+    }
+
+    /**
+     * Combines all but the last child of left, the children of middle, and all but the first
+     * child of right into one or two new branches and wraps them in a parent branch.  The
+     * children are first redistributed so that at most EXTRA_NODES more children are used
+     * than would be needed if every child were full.
+     */
+    @Nonnull
+    private static <T> RrbNode<T> rebalance(@Nullable Branch<T> left,
+                                            @Nonnull Branch<T> middle,
+                                            @Nullable Branch<T> right,
+                                            boolean isTop)
+    {
+        final RrbNode<T>[] leftChildren = (left == null) ? allocateNodes(0) : Arrays.copyOf(left.children, left.children.length - 1);
+        final RrbNode<T>[] rightChildren = (right == null) ? allocateNodes(0) : Arrays.copyOfRange(right.children, 1, right.children.length);
+        final RrbNode<T>[] all = concatSlots(concatSlots(leftChildren, middle.children), rightChildren);
+        final RrbNode<T>[] nodes = executePlan(all, createPlan(all), middle.height - 1);
+        final int height = middle.height;
+        if (nodes.length <= MAX_SLOTS) {
+            final Branch<T> node = new Branch<>(height, nodes);
+            if (isTop) {
+                return node;
+            }
+            final RrbNode<T>[] wrapper = allocateNodes(1);
+            wrapper[0] = node;
+            return new Branch<>(height + 1, wrapper);
+        } else {
+            final RrbNode<T>[] pair = allocateNodes(2);
+            pair[0] = new Branch<>(height, Arrays.copyOf(nodes, MAX_SLOTS));
+            pair[1] = new Branch<>(height, Arrays.copyOfRange(nodes, MAX_SLOTS, nodes.length));
+            return new Branch<>(height + 1, pair);
+        }
+    }
+
+    /**
+     * Decides how many slots each of the nodes should have after rebalancing.  Starting
+     * with the leftmost node that is not full, the slots of one node at a time are shifted
+     * into the nodes to its right until the node count is within EXTRA_NODES of optimal.
+     */
+    @Nonnull
+    private static <T> int[] createPlan(@Nonnull RrbNode<T>[] nodes)
+    {
+        final int[] counts = new int[nodes.length];
+        int totalSlots = 0;
+        for (int i = 0; i < nodes.length; ++i) {
+            counts[i] = nodes[i].slotCount();
+            totalSlots += counts[i];
+        }
+        final int optimal = (totalSlots + MAX_SLOTS - 1) / MAX_SLOTS;
+        int length = counts.length;
+        int i = 0;
+        while (length > optimal + EXTRA_NODES) {
+            while (counts[i] >= MAX_SLOTS) {
+                i += 1;
+            }
+            int remaining = counts[i];
+            while (remaining > 0) {
+                final int filled = Math.min(remaining + counts[i + 1], MAX_SLOTS);
+                remaining = remaining + counts[i + 1] - filled;
+                counts[i] = filled;
+                i += 1;
+            }
+            System.arraycopy(counts, i + 1, counts, i, length - i - 1);
+            length -= 1;
+            i = Math.max(0, i - 1);
+        }
+        return Arrays.copyOf(counts, length);
+    }
+
+    /**
+     * Copies the slots of nodes into new nodes of the sizes specified by plan.  Nodes whose
+     * slots would not move are reused as is.
+     */
+    @Nonnull
+    private static <T> RrbNode<T>[] executePlan(@Nonnull RrbNode<T>[] nodes,
+                                                @Nonnull int[] plan,
+                                                int height)
+    {
+        if (plan.length == nodes.length) {
+            return nodes;
+        }
+        final RrbNode<T>[] answer = allocateNodes(plan.length);
+        int source = 0;
+        int sourceOffset = 0;
+        for (int i = 0; i < plan.length; ++i) {
+            final int length = plan[i];
+            if ((sourceOffset == 0) && (nodes[source].slotCount() == length)) {
+                answer[i] = nodes[source];
+                source += 1;
+                continue;
+            }
+            final Object[] slots = allocateSlots(height, length);
+            int filled = 0;
+            while (filled < length) {
+                final RrbNode<T> node = nodes[source];
+                final int count = Math.min(node.slotCount() - sourceOffset, length - filled);
+                System.arraycopy(node.slots(), sourceOffset, slots, filled, count);
+                filled += count;
+                sourceOffset += count;
+                if (sourceOffset == node.slotCount()) {
+                    source += 1;
+                    sourceOffset = 0;
+                }
+            }
+            answer[i] = withSlots(height, slots);
+        }
+        return answer;
+    }
+
+    @Nonnull
+    private static <S> S[] concatSlots(@Nonnull S[] a,
+                                       @Nonnull S[] b)
+    {
+        final S[] answer = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, answer, a.length, b.length);
+        return answer;
+    }
+
+    @Immutable
+    static final class Leaf<T>
+        extends RrbNode<T>
+    {
+        @Nonnull
+        private final Object[] values;
+
+        private Leaf(@Nonnull Object[] values)
+        {
+            this.values = values;
+        }
+
+        @Override
+        int size()
+        {
+            return values.length;
+        }
+
+        @Override
+        int height()
+        {
+            return 0;
+        }
+
+        @Override
+        int slotCount()
+        {
+            return values.length;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        T get(int index)
+        {
+            return (T)values[index];
+        }
+
+        @Nonnull
+        @Override
+        RrbNode<T> assign(int index,
+                          T value)
+        {
+            final Object[] newValues = values.clone();
+            newValues[index] = value;
+            return new Leaf<>(newValues);
+        }
+
+        @Nonnull
+        @Override
+        RrbNode<T> insertAt(int index,
+                            T value)
+        {
+            final Object[] newValues = new Object[values.length + 1];
+            System.arraycopy(values, 0, newValues, 0, index);
+            newValues[index] = value;
+            System.arraycopy(values, index, newValues, index + 1, values.length - index);
+            return new Leaf<>(newValues);
+        }
+
+        @Nonnull
+        @Override
+        RrbNode<T> delete(int index)
+        {
+            final Object[] newValues = new Object[values.length - 1];
+            System.arraycopy(values, 0, newValues, 0, index);
+            System.arraycopy(values, index + 1, newValues, index, newValues.length - index);
+            return new Leaf<>(newValues);
+        }
+
+        @Nonnull
+        @Override
+        RrbNode<T> prefix(int limit)
+        {
+            return (limit == values.length) ? this : new Leaf<>(Arrays.copyOf(values, limit));
+        }
+
+        @Nonnull
+        @Override
+        RrbNode<T> suffix(int offset)
+        {
+            return (offset == 0) ? this : new Leaf<>(Arrays.copyOfRange(values, offset, values.length));
+        }
+
+        @Nonnull
+        @Override
+        Object[] slots()
+        {
+            return values;
+        }
+
+        @Override
+        void collectStats(@Nonnull StructureStats.Builder stats,
+                          int depth)
+        {
+            stats.addNode(this, StructureStats.objectBytes(1, 0) + StructureStats.arrayBytes(values.length, StructureStats.REFERENCE_BYTES));
+            stats.addValues(depth, values.length);
+            stats.addFill(values.length, MAX_SLOTS);
+        }
+
+        @Override
+        void checkInvariants(boolean isRoot)
+        {
+            if (values.length > MAX_SLOTS) {
+                throw new IllegalStateException("too many values: " + values.length);
+            }
+            if ((values.length == 0) && !isRoot) {
+                throw new IllegalStateException("empty leaf below root");
+            }
+        }
+
+        @Nonnull
+        @Override
+        public Cursor<T> cursor()
+        {
+            return StandardCursor.of(values());
+        }
+
+        @Nonnull
+        @Override
+        public SplitableIterator<T> iterator()
+        {
+            return IndexedIterator.iterator(values());
+        }
+
+        @Nonnull
+        @Override
+        Cursor<T> descendingCursor()
+        {
+            return StandardCursor.of(IndexedHelper.reversed(values()));
+        }
+
+        @Nonnull
+        @Override
+        SplitableIterator<T> descendingIterator()
+        {
+            return IndexedIterator.reverse(values());
+        }
+
+        @SuppressWarnings("unchecked")
+        @Nonnull
+        private Indexed<T> values()
+        {
+            return IndexedArray.retained((T[])values);
+        }
+    }
+
+    @Immutable
+    static final class Branch<T>
+        extends RrbNode<T>
+    {
+        private final int height;
+        private final int shift;
+        @Nonnull
+        private final RrbNode<T>[] children;
+        /**
+         * Cumulative sizes of the children or null if every child but the last is full.
+         */
+        @Nullable
+        private final int[] sizes;
+        private final int size;
+
+        private Branch(int height,
+                       @Nonnull RrbNode<T>[] children)
+        {
+            assert height > 0;
+            this.height = height;
+            this.shift = Math.min(SHIFT * height, MAX_SHIFT);
+            this.children = children;
+            final int fullSize = 1 << shift;
+            final int[] sizes = new int[children.length];
+            boolean relaxed = false;
+            int total = 0;
+            for (int i = 0; i < children.length; ++i) {
+                final int childSize = children[i].size();
+                if ((childSize != fullSize) && (i < children.length - 1)) {
+                    relaxed = true;
+                }
+                total += childSize;
+                sizes[i] = total;
+            }
+            this.sizes = relaxed ? sizes : null;
+            this.size = total;
+        }
+
+        private Branch(int height,
+                       int shift,
+                       @Nonnull RrbNode<T>[] children,
+                       @Nullable int[] sizes,
+                       int size)
+        {
+            this.height = height;
+            this.shift = shift;
+            this.children = children;
+            this.sizes = sizes;
+            this.size = size;
+        }
+
+        @Override
+        int size()
+        {
+            return size;
+        }
+
+        @Override
+        int height()
+        {
+            return height;
+        }
+
+        @Override
+        int slotCount()
+        {
+            return children.length;
+        }
+
+        @Override
+        T get(int index)
+        {
+            final int childIndex = childIndex(index);
+            return children[childIndex].get(index - childStart(childIndex));
+        }
+
+        @Nonnull
+        @Override
+        RrbNode<T> assign(int index,
+                          T value)
+        {
+            final int childIndex = childIndex(index);
+            final RrbNode<T>[] newChildren = children.clone();
+            newChildren[childIndex] = children[childIndex].assign(index - childStart(childIndex), value);
+            return new Branch<>(height, shift, newChildren, sizes, size);
+        }
+
+        @Nonnull
+        @Override
+        RrbNode<T> insertAt(int index,
+                            T value)
+        {
+            final int childIndex = (index == size) ? children.length - 1 : childIndex(index);
+            final RrbNode<T> child = children[childIndex];
+            final int childOffset = index - childStart(childIndex);
+            final RrbNode<T> newChild = child.insertAt(childOffset, value);
+            final RrbNode<T>[] newChildren;
+            if (newChild.slotCount() <= MAX_SLOTS) {
+                newChildren = children.clone();
+                newChildren[childIndex] = newChild;
+            } else {
+                final RrbNode<T>[] pair = newChild.split(splitPoint(childOffset, child.size()));
+                newChildren = allocateNodes(children.length + 1);
+                System.arraycopy(children, 0, newChildren, 0, childIndex);
+                System.arraycopy(pair, 0, newChildren, childIndex, 2);
+                System.arraycopy(children, childIndex + 1, newChildren, childIndex + 2, children.length - childIndex - 1);
+            }
+            return new Branch<>(height, newChildren);
+        }
+
+        @Nonnull
+        @Override
+        RrbNode<T> delete(int index)
+        {
+            final int childIndex = childIndex(index);
+            final RrbNode<T> newChild = children[childIndex].delete(index - childStart(childIndex));
+            if (newChild.isEmpty()) {
+                final RrbNode<T>[] newChildren = allocateNodes(children.length - 1);
+                System.arraycopy(children, 0, newChildren, 0, childIndex);
+                System.arraycopy(children, childIndex + 1, newChildren, childIndex, newChildren.length - childIndex);
+                return new Branch<>(height, newChildren);
+            }
+            if ((newChild.slotCount() >= MIN_SLOTS) || (children.length == 1)) {
+                final RrbNode<T>[] newChildren = children.clone();
+                newChildren[childIndex] = newChild;
+                return new Branch<>(height, newChildren);
+            }
+            final int leftIndex = (childIndex > 0) ? childIndex - 1 : childIndex;
+            final RrbNode<T> left = (leftIndex == childIndex) ? newChild : children[leftIndex];
+            final RrbNode<T> right = (leftIndex == childIndex) ? children[childIndex + 1] : newChild;
+            final Object[] slots = concatSlots(left.slots(), right.slots());
+            final RrbNode<T>[] replacements;
+            if (slots.length <= MAX_SLOTS) {
+                replacements = allocateNodes(1);
+                replacements[0] = withSlots(height - 1, slots);
+            } else {
+                replacements = RrbNode.<T>withSlots(height - 1, slots).split(slots.length / 2);
+            }
+            final RrbNode<T>[] newChildren = allocateNodes(children.length - 2 + replacements.length);
+            System.arraycopy(children, 0, newChildren, 0, leftIndex);
+            System.arraycopy(replacements, 0, newChildren, leftIndex, replacements.length);
+            System.arraycopy(children, leftIndex + 2, newChildren, leftIndex + replacements.length, children.length - leftIndex - 2);
+            return new Branch<>(height, newChildren);
+        }
+
+        @Nonnull
+        @Override
+        RrbNode<T> prefix(int limit)
+        {
+            if (limit == size) {
+                return this;
+            }
+            final int childIndex = childIndex(limit - 1);
+            final RrbNode<T>[] newChildren = Arrays.copyOf(children, childIndex + 1);
+            newChildren[childIndex] = children[childIndex].prefix(limit - childStart(childIndex));
+            return new Branch<>(height, newChildren);
+        }
+
+        @Nonnull
+        @Override
+        RrbNode<T> suffix(int offset)
+        {
+            if (offset == 0) {
+                return this;
+            }
+            final int childIndex = childIndex(offset);
+            final RrbNode<T>[] newChildren = Arrays.copyOfRange(children, childIndex, children.length);
+            newChildren[0] = children[childIndex].suffix(offset - childStart(childIndex));
+            return new Branch<>(height, newChildren);
+        }
+
+        @Nonnull
+        @Override
+        Object[] slots()
+        {
+            return children;
+        }
+
+        @Override
+        void collectStats(@Nonnull StructureStats.Builder stats,
+                          int depth)
+        {
+            final long sizesBytes = (sizes == null) ? 0 : StructureStats.arrayBytes(sizes.length, StructureStats.INT_BYTES);
+            stats.addNode(this, StructureStats.objectBytes(2, 3 * StructureStats.INT_BYTES) + StructureStats.arrayBytes(children.length, StructureStats.REFERENCE_BYTES) + sizesBytes);
+            for (RrbNode<T> child : children) {
+                child.collectStats(stats, depth + 1);
+            }
+        }
+
+        @Override
+        void checkInvariants(boolean isRoot)
+        {
+            if (children.length > MAX_SLOTS) {
+                throw new IllegalStateException("too many children: " + children.length);
+            }
+            if (children.length == 0) {
+                throw new IllegalStateException("branch has no children");
+            }
+            final int fullSize = 1 << shift;
+            boolean relaxed = false;
+            int total = 0;
+            for (int i = 0; i < children.length; ++i) {
+                final RrbNode<T> child = children[i];
+                if (child.height() != height - 1) {
+                    throw new IllegalStateException(String.format("child height mismatch: expected=%d actual=%d", height - 1, child.height()));
+                }
+                if ((child.size() != fullSize) && (i < children.length - 1)) {
+                    relaxed = true;
+                }
+                total += child.size();
+                if ((sizes != null) && (sizes[i] != total)) {
+                    throw new IllegalStateException(String.format("size table mismatch: index=%d expected=%d actual=%d", i, total, sizes[i]));
+                }
+                child.checkInvariants(false);
+            }
+            if (total != size) {
+                throw new IllegalStateException(String.format("size mismatch: expected=%d actual=%d", total, size));
+            }
+            if (relaxed != (sizes != null)) {
+                throw new IllegalStateException("relaxed branch without size table");
+            }
+        }
+
+        @Nonnull
+        @Override
+        public Cursor<T> cursor()
+        {
+            return LazyMultiCursor.cursor(IndexedArray.retained(children));
+        }
+
+        @Nonnull
+        @Override
+        public SplitableIterator<T> iterator()
+        {
+            return LazyMultiIterator.iterator(IndexedArray.retained(children));
+        }
+
+        @Nonnull
+        @Override
+        Cursor<T> descendingCursor()
+        {
+            return LazyMultiCursor.transformed(IndexedHelper.reversed(IndexedArray.retained(children)), child -> () -> child.descendingCursor());
+        }
+
+        @Nonnull
+        @Override
+        SplitableIterator<T> descendingIterator()
+        {
+            return LazyMultiIterator.transformed(IndexedHelper.reversed(IndexedArray.retained(children)), child -> () -> child.descendingIterator());
+        }
+
+        @Nonnull
+        RrbNode<T> firstChild()
+        {
+            return children[0];
+        }
+
+        @Nonnull
+        RrbNode<T> lastChild()
+        {
+            return children[children.length - 1];
+        }
+
+        /**
+         * Finds the child containing index.  The radix calculation never overshoots since
+         * no child holds more values than a full one would.
+         */
+        private int childIndex(int index)
+        {
+            int childIndex = index >> shift;
+            if (sizes != null) {
+                while (sizes[childIndex] <= index) {
+                    childIndex += 1;
+                }
+            }
+            return childIndex;
+        }
+
+        private int childStart(int childIndex)
+        {
+            if (sizes == null) {
+                return childIndex << shift;
+            } else {
+                return (childIndex == 0) ? 0 : sizes[childIndex - 1];
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.tree;
+
+import org.javimmutable.collections.Func2;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Associative summary of the entries of a JImmutableAugmentedTreeMap used by its aggregate() methods.
+ * Each entry is summarized individually and summaries of adjacent runs of entries are then
+ * combined in key order.  combine() must be associative and identity() must be its identity
+ * value (i.e. a monoid) so that summaries can be combined in any grouping.  Typical examples
+ * are sums, counts, minimums and maximums of the values.
+ * <p>
+ * The Aggregator is fixed when the map is created and the map stores the summary of each of its
+ * branches.  Since assign() and delete() only copy the branches on the path to the modified key
+ * only those branches need to be summarized again after a change.  An Aggregator must also
+ * implement Serializable for maps using it to be serializable.
+ */
+public interface Aggregator<K, V, S>
+{
+    S identity();
+
+    S summarize(K key,
+                V value);
+
+    S combine(S left,
+              S right);
+
+    /**
+     * Creates an Aggregator using the provided identity value and functions.  The returned
+     * Aggregator is not Serializable so maps using it cannot be serialized.
+     */
+    @Nonnull
+    static <K, V, S> Aggregator<K, V, S> of(S identity,
+                                            @Nonnull Func2<K, V, S> summarize,
+                                            @Nonnull Func2<S, S, S> combine)
+    {
+        return new Aggregator<K, V, S>()
+        {
+            @Override
+            public S identity()
+            {
+                return identity;
+            }
+
+            @Override
+            public S summarize(K key,
+                               V value)
+            {
+                return summarize.apply(key, value);
+            }
+
+            @Override
+            public S combine(S left,
+                             S right)
+            {
+                return combine.apply(left, right);
+            }
+        };
+    }
+}
@@ -39,12 +39,17 @@ import org.javimmutable.collections.Cursor;
 import org.javimmutable.collections.Func1;
 import org.javimmutable.collections.Holder;
 import org.javimmutable.collections.Holders;
+import org.javimmutable.collections.Indexed;
 import org.javimmutable.collections.JImmutableMap;
 import org.javimmutable.collections.SplitableIterator;
 import org.javimmutable.collections.Tuple2;
 import org.javimmutable.collections.common.ArrayHelper;
+import org.javimmutable.collections.common.BatchLookup;
+import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.common.StructureStats;
 import org.javimmutable.collections.cursors.LazyMultiCursor;
 import org.javimmutable.collections.indexed.IndexedArray;
+import org.javimmutable.collections.indexed.IndexedHelper;
 import org.javimmutable.collections.iterators.LazyMultiIterator;
 
 import javax.annotation.Nonnull;
@@ -53,15 +58,25 @@ import javax.annotation.concurrent.Immutable;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Objects;
+import java.util.function.Function;
 
 @Immutable
 public class BranchNode<K, V>
     implements Node<K, V>,
                ArrayHelper.Allocator<Node<K, V>>
 {
+    /**
+     * Nodes with at most this many children are searched linearly.  Measured with Integer
+     * keys a linear scan beat binary search at every node size up to MAX_CHILDREN but with
+     * String keys binary search won once a node had more than about a dozen children.
+     */
+    private static final int LINEAR_SEARCH_LIMIT = 12;
+
     private final Node<K, V>[] children;
-    private final K baseKey;
+    // base keys of the children stored contiguously so searches need not visit the children
+    private final K[] keys;
     private final int childCount;
+    private final int valueCount;
 
     public BranchNode(@Nonnull Node<K, V> child1,
                       @Nonnull Node<K, V> child2)
@@ -69,22 +84,24 @@ public class BranchNode<K, V>
         children = allocate(2);
         children[0] = child1;
         children[1] = child2;
-        baseKey = child1.baseKey();
+        keys = baseKeys(children);
         childCount = 2;
+        valueCount = child1.valueCount() + child2.valueCount();
     }
 
-    private BranchNode(@Nonnull Node<K, V>[] children)
+    BranchNode(@Nonnull Node<K, V>[] children)
     {
         this.children = children;
-        this.baseKey = children[0].baseKey();
+        this.keys = baseKeys(children);
         this.childCount = children.length;
+        this.valueCount = sumValueCounts(children);
     }
 
     @Nullable
     @Override
     public K baseKey()
     {
-        return baseKey;
+        return keys[0];
     }
 
     @Override
@@ -96,11 +113,7 @@ public class BranchNode<K, V>
     @Override
     public int valueCount()
     {
-        int answer = 0;
-        for (Node<K, V> child : children) {
-            answer += child.valueCount();
-        }
-        return answer;
+        return valueCount;
     }
 
     @Override
@@ -109,17 +122,45 @@ public class BranchNode<K, V>
                         V defaultValue)
     {
         final Node<K, V>[] children = this.children;
-        final int index = findChildIndex(comparator, key, children, -1);
+        final int index = findChildIndex(comparator, key, keys, -1);
         return (index >= 0) ? children[index].getValueOr(comparator, key, defaultValue) : defaultValue;
     }
 
+    @Override
+    public void getAll(@Nonnull Comparator<K> comparator,
+                       @Nonnull BatchLookup<K, V> batch,
+                       int offset,
+                       int limit)
+    {
+        final Node<K, V>[] children = this.children;
+        final int lastChildIndex = children.length - 1;
+        int index = offset;
+        while (index < limit) {
+            final int childIndex = findChildIndex(comparator, batch.getKey(index), keys, -1);
+            // every key below the next child's base key belongs to the same child
+            int end = index + 1;
+            if (childIndex < lastChildIndex) {
+                final K nextBaseKey = keys[childIndex + 1];
+                while ((end < limit) && (comparator.compare(batch.getKey(end), nextBaseKey) < 0)) {
+                    end += 1;
+                }
+            } else {
+                end = limit;
+            }
+            if (childIndex >= 0) {
+                children[childIndex].getAll(comparator, batch, index, end);
+            }
+            index = end;
+        }
+    }
+
     @Nonnull
     @Override
     public Holder<V> find(@Nonnull Comparator<K> comparator,
                           @Nonnull K key)
     {
         final Node<K, V>[] children = this.children;
-        final int index = findChildIndex(comparator, key, children, -1);
+        final int index = findChildIndex(comparator, key, keys, -1);
         return (index >= 0) ? children[index].find(comparator, key) : Holders.of();
     }
 
@@ -129,10 +170,96 @@ public class BranchNode<K, V>
                                                        @Nonnull K key)
     {
         final Node<K, V>[] children = this.children;
-        final int index = findChildIndex(comparator, key, children, -1);
+        final int index = findChildIndex(comparator, key, keys, -1);
         return (index >= 0) ? children[index].findEntry(comparator, key) : Holders.of();
     }
 
+    @Nonnull
+    @Override
+    public Holder<JImmutableMap.Entry<K, V>> findEntryBelow(@Nonnull Comparator<K> comparator,
+                                                            @Nonnull K key,
+                                                            boolean inclusive)
+    {
+        final Node<K, V>[] children = this.children;
+        final int index = findChildIndex(comparator, key, keys, -1);
+        if (index < 0) {
+            return Holders.of();
+        }
+        final Holder<JImmutableMap.Entry<K, V>> answer = children[index].findEntryBelow(comparator, key, inclusive);
+        if (answer.isFilled() || (index == 0)) {
+            return answer;
+        }
+        // only possible when the child's base key equals key and inclusive is false
+        return children[index - 1].lastEntry();
+    }
+
+    @Nonnull
+    @Override
+    public Holder<JImmutableMap.Entry<K, V>> findEntryAbove(@Nonnull Comparator<K> comparator,
+                                                            @Nonnull K key,
+                                                            boolean inclusive)
+    {
+        final Node<K, V>[] children = this.children;
+        final int index = findChildIndex(comparator, key, keys, -1);
+        if (index < 0) {
+            return children[0].firstEntry();
+        }
+        final Holder<JImmutableMap.Entry<K, V>> answer = children[index].findEntryAbove(comparator, key, inclusive);
+        if (answer.isFilled() || (index == children.length - 1)) {
+            return answer;
+        }
+        // every key in the next child is greater than key
+        return children[index + 1].firstEntry();
+    }
+
+    @Nonnull
+    @Override
+    public Holder<JImmutableMap.Entry<K, V>> firstEntry()
+    {
+        return children[0].firstEntry();
+    }
+
+    @Nonnull
+    @Override
+    public Holder<JImmutableMap.Entry<K, V>> lastEntry()
+    {
+        return children[children.length - 1].lastEntry();
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableMap.Entry<K, V> getEntryAt(int index)
+    {
+        if ((index < 0) || (index >= valueCount)) {
+            throw new IndexOutOfBoundsException();
+        }
+        for (Node<K, V> child : children) {
+            final int childValueCount = child.valueCount();
+            if (index < childValueCount) {
+                return child.getEntryAt(index);
+            }
+            index -= childValueCount;
+        }
+        throw new IllegalStateException();
+    }
+
+    @Override
+    public int countBelow(@Nonnull Comparator<K> comparator,
+                          @Nonnull K key,
+                          boolean inclusive)
+    {
+        final Node<K, V>[] children = this.children;
+        final int index = findChildIndex(comparator, key, keys, -1);
+        if (index < 0) {
+            return 0;
+        }
+        int answer = 0;
+        for (int i = 0; i < index; ++i) {
+            answer += children[i].valueCount();
+        }
+        return answer + children[index].countBelow(comparator, key, inclusive);
+    }
+
     @Nonnull
     @Override
     public UpdateResult<K, V> assign(@Nonnull Comparator<K> comparator,
@@ -140,7 +267,7 @@ public class BranchNode<K, V>
                                      V value)
     {
         final Node<K, V>[] children = this.children;
-        final int index = findChildIndex(comparator, key, children, 0);
+        final int index = findChildIndex(comparator, key, keys, 0);
         final UpdateResult<K, V> childResult = children[index].assign(comparator, key, value);
         return resultForAssign(children, index, childResult);
     }
@@ -152,7 +279,7 @@ public class BranchNode<K, V>
                                      @Nonnull Func1<Holder<V>, V> generator)
     {
         final Node<K, V>[] children = this.children;
-        final int index = findChildIndex(comparator, key, children, 0);
+        final int index = findChildIndex(comparator, key, keys, 0);
         final UpdateResult<K, V> childResult = children[index].update(comparator, key, generator);
         return resultForAssign(children, index, childResult);
     }
@@ -163,7 +290,7 @@ public class BranchNode<K, V>
                              @Nonnull K key)
     {
         final Node<K, V>[] children = this.children;
-        final int index = findChildIndex(comparator, key, children, -1);
+        final int index = findChildIndex(comparator, key, keys, -1);
         if (index < 0) {
             return this;
         }
@@ -211,6 +338,92 @@ public class BranchNode<K, V>
         }
     }
 
+    @Nonnull
+    @Override
+    public Node<K, V> deleteAll(@Nonnull Comparator<K> comparator,
+                                @Nonnull BatchLookup<K, V> batch,
+                                int offset,
+                                int limit,
+                                @Nonnull MutableDelta sizeDelta)
+    {
+        final Node<K, V>[] children = this.children;
+        final int lastChildIndex = children.length - 1;
+        Node<K, V>[] newChildren = null;
+        int index = offset;
+        while (index < limit) {
+            final int childIndex = findChildIndex(comparator, batch.getKey(index), keys, -1);
+            int end = index + 1;
+            if (childIndex < lastChildIndex) {
+                final K nextBaseKey = keys[childIndex + 1];
+                while ((end < limit) && (comparator.compare(batch.getKey(end), nextBaseKey) < 0)) {
+                    end += 1;
+                }
+            } else {
+                end = limit;
+            }
+            if (childIndex >= 0) {
+                final Node<K, V> child = children[childIndex];
+                final Node<K, V> newChild = child.deleteAll(comparator, batch, index, end, sizeDelta);
+                if (newChild != child) {
+                    if (newChildren == null) {
+                        newChildren = children.clone();
+                    }
+                    newChildren[childIndex] = newChild;
+                }
+            }
+            index = end;
+        }
+        return (newChildren == null) ? this : forDeleteAll(newChildren);
+    }
+
+    /**
+     * Creates a node from children left by deleteAll().
+     */
+    @Nonnull
+    private Node<K, V> forDeleteAll(@Nonnull Node<K, V>[] children)
+    {
+        final Node<K, V>[] balanced = rebalance(children);
+        return (balanced.length == 0) ? EmptyNode.of() : new BranchNode<>(balanced);
+    }
+
+    /**
+     * Removes empty nodes and combines every branch having too few children with its neighbor.
+     * When two branches are combined their children are rebalanced the same way since each
+     * may end with a lone child of its own that has too few children.  Only a lone remaining
+     * node can still have too few children.
+     */
+    @Nonnull
+    private static <K, V> Node<K, V>[] rebalance(@Nonnull Node<K, V>[] nodes)
+    {
+        final Node<K, V>[] answer = nodes.clone();
+        int count = 0;
+        for (Node<K, V> node : nodes) {
+            if (node.isEmpty()) {
+                continue;
+            }
+            if (count > 0) {
+                final Node<K, V> previous = answer[count - 1];
+                if ((previous.depth() > 0) && ((previous.childCount() < MIN_CHILDREN) || (node.childCount() < MIN_CHILDREN))) {
+                    final Node<K, V>[] previousChildren = ((BranchNode<K, V>)previous).children;
+                    final Node<K, V>[] nodeChildren = ((BranchNode<K, V>)node).children;
+                    final Node<K, V>[] combined = Arrays.copyOf(previousChildren, previousChildren.length + nodeChildren.length);
+                    System.arraycopy(nodeChildren, 0, combined, previousChildren.length, nodeChildren.length);
+                    final Node<K, V>[] balanced = rebalance(combined);
+                    if (balanced.length <= MAX_CHILDREN) {
+                        answer[count - 1] = new BranchNode<>(balanced);
+                    } else {
+                        final int split = balanced.length / 2;
+                        answer[count - 1] = new BranchNode<>(Arrays.copyOfRange(balanced, 0, split));
+                        answer[count++] = new BranchNode<>(Arrays.copyOfRange(balanced, split, balanced.length));
+                    }
+                    continue;
+                }
+            }
+            answer[count++] = node;
+        }
+        return (count == answer.length) ? answer : Arrays.copyOf(answer, count);
+    }
+
     @Nonnull
     @Override
     public Node<K, V> mergeChildren(@Nonnull Node<K, V> sibling)
@@ -228,6 +441,116 @@ public class BranchNode<K, V>
                          new BranchNode<>(ArrayHelper.subArray(this, children, branch.children, MIN_CHILDREN, childCount + branch.childCount)));
     }
 
+    @Nonnull
+    @Override
+    public Tuple2<Node<K, V>, Node<K, V>> split(@Nonnull Comparator<K> comparator,
+                                                @Nonnull K key)
+    {
+        final Node<K, V>[] children = this.children;
+        final int index = findChildIndex(comparator, key, keys, -1);
+        if (index < 0) {
+            return Tuple2.of(EmptyNode.of(), this);
+        }
+        final Tuple2<Node<K, V>, Node<K, V>> childSplit = children[index].split(comparator, key);
+        final Node<K, V> before = forChildren(Arrays.copyOfRange(children, 0, index));
+        final Node<K, V> after = forChildren(Arrays.copyOfRange(children, index + 1, children.length));
+        return Tuple2.of(before.join(childSplit.getFirst()), childSplit.getSecond().join(after));
+    }
+
+    @Nonnull
+    @Override
+    public Node<K, V> join(@Nonnull Node<K, V> right)
+    {
+        return join(this, right);
+    }
+
+    /**
+     * Combines two non-empty trees.  Every key in left must be less than every key in right.
+     * Either tree can have a root with fewer than MIN_CHILDREN children but all of their
+     * other branches must have at least MIN_CHILDREN children.
+     */
+    @Nonnull
+    static <K, V> Node<K, V> join(@Nonnull Node<K, V> left,
+                                  @Nonnull Node<K, V> right)
+    {
+        if (right.isEmpty()) {
+            return left;
+        }
+        final Node<K, V>[] joined = joinNodes(left.compress(), right.compress());
+        return (joined.length == 1) ? joined[0] : new BranchNode<>(joined);
+    }
+
+    /**
+     * Joins two trees and returns either a single node or two nodes of the same depth as
+     * the taller tree.  The shorter tree is attached to the nearest edge of the taller tree
+     * and any branch that overflows is split in half just as a branch is split by assign().
+     */
+    @Nonnull
+    private static <K, V> Node<K, V>[] joinNodes(@Nonnull Node<K, V> left,
+                                                 @Nonnull Node<K, V> right)
+    {
+        final int leftDepth = left.depth();
+        final int rightDepth = right.depth();
+        if (leftDepth == rightDepth) {
+            if ((leftDepth == 0) || ((left.childCount() >= MIN_CHILDREN) && (right.childCount() >= MIN_CHILDREN))) {
+                return nodeArray(left, right);
+            }
+            final Node<K, V>[] leftChildren = ((BranchNode<K, V>)left).children;
+            final Node<K, V>[] rightChildren = ((BranchNode<K, V>)right).children;
+            return forChildrenWithSplit(concat(leftChildren, rightChildren));
+        } else if (leftDepth > rightDepth) {
+            final Node<K, V>[] leftChildren = ((BranchNode<K, V>)left).children;
+            final int lastIndex = leftChildren.length - 1;
+            final Node<K, V>[] joined = joinNodes(leftChildren[lastIndex], right);
+            return forChildrenWithSplit(concat(Arrays.copyOf(leftChildren, lastIndex), joined));
+        } else {
+            final Node<K, V>[] rightChildren = ((BranchNode<K, V>)right).children;
+            final Node<K, V>[] joined = joinNodes(left, rightChildren[0]);
+            return forChildrenWithSplit(concat(joined, Arrays.copyOfRange(rightChildren, 1, rightChildren.length)));
+        }
+    }
+
+    @Nonnull
+    private static <K, V> Node<K, V> forChildren(@Nonnull Node<K, V>[] children)
+    {
+        return (children.length == 0) ? EmptyNode.of() : new BranchNode<>(children);
+    }
+
+    @Nonnull
+    private static <K, V> Node<K, V>[] forChildrenWithSplit(@Nonnull Node<K, V>[] children)
+    {
+        if (children.length <= MAX_CHILDREN) {
+            return nodeArray(new BranchNode<>(children));
+        }
+        final int split = children.length / 2;
+        return nodeArray(new BranchNode<>(Arrays.copyOfRange(children, 0, split)),
+                         new BranchNode<>(Arrays.copyOfRange(children, split, children.length)));
+    }
+
+    @Nonnull
+    private static <K, V> Node<K, V>[] concat(@Nonnull Node<K, V>[] first,
+                                              @Nonnull Node<K, V>[] second)
+    {
+        final Node<K, V>[] answer = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, answer, first.length, second.length);
+        return answer;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private static <K, V> Node<K, V>[] nodeArray(@Nonnull Node<K, V> node)
+    {
+        return new Node[]{node};
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private static <K, V> Node<K, V>[] nodeArray(@Nonnull Node<K, V> first,
+                                                 @Nonnull Node<K, V> second)
+    {
+        return new Node[]{first, second};
+    }
+
     @Nonnull
     @Override
     public Node<K, V> compress()
@@ -235,12 +558,31 @@ public class BranchNode<K, V>
         return children.length == 1 ? children[0].compress() : this;
     }
 
+    @Nonnull
+    Node<K, V>[] getChildren()
+    {
+        return children;
+    }
+
     @Override
     public int depth()
     {
         return 1 + children[0].depth();
     }
 
+    @Override
+    public void collectStats(@Nonnull StructureStats.Builder stats,
+                             int depth)
+    {
+        stats.addNode(this, StructureStats.objectBytes(2, StructureStats.INT_BYTES) + StructureStats.arrayBytes(children.length, StructureStats.REFERENCE_BYTES));
+        if (children[0].depth() == 0) {
+            stats.addFill(children.length, MAX_CHILDREN);
+        }
+        for (Node<K, V> child : children) {
+            child.collectStats(stats, depth + 1);
+        }
+    }
+
     @Nonnull
     @Override
     public Cursor<JImmutableMap.Entry<K, V>> cursor()
@@ -255,6 +597,103 @@ public class BranchNode<K, V>
         return LazyMultiIterator.iterator(IndexedArray.retained(children));
     }
 
+    @Nonnull
+    @Override
+    public Cursor<JImmutableMap.Entry<K, V>> cursor(@Nonnull Comparator<K> comparator,
+                                                    @Nonnull KeyRange<K> range)
+    {
+        return LazyMultiCursor.cursor(childrenInRange(comparator, range, false, child -> child, child -> () -> child.cursor(comparator, range)));
+    }
+
+    @Nonnull
+    @Override
+    public SplitableIterator<JImmutableMap.Entry<K, V>> iterator(@Nonnull Comparator<K> comparator,
+                                                                 @Nonnull KeyRange<K> range)
+    {
+        return LazyMultiIterator.iterator(childrenInRange(comparator, range, false, child -> child, child -> () -> child.iterator(comparator, range)));
+    }
+
+    @Nonnull
+    @Override
+    public Cursor<JImmutableMap.Entry<K, V>> descendingCursor(@Nonnull Comparator<K> comparator,
+                                                              @Nonnull KeyRange<K> range)
+    {
+        return LazyMultiCursor.cursor(childrenInRange(comparator, range, true,
+                                                      child -> () -> child.descendingCursor(comparator, KeyRange.all()),
+                                                      child -> () -> child.descendingCursor(comparator, range)));
+    }
+
+    @Nonnull
+    @Override
+    public SplitableIterator<JImmutableMap.Entry<K, V>> descendingIterator(@Nonnull Comparator<K> comparator,
+                                                                           @Nonnull KeyRange<K> range)
+    {
+        return LazyMultiIterator.iterator(childrenInRange(comparator, range, true,
+                                                          child -> () -> child.descendingIterator(comparator, KeyRange.all()),
+                                                          child -> () -> child.descendingIterator(comparator, range)));
+    }
+
+    /**
+     * Selects the children that can contain keys within range.  Every key in the children
+     * between the first and last selected child is within range so those children are
+     * passed to whole.  The first and last children can extend past the range so they
+     * are passed to partial to restrict them to the range.  When descending is true the
+     * children are returned from last to first.
+     */
+    private <T> Indexed<T> childrenInRange(@Nonnull Comparator<K> comparator,
+                                           @Nonnull KeyRange<K> range,
+                                           boolean descending,
+                                           @Nonnull Function<Node<K, V>, T> whole,
+                                           @Nonnull Function<Node<K, V>, T> partial)
+    {
+        final Node<K, V>[] children = this.children;
+        final int first = range.hasLow() ? findChildIndex(comparator, range.getLow(), keys, 0) : 0;
+        final int last = range.hasHigh() ? findChildIndex(comparator, range.getHigh(), keys, -1) : children.length - 1;
+        if (last < first) {
+            return IndexedHelper.empty();
+        }
+        return new Indexed<T>()
+        {
+            @Override
+            public T get(int index)
+            {
+                final int childIndex = descending ? (last - index) : (first + index);
+                final Node<K, V> child = children[childIndex];
+                if (((childIndex == first) && range.hasLow()) || ((childIndex == last) && range.hasHigh())) {
+                    return partial.apply(child);
+                } else {
+                    return whole.apply(child);
+                }
+            }
+
+            @Override
+            public int size()
+            {
+                return last - first + 1;
+            }
+        };
+    }
+
+    /**
+     * Returns the child at index.  Used by SummaryNode to walk a tree in step with its summaries.
+     */
+    @Nonnull
+    Node<K, V> childAt(int index)
+    {
+        return children[index];
+    }
+
+    /**
+     * Returns the index of the child that could contain key or beforeFirstChildIndex if key is
+     * less than the base key of every child.
+     */
+    int childIndex(@Nonnull Comparator<K> comparator,
+                   @Nonnull K key,
+                   int beforeFirstChildIndex)
+    {
+        return findChildIndex(comparator, key, keys, beforeFirstChildIndex);
+    }
+
     @Override
     public void checkInvariants(@Nonnull Comparator<K> comparator)
     {
@@ -264,12 +703,18 @@ public class BranchNode<K, V>
         if (childCount > MAX_CHILDREN) {
             throw new IllegalStateException();
         }
+        if (valueCount != sumValueCounts(children)) {
+            throw new IllegalStateException();
+        }
         final int depth = children[0].depth();
         for (int i = 0; i < childCount; ++i) {
             final Node<K, V> child = children[i];
             if (child.depth() != depth) {
                 throw new IllegalStateException();
             }
+            if (keys[i] != child.baseKey()) {
+                throw new IllegalStateException();
+            }
             if (i > 0 && comparator.compare(children[i - 1].baseKey(), children[i].baseKey()) >= 0) {
                 throw new IllegalStateException();
             }
@@ -297,13 +742,13 @@ public class BranchNode<K, V>
         BranchNode<?, ?> that = (BranchNode<?, ?>)o;
         return childCount == that.childCount &&
                Arrays.equals(children, that.children) &&
-               Objects.equals(baseKey, that.baseKey);
+               Objects.equals(baseKey(), that.baseKey());
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(children, baseKey, childCount);
+        return Objects.hash(children, baseKey(), childCount);
     }
 
     @Nonnull
@@ -337,17 +782,38 @@ public class BranchNode<K, V>
         }
     }
 
-    static <K, V> int findChildIndex(@Nonnull Comparator<K> comparator,
-                                     @Nonnull K key,
-                                     @Nonnull Node<K, V>[] children,
-                                     int beforeFirstChildIndex)
+    private static <K, V> int sumValueCounts(@Nonnull Node<K, V>[] children)
     {
+        int answer = 0;
+        for (Node<K, V> child : children) {
+            answer += child.valueCount();
+        }
+        return answer;
+    }
+
+    /**
+     * Returns the index of the last child whose base key is less than or equal to key or
+     * beforeFirstChildIndex if key is less than every base key.  Small arrays are scanned
+     * linearly since the scan's predictable branches beat a binary search when comparisons
+     * are cheap.  Larger arrays use a binary search to limit the number of comparisons.
+     */
+    static <K> int findChildIndex(@Nonnull Comparator<K> comparator,
+                                  @Nonnull K key,
+                                  @Nonnull K[] keys,
+                                  int beforeFirstChildIndex)
+    {
+        if (keys.length <= LINEAR_SEARCH_LIMIT) {
+            int index = 0;
+            while ((index < keys.length) && (comparator.compare(key, keys[index]) >= 0)) {
+                index += 1;
+            }
+            return (index > 0) ? index - 1 : beforeFirstChildIndex;
+        }
         int first = 0;
-        int last = children.length - 1;
+        int last = keys.length - 1;
         while (first <= last) {
             final int middle = (first + last) >>> 1;
-            final K value = children[middle].baseKey();
-            final int diff = comparator.compare(key, value);
+            final int diff = comparator.compare(key, keys[middle]);
             if (diff < 0) {
                 last = middle - 1;
             } else if (diff > 0) {
@@ -358,4 +824,15 @@ public class BranchNode<K, V>
         }
         return first > 0 ? first - 1 : beforeFirstChildIndex;
     }
+
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    private static <K, V> K[] baseKeys(@Nonnull Node<K, V>[] children)
+    {
+        final K[] answer = (K[])new Object[children.length];
+        for (int i = 0; i < children.length; ++i) {
+            answer[i] = children[i].baseKey();
+        }
+        return answer;
+    }
 }
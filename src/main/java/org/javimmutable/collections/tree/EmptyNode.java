@@ -42,6 +42,9 @@ import org.javimmutable.collections.Holders;
 import org.javimmutable.collections.JImmutableMap;
 import org.javimmutable.collections.SplitableIterator;
 import org.javimmutable.collections.Tuple2;
+import org.javimmutable.collections.common.BatchLookup;
+import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.common.StructureStats;
 import org.javimmutable.collections.cursors.StandardCursor;
 import org.javimmutable.collections.iterators.EmptyIterator;
 
@@ -90,6 +93,14 @@ public class EmptyNode<K, V>
         return defaultValue;
     }
 
+    @Override
+    public void getAll(@Nonnull Comparator<K> comparator,
+                       @Nonnull BatchLookup<K, V> batch,
+                       int offset,
+                       int limit)
+    {
+    }
+
     @Nonnull
     @Override
     public Holder<V> find(@Nonnull Comparator<K> comparator,
@@ -106,6 +117,53 @@ public class EmptyNode<K, V>
         return Holders.of();
     }
 
+    @Nonnull
+    @Override
+    public Holder<JImmutableMap.Entry<K, V>> findEntryBelow(@Nonnull Comparator<K> comparator,
+                                                            @Nonnull K key,
+                                                            boolean inclusive)
+    {
+        return Holders.of();
+    }
+
+    @Nonnull
+    @Override
+    public Holder<JImmutableMap.Entry<K, V>> findEntryAbove(@Nonnull Comparator<K> comparator,
+                                                            @Nonnull K key,
+                                                            boolean inclusive)
+    {
+        return Holders.of();
+    }
+
+    @Nonnull
+    @Override
+    public Holder<JImmutableMap.Entry<K, V>> firstEntry()
+    {
+        return Holders.of();
+    }
+
+    @Nonnull
+    @Override
+    public Holder<JImmutableMap.Entry<K, V>> lastEntry()
+    {
+        return Holders.of();
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableMap.Entry<K, V> getEntryAt(int index)
+    {
+        throw new IndexOutOfBoundsException();
+    }
+
+    @Override
+    public int countBelow(@Nonnull Comparator<K> comparator,
+                          @Nonnull K key,
+                          boolean inclusive)
+    {
+        return 0;
+    }
+
     @Nonnull
     @Override
     public UpdateResult<K, V> assign(@Nonnull Comparator<K> comparator,
@@ -132,6 +190,17 @@ public class EmptyNode<K, V>
         return this;
     }
 
+    @Nonnull
+    @Override
+    public Node<K, V> deleteAll(@Nonnull Comparator<K> comparator,
+                                @Nonnull BatchLookup<K, V> batch,
+                                int offset,
+                                int limit,
+                                @Nonnull MutableDelta sizeDelta)
+    {
+        return this;
+    }
+
     @Nonnull
     @Override
     public Node<K, V> mergeChildren(@Nonnull Node<K, V> sibling)
@@ -146,6 +215,21 @@ public class EmptyNode<K, V>
         throw new UnsupportedOperationException();
     }
 
+    @Nonnull
+    @Override
+    public Tuple2<Node<K, V>, Node<K, V>> split(@Nonnull Comparator<K> comparator,
+                                                @Nonnull K key)
+    {
+        return Tuple2.of(this, this);
+    }
+
+    @Nonnull
+    @Override
+    public Node<K, V> join(@Nonnull Node<K, V> right)
+    {
+        return right;
+    }
+
     @Nonnull
     @Override
     public Node<K, V> compress()
@@ -159,6 +243,12 @@ public class EmptyNode<K, V>
         return 0;
     }
 
+    @Override
+    public void collectStats(@Nonnull StructureStats.Builder stats,
+                             int depth)
+    {
+    }
+
     @Override
     public boolean isEmpty()
     {
@@ -179,6 +269,38 @@ public class EmptyNode<K, V>
         return EmptyIterator.of();
     }
 
+    @Nonnull
+    @Override
+    public Cursor<JImmutableMap.Entry<K, V>> cursor(@Nonnull Comparator<K> comparator,
+                                                    @Nonnull KeyRange<K> range)
+    {
+        return StandardCursor.of();
+    }
+
+    @Nonnull
+    @Override
+    public SplitableIterator<JImmutableMap.Entry<K, V>> iterator(@Nonnull Comparator<K> comparator,
+                                                                 @Nonnull KeyRange<K> range)
+    {
+        return EmptyIterator.of();
+    }
+
+    @Nonnull
+    @Override
+    public Cursor<JImmutableMap.Entry<K, V>> descendingCursor(@Nonnull Comparator<K> comparator,
+                                                              @Nonnull KeyRange<K> range)
+    {
+        return StandardCursor.of();
+    }
+
+    @Nonnull
+    @Override
+    public SplitableIterator<JImmutableMap.Entry<K, V>> descendingIterator(@Nonnull Comparator<K> comparator,
+                                                                           @Nonnull KeyRange<K> range)
+    {
+        return EmptyIterator.of();
+    }
+
     @Override
     public void checkInvariants(@Nonnull Comparator<K> comparator)
     {
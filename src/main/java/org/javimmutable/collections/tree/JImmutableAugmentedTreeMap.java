@@ -0,0 +1,352 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.tree;
+
+import org.javimmutable.collections.Cursor;
+import org.javimmutable.collections.Func1;
+import org.javimmutable.collections.Holder;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.SplitableIterator;
+import org.javimmutable.collections.Tuple2;
+import org.javimmutable.collections.common.AbstractJImmutableMap;
+import org.javimmutable.collections.common.Conditions;
+import org.javimmutable.collections.common.StreamConstants;
+import org.javimmutable.collections.serialization.JImmutableAugmentedTreeMapProxy;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sorted JImmutableMap that maintains summaries of its entries using an Aggregator chosen when
+ * the map is created.  The entries are stored in a JImmutableTreeMap alongside a tree of
+ * summaries mirroring its branches.  Whenever a new version of the map is created only the
+ * branches copied by the change are summarized again so assign(), delete(), deleteRange(),
+ * splitAt() and concat() remain O(log n) and aggregate() takes O(log n) time for any range of
+ * keys.  Plain JImmutableTreeMaps do not keep summaries so they pay nothing for this feature.
+ * <p>
+ * The map is serialized as its comparator, its aggregator and its entries and the summaries
+ * are computed again when it is deserialized.  The aggregator is part of the serialized form
+ * so serializing a map whose aggregator is not Serializable (such as those created by
+ * Aggregator.of() from plain lambdas) throws NotSerializableException.
+ */
+@Immutable
+public class JImmutableAugmentedTreeMap<K, V, S>
+    extends AbstractJImmutableMap<K, V>
+    implements Serializable
+{
+    private static final long serialVersionUID = -121805;
+
+    private final JImmutableTreeMap<K, V> map;
+    private final Aggregator<K, V, S> aggregator;
+    private final SummaryNode<K, V, S> summaries;
+
+    private JImmutableAugmentedTreeMap(@Nonnull JImmutableTreeMap<K, V> map,
+                                       @Nonnull Aggregator<K, V, S> aggregator,
+                                       @Nonnull SummaryNode<K, V, S> summaries)
+    {
+        this.map = map;
+        this.aggregator = aggregator;
+        this.summaries = summaries;
+    }
+
+    /**
+     * Creates an empty map that sorts keys in their natural sort order (using ComparableComparator)
+     * and summarizes its entries using aggregator.
+     */
+    @Nonnull
+    public static <K extends Comparable<K>, V, S> JImmutableAugmentedTreeMap<K, V, S> of(@Nonnull Aggregator<K, V, S> aggregator)
+    {
+        return of(JImmutableTreeMap.of(), aggregator);
+    }
+
+    /**
+     * Creates an empty map that sorts keys using comparator and summarizes its entries using
+     * aggregator.
+     */
+    @Nonnull
+    public static <K, V, S> JImmutableAugmentedTreeMap<K, V, S> of(@Nonnull Comparator<K> comparator,
+                                                                   @Nonnull Aggregator<K, V, S> aggregator)
+    {
+        return of(JImmutableTreeMap.of(comparator), aggregator);
+    }
+
+    /**
+     * Creates a map containing the entries of map that summarizes its entries using aggregator.
+     * Every entry of map is summarized so this takes O(n) time.
+     */
+    @Nonnull
+    public static <K, V, S> JImmutableAugmentedTreeMap<K, V, S> of(@Nonnull JImmutableTreeMap<K, V> map,
+                                                                   @Nonnull Aggregator<K, V, S> aggregator)
+    {
+        final SummaryNode<K, V, S> summaries = SummaryNode.of(aggregator, map.getComparator(), map.getRoot(), Collections.emptyList());
+        return new JImmutableAugmentedTreeMap<>(map, aggregator, summaries);
+    }
+
+    /**
+     * Returns the summary of every entry in the map.  Takes constant time.
+     */
+    public S aggregate()
+    {
+        return summaries.getSummary();
+    }
+
+    /**
+     * Combines the summaries of the entries with keys from fromKey (inclusive) to toKey (exclusive).
+     * Subtrees entirely within the range contribute their stored summaries so only the nodes on
+     * the paths to fromKey and toKey are visited.  Takes O(log n) time.
+     */
+    public S aggregate(@Nonnull K fromKey,
+                       @Nonnull K toKey)
+    {
+        Conditions.stopNull(fromKey, toKey);
+        final Comparator<K> comparator = map.getComparator();
+        final KeyRange<K> range = KeyRange.<K>all().withLow(comparator, fromKey, true).withHigh(comparator, toKey, false);
+        return summaries.aggregate(aggregator, comparator, range);
+    }
+
+    @Nonnull
+    public Aggregator<K, V, S> getAggregator()
+    {
+        return aggregator;
+    }
+
+    @Nonnull
+    public Comparator<K> getComparator()
+    {
+        return map.getComparator();
+    }
+
+    /**
+     * Returns the entries of this map as a plain JImmutableTreeMap, for example to create range
+     * views.  Takes constant time since the entries are shared.
+     */
+    @Nonnull
+    public JImmutableTreeMap<K, V> getTreeMap()
+    {
+        return map;
+    }
+
+    @Override
+    public V getValueOr(K key,
+                        V defaultValue)
+    {
+        return map.getValueOr(key, defaultValue);
+    }
+
+    @Nonnull
+    @Override
+    public Holder<V> find(@Nonnull K key)
+    {
+        return map.find(key);
+    }
+
+    @Nonnull
+    @Override
+    public Holder<Entry<K, V>> findEntry(@Nonnull K key)
+    {
+        return map.findEntry(key);
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableAugmentedTreeMap<K, V, S> assign(@Nonnull K key,
+                                                      V value)
+    {
+        return withMap(map.assign(key, value));
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableAugmentedTreeMap<K, V, S> update(@Nonnull K key,
+                                                      @Nonnull Func1<Holder<V>, V> generator)
+    {
+        return withMap(map.update(key, generator));
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableAugmentedTreeMap<K, V, S> delete(@Nonnull K key)
+    {
+        return withMap(map.delete(key));
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableAugmentedTreeMap<K, V, S> deleteAll(@Nonnull Iterable<? extends K> keys)
+    {
+        return withMap(map.deleteAll(keys));
+    }
+
+    /**
+     * Deletes every key from fromKey (inclusive) to toKey (exclusive) in O(log n) time.
+     */
+    @Nonnull
+    public JImmutableAugmentedTreeMap<K, V, S> deleteRange(@Nonnull K fromKey,
+                                                           @Nonnull K toKey)
+    {
+        return withMap(map.deleteRange(fromKey, toKey));
+    }
+
+    /**
+     * Splits this map into a map containing the keys less than key and a map containing the
+     * keys greater than or equal to key.  Both maps use this map's aggregator and reuse its
+     * summaries so this takes O(log n) time.
+     */
+    @Nonnull
+    public Tuple2<JImmutableAugmentedTreeMap<K, V, S>, JImmutableAugmentedTreeMap<K, V, S>> splitAt(@Nonnull K key)
+    {
+        final Tuple2<JImmutableTreeMap<K, V>, JImmutableTreeMap<K, V>> split = map.splitAt(key);
+        return Tuple2.of(withMap(split.getFirst()), withMap(split.getSecond()));
+    }
+
+    /**
+     * Adds all of the entries in other to this map using JImmutableTreeMap.concat().  When the
+     * key ranges of the two maps do not overlap this takes O(log n) time.  The summaries of
+     * other are only reused when it has the same aggregator as this map.
+     */
+    @Nonnull
+    public JImmutableAugmentedTreeMap<K, V, S> concat(@Nonnull JImmutableAugmentedTreeMap<K, V, S> other)
+    {
+        final JImmutableTreeMap<K, V> newMap = map.concat(other.map);
+        if (newMap == map) {
+            return this;
+        } else if (!other.aggregator.equals(aggregator)) {
+            return withSummaries(newMap, Collections.singletonList(summaries));
+        } else if (newMap == other.map) {
+            return other;
+        } else {
+            return withSummaries(newMap, Arrays.asList(summaries, other.summaries));
+        }
+    }
+
+    /**
+     * Uses concat() when map is a JImmutableAugmentedTreeMap or JImmutableTreeMap so that maps
+     * with disjoint key ranges are combined in O(log n) time.  In every case the summaries are
+     * updated once after all of the entries have been assigned.
+     */
+    @Nonnull
+    @Override
+    @SuppressWarnings("unchecked")
+    public JImmutableAugmentedTreeMap<K, V, S> assignAll(@Nonnull JImmutableMap<? extends K, ? extends V> map)
+    {
+        if (map instanceof JImmutableAugmentedTreeMap) {
+            return concat((JImmutableAugmentedTreeMap<K, V, S>)map);
+        } else if (map instanceof JImmutableTreeMap) {
+            return withMap(this.map.concat((JImmutableTreeMap<K, V>)map));
+        }
+        JImmutableTreeMap<K, V> answer = this.map;
+        for (Entry<? extends K, ? extends V> entry : map) {
+            answer = answer.assign(entry.getKey(), entry.getValue());
+        }
+        return withMap(answer);
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableAugmentedTreeMap<K, V, S> assignAll(@Nonnull Map<? extends K, ? extends V> map)
+    {
+        JImmutableTreeMap<K, V> answer = this.map;
+        for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            answer = answer.assign(entry.getKey(), entry.getValue());
+        }
+        return withMap(answer);
+    }
+
+    @Override
+    public int size()
+    {
+        return map.size();
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableAugmentedTreeMap<K, V, S> deleteAll()
+    {
+        return withMap(map.deleteAll());
+    }
+
+    @Nonnull
+    @Override
+    public Cursor<Entry<K, V>> cursor()
+    {
+        return map.cursor();
+    }
+
+    @Nonnull
+    @Override
+    public SplitableIterator<Entry<K, V>> iterator()
+    {
+        return map.iterator();
+    }
+
+    @Override
+    public int getSpliteratorCharacteristics()
+    {
+        return StreamConstants.SPLITERATOR_ORDERED;
+    }
+
+    @Override
+    public void checkInvariants()
+    {
+        map.checkInvariants();
+        summaries.checkInvariants(aggregator, map.getRoot());
+    }
+
+    @Nonnull
+    private JImmutableAugmentedTreeMap<K, V, S> withMap(@Nonnull JImmutableTreeMap<K, V> newMap)
+    {
+        return (newMap == map) ? this : withSummaries(newMap, Collections.singletonList(summaries));
+    }
+
+    @Nonnull
+    private JImmutableAugmentedTreeMap<K, V, S> withSummaries(@Nonnull JImmutableTreeMap<K, V> newMap,
+                                                              @Nonnull List<SummaryNode<K, V, S>> previous)
+    {
+        final SummaryNode<K, V, S> newSummaries = SummaryNode.of(aggregator, newMap.getComparator(), newMap.getRoot(), previous);
+        return new JImmutableAugmentedTreeMap<>(newMap, aggregator, newSummaries);
+    }
+
+    private Object writeReplace()
+    {
+        return new JImmutableAugmentedTreeMapProxy(this);
+    }
+}
@@ -0,0 +1,331 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.tree;
+
+import org.javimmutable.collections.Cursor;
+import org.javimmutable.collections.Holder;
+import org.javimmutable.collections.Holders;
+import org.javimmutable.collections.MapEntry;
+import org.javimmutable.collections.SplitableIterator;
+import org.javimmutable.collections.common.AbstractJImmutableMap;
+import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.common.StreamConstants;
+import org.javimmutable.collections.cursors.StandardCursor;
+import org.javimmutable.collections.iterators.EmptyIterator;
+import org.javimmutable.collections.serialization.JImmutableLongTreeMapProxy;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.io.Serializable;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Sorted JImmutableMap implementation keyed by primitive long values.  Keys are stored as
+ * primitives in long arrays inside the nodes of a B-tree and are compared directly rather
+ * than through a Comparator so lookups and updates using the long based methods never
+ * allocate Long objects.  The methods inherited from JImmutableMap accept boxed keys and
+ * simply delegate to the primitive versions.  Entries are always visited in ascending
+ * key order.
+ */
+@Immutable
+public class JImmutableLongTreeMap<V>
+    extends AbstractJImmutableMap<Long, V>
+    implements Serializable
+{
+    @SuppressWarnings("unchecked")
+    private static final JImmutableLongTreeMap EMPTY = new JImmutableLongTreeMap(LongTreeNode.of());
+    private static final long serialVersionUID = -121805;
+
+    private final LongTreeNode<V> root;
+
+    private JImmutableLongTreeMap(@Nonnull LongTreeNode<V> root)
+    {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> JImmutableLongTreeMap<V> of()
+    {
+        return EMPTY;
+    }
+
+    @Nullable
+    public V get(long key)
+    {
+        return root.getValueOr(key, null);
+    }
+
+    /**
+     * Primitive key version of getValueOr().  Named differently from getValueOr(Long, V) so that
+     * calls with a literal key are not ambiguous when V is itself a boxed number type.
+     */
+    public V getValueOrLong(long key,
+                            V defaultValue)
+    {
+        return root.getValueOr(key, defaultValue);
+    }
+
+    @Nonnull
+    public Holder<V> find(long key)
+    {
+        return root.find(key);
+    }
+
+    public boolean containsKey(long key)
+    {
+        return root.find(key).isFilled();
+    }
+
+    /**
+     * Primitive key version of assign().  Named differently from assign(Long, V) so that
+     * calls with a literal key are not ambiguous when V is itself a boxed number type.
+     */
+    @Nonnull
+    public JImmutableLongTreeMap<V> assignLong(long key,
+                                              V value)
+    {
+        final LongTreeNode<V> newRoot = root.assign(key, value, new MutableDelta());
+        return (newRoot == root) ? this : new JImmutableLongTreeMap<>(newRoot.asRoot());
+    }
+
+    @Nonnull
+    public JImmutableLongTreeMap<V> delete(long key)
+    {
+        final LongTreeNode<V> newRoot = root.delete(key, new MutableDelta());
+        if (newRoot == root) {
+            return this;
+        } else if (newRoot.isEmpty()) {
+            return of();
+        } else {
+            return new JImmutableLongTreeMap<>(newRoot.asRoot());
+        }
+    }
+
+    /**
+     * Finds the entry with the greatest key less than or equal to key.
+     */
+    @Nonnull
+    public Holder<Entry<Long, V>> floorEntry(long key)
+    {
+        return root.findEntryBelow(key, true);
+    }
+
+    /**
+     * Finds the entry with the least key greater than or equal to key.
+     */
+    @Nonnull
+    public Holder<Entry<Long, V>> ceilingEntry(long key)
+    {
+        return root.findEntryAbove(key, true);
+    }
+
+    /**
+     * Finds the entry with the greatest key strictly less than key.
+     */
+    @Nonnull
+    public Holder<Entry<Long, V>> lowerEntry(long key)
+    {
+        return root.findEntryBelow(key, false);
+    }
+
+    /**
+     * Finds the entry with the least key strictly greater than key.
+     */
+    @Nonnull
+    public Holder<Entry<Long, V>> higherEntry(long key)
+    {
+        return root.findEntryAbove(key, false);
+    }
+
+    /**
+     * Finds the entry with the least key in the map.
+     */
+    @Nonnull
+    public Holder<Entry<Long, V>> firstEntry()
+    {
+        return root.firstEntry();
+    }
+
+    /**
+     * Finds the entry with the greatest key in the map.
+     */
+    @Nonnull
+    public Holder<Entry<Long, V>> lastEntry()
+    {
+        return root.lastEntry();
+    }
+
+    /**
+     * Counts the keys from fromKey (inclusive) to toKey (exclusive).  Takes O(log n) time.
+     */
+    public int size(long fromKey,
+                    long toKey)
+    {
+        return Math.max(0, root.countBelow(toKey, false) - root.countBelow(fromKey, false));
+    }
+
+    /**
+     * Returns a Cursor over the entries with keys from fromKey (inclusive) to toKey (exclusive)
+     * in ascending key order.  Visiting k entries takes O(log n + k) time.
+     */
+    @Nonnull
+    public Cursor<Entry<Long, V>> cursor(long fromKey,
+                                         long toKey)
+    {
+        return (fromKey < toKey) ? root.cursor(fromKey, toKey - 1) : StandardCursor.of();
+    }
+
+    /**
+     * Returns an iterator over the entries with keys from fromKey (inclusive) to toKey (exclusive)
+     * in ascending key order.  Visiting k entries takes O(log n + k) time.
+     */
+    @Nonnull
+    public SplitableIterator<Entry<Long, V>> iterator(long fromKey,
+                                                      long toKey)
+    {
+        return (fromKey < toKey) ? root.iterator(fromKey, toKey - 1) : EmptyIterator.of();
+    }
+
+    @Override
+    public V getValueOr(Long key,
+                        V defaultValue)
+    {
+        return getValueOrLong(key.longValue(), defaultValue);
+    }
+
+    @Nonnull
+    @Override
+    public Holder<V> find(@Nonnull Long key)
+    {
+        return find(key.longValue());
+    }
+
+    @Nonnull
+    @Override
+    public Holder<Entry<Long, V>> findEntry(@Nonnull Long key)
+    {
+        final Holder<V> value = find(key.longValue());
+        if (value.isEmpty()) {
+            return Holders.of();
+        } else {
+            return Holders.of(MapEntry.of(key, value.getValue()));
+        }
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableLongTreeMap<V> assign(@Nonnull Long key,
+                                           V value)
+    {
+        return assignLong(key.longValue(), value);
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableLongTreeMap<V> delete(@Nonnull Long key)
+    {
+        return delete(key.longValue());
+    }
+
+    @Override
+    public int size()
+    {
+        return root.valueCount();
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableLongTreeMap<V> deleteAll()
+    {
+        return of();
+    }
+
+    /**
+     * Iterates over the keys of this map in ascending order without boxing them.
+     */
+    @Nonnull
+    public PrimitiveIterator.OfLong longKeysIterator()
+    {
+        return root.keysIterator();
+    }
+
+    /**
+     * Streams the keys of this map in ascending order without boxing them.
+     */
+    @Nonnull
+    public LongStream longKeysStream()
+    {
+        final int characteristics = Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+        final Spliterator.OfLong spliterator = Spliterators.spliterator(longKeysIterator(), size(), characteristics);
+        return StreamSupport.longStream(spliterator, false);
+    }
+
+    @Nonnull
+    @Override
+    public Cursor<Entry<Long, V>> cursor()
+    {
+        return root.cursor();
+    }
+
+    @Nonnull
+    @Override
+    public SplitableIterator<Entry<Long, V>> iterator()
+    {
+        return root.iterator();
+    }
+
+    @Override
+    public int getSpliteratorCharacteristics()
+    {
+        return StreamConstants.SPLITERATOR_ORDERED;
+    }
+
+    @Override
+    public void checkInvariants()
+    {
+        root.checkInvariants();
+    }
+
+    private Object writeReplace()
+    {
+        return new JImmutableLongTreeMapProxy(this);
+    }
+}
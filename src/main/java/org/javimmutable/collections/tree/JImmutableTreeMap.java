@@ -35,13 +35,25 @@
 
 package org.javimmutable.collections.tree;
 
+import java.util.stream.Collector;
 import org.javimmutable.collections.Cursor;
 import org.javimmutable.collections.Func1;
+import org.javimmutable.collections.Func2;
 import org.javimmutable.collections.Holder;
+import org.javimmutable.collections.IterableStreamable;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.MapChange;
+import org.javimmutable.collections.MutableBuilder;
 import org.javimmutable.collections.SplitableIterator;
+import org.javimmutable.collections.Tuple2;
 import org.javimmutable.collections.common.AbstractJImmutableMap;
+import org.javimmutable.collections.common.BatchLookup;
 import org.javimmutable.collections.common.Conditions;
+import org.javimmutable.collections.common.MutableDelta;
 import org.javimmutable.collections.common.StreamConstants;
+import org.javimmutable.collections.common.StructureStats;
+import org.javimmutable.collections.cursors.IterableCursor;
+import org.javimmutable.collections.iterators.SplitableIterableStreamable;
 import org.javimmutable.collections.serialization.JImmutableTreeMapProxy;
 
 import javax.annotation.Nonnull;
@@ -49,6 +61,7 @@ import javax.annotation.concurrent.Immutable;
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -105,6 +118,43 @@ public class JImmutableTreeMap<K, V>
         return answer;
     }
 
+    /**
+     * Produces a MutableBuilder that constructs a map using a ComparableComparator to compare
+     * the keys.  Keys added in ascending order are packed directly into a balanced tree in
+     * O(n) time.  Keys added in any other order are sorted first.
+     */
+    @Nonnull
+    public static <K extends Comparable<K>, V> Builder<K, V> builder()
+    {
+        return new Builder<>(ComparableComparator.<K>of());
+    }
+
+    /**
+     * Produces a MutableBuilder that constructs a map using comparator to compare the keys.
+     * Keys added in ascending order are packed directly into a balanced tree in O(n) time.
+     * Keys added in any other order are sorted first.
+     */
+    @Nonnull
+    public static <K, V> Builder<K, V> builder(@Nonnull Comparator<K> comparator)
+    {
+        return new Builder<>(comparator);
+    }
+
+    @Nonnull
+    public static <K extends Comparable<K>, V> Collector<Entry<K, V>, ?, JImmutableMap<K, V>> collector()
+    {
+        return collector(ComparableComparator.<K>of());
+    }
+
+    @Nonnull
+    public static <K, V> Collector<Entry<K, V>, ?, JImmutableMap<K, V>> collector(@Nonnull Comparator<K> comparator)
+    {
+        return Collector.<Entry<K, V>, Builder<K, V>, JImmutableMap<K, V>>of(() -> new Builder<>(comparator),
+                                                                            (b, e) -> b.add(e),
+                                                                            (b1, b2) -> b1.combineWith(b2),
+                                                                            b -> b.build());
+    }
+
     @Override
     public V getValueOr(K key,
                         V defaultValue)
@@ -113,6 +163,19 @@ public class JImmutableTreeMap<K, V>
         return root.getValueOr(comparator, key, defaultValue);
     }
 
+    @Nonnull
+    @Override
+    public List<V> getAll(@Nonnull Iterable<? extends K> keys,
+                          V defaultValue)
+    {
+        final BatchLookup<K, V> batch = BatchLookup.sortedByComparator(keys, comparator, defaultValue);
+        for (int i = 0; i < batch.size(); ++i) {
+            Conditions.stopNull(batch.getKey(i));
+        }
+        root.getAll(comparator, batch, 0, batch.size());
+        return batch.values();
+    }
+
     @Nonnull
     @Override
     public Holder<V> find(@Nonnull K key)
@@ -129,6 +192,165 @@ public class JImmutableTreeMap<K, V>
         return root.findEntry(comparator, key);
     }
 
+    /**
+     * Finds the entry with the greatest key less than or equal to key.
+     */
+    @Nonnull
+    public Holder<Entry<K, V>> floorEntry(@Nonnull K key)
+    {
+        Conditions.stopNull(key);
+        return root.findEntryBelow(comparator, key, true);
+    }
+
+    /**
+     * Finds the entry with the least key greater than or equal to key.
+     */
+    @Nonnull
+    public Holder<Entry<K, V>> ceilingEntry(@Nonnull K key)
+    {
+        Conditions.stopNull(key);
+        return root.findEntryAbove(comparator, key, true);
+    }
+
+    /**
+     * Finds the entry with the greatest key strictly less than key.
+     */
+    @Nonnull
+    public Holder<Entry<K, V>> lowerEntry(@Nonnull K key)
+    {
+        Conditions.stopNull(key);
+        return root.findEntryBelow(comparator, key, false);
+    }
+
+    /**
+     * Finds the entry with the least key strictly greater than key.
+     */
+    @Nonnull
+    public Holder<Entry<K, V>> higherEntry(@Nonnull K key)
+    {
+        Conditions.stopNull(key);
+        return root.findEntryAbove(comparator, key, false);
+    }
+
+    /**
+     * Finds the entry with the least key in the map.
+     */
+    @Nonnull
+    public Holder<Entry<K, V>> firstEntry()
+    {
+        return root.firstEntry();
+    }
+
+    /**
+     * Finds the entry with the greatest key in the map.
+     */
+    @Nonnull
+    public Holder<Entry<K, V>> lastEntry()
+    {
+        return root.lastEntry();
+    }
+
+    /**
+     * Returns the entry at the specified position in key order.  Takes O(log n) time.
+     *
+     * @throws IndexOutOfBoundsException if index is negative or not less than size()
+     */
+    @Nonnull
+    public Entry<K, V> getEntryAt(int index)
+    {
+        return root.getEntryAt(index);
+    }
+
+    /**
+     * Returns the position of key in key order or -1 if the map does not contain key.
+     * Takes O(log n) time.
+     */
+    public int indexOf(@Nonnull K key)
+    {
+        Conditions.stopNull(key);
+        return root.find(comparator, key).isFilled() ? root.countBelow(comparator, key, false) : -1;
+    }
+
+    /**
+     * Counts the keys from fromKey (inclusive) to toKey (exclusive).  Takes O(log n) time.
+     */
+    public int size(@Nonnull K fromKey,
+                    @Nonnull K toKey)
+    {
+        return subMap(fromKey, toKey).size();
+    }
+
+    /**
+     * Returns a view of the entries with keys from fromKey (inclusive) to toKey (exclusive).
+     * The view is created in constant time without copying any part of the map.
+     */
+    @Nonnull
+    public TreeMapRange<K, V> subMap(@Nonnull K fromKey,
+                                     @Nonnull K toKey)
+    {
+        return range().subMap(fromKey, toKey);
+    }
+
+    /**
+     * Returns a view of the entries with keys between fromKey and toKey.
+     * The view is created in constant time without copying any part of the map.
+     */
+    @Nonnull
+    public TreeMapRange<K, V> subMap(@Nonnull K fromKey,
+                                     boolean fromInclusive,
+                                     @Nonnull K toKey,
+                                     boolean toInclusive)
+    {
+        return range().subMap(fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    /**
+     * Returns a view of the entries with keys less than toKey.
+     */
+    @Nonnull
+    public TreeMapRange<K, V> headMap(@Nonnull K toKey)
+    {
+        return range().headMap(toKey);
+    }
+
+    /**
+     * Returns a view of the entries with keys less than (or equal to if inclusive is true) toKey.
+     */
+    @Nonnull
+    public TreeMapRange<K, V> headMap(@Nonnull K toKey,
+                                      boolean inclusive)
+    {
+        return range().headMap(toKey, inclusive);
+    }
+
+    /**
+     * Returns a view of the entries with keys greater than or equal to fromKey.
+     */
+    @Nonnull
+    public TreeMapRange<K, V> tailMap(@Nonnull K fromKey)
+    {
+        return range().tailMap(fromKey);
+    }
+
+    /**
+     * Returns a view of the entries with keys greater than (or equal to if inclusive is true) fromKey.
+     */
+    @Nonnull
+    public TreeMapRange<K, V> tailMap(@Nonnull K fromKey,
+                                      boolean inclusive)
+    {
+        return range().tailMap(fromKey, inclusive);
+    }
+
+    /**
+     * Returns a view of the entire map which can be narrowed using its subMap, headMap and tailMap methods.
+     */
+    @Nonnull
+    public TreeMapRange<K, V> range()
+    {
+        return new TreeMapRange<>(comparator, root, KeyRange.all());
+    }
+
     @Nonnull
     @Override
     public JImmutableTreeMap<K, V> assign(@Nonnull K key,
@@ -164,6 +386,197 @@ public class JImmutableTreeMap<K, V>
         }
     }
 
+    /**
+     * Deletes all of the specified keys.  The keys are sorted so that every node on the paths
+     * to the deleted keys is copied only once.
+     */
+    @Nonnull
+    @Override
+    public JImmutableTreeMap<K, V> deleteAll(@Nonnull Iterable<? extends K> keys)
+    {
+        final BatchLookup<K, V> batch = BatchLookup.sortedByComparator(keys, comparator, null);
+        for (int i = 0; i < batch.size(); ++i) {
+            Conditions.stopNull(batch.getKey(i));
+        }
+        final MutableDelta sizeDelta = new MutableDelta();
+        final Node<K, V> newRoot = root.deleteAll(comparator, batch, 0, batch.size(), sizeDelta);
+        final int newSize = size + sizeDelta.getValue();
+        if (newRoot == root) {
+            return this;
+        } else if (newSize == 0) {
+            return deleteAll();
+        } else {
+            return new JImmutableTreeMap<>(comparator, newRoot.compress(), newSize);
+        }
+    }
+
+    /**
+     * Deletes every key from fromKey (inclusive) to toKey (exclusive).  The tree is split at
+     * both ends of the range and the remaining parts joined back together so only the nodes
+     * on the paths to fromKey and toKey are copied.  Takes O(log n) time regardless of the
+     * number of keys deleted.
+     */
+    @Nonnull
+    public JImmutableTreeMap<K, V> deleteRange(@Nonnull K fromKey,
+                                               @Nonnull K toKey)
+    {
+        Conditions.stopNull(fromKey, toKey);
+        if (comparator.compare(fromKey, toKey) >= 0) {
+            return this;
+        }
+        final Tuple2<Node<K, V>, Node<K, V>> lowSplit = root.split(comparator, fromKey);
+        final Tuple2<Node<K, V>, Node<K, V>> highSplit = lowSplit.getSecond().split(comparator, toKey);
+        if (highSplit.getFirst().isEmpty()) {
+            return this;
+        }
+        return forRoot(lowSplit.getFirst().join(highSplit.getSecond()));
+    }
+
+    /**
+     * Splits this map into a map containing the keys less than key and a map containing the
+     * keys greater than or equal to key.  Only the nodes on the path to key are copied so
+     * this takes O(log n) time.
+     */
+    @Nonnull
+    public Tuple2<JImmutableTreeMap<K, V>, JImmutableTreeMap<K, V>> splitAt(@Nonnull K key)
+    {
+        Conditions.stopNull(key);
+        final Tuple2<Node<K, V>, Node<K, V>> split = root.split(comparator, key);
+        return Tuple2.of(forRoot(split.getFirst()), forRoot(split.getSecond()));
+    }
+
+    /**
+     * Adds all of the entries in other to this map.  When both maps use the same comparator
+     * and every key in one map is less than every key in the other the two trees are joined
+     * in O(log n) time without visiting their entries.  Otherwise the entries of other are
+     * assigned one at a time so its values replace any in this map with the same keys.
+     */
+    @Nonnull
+    public JImmutableTreeMap<K, V> concat(@Nonnull JImmutableTreeMap<K, V> other)
+    {
+        if (other.isEmpty()) {
+            return this;
+        } else if (isEmpty() && other.comparator.equals(comparator)) {
+            return other;
+        } else if (other.comparator.equals(comparator)) {
+            if (comparator.compare(root.lastEntry().getValue().getKey(), other.root.firstEntry().getValue().getKey()) < 0) {
+                return forRoot(root.join(other.root));
+            } else if (comparator.compare(other.root.lastEntry().getValue().getKey(), root.firstEntry().getValue().getKey()) < 0) {
+                return forRoot(other.root.join(root));
+            }
+        }
+        JImmutableTreeMap<K, V> answer = this;
+        for (Entry<K, V> entry : other) {
+            answer = answer.assign(entry.getKey(), entry.getValue());
+        }
+        return answer;
+    }
+
+    /**
+     * Uses concat() when map is a JImmutableTreeMap so that maps with disjoint key ranges
+     * are combined in O(log n) time.
+     */
+    @Nonnull
+    @Override
+    @SuppressWarnings("unchecked")
+    public JImmutableMap<K, V> assignAll(@Nonnull JImmutableMap<? extends K, ? extends V> map)
+    {
+        if (map instanceof JImmutableTreeMap) {
+            return concat((JImmutableTreeMap<K, V>)map);
+        }
+        return super.assignAll(map);
+    }
+
+    /**
+     * Determines whether mergeSorted() can combine this map with other and would be faster
+     * than editing the larger map one key at a time.  The merge visits every entry of both
+     * maps while the edits cost O(log n) each so the merge wins unless one map is much
+     * smaller than the other.
+     */
+    boolean isMergeCheaper(@Nonnull JImmutableTreeMap<K, ?> other)
+    {
+        if (!other.comparator.equals(comparator)) {
+            return false;
+        }
+        final int smaller = Math.min(size, other.size);
+        final int larger = Math.max(size, other.size);
+        return (long)smaller * (32 - Integer.numberOfLeadingZeros(larger)) >= larger;
+    }
+
+    /**
+     * Combines this map with other (which must use the same comparator) in a single pass
+     * over both maps in key order.  The combiner is called once for each key with the
+     * key's value in this map and its value in other.  Either value is null when the key
+     * is missing from that map.  The key is omitted from the result if the combiner
+     * returns null.  Keys whose combined value is the same object as their value in this
+     * map keep their original entry.  The result is packed into a new tree bottom up
+     * so the whole operation takes O(m + n) time.  Returns this map if nothing changed.
+     */
+    @Nonnull
+    JImmutableTreeMap<K, V> mergeSorted(@Nonnull JImmutableTreeMap<K, V> other,
+                                        @Nonnull Func2<V, V, V> combiner)
+    {
+        final TreeNodeBuilder<K, V> builder = new TreeNodeBuilder<>(comparator);
+        final Iterator<Entry<K, V>> thisEntries = root.iterator();
+        final Iterator<Entry<K, V>> otherEntries = other.root.iterator();
+        Entry<K, V> thisEntry = thisEntries.hasNext() ? thisEntries.next() : null;
+        Entry<K, V> otherEntry = otherEntries.hasNext() ? otherEntries.next() : null;
+        boolean changed = false;
+        while ((thisEntry != null) || (otherEntry != null)) {
+            final int diff;
+            if (thisEntry == null) {
+                diff = 1;
+            } else if (otherEntry == null) {
+                diff = -1;
+            } else {
+                diff = comparator.compare(thisEntry.getKey(), otherEntry.getKey());
+            }
+            if (diff > 0) {
+                final V value = combiner.apply(null, otherEntry.getValue());
+                if (value != null) {
+                    builder.add(otherEntry.getKey(), value);
+                    changed = true;
+                }
+            } else {
+                final V thisValue = thisEntry.getValue();
+                final V value = combiner.apply(thisValue, (diff == 0) ? otherEntry.getValue() : null);
+                if (value == thisValue) {
+                    builder.add(thisEntry);
+                } else {
+                    if (value != null) {
+                        builder.add(thisEntry.getKey(), value);
+                    }
+                    changed = true;
+                }
+            }
+            if (diff <= 0) {
+                thisEntry = thisEntries.hasNext() ? thisEntries.next() : null;
+            }
+            if (diff >= 0) {
+                otherEntry = otherEntries.hasNext() ? otherEntries.next() : null;
+            }
+        }
+        return changed ? forRoot(builder.build()) : this;
+    }
+
+    /**
+     * Produces the changes needed to turn this map into the other map.  If the other map is a
+     * JImmutableTreeMap using the same comparator the two trees are walked in parallel and
+     * subtrees shared by both maps are skipped entirely.  The changes are produced in key order.
+     */
+    @Nonnull
+    @Override
+    public Cursor<MapChange<K, V>> diff(@Nonnull JImmutableMap<K, V> map)
+    {
+        if (map instanceof JImmutableTreeMap) {
+            final JImmutableTreeMap<K, V> other = (JImmutableTreeMap<K, V>)map;
+            if (other.comparator.equals(comparator)) {
+                return IterableCursor.of(() -> new TreeDiffIterator<>(comparator, root, other.root));
+            }
+        }
+        return super.diff(map);
+    }
+
     @Override
     public int size()
     {
@@ -197,10 +610,56 @@ public class JImmutableTreeMap<K, V>
         return root.iterator();
     }
 
+    /**
+     * Returns a Cursor over the entries in descending key order.  Nodes are visited from right
+     * to left so reading the last k entries takes O(log n + k) time.
+     */
+    @Nonnull
+    public Cursor<Entry<K, V>> descendingCursor()
+    {
+        return root.descendingCursor(comparator, KeyRange.all());
+    }
+
+    /**
+     * Returns an iterator over the entries in descending key order.  Nodes are visited from right
+     * to left so reading the last k entries takes O(log n + k) time.
+     */
+    @Nonnull
+    public SplitableIterator<Entry<K, V>> descendingIterator()
+    {
+        return root.descendingIterator(comparator, KeyRange.all());
+    }
+
+    /**
+     * Returns a view of the entries in descending key order.  For example
+     * reverse().stream().limit(100) produces the 100 entries with the greatest keys.
+     */
+    @Nonnull
+    public IterableStreamable<Entry<K, V>> reverse()
+    {
+        return SplitableIterableStreamable.of(this::descendingIterator, StreamConstants.SPLITERATOR_ORDERED);
+    }
+
     @Override
     public void checkInvariants()
     {
         root.checkInvariants(comparator);
+        if (root.valueCount() != size) {
+            throw new IllegalStateException(String.format("size mismatch: root=%d map=%d", root.valueCount(), size));
+        }
+    }
+
+    /**
+     * Walks the entire tree and returns statistics describing its shape.  The fill factor
+     * describes the branches holding leaves.  Takes time proportional to the size of the map.
+     */
+    @Nonnull
+    public StructureStats stats()
+    {
+        final StructureStats.Builder stats = new StructureStats.Builder(this);
+        stats.addBytes(StructureStats.objectBytes(2, StructureStats.INT_BYTES));
+        root.collectStats(stats, 0);
+        return stats.build();
     }
 
     @Nonnull
@@ -209,6 +668,12 @@ public class JImmutableTreeMap<K, V>
         return comparator;
     }
 
+    @Nonnull
+    Node<K, V> getRoot()
+    {
+        return root;
+    }
+
     @Nonnull
     List<K> getKeysList()
     {
@@ -234,8 +699,74 @@ public class JImmutableTreeMap<K, V>
         }
     }
 
+    @Nonnull
+    private JImmutableTreeMap<K, V> forRoot(@Nonnull Node<K, V> newRoot)
+    {
+        if (newRoot == root) {
+            return this;
+        } else if (newRoot.isEmpty()) {
+            return deleteAll();
+        } else {
+            final Node<K, V> compressed = newRoot.compress();
+            return new JImmutableTreeMap<>(comparator, compressed, compressed.valueCount());
+        }
+    }
+
     private Object writeReplace()
     {
         return new JImmutableTreeMapProxy(this);
     }
+
+    public static class Builder<K, V>
+        implements MutableBuilder<Entry<K, V>, JImmutableTreeMap<K, V>>
+    {
+        private final Comparator<K> comparator;
+        private final TreeNodeBuilder<K, V> builder;
+
+        private Builder(@Nonnull Comparator<K> comparator)
+        {
+            this.comparator = comparator;
+            builder = new TreeNodeBuilder<>(comparator);
+        }
+
+        @Override
+        public int size()
+        {
+            return builder.size();
+        }
+
+        @Nonnull
+        @Override
+        public Builder<K, V> add(Entry<K, V> entry)
+        {
+            return add(entry.getKey(), entry.getValue());
+        }
+
+        @Nonnull
+        public Builder<K, V> add(@Nonnull K key,
+                                 V value)
+        {
+            Conditions.stopNull(key);
+            builder.add(key, value);
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public JImmutableTreeMap<K, V> build()
+        {
+            final Node<K, V> root = builder.build();
+            if (root.isEmpty()) {
+                return new JImmutableTreeMap<K, V>(comparator, root, 0).deleteAll();
+            }
+            return new JImmutableTreeMap<>(comparator, root, root.valueCount());
+        }
+
+        @Nonnull
+        public Builder<K, V> combineWith(@Nonnull Builder<K, V> other)
+        {
+            builder.combineWith(other.builder);
+            return this;
+        }
+    }
 }
@@ -35,11 +35,16 @@
 
 package org.javimmutable.collections.tree;
 
+import org.javimmutable.collections.Func2;
+import org.javimmutable.collections.Holder;
 import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.JImmutableMultiset;
 import org.javimmutable.collections.common.AbstractJImmutableMultiset;
+import org.javimmutable.collections.common.MutableDelta;
 import org.javimmutable.collections.serialization.JImmutableTreeMultisetProxy;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 import java.io.Serializable;
 import java.util.Comparator;
@@ -76,11 +81,125 @@ public class JImmutableTreeMultiset<T>
         return of(comparator);
     }
 
+    /**
+     * When other is a JImmutableTreeMultiset using the same comparator the two multisets
+     * are merged in a single pass over both of them in O(m + n) time.
+     */
+    @Nonnull
+    @Override
+    public JImmutableMultiset<T> insertAll(@Nonnull JImmutableMultiset<? extends T> values)
+    {
+        final JImmutableTreeMap<T, Integer> otherMap = mergeableMap(values);
+        if (otherMap != null) {
+            return merge(otherMap, (a, b) -> (a == null) ? b : (b == null) ? a : Integer.valueOf(a + b));
+        }
+        return super.insertAll(values);
+    }
+
+    /**
+     * When other is a JImmutableTreeMultiset using the same comparator the two multisets
+     * are merged in a single pass over both of them in O(m + n) time.
+     */
+    @Nonnull
+    @Override
+    public JImmutableMultiset<T> union(@Nonnull JImmutableMultiset<? extends T> other)
+    {
+        final JImmutableTreeMap<T, Integer> otherMap = mergeableMap(other);
+        if (otherMap != null) {
+            return merge(otherMap, (a, b) -> (a == null) ? b : ((b == null) || (a >= b)) ? a : b);
+        }
+        return super.union(other);
+    }
+
+    /**
+     * When other is a JImmutableTreeMultiset using the same comparator the two multisets
+     * are merged in a single pass over both of them in O(m + n) time.
+     */
+    @Nonnull
+    @Override
+    public JImmutableMultiset<T> intersection(@Nonnull JImmutableMultiset<? extends T> other)
+    {
+        final JImmutableTreeMap<T, Integer> otherMap = mergeableMap(other);
+        if (otherMap != null) {
+            return merge(otherMap, (a, b) -> ((a == null) || (b == null)) ? null : (a <= b) ? a : b);
+        }
+        return super.intersection(other);
+    }
+
+    /**
+     * When other is a JImmutableTreeMultiset using the same comparator the two multisets
+     * are merged in a single pass over both of them in O(m + n) time.
+     */
+    @Nonnull
+    @Override
+    public JImmutableMultiset<T> deleteAllOccurrences(@Nonnull JImmutableMultiset<? extends T> other)
+    {
+        final JImmutableTreeMap<T, Integer> otherMap = mergeableMap(other);
+        if (otherMap != null) {
+            return merge(otherMap, (a, b) -> ((a == null) || (b == null)) ? a : (a > b) ? Integer.valueOf(a - b) : null);
+        }
+        return super.deleteAllOccurrences(other);
+    }
+
     public Comparator<T> getComparator()
     {
         return comparator;
     }
 
+    /**
+     * Finds the greatest value less than or equal to value.
+     */
+    @Nonnull
+    public Holder<T> floor(@Nonnull T value)
+    {
+        return treeMap().floorEntry(value).map(JImmutableMap.Entry::getKey);
+    }
+
+    /**
+     * Finds the least value greater than or equal to value.
+     */
+    @Nonnull
+    public Holder<T> ceiling(@Nonnull T value)
+    {
+        return treeMap().ceilingEntry(value).map(JImmutableMap.Entry::getKey);
+    }
+
+    /**
+     * Finds the greatest value strictly less than value.
+     */
+    @Nonnull
+    public Holder<T> lower(@Nonnull T value)
+    {
+        return treeMap().lowerEntry(value).map(JImmutableMap.Entry::getKey);
+    }
+
+    /**
+     * Finds the least value strictly greater than value.
+     */
+    @Nonnull
+    public Holder<T> higher(@Nonnull T value)
+    {
+        return treeMap().higherEntry(value).map(JImmutableMap.Entry::getKey);
+    }
+
+    /**
+     * Finds the least value in the multiset.
+     */
+    @Nonnull
+    public Holder<T> first()
+    {
+        return treeMap().firstEntry().map(JImmutableMap.Entry::getKey);
+    }
+
+    /**
+     * Finds the greatest value in the multiset.
+     */
+    @Nonnull
+    public Holder<T> last()
+    {
+        return treeMap().lastEntry().map(JImmutableMap.Entry::getKey);
+    }
+
     @SuppressWarnings("unchecked")
     public static <T extends Comparable<T>> JImmutableTreeMultiset<T> of()
     {
@@ -109,6 +228,48 @@ public class JImmutableTreeMultiset<T>
     {
         return map;
     }
+
+    private JImmutableTreeMap<T, Integer> treeMap()
+    {
+        return (JImmutableTreeMap<T, Integer>)map;
+    }
+
+    /**
+     * Returns the map of other if it is a JImmutableTreeMultiset that can be merged with this
+     * multiset more cheaply than by editing this multiset one value at a time.  Otherwise
+     * returns null.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private JImmutableTreeMap<T, Integer> mergeableMap(@Nonnull JImmutableMultiset<? extends T> other)
+    {
+        if (other instanceof JImmutableTreeMultiset) {
+            final JImmutableTreeMap<T, Integer> otherMap = ((JImmutableTreeMultiset<T>)other).treeMap();
+            if (treeMap().isMergeCheaper(otherMap)) {
+                return otherMap;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Merges the counts of this multiset with those of otherMap using counter and totals
+     * the merged counts as they are produced to find the new number of occurrences.
+     */
+    @Nonnull
+    private JImmutableMultiset<T> merge(@Nonnull JImmutableTreeMap<T, Integer> otherMap,
+                                        @Nonnull Func2<Integer, Integer, Integer> counter)
+    {
+        final MutableDelta newOccurrences = new MutableDelta();
+        final JImmutableTreeMap<T, Integer> newMap = treeMap().mergeSorted(otherMap, (a, b) -> {
+            final Integer count = counter.apply(a, b);
+            if (count != null) {
+                newOccurrences.add(count);
+            }
+            return count;
+        });
+        return (newMap != map) ? create(newMap, newOccurrences.getValue()) : this;
+    }
     
     private Object writeReplace()
     {
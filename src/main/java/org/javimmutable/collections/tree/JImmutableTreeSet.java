@@ -35,12 +35,22 @@
 
 package org.javimmutable.collections.tree;
 
+import java.util.stream.Collector;
+import org.javimmutable.collections.Cursor;
+import org.javimmutable.collections.Holder;
+import org.javimmutable.collections.IterableStreamable;
 import org.javimmutable.collections.JImmutableMap;
 import org.javimmutable.collections.JImmutableSet;
+import org.javimmutable.collections.MutableBuilder;
+import org.javimmutable.collections.SplitableIterator;
 import org.javimmutable.collections.common.AbstractJImmutableSet;
+import org.javimmutable.collections.cursors.TransformCursor;
+import org.javimmutable.collections.iterators.TransformIterator;
+import org.javimmutable.collections.iterators.TransformStreamable;
 import org.javimmutable.collections.serialization.JImmutableTreeSetProxy;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 import java.io.Serializable;
 import java.util.Comparator;
@@ -62,8 +72,8 @@ public class JImmutableTreeSet<T>
         this(JImmutableTreeMap.of(comparator), comparator);
     }
 
-    private JImmutableTreeSet(JImmutableMap<T, Boolean> map,
-                              Comparator<T> comparator)
+    JImmutableTreeSet(JImmutableMap<T, Boolean> map,
+                      Comparator<T> comparator)
     {
         super(map);
         this.comparator = comparator;
@@ -76,11 +86,263 @@ public class JImmutableTreeSet<T>
         return of(comparator);
     }
 
+    /**
+     * Same as union(values).
+     */
+    @Nonnull
+    @Override
+    public JImmutableSet<T> insertAll(@Nonnull Iterable<? extends T> values)
+    {
+        return union(values);
+    }
+
+    /**
+     * When other is a JImmutableTreeSet using the same comparator the two sets are merged
+     * in a single pass over both of them in O(m + n) time.
+     */
+    @Nonnull
+    @Override
+    public JImmutableSet<T> union(@Nonnull Iterable<? extends T> other)
+    {
+        final JImmutableTreeMap<T, Boolean> otherMap = mergeableMap(other);
+        if (otherMap != null) {
+            return forMap(treeMap().mergeSorted(otherMap, (a, b) -> (a != null) ? a : b));
+        }
+        return super.union(other);
+    }
+
+    /**
+     * When other is a JImmutableTreeSet using the same comparator the two sets are merged
+     * in a single pass over both of them in O(m + n) time.
+     */
+    @Nonnull
+    @Override
+    public JImmutableSet<T> intersection(@Nonnull Iterable<? extends T> other)
+    {
+        final JImmutableTreeMap<T, Boolean> otherMap = mergeableMap(other);
+        if (otherMap != null) {
+            return forMap(treeMap().mergeSorted(otherMap, (a, b) -> (b != null) ? a : null));
+        }
+        return super.intersection(other);
+    }
+
+    /**
+     * When other is a JImmutableTreeSet using the same comparator the two sets are merged
+     * in a single pass over both of them in O(m + n) time.
+     */
+    @Nonnull
+    @Override
+    public JImmutableSet<T> intersection(@Nonnull JImmutableSet<? extends T> other)
+    {
+        if (mergeableMap(other) != null) {
+            return intersection((Iterable<? extends T>)other);
+        }
+        return super.intersection(other);
+    }
+
+    /**
+     * When other is a JImmutableTreeSet using the same comparator the two sets are merged
+     * in a single pass over both of them in O(m + n) time.
+     */
+    @Nonnull
+    @Override
+    public JImmutableSet<T> deleteAll(@Nonnull Iterable<? extends T> other)
+    {
+        final JImmutableTreeMap<T, Boolean> otherMap = mergeableMap(other);
+        if (otherMap != null) {
+            return forMap(treeMap().mergeSorted(otherMap, (a, b) -> (b != null) ? null : a));
+        }
+        return super.deleteAll(other);
+    }
+
     public Comparator<T> getComparator()
     {
         return comparator;
     }
 
+    /**
+     * Finds the greatest value less than or equal to value.
+     */
+    @Nonnull
+    public Holder<T> floor(@Nonnull T value)
+    {
+        return treeMap().floorEntry(value).map(JImmutableMap.Entry::getKey);
+    }
+
+    /**
+     * Finds the least value greater than or equal to value.
+     */
+    @Nonnull
+    public Holder<T> ceiling(@Nonnull T value)
+    {
+        return treeMap().ceilingEntry(value).map(JImmutableMap.Entry::getKey);
+    }
+
+    /**
+     * Finds the greatest value strictly less than value.
+     */
+    @Nonnull
+    public Holder<T> lower(@Nonnull T value)
+    {
+        return treeMap().lowerEntry(value).map(JImmutableMap.Entry::getKey);
+    }
+
+    /**
+     * Finds the least value strictly greater than value.
+     */
+    @Nonnull
+    public Holder<T> higher(@Nonnull T value)
+    {
+        return treeMap().higherEntry(value).map(JImmutableMap.Entry::getKey);
+    }
+
+    /**
+     * Finds the least value in the set.
+     */
+    @Nonnull
+    public Holder<T> first()
+    {
+        return treeMap().firstEntry().map(JImmutableMap.Entry::getKey);
+    }
+
+    /**
+     * Finds the greatest value in the set.
+     */
+    @Nonnull
+    public Holder<T> last()
+    {
+        return treeMap().lastEntry().map(JImmutableMap.Entry::getKey);
+    }
+
+    /**
+     * Returns the value at the specified position in sorted order.  Takes O(log n) time.
+     *
+     * @throws IndexOutOfBoundsException if index is negative or not less than size()
+     */
+    @Nonnull
+    public T getValueAt(int index)
+    {
+        return treeMap().getEntryAt(index).getKey();
+    }
+
+    /**
+     * Returns the position of value in sorted order or -1 if the set does not contain value.
+     * Takes O(log n) time.
+     */
+    public int indexOf(@Nonnull T value)
+    {
+        return treeMap().indexOf(value);
+    }
+
+    /**
+     * Counts the values from fromValue (inclusive) to toValue (exclusive).  Takes O(log n) time.
+     */
+    public int size(@Nonnull T fromValue,
+                    @Nonnull T toValue)
+    {
+        return treeMap().size(fromValue, toValue);
+    }
+
+    /**
+     * Returns a view of the values from fromValue (inclusive) to toValue (exclusive).
+     * The view is created in constant time without copying any part of the set.
+     */
+    @Nonnull
+    public TreeSetRange<T> subSet(@Nonnull T fromValue,
+                                  @Nonnull T toValue)
+    {
+        return range().subSet(fromValue, toValue);
+    }
+
+    /**
+     * Returns a view of the values between fromValue and toValue.
+     * The view is created in constant time without copying any part of the set.
+     */
+    @Nonnull
+    public TreeSetRange<T> subSet(@Nonnull T fromValue,
+                                  boolean fromInclusive,
+                                  @Nonnull T toValue,
+                                  boolean toInclusive)
+    {
+        return range().subSet(fromValue, fromInclusive, toValue, toInclusive);
+    }
+
+    /**
+     * Returns a view of the values less than toValue.
+     */
+    @Nonnull
+    public TreeSetRange<T> headSet(@Nonnull T toValue)
+    {
+        return range().headSet(toValue);
+    }
+
+    /**
+     * Returns a view of the values less than (or equal to if inclusive is true) toValue.
+     */
+    @Nonnull
+    public TreeSetRange<T> headSet(@Nonnull T toValue,
+                                   boolean inclusive)
+    {
+        return range().headSet(toValue, inclusive);
+    }
+
+    /**
+     * Returns a view of the values greater than or equal to fromValue.
+     */
+    @Nonnull
+    public TreeSetRange<T> tailSet(@Nonnull T fromValue)
+    {
+        return range().tailSet(fromValue);
+    }
+
+    /**
+     * Returns a view of the values greater than (or equal to if inclusive is true) fromValue.
+     */
+    @Nonnull
+    public TreeSetRange<T> tailSet(@Nonnull T fromValue,
+                                   boolean inclusive)
+    {
+        return range().tailSet(fromValue, inclusive);
+    }
+
+    /**
+     * Returns a view of the entire set which can be narrowed using its subSet, headSet and tailSet methods.
+     */
+    @Nonnull
+    public TreeSetRange<T> range()
+    {
+        return new TreeSetRange<>(treeMap().range());
+    }
+
+    /**
+     * Returns a Cursor over the values in descending order.  Reading the last k values takes
+     * O(log n + k) time.
+     */
+    @Nonnull
+    public Cursor<T> descendingCursor()
+    {
+        return TransformCursor.ofKeys(treeMap().descendingCursor());
+    }
+
+    /**
+     * Returns an iterator over the values in descending order.  Reading the last k values takes
+     * O(log n + k) time.
+     */
+    @Nonnull
+    public SplitableIterator<T> descendingIterator()
+    {
+        return TransformIterator.of(treeMap().descendingIterator(), JImmutableMap.Entry::getKey);
+    }
+
+    /**
+     * Returns a view of the values in descending order.
+     */
+    @Nonnull
+    public IterableStreamable<T> reverse()
+    {
+        return TransformStreamable.ofKeys(treeMap().reverse());
+    }
+
     @SuppressWarnings("unchecked")
     public static <T extends Comparable<T>> JImmutableTreeSet<T> of()
     {
@@ -92,6 +354,43 @@ public class JImmutableTreeSet<T>
         return new JImmutableTreeSet<>(comparator);
     }
 
+    /**
+     * Produces a MutableBuilder that constructs a set using a ComparableComparator.  Values
+     * added in ascending order are packed directly into a balanced tree in O(n) time.
+     * Values added in any other order are sorted first.
+     */
+    @Nonnull
+    public static <T extends Comparable<T>> Builder<T> builder()
+    {
+        return new Builder<>(ComparableComparator.<T>of());
+    }
+
+    /**
+     * Produces a MutableBuilder that constructs a set using comparator.  Values added in
+     * ascending order are packed directly into a balanced tree in O(n) time.  Values added
+     * in any other order are sorted first.
+     */
+    @Nonnull
+    public static <T> Builder<T> builder(@Nonnull Comparator<T> comparator)
+    {
+        return new Builder<>(comparator);
+    }
+
+    @Nonnull
+    public static <T extends Comparable<T>> Collector<T, ?, JImmutableSet<T>> collector()
+    {
+        return collector(ComparableComparator.<T>of());
+    }
+
+    @Nonnull
+    public static <T> Collector<T, ?, JImmutableSet<T>> collector(@Nonnull Comparator<T> comparator)
+    {
+        return Collector.<T, Builder<T>, JImmutableSet<T>>of(() -> new Builder<>(comparator),
+                                                            (b, v) -> b.add(v),
+                                                            (b1, b2) -> b1.combineWith(b2),
+                                                            b -> b.build());
+    }
+
     @Override
     protected JImmutableSet<T> create(JImmutableMap<T, Boolean> map)
     {
@@ -108,9 +407,82 @@ public class JImmutableTreeSet<T>
     {
         return map;
     }
+
+    private JImmutableTreeMap<T, Boolean> treeMap()
+    {
+        return (JImmutableTreeMap<T, Boolean>)map;
+    }
+
+    /**
+     * Returns the map of other if it is a JImmutableTreeSet that can be merged with this
+     * set more cheaply than by editing this set one value at a time.  Otherwise returns null.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private JImmutableTreeMap<T, Boolean> mergeableMap(@Nonnull Iterable<? extends T> other)
+    {
+        if (other instanceof JImmutableTreeSet) {
+            final JImmutableTreeMap<T, Boolean> otherMap = ((JImmutableTreeSet<T>)other).treeMap();
+            if (treeMap().isMergeCheaper(otherMap)) {
+                return otherMap;
+            }
+        }
+        return null;
+    }
+
+    @Nonnull
+    private JImmutableSet<T> forMap(@Nonnull JImmutableTreeMap<T, Boolean> newMap)
+    {
+        return (newMap != map) ? create(newMap) : this;
+    }
     
     private Object writeReplace()
     {
         return new JImmutableTreeSetProxy(this);
     }
+
+    public static class Builder<T>
+        implements MutableBuilder<T, JImmutableTreeSet<T>>
+    {
+        private final Comparator<T> comparator;
+        private final JImmutableTreeMap.Builder<T, Boolean> builder;
+
+        private Builder(@Nonnull Comparator<T> comparator)
+        {
+            this.comparator = comparator;
+            builder = JImmutableTreeMap.builder(comparator);
+        }
+
+        @Override
+        public int size()
+        {
+            return builder.size();
+        }
+
+        @Nonnull
+        @Override
+        public Builder<T> add(T value)
+        {
+            builder.add(value, Boolean.TRUE);
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public JImmutableTreeSet<T> build()
+        {
+            final JImmutableTreeMap<T, Boolean> map = builder.build();
+            if (map.isEmpty()) {
+                return new JImmutableTreeSet<>(map, comparator).deleteAll();
+            }
+            return new JImmutableTreeSet<>(map, comparator);
+        }
+
+        @Nonnull
+        public Builder<T> combineWith(@Nonnull Builder<T> other)
+        {
+            builder.combineWith(other.builder);
+            return this;
+        }
+    }
 }
@@ -0,0 +1,162 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.tree;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.util.Comparator;
+
+/**
+ * Bounds of a range of keys in a sorted map.  Either bound can be absent and each bound
+ * that is present can be inclusive or exclusive.
+ */
+@Immutable
+class KeyRange<K>
+{
+    @SuppressWarnings("unchecked")
+    private static final KeyRange ALL = new KeyRange(false, null, false, false, null, false);
+
+    private final boolean hasLow;
+    private final K low;
+    private final boolean lowInclusive;
+    private final boolean hasHigh;
+    private final K high;
+    private final boolean highInclusive;
+
+    private KeyRange(boolean hasLow,
+                     @Nullable K low,
+                     boolean lowInclusive,
+                     boolean hasHigh,
+                     @Nullable K high,
+                     boolean highInclusive)
+    {
+        this.hasLow = hasLow;
+        this.low = low;
+        this.lowInclusive = lowInclusive;
+        this.hasHigh = hasHigh;
+        this.high = high;
+        this.highInclusive = highInclusive;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K> KeyRange<K> all()
+    {
+        return ALL;
+    }
+
+    KeyRange<K> withLow(@Nonnull Comparator<K> comparator,
+                        @Nonnull K low,
+                        boolean inclusive)
+    {
+        if (hasLow) {
+            final int diff = comparator.compare(low, this.low);
+            if ((diff < 0) || ((diff == 0) && (inclusive || !lowInclusive))) {
+                return this;
+            }
+        }
+        return new KeyRange<>(true, low, inclusive, hasHigh, high, highInclusive);
+    }
+
+    KeyRange<K> withHigh(@Nonnull Comparator<K> comparator,
+                         @Nonnull K high,
+                         boolean inclusive)
+    {
+        if (hasHigh) {
+            final int diff = comparator.compare(high, this.high);
+            if ((diff > 0) || ((diff == 0) && (inclusive || !highInclusive))) {
+                return this;
+            }
+        }
+        return new KeyRange<>(hasLow, low, lowInclusive, true, high, inclusive);
+    }
+
+    boolean hasLow()
+    {
+        return hasLow;
+    }
+
+    K getLow()
+    {
+        return low;
+    }
+
+    boolean isLowInclusive()
+    {
+        return lowInclusive;
+    }
+
+    boolean hasHigh()
+    {
+        return hasHigh;
+    }
+
+    K getHigh()
+    {
+        return high;
+    }
+
+    boolean isHighInclusive()
+    {
+        return highInclusive;
+    }
+
+    boolean isTooLow(@Nonnull Comparator<K> comparator,
+                     @Nonnull K key)
+    {
+        if (hasLow) {
+            final int diff = comparator.compare(key, low);
+            return (diff < 0) || ((diff == 0) && !lowInclusive);
+        }
+        return false;
+    }
+
+    boolean isTooHigh(@Nonnull Comparator<K> comparator,
+                      @Nonnull K key)
+    {
+        if (hasHigh) {
+            final int diff = comparator.compare(key, high);
+            return (diff > 0) || ((diff == 0) && !highInclusive);
+        }
+        return false;
+    }
+
+    boolean contains(@Nonnull Comparator<K> comparator,
+                     @Nonnull K key)
+    {
+        return !(isTooLow(comparator, key) || isTooHigh(comparator, key));
+    }
+}
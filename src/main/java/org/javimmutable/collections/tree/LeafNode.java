@@ -42,7 +42,12 @@ import org.javimmutable.collections.Holders;
 import org.javimmutable.collections.JImmutableMap;
 import org.javimmutable.collections.SplitableIterator;
 import org.javimmutable.collections.Tuple2;
+import org.javimmutable.collections.common.BatchLookup;
+import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.common.StructureStats;
 import org.javimmutable.collections.cursors.SingleValueCursor;
+import org.javimmutable.collections.cursors.StandardCursor;
+import org.javimmutable.collections.iterators.EmptyIterator;
 import org.javimmutable.collections.iterators.SingleValueIterator;
 
 import javax.annotation.Nonnull;
@@ -92,6 +97,19 @@ public class LeafNode<K, V>
         return comparator.compare(this.key, key) == 0 ? value : defaultValue;
     }
 
+    @Override
+    public void getAll(@Nonnull Comparator<K> comparator,
+                       @Nonnull BatchLookup<K, V> batch,
+                       int offset,
+                       int limit)
+    {
+        for (int index = offset; index < limit; ++index) {
+            if (comparator.compare(key, batch.getKey(index)) == 0) {
+                batch.setValue(index, value);
+            }
+        }
+    }
+
     @Nonnull
     @Override
     public Holder<V> find(@Nonnull Comparator<K> comparator,
@@ -108,6 +126,59 @@ public class LeafNode<K, V>
         return comparator.compare(this.key, key) == 0 ? Holders.of(this) : Holders.of();
     }
 
+    @Nonnull
+    @Override
+    public Holder<JImmutableMap.Entry<K, V>> findEntryBelow(@Nonnull Comparator<K> comparator,
+                                                            @Nonnull K key,
+                                                            boolean inclusive)
+    {
+        final int diff = comparator.compare(this.key, key);
+        return (diff < 0) || (inclusive && (diff == 0)) ? Holders.of(this) : Holders.of();
+    }
+
+    @Nonnull
+    @Override
+    public Holder<JImmutableMap.Entry<K, V>> findEntryAbove(@Nonnull Comparator<K> comparator,
+                                                            @Nonnull K key,
+                                                            boolean inclusive)
+    {
+        final int diff = comparator.compare(this.key, key);
+        return (diff > 0) || (inclusive && (diff == 0)) ? Holders.of(this) : Holders.of();
+    }
+
+    @Nonnull
+    @Override
+    public Holder<JImmutableMap.Entry<K, V>> firstEntry()
+    {
+        return Holders.of(this);
+    }
+
+    @Nonnull
+    @Override
+    public Holder<JImmutableMap.Entry<K, V>> lastEntry()
+    {
+        return Holders.of(this);
+    }
+
+    @Nonnull
+    @Override
+    public JImmutableMap.Entry<K, V> getEntryAt(int index)
+    {
+        if (index != 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        return this;
+    }
+
+    @Override
+    public int countBelow(@Nonnull Comparator<K> comparator,
+                          @Nonnull K key,
+                          boolean inclusive)
+    {
+        final int diff = comparator.compare(this.key, key);
+        return (diff < 0) || (inclusive && (diff == 0)) ? 1 : 0;
+    }
+
     @Nonnull
     @Override
     public UpdateResult<K, V> assign(@Nonnull Comparator<K> comparator,
@@ -149,6 +220,23 @@ public class LeafNode<K, V>
         return (diff == 0) ? EmptyNode.of() : this;
     }
 
+    @Nonnull
+    @Override
+    public Node<K, V> deleteAll(@Nonnull Comparator<K> comparator,
+                                @Nonnull BatchLookup<K, V> batch,
+                                int offset,
+                                int limit,
+                                @Nonnull MutableDelta sizeDelta)
+    {
+        for (int index = offset; index < limit; ++index) {
+            if (comparator.compare(key, batch.getKey(index)) == 0) {
+                sizeDelta.subtract(1);
+                return EmptyNode.of();
+            }
+        }
+        return this;
+    }
+
     @Nonnull
     @Override
     public Node<K, V> mergeChildren(@Nonnull Node<K, V> sibling)
@@ -163,6 +251,25 @@ public class LeafNode<K, V>
         return Tuple2.of(this, sibling);
     }
 
+    @Nonnull
+    @Override
+    public Tuple2<Node<K, V>, Node<K, V>> split(@Nonnull Comparator<K> comparator,
+                                                @Nonnull K key)
+    {
+        if (comparator.compare(this.key, key) < 0) {
+            return Tuple2.of(this, EmptyNode.of());
+        } else {
+            return Tuple2.of(EmptyNode.of(), this);
+        }
+    }
+
+    @Nonnull
+    @Override
+    public Node<K, V> join(@Nonnull Node<K, V> right)
+    {
+        return BranchNode.join(this, right);
+    }
+
     @Nonnull
     @Override
     public Node<K, V> compress()
@@ -176,6 +283,14 @@ public class LeafNode<K, V>
         return 0;
     }
 
+    @Override
+    public void collectStats(@Nonnull StructureStats.Builder stats,
+                             int depth)
+    {
+        stats.addNode(this, StructureStats.objectBytes(2, 0));
+        stats.addValues(depth, 1);
+    }
+
     @Nonnull
     @Override
     public Cursor<JImmutableMap.Entry<K, V>> cursor()
@@ -190,6 +305,38 @@ public class LeafNode<K, V>
         return SingleValueIterator.of(this);
     }
 
+    @Nonnull
+    @Override
+    public Cursor<JImmutableMap.Entry<K, V>> cursor(@Nonnull Comparator<K> comparator,
+                                                    @Nonnull KeyRange<K> range)
+    {
+        return range.contains(comparator, key) ? SingleValueCursor.of(this) : StandardCursor.of();
+    }
+
+    @Nonnull
+    @Override
+    public SplitableIterator<JImmutableMap.Entry<K, V>> iterator(@Nonnull Comparator<K> comparator,
+                                                                 @Nonnull KeyRange<K> range)
+    {
+        return range.contains(comparator, key) ? SingleValueIterator.of(this) : EmptyIterator.of();
+    }
+
+    @Nonnull
+    @Override
+    public Cursor<JImmutableMap.Entry<K, V>> descendingCursor(@Nonnull Comparator<K> comparator,
+                                                              @Nonnull KeyRange<K> range)
+    {
+        return cursor(comparator, range);
+    }
+
+    @Nonnull
+    @Override
+    public SplitableIterator<JImmutableMap.Entry<K, V>> descendingIterator(@Nonnull Comparator<K> comparator,
+                                                                           @Nonnull KeyRange<K> range)
+    {
+        return iterator(comparator, range);
+    }
+
     @Override
     public void checkInvariants(@Nonnull Comparator<K> comparator)
     {
@@ -0,0 +1,884 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.tree;
+
+import org.javimmutable.collections.Cursor;
+import org.javimmutable.collections.Cursorable;
+import org.javimmutable.collections.Holder;
+import org.javimmutable.collections.Holders;
+import org.javimmutable.collections.Indexed;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.MapEntry;
+import org.javimmutable.collections.SplitableIterable;
+import org.javimmutable.collections.SplitableIterator;
+import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.cursors.LazyMultiCursor;
+import org.javimmutable.collections.cursors.StandardCursor;
+import org.javimmutable.collections.indexed.IndexedHelper;
+import org.javimmutable.collections.iterators.EmptyIterator;
+import org.javimmutable.collections.iterators.IndexedIterator;
+import org.javimmutable.collections.iterators.LazyMultiIterator;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * B-tree node for sorted maps keyed by primitive long values.  Leaves store their keys in a
+ * long array alongside a parallel array of values.  Branches store the least key of each
+ * child in a long array alongside the children themselves so finding the child containing a
+ * key is a binary search over primitives with no Comparator calls and no boxing.  Branches
+ * also track the number of entries beneath them so that keys in a range can be counted
+ * without visiting them.
+ * <p>
+ * assign() and delete() can return a node with more than MAX_ENTRIES or fewer than MIN_ENTRIES
+ * keys.  The parent of such a node splits it or merges it with a sibling and asRoot() does the
+ * same for the root of the tree.  Only the root can have fewer than MIN_ENTRIES keys.
+ */
+@Immutable
+abstract class LongTreeNode<V>
+    implements SplitableIterable<JImmutableMap.Entry<Long, V>>,
+               Cursorable<JImmutableMap.Entry<Long, V>>
+{
+    static final int MIN_ENTRIES = 16;
+    static final int MAX_ENTRIES = 2 * MIN_ENTRIES;
+
+    @SuppressWarnings("unchecked")
+    private static final LongTreeNode EMPTY = new Leaf(new long[0], new Object[0]);
+
+    @Nonnull
+    final long[] keys;
+
+    private LongTreeNode(@Nonnull long[] keys)
+    {
+        this.keys = keys;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> LongTreeNode<V> of()
+    {
+        return EMPTY;
+    }
+
+    boolean isEmpty()
+    {
+        return keys.length == 0;
+    }
+
+    long baseKey()
+    {
+        return keys[0];
+    }
+
+    /**
+     * @return number of entries in the subtree rooted at this node
+     */
+    abstract int valueCount();
+
+    abstract int depth();
+
+    abstract V getValueOr(long key,
+                          V defaultValue);
+
+    @Nonnull
+    abstract Holder<V> find(long key);
+
+    /**
+     * Finds the entry with the greatest key less than key, or less than or equal to key
+     * if inclusive is true.
+     */
+    @Nonnull
+    abstract Holder<JImmutableMap.Entry<Long, V>> findEntryBelow(long key,
+                                                                boolean inclusive);
+
+    /**
+     * Finds the entry with the least key greater than key, or greater than or equal to key
+     * if inclusive is true.
+     */
+    @Nonnull
+    abstract Holder<JImmutableMap.Entry<Long, V>> findEntryAbove(long key,
+                                                                boolean inclusive);
+
+    @Nonnull
+    abstract Holder<JImmutableMap.Entry<Long, V>> firstEntry();
+
+    @Nonnull
+    abstract Holder<JImmutableMap.Entry<Long, V>> lastEntry();
+
+    /**
+     * Counts the keys less than key, or less than or equal to key if inclusive is true.
+     */
+    abstract int countBelow(long key,
+                            boolean inclusive);
+
+    @Nonnull
+    abstract LongTreeNode<V> assign(long key,
+                                    V value,
+                                    @Nonnull MutableDelta sizeDelta);
+
+    @Nonnull
+    abstract LongTreeNode<V> delete(long key,
+                                    @Nonnull MutableDelta sizeDelta);
+
+    /**
+     * Returns a node of the same kind containing the keys at positions offset (inclusive)
+     * through limit (exclusive) of this node.
+     */
+    @Nonnull
+    abstract LongTreeNode<V> slice(int offset,
+                                   int limit);
+
+    /**
+     * Returns a node of the same kind and depth containing the keys of this node followed
+     * by the keys of right.
+     */
+    @Nonnull
+    abstract LongTreeNode<V> append(@Nonnull LongTreeNode<V> right);
+
+    /**
+     * Returns an iterator over the entries with keys from low to high (both inclusive).
+     */
+    @Nonnull
+    abstract SplitableIterator<JImmutableMap.Entry<Long, V>> iterator(long low,
+                                                                     long high);
+
+    /**
+     * Returns a cursor over the entries with keys from low to high (both inclusive).
+     */
+    @Nonnull
+    abstract Cursor<JImmutableMap.Entry<Long, V>> cursor(long low,
+                                                        long high);
+
+    abstract void checkInvariants(boolean isRoot);
+
+    /**
+     * Converts a node returned by assign() or delete() into a valid root by splitting it
+     * if it has too many keys or removing branches that have only a single child.
+     */
+    @Nonnull
+    LongTreeNode<V> asRoot()
+    {
+        if (keys.length > MAX_ENTRIES) {
+            return Branch.of(split());
+        }
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public SplitableIterator<JImmutableMap.Entry<Long, V>> iterator()
+    {
+        return iterator(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    @Nonnull
+    @Override
+    public Cursor<JImmutableMap.Entry<Long, V>> cursor()
+    {
+        return cursor(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Iterates over all keys in the tree in ascending order without boxing them.
+     */
+    @Nonnull
+    PrimitiveIterator.OfLong keysIterator()
+    {
+        return new KeyIterator(this);
+    }
+
+    void checkInvariants()
+    {
+        checkInvariants(true);
+    }
+
+    /**
+     * Splits a node with too many keys into two nodes with at least MIN_ENTRIES keys each.
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    private LongTreeNode<V>[] split()
+    {
+        final int half = keys.length / 2;
+        final LongTreeNode<V>[] answer = new LongTreeNode[2];
+        answer[0] = slice(0, half);
+        answer[1] = slice(half, keys.length);
+        return answer;
+    }
+
+    /**
+     * Returns the index of the last key less than or equal to key or -1 if every key is greater than key.
+     */
+    final int floorIndex(long key)
+    {
+        final int index = Arrays.binarySearch(keys, key);
+        return (index >= 0) ? index : -index - 2;
+    }
+
+    /**
+     * Returns the index of the first key greater than or equal to key (or greater than key if
+     * inclusive is false).  Returns keys.length if there is no such key.
+     */
+    final int ceilingIndex(long key,
+                           boolean inclusive)
+    {
+        final int index = Arrays.binarySearch(keys, key);
+        if (index >= 0) {
+            return inclusive ? index : index + 1;
+        }
+        return -index - 1;
+    }
+
+    private static long[] insertAt(@Nonnull long[] keys,
+                                   int index,
+                                   long key)
+    {
+        final long[] answer = new long[keys.length + 1];
+        System.arraycopy(keys, 0, answer, 0, index);
+        answer[index] = key;
+        System.arraycopy(keys, index, answer, index + 1, keys.length - index);
+        return answer;
+    }
+
+    private static Object[] insertAt(@Nonnull Object[] values,
+                                     int index,
+                                     Object value)
+    {
+        final Object[] answer = new Object[values.length + 1];
+        System.arraycopy(values, 0, answer, 0, index);
+        answer[index] = value;
+        System.arraycopy(values, index, answer, index + 1, values.length - index);
+        return answer;
+    }
+
+    private static long[] deleteAt(@Nonnull long[] keys,
+                                   int index)
+    {
+        final long[] answer = new long[keys.length - 1];
+        System.arraycopy(keys, 0, answer, 0, index);
+        System.arraycopy(keys, index + 1, answer, index, answer.length - index);
+        return answer;
+    }
+
+    private static Object[] deleteAt(@Nonnull Object[] values,
+                                     int index)
+    {
+        final Object[] answer = new Object[values.length - 1];
+        System.arraycopy(values, 0, answer, 0, index);
+        System.arraycopy(values, index + 1, answer, index, answer.length - index);
+        return answer;
+    }
+
+    private static long[] concat(@Nonnull long[] left,
+                                 @Nonnull long[] right)
+    {
+        final long[] answer = Arrays.copyOf(left, left.length + right.length);
+        System.arraycopy(right, 0, answer, left.length, right.length);
+        return answer;
+    }
+
+    private static <T> T[] concat(@Nonnull T[] left,
+                                  @Nonnull T[] right)
+    {
+        final T[] answer = Arrays.copyOf(left, left.length + right.length);
+        System.arraycopy(right, 0, answer, left.length, right.length);
+        return answer;
+    }
+
+    @Immutable
+    private static class Leaf<V>
+        extends LongTreeNode<V>
+    {
+        @Nonnull
+        private final Object[] values;
+
+        private Leaf(@Nonnull long[] keys,
+                     @Nonnull Object[] values)
+        {
+            super(keys);
+            this.values = values;
+        }
+
+        @Override
+        int valueCount()
+        {
+            return keys.length;
+        }
+
+        @Override
+        int depth()
+        {
+            return 1;
+        }
+
+        @Override
+        V getValueOr(long key,
+                     V defaultValue)
+        {
+            final int index = Arrays.binarySearch(keys, key);
+            return (index >= 0) ? valueAt(index) : defaultValue;
+        }
+
+        @Nonnull
+        @Override
+        Holder<V> find(long key)
+        {
+            final int index = Arrays.binarySearch(keys, key);
+            return (index >= 0) ? Holders.of(valueAt(index)) : Holders.of();
+        }
+
+        @Nonnull
+        @Override
+        Holder<JImmutableMap.Entry<Long, V>> findEntryBelow(long key,
+                                                           boolean inclusive)
+        {
+            final int index = ceilingIndex(key, !inclusive) - 1;
+            return (index >= 0) ? Holders.of(entryAt(index)) : Holders.of();
+        }
+
+        @Nonnull
+        @Override
+        Holder<JImmutableMap.Entry<Long, V>> findEntryAbove(long key,
+                                                           boolean inclusive)
+        {
+            final int index = ceilingIndex(key, inclusive);
+            return (index < keys.length) ? Holders.of(entryAt(index)) : Holders.of();
+        }
+
+        @Nonnull
+        @Override
+        Holder<JImmutableMap.Entry<Long, V>> firstEntry()
+        {
+            return (keys.length > 0) ? Holders.of(entryAt(0)) : Holders.of();
+        }
+
+        @Nonnull
+        @Override
+        Holder<JImmutableMap.Entry<Long, V>> lastEntry()
+        {
+            return (keys.length > 0) ? Holders.of(entryAt(keys.length - 1)) : Holders.of();
+        }
+
+        @Override
+        int countBelow(long key,
+                       boolean inclusive)
+        {
+            return ceilingIndex(key, !inclusive);
+        }
+
+        @Nonnull
+        @Override
+        LongTreeNode<V> assign(long key,
+                               V value,
+                               @Nonnull MutableDelta sizeDelta)
+        {
+            final int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) {
+                if (values[index] == value) {
+                    return this;
+                }
+                final Object[] newValues = values.clone();
+                newValues[index] = value;
+                return new Leaf<>(keys, newValues);
+            } else {
+                final int insertIndex = -index - 1;
+                sizeDelta.add(1);
+                return new Leaf<>(insertAt(keys, insertIndex, key), insertAt(values, insertIndex, value));
+            }
+        }
+
+        @Nonnull
+        @Override
+        LongTreeNode<V> delete(long key,
+                               @Nonnull MutableDelta sizeDelta)
+        {
+            final int index = Arrays.binarySearch(keys, key);
+            if (index < 0) {
+                return this;
+            }
+            sizeDelta.subtract(1);
+            return new Leaf<>(deleteAt(keys, index), deleteAt(values, index));
+        }
+
+        @Nonnull
+        @Override
+        LongTreeNode<V> slice(int offset,
+                              int limit)
+        {
+            return new Leaf<>(Arrays.copyOfRange(keys, offset, limit), Arrays.copyOfRange(values, offset, limit));
+        }
+
+        @Nonnull
+        @Override
+        LongTreeNode<V> append(@Nonnull LongTreeNode<V> right)
+        {
+            final Leaf<V> other = (Leaf<V>)right;
+            return new Leaf<>(concat(keys, other.keys), concat(values, other.values));
+        }
+
+        @Nonnull
+        @Override
+        SplitableIterator<JImmutableMap.Entry<Long, V>> iterator(long low,
+                                                                long high)
+        {
+            final Indexed<JImmutableMap.Entry<Long, V>> entries = entriesInRange(low, high);
+            return (entries.size() > 0) ? IndexedIterator.iterator(entries) : EmptyIterator.of();
+        }
+
+        @Nonnull
+        @Override
+        Cursor<JImmutableMap.Entry<Long, V>> cursor(long low,
+                                                    long high)
+        {
+            return StandardCursor.of(entriesInRange(low, high));
+        }
+
+        @Override
+        void checkInvariants(boolean isRoot)
+        {
+            if (values.length != keys.length) {
+                throw new IllegalStateException("values length does not match keys length");
+            }
+            if ((keys.length < (isRoot ? 0 : MIN_ENTRIES)) || (keys.length > MAX_ENTRIES)) {
+                throw new IllegalStateException("leaf has " + keys.length + " keys");
+            }
+            for (int i = 1; i < keys.length; ++i) {
+                if (keys[i - 1] >= keys[i]) {
+                    throw new IllegalStateException("keys out of order");
+                }
+            }
+        }
+
+        @Nonnull
+        private Indexed<JImmutableMap.Entry<Long, V>> entriesInRange(long low,
+                                                                     long high)
+        {
+            final int first = ceilingIndex(low, true);
+            final int last = floorIndex(high);
+            if (last < first) {
+                return IndexedHelper.empty();
+            }
+            return new Indexed<JImmutableMap.Entry<Long, V>>()
+            {
+                @Override
+                public JImmutableMap.Entry<Long, V> get(int index)
+                {
+                    return entryAt(first + index);
+                }
+
+                @Override
+                public int size()
+                {
+                    return last - first + 1;
+                }
+            };
+        }
+
+        @Nonnull
+        private JImmutableMap.Entry<Long, V> entryAt(int index)
+        {
+            return MapEntry.of(keys[index], valueAt(index));
+        }
+
+        @SuppressWarnings("unchecked")
+        private V valueAt(int index)
+        {
+            return (V)values[index];
+        }
+    }
+
+    @Immutable
+    private static class Branch<V>
+        extends LongTreeNode<V>
+    {
+        @Nonnull
+        private final LongTreeNode<V>[] children;
+        private final int valueCount;
+
+        private Branch(@Nonnull long[] keys,
+                       @Nonnull LongTreeNode<V>[] children)
+        {
+            super(keys);
+            this.children = children;
+            this.valueCount = sumValueCounts(children);
+        }
+
+        @Nonnull
+        private static <V> Branch<V> of(@Nonnull LongTreeNode<V>[] children)
+        {
+            final long[] keys = new long[children.length];
+            for (int i = 0; i < children.length; ++i) {
+                keys[i] = children[i].baseKey();
+            }
+            return new Branch<>(keys, children);
+        }
+
+        @Override
+        int valueCount()
+        {
+            return valueCount;
+        }
+
+        @Override
+        int depth()
+        {
+            return 1 + children[0].depth();
+        }
+
+        @Override
+        V getValueOr(long key,
+                     V defaultValue)
+        {
+            final int index = floorIndex(key);
+            return (index >= 0) ? children[index].getValueOr(key, defaultValue) : defaultValue;
+        }
+
+        @Nonnull
+        @Override
+        Holder<V> find(long key)
+        {
+            final int index = floorIndex(key);
+            return (index >= 0) ? children[index].find(key) : Holders.of();
+        }
+
+        @Nonnull
+        @Override
+        Holder<JImmutableMap.Entry<Long, V>> findEntryBelow(long key,
+                                                           boolean inclusive)
+        {
+            final int index = floorIndex(key);
+            if (index < 0) {
+                return Holders.of();
+            }
+            final Holder<JImmutableMap.Entry<Long, V>> answer = children[index].findEntryBelow(key, inclusive);
+            if (answer.isEmpty() && (index > 0)) {
+                return children[index - 1].lastEntry();
+            }
+            return answer;
+        }
+
+        @Nonnull
+        @Override
+        Holder<JImmutableMap.Entry<Long, V>> findEntryAbove(long key,
+                                                           boolean inclusive)
+        {
+            final int index = Math.max(0, floorIndex(key));
+            final Holder<JImmutableMap.Entry<Long, V>> answer = children[index].findEntryAbove(key, inclusive);
+            if (answer.isEmpty() && (index < children.length - 1)) {
+                return children[index + 1].firstEntry();
+            }
+            return answer;
+        }
+
+        @Nonnull
+        @Override
+        Holder<JImmutableMap.Entry<Long, V>> firstEntry()
+        {
+            return children[0].firstEntry();
+        }
+
+        @Nonnull
+        @Override
+        Holder<JImmutableMap.Entry<Long, V>> lastEntry()
+        {
+            return children[children.length - 1].lastEntry();
+        }
+
+        @Override
+        int countBelow(long key,
+                       boolean inclusive)
+        {
+            final int index = floorIndex(key);
+            if (index < 0) {
+                return 0;
+            }
+            int answer = 0;
+            for (int i = 0; i < index; ++i) {
+                answer += children[i].valueCount();
+            }
+            return answer + children[index].countBelow(key, inclusive);
+        }
+
+        @Nonnull
+        @Override
+        LongTreeNode<V> assign(long key,
+                               V value,
+                               @Nonnull MutableDelta sizeDelta)
+        {
+            final int index = Math.max(0, floorIndex(key));
+            final LongTreeNode<V> child = children[index];
+            final LongTreeNode<V> newChild = child.assign(key, value, sizeDelta);
+            if (newChild == child) {
+                return this;
+            } else if (newChild.keys.length > MAX_ENTRIES) {
+                return replace(index, 1, newChild.split());
+            } else {
+                return replace(index, 1, newChild);
+            }
+        }
+
+        @Nonnull
+        @Override
+        LongTreeNode<V> delete(long key,
+                               @Nonnull MutableDelta sizeDelta)
+        {
+            final int index = floorIndex(key);
+            if (index < 0) {
+                return this;
+            }
+            final LongTreeNode<V> child = children[index];
+            final LongTreeNode<V> newChild = child.delete(key, sizeDelta);
+            if (newChild == child) {
+                return this;
+            } else if (children.length == 1) {
+                return newChild.isEmpty() ? newChild : replace(index, 1, newChild);
+            } else if (newChild.keys.length >= MIN_ENTRIES) {
+                return replace(index, 1, newChild);
+            }
+            final int leftIndex = (index > 0) ? (index - 1) : index;
+            final LongTreeNode<V> merged = (index > 0) ? children[index - 1].append(newChild) : newChild.append(children[index + 1]);
+            if (merged.keys.length > MAX_ENTRIES) {
+                return replace(leftIndex, 2, merged.split());
+            } else {
+                return replace(leftIndex, 2, merged);
+            }
+        }
+
+        @Nonnull
+        @Override
+        LongTreeNode<V> slice(int offset,
+                              int limit)
+        {
+            return new Branch<>(Arrays.copyOfRange(keys, offset, limit), Arrays.copyOfRange(children, offset, limit));
+        }
+
+        @Nonnull
+        @Override
+        LongTreeNode<V> append(@Nonnull LongTreeNode<V> right)
+        {
+            final Branch<V> other = (Branch<V>)right;
+            return new Branch<>(concat(keys, other.keys), concat(children, other.children));
+        }
+
+        @Nonnull
+        @Override
+        SplitableIterator<JImmutableMap.Entry<Long, V>> iterator(long low,
+                                                                long high)
+        {
+            return LazyMultiIterator.transformed(childrenInRange(low, high), child -> () -> child.iterator(low, high));
+        }
+
+        @Nonnull
+        @Override
+        Cursor<JImmutableMap.Entry<Long, V>> cursor(long low,
+                                                    long high)
+        {
+            return LazyMultiCursor.transformed(childrenInRange(low, high), child -> () -> child.cursor(low, high));
+        }
+
+        @Nonnull
+        @Override
+        LongTreeNode<V> asRoot()
+        {
+            if (children.length == 1) {
+                return children[0].asRoot();
+            }
+            return super.asRoot();
+        }
+
+        @Override
+        void checkInvariants(boolean isRoot)
+        {
+            if (children.length != keys.length) {
+                throw new IllegalStateException("children length does not match keys length");
+            }
+            if ((keys.length < (isRoot ? 2 : MIN_ENTRIES)) || (keys.length > MAX_ENTRIES)) {
+                throw new IllegalStateException("branch has " + keys.length + " children");
+            }
+            if (valueCount != sumValueCounts(children)) {
+                throw new IllegalStateException("valueCount mismatch");
+            }
+            final int childDepth = children[0].depth();
+            for (int i = 0; i < children.length; ++i) {
+                final LongTreeNode<V> child = children[i];
+                if (child.depth() != childDepth) {
+                    throw new IllegalStateException("children have different depths");
+                }
+                if (keys[i] != child.baseKey()) {
+                    throw new IllegalStateException("key does not match child base key");
+                }
+                if ((i > 0) && (children[i - 1].lastEntry().getValue().getKey() >= keys[i])) {
+                    throw new IllegalStateException("children out of order");
+                }
+                child.checkInvariants(false);
+            }
+        }
+
+        /**
+         * Replaces count children starting at index with newChild.
+         */
+        @Nonnull
+        @SuppressWarnings("unchecked")
+        private Branch<V> replace(int index,
+                                  int count,
+                                  @Nonnull LongTreeNode<V> newChild)
+        {
+            final LongTreeNode<V>[] newChildren = new LongTreeNode[1];
+            newChildren[0] = newChild;
+            return replace(index, count, newChildren);
+        }
+
+        /**
+         * Replaces count children starting at index with newChildren.
+         */
+        @Nonnull
+        @SuppressWarnings("unchecked")
+        private Branch<V> replace(int index,
+                                  int count,
+                                  @Nonnull LongTreeNode<V>[] newChildren)
+        {
+            final int newLength = children.length - count + newChildren.length;
+            final long[] newKeys = new long[newLength];
+            final LongTreeNode<V>[] nodes = new LongTreeNode[newLength];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, nodes, 0, index);
+            for (int i = 0; i < newChildren.length; ++i) {
+                newKeys[index + i] = newChildren[i].baseKey();
+                nodes[index + i] = newChildren[i];
+            }
+            final int tail = children.length - index - count;
+            System.arraycopy(keys, index + count, newKeys, index + newChildren.length, tail);
+            System.arraycopy(children, index + count, nodes, index + newChildren.length, tail);
+            return new Branch<>(newKeys, nodes);
+        }
+
+        @Nonnull
+        private Indexed<LongTreeNode<V>> childrenInRange(long low,
+                                                         long high)
+        {
+            final int first = Math.max(0, floorIndex(low));
+            final int last = floorIndex(high);
+            if (last < first) {
+                return IndexedHelper.empty();
+            }
+            return new Indexed<LongTreeNode<V>>()
+            {
+                @Override
+                public LongTreeNode<V> get(int index)
+                {
+                    return children[first + index];
+                }
+
+                @Override
+                public int size()
+                {
+                    return last - first + 1;
+                }
+            };
+        }
+
+        private static <V> int sumValueCounts(@Nonnull LongTreeNode<V>[] children)
+        {
+            int answer = 0;
+            for (LongTreeNode<V> child : children) {
+                answer += child.valueCount();
+            }
+            return answer;
+        }
+    }
+
+    /**
+     * Depth first traversal of the tree using an explicit stack of nodes and positions.
+     */
+    private static class KeyIterator
+        implements PrimitiveIterator.OfLong
+    {
+        private final LongTreeNode[] nodes;
+        private final int[] positions;
+        private int depth;
+
+        private KeyIterator(@Nonnull LongTreeNode root)
+        {
+            nodes = new LongTreeNode[root.depth()];
+            positions = new int[nodes.length];
+            nodes[0] = root;
+            advance();
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return depth >= 0;
+        }
+
+        @Override
+        public long nextLong()
+        {
+            if (depth < 0) {
+                throw new NoSuchElementException();
+            }
+            final long answer = nodes[depth].keys[positions[depth]];
+            positions[depth] += 1;
+            advance();
+            return answer;
+        }
+
+        /**
+         * Moves to the next key in a leaf or sets depth to -1 if there are no more keys.
+         */
+        private void advance()
+        {
+            while (depth >= 0) {
+                final LongTreeNode node = nodes[depth];
+                final int position = positions[depth];
+                if (position >= node.keys.length) {
+                    nodes[depth] = null;
+                    depth -= 1;
+                } else if (node instanceof Branch) {
+                    positions[depth] += 1;
+                    depth += 1;
+                    nodes[depth] = ((Branch)node).children[position];
+                    positions[depth] = 0;
+                } else {
+                    return;
+                }
+            }
+        }
+    }
+}
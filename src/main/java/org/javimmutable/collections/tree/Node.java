@@ -35,12 +35,17 @@
 
 package org.javimmutable.collections.tree;
 
+import org.javimmutable.collections.Cursor;
 import org.javimmutable.collections.Cursorable;
 import org.javimmutable.collections.Func1;
 import org.javimmutable.collections.Holder;
 import org.javimmutable.collections.JImmutableMap;
 import org.javimmutable.collections.SplitableIterable;
+import org.javimmutable.collections.SplitableIterator;
 import org.javimmutable.collections.Tuple2;
+import org.javimmutable.collections.common.BatchLookup;
+import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.common.StructureStats;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -70,6 +75,16 @@ public interface Node<K, V>
                  @Nonnull K key,
                  V defaultValue);
 
+    /**
+     * Looks up the keys at positions offset (inclusive) through limit (exclusive) of a batch
+     * created using BatchLookup.sortedByComparator() and stores the values found in the batch.
+     * Since the keys are sorted each node receives a contiguous range of them.
+     */
+    void getAll(@Nonnull Comparator<K> comparator,
+                @Nonnull BatchLookup<K, V> batch,
+                int offset,
+                int limit);
+
     @Nonnull
     Holder<V> find(@Nonnull Comparator<K> comparator,
                    @Nonnull K key);
@@ -78,6 +93,76 @@ public interface Node<K, V>
     Holder<JImmutableMap.Entry<K, V>> findEntry(@Nonnull Comparator<K> comparator,
                                                 @Nonnull K key);
 
+    /**
+     * Finds the entry with the greatest key less than key, or less than or equal to key
+     * if inclusive is true.
+     */
+    @Nonnull
+    Holder<JImmutableMap.Entry<K, V>> findEntryBelow(@Nonnull Comparator<K> comparator,
+                                                     @Nonnull K key,
+                                                     boolean inclusive);
+
+    /**
+     * Finds the entry with the least key greater than key, or greater than or equal to key
+     * if inclusive is true.
+     */
+    @Nonnull
+    Holder<JImmutableMap.Entry<K, V>> findEntryAbove(@Nonnull Comparator<K> comparator,
+                                                     @Nonnull K key,
+                                                     boolean inclusive);
+
+    @Nonnull
+    Holder<JImmutableMap.Entry<K, V>> firstEntry();
+
+    @Nonnull
+    Holder<JImmutableMap.Entry<K, V>> lastEntry();
+
+    /**
+     * Returns the entry at the specified position in key order.  index must be at least zero
+     * and less than valueCount().
+     */
+    @Nonnull
+    JImmutableMap.Entry<K, V> getEntryAt(int index);
+
+    /**
+     * Counts the keys less than key, or less than or equal to key if inclusive is true.
+     */
+    int countBelow(@Nonnull Comparator<K> comparator,
+                   @Nonnull K key,
+                   boolean inclusive);
+
+    /**
+     * Returns a Cursor over the entries whose keys lie within range.  Only the nodes on the
+     * paths to the two ends of the range are examined to find its bounds.
+     */
+    @Nonnull
+    Cursor<JImmutableMap.Entry<K, V>> cursor(@Nonnull Comparator<K> comparator,
+                                             @Nonnull KeyRange<K> range);
+
+    /**
+     * Returns a SplitableIterator over the entries whose keys lie within range.  Only the nodes
+     * on the paths to the two ends of the range are examined to find its bounds.
+     */
+    @Nonnull
+    SplitableIterator<JImmutableMap.Entry<K, V>> iterator(@Nonnull Comparator<K> comparator,
+                                                          @Nonnull KeyRange<K> range);
+
+    /**
+     * Returns a Cursor over the entries whose keys lie within range in descending key order.
+     * Children are visited from right to left so no entries are buffered.
+     */
+    @Nonnull
+    Cursor<JImmutableMap.Entry<K, V>> descendingCursor(@Nonnull Comparator<K> comparator,
+                                                       @Nonnull KeyRange<K> range);
+
+    /**
+     * Returns a SplitableIterator over the entries whose keys lie within range in descending
+     * key order.  Children are visited from right to left so no entries are buffered.
+     */
+    @Nonnull
+    SplitableIterator<JImmutableMap.Entry<K, V>> descendingIterator(@Nonnull Comparator<K> comparator,
+                                                                    @Nonnull KeyRange<K> range);
+
     @Nonnull
     UpdateResult<K, V> assign(@Nonnull Comparator<K> comparator,
                               @Nonnull K key,
@@ -92,17 +177,54 @@ public interface Node<K, V>
     Node<K, V> delete(@Nonnull Comparator<K> comparator,
                       @Nonnull K key);
 
+    /**
+     * Deletes the keys at positions offset (inclusive) through limit (exclusive) of a batch
+     * created using BatchLookup.sortedByComparator().  Each node affected by the deletions is
+     * copied only once.  As with delete() the returned node may have fewer than MIN_CHILDREN
+     * children and the parent is responsible for merging it with a sibling.
+     */
+    @Nonnull
+    Node<K, V> deleteAll(@Nonnull Comparator<K> comparator,
+                         @Nonnull BatchLookup<K, V> batch,
+                         int offset,
+                         int limit,
+                         @Nonnull MutableDelta sizeDelta);
+
     @Nonnull
     Node<K, V> mergeChildren(@Nonnull Node<K, V> sibling);
 
     @Nonnull
     Tuple2<Node<K, V>, Node<K, V>> distributeChildren(@Nonnull Node<K, V> sibling);
 
+    /**
+     * Splits this node into a node containing the keys less than key and a node containing
+     * the remaining keys.  Only the nodes on the path to key are copied.  Either of the
+     * resulting nodes can have fewer than MIN_CHILDREN children.
+     */
+    @Nonnull
+    Tuple2<Node<K, V>, Node<K, V>> split(@Nonnull Comparator<K> comparator,
+                                         @Nonnull K key);
+
+    /**
+     * Combines this node with a node whose keys are all greater than the keys in this node.
+     * The shorter tree is attached along the edge of the taller one so only the nodes on
+     * that edge are copied.  The result can have a single child so callers should compress() it.
+     */
+    @Nonnull
+    Node<K, V> join(@Nonnull Node<K, V> right);
+
     @Nonnull
     Node<K, V> compress();
 
     int depth();
 
+    /**
+     * Adds this node and all of its descendants to stats.  depth is the number of nodes
+     * between this node and the root of the tree.
+     */
+    void collectStats(@Nonnull StructureStats.Builder stats,
+                      int depth);
+
     default boolean isEmpty()
     {
         return false;
@@ -0,0 +1,265 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.tree;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Summary of the entries of one node of a tree used by JImmutableAugmentedTreeMap.  SummaryNodes
+ * form a tree mirroring the branches of the map's tree.  Leaves are cheap to summarize so they
+ * are not mirrored.  Nodes are immutable so a SummaryNode remains valid for every later version
+ * of the tree that still contains its node.
+ */
+@Immutable
+final class SummaryNode<K, V, S>
+{
+    @SuppressWarnings("unchecked")
+    private static final SummaryNode[] NO_CHILDREN = new SummaryNode[0];
+
+    private final Node<K, V> node;
+    private final int depth;
+    private final S summary;
+    // one per child of a branch node, null where the child is a leaf
+    private final SummaryNode<K, V, S>[] children;
+
+    private SummaryNode(@Nonnull Node<K, V> node,
+                        int depth,
+                        S summary,
+                        @Nonnull SummaryNode<K, V, S>[] children)
+    {
+        this.node = node;
+        this.depth = depth;
+        this.summary = summary;
+        this.children = children;
+    }
+
+    /**
+     * Creates a SummaryNode for node.  Any branch of node that can be found in one of previous
+     * is reused along with its summary so only the branches created since previous need to be
+     * summarized.  Since assign(), delete(), split() and join() only create new branches along
+     * the paths to the keys they change this takes O(log n) time for those operations.
+     */
+    @Nonnull
+    static <K, V, S> SummaryNode<K, V, S> of(@Nonnull Aggregator<K, V, S> aggregator,
+                                             @Nonnull Comparator<K> comparator,
+                                             @Nonnull Node<K, V> node,
+                                             @Nonnull List<SummaryNode<K, V, S>> previous)
+    {
+        return create(aggregator, comparator, node, node.depth(), null, previous);
+    }
+
+    @Nonnull
+    Node<K, V> getNode()
+    {
+        return node;
+    }
+
+    S getSummary()
+    {
+        return summary;
+    }
+
+    /**
+     * Combines the summaries of the entries whose keys lie within range.  Children entirely
+     * within range contribute their summaries directly so only the nodes on the paths to the
+     * two ends of the range are examined.
+     */
+    S aggregate(@Nonnull Aggregator<K, V, S> aggregator,
+                @Nonnull Comparator<K> comparator,
+                @Nonnull KeyRange<K> range)
+    {
+        if (!(range.hasLow() || range.hasHigh())) {
+            return summary;
+        } else if (depth == 0) {
+            return aggregateLeaf(aggregator, comparator, range, node);
+        }
+        final BranchNode<K, V> branch = (BranchNode<K, V>)node;
+        final int first = range.hasLow() ? branch.childIndex(comparator, range.getLow(), 0) : 0;
+        final int last = range.hasHigh() ? branch.childIndex(comparator, range.getHigh(), -1) : children.length - 1;
+        S answer = aggregator.identity();
+        for (int index = first; index <= last; ++index) {
+            final SummaryNode<K, V, S> child = children[index];
+            if (((index == first) && range.hasLow()) || ((index == last) && range.hasHigh())) {
+                if (child == null) {
+                    answer = aggregator.combine(answer, aggregateLeaf(aggregator, comparator, range, branch.childAt(index)));
+                } else {
+                    answer = aggregator.combine(answer, child.aggregate(aggregator, comparator, range));
+                }
+            } else if (child == null) {
+                answer = aggregator.combine(answer, summarizeLeaf(aggregator, branch.childAt(index)));
+            } else {
+                answer = aggregator.combine(answer, child.summary);
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Verifies that this SummaryNode mirrors node and that every summary matches the one
+     * computed from scratch.
+     */
+    void checkInvariants(@Nonnull Aggregator<K, V, S> aggregator,
+                         @Nonnull Node<K, V> node)
+    {
+        if (node != this.node) {
+            throw new IllegalStateException("summary does not mirror node");
+        }
+        if (depth != node.depth()) {
+            throw new IllegalStateException("depth mismatch");
+        }
+        S expected;
+        if (depth == 0) {
+            expected = summarizeLeaf(aggregator, node);
+        } else {
+            final BranchNode<K, V> branch = (BranchNode<K, V>)node;
+            if (children.length != branch.childCount()) {
+                throw new IllegalStateException("child count mismatch");
+            }
+            expected = aggregator.identity();
+            for (int index = 0; index < children.length; ++index) {
+                final Node<K, V> childNode = branch.childAt(index);
+                final SummaryNode<K, V, S> child = children[index];
+                if (depth == 1) {
+                    if (child != null) {
+                        throw new IllegalStateException("leaf should not be mirrored");
+                    }
+                    expected = aggregator.combine(expected, summarizeLeaf(aggregator, childNode));
+                } else {
+                    child.checkInvariants(aggregator, childNode);
+                    expected = aggregator.combine(expected, child.summary);
+                }
+            }
+        }
+        if (!Objects.equals(expected, summary)) {
+            throw new IllegalStateException(String.format("summary mismatch: expected=%s actual=%s", expected, summary));
+        }
+    }
+
+    /**
+     * Creates the SummaryNode for node, a node at the given depth.  hint is the SummaryNode
+     * of the branch that previously occupied the position of node's parent.  Most children
+     * of a copied branch are found directly under hint so the paths from the roots of
+     * previous are only searched for branches that moved.
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    private static <K, V, S> SummaryNode<K, V, S> create(@Nonnull Aggregator<K, V, S> aggregator,
+                                                         @Nonnull Comparator<K> comparator,
+                                                         @Nonnull Node<K, V> node,
+                                                         int depth,
+                                                         @Nullable SummaryNode<K, V, S> hint,
+                                                         @Nonnull List<SummaryNode<K, V, S>> previous)
+    {
+        if (depth == 0) {
+            return new SummaryNode<>(node, 0, summarizeLeaf(aggregator, node), NO_CHILDREN);
+        }
+        final K key = node.baseKey();
+        SummaryNode<K, V, S> counterpart = (hint == null) ? null : hint.descend(comparator, key, depth);
+        if ((counterpart != null) && (counterpart.node == node)) {
+            return counterpart;
+        }
+        for (SummaryNode<K, V, S> candidate : previous) {
+            final SummaryNode<K, V, S> found = candidate.descend(comparator, key, depth);
+            if (found != null) {
+                if (found.node == node) {
+                    return found;
+                } else if (counterpart == null) {
+                    counterpart = found;
+                }
+            }
+        }
+        final BranchNode<K, V> branch = (BranchNode<K, V>)node;
+        final SummaryNode<K, V, S>[] children = new SummaryNode[branch.childCount()];
+        S summary = aggregator.identity();
+        for (int index = 0; index < children.length; ++index) {
+            final Node<K, V> childNode = branch.childAt(index);
+            if (depth == 1) {
+                summary = aggregator.combine(summary, summarizeLeaf(aggregator, childNode));
+            } else {
+                final SummaryNode<K, V, S> child = create(aggregator, comparator, childNode, depth - 1, counterpart, previous);
+                children[index] = child;
+                summary = aggregator.combine(summary, child.summary);
+            }
+        }
+        return new SummaryNode<>(node, depth, summary, children);
+    }
+
+    /**
+     * Follows the path to key down to the given depth.  Any SummaryNode for a branch with
+     * key as its base key must lie on this path.
+     */
+    @Nullable
+    private SummaryNode<K, V, S> descend(@Nonnull Comparator<K> comparator,
+                                         @Nonnull K key,
+                                         int targetDepth)
+    {
+        SummaryNode<K, V, S> current = this;
+        while (current.depth > targetDepth) {
+            final int index = ((BranchNode<K, V>)current.node).childIndex(comparator, key, -1);
+            if (index < 0) {
+                return null;
+            }
+            current = current.children[index];
+        }
+        return (current.depth == targetDepth) ? current : null;
+    }
+
+    private static <K, V, S> S summarizeLeaf(@Nonnull Aggregator<K, V, S> aggregator,
+                                             @Nonnull Node<K, V> node)
+    {
+        if (node.isEmpty()) {
+            return aggregator.identity();
+        }
+        final LeafNode<K, V> leaf = (LeafNode<K, V>)node;
+        return aggregator.summarize(leaf.getKey(), leaf.getValue());
+    }
+
+    private static <K, V, S> S aggregateLeaf(@Nonnull Aggregator<K, V, S> aggregator,
+                                             @Nonnull Comparator<K> comparator,
+                                             @Nonnull KeyRange<K> range,
+                                             @Nonnull Node<K, V> node)
+    {
+        if (node.isEmpty() || !range.contains(comparator, node.baseKey())) {
+            return aggregator.identity();
+        }
+        return summarizeLeaf(aggregator, node);
+    }
+}
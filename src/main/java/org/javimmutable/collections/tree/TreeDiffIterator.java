@@ -0,0 +1,187 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.tree;
+
+import org.javimmutable.collections.MapChange;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Iterator that walks two trees in parallel to find the changes needed to turn one into the
+ * other.  Each tree is represented by a stack of the unvisited nodes in key order.  Nodes
+ * are only expanded when their key ranges overlap with the other tree's next node so any
+ * subtree shared by both trees is skipped without visiting its entries.
+ */
+class TreeDiffIterator<K, V>
+    implements Iterator<MapChange<K, V>>
+{
+    private final Comparator<K> comparator;
+    private final Deque<Node<K, V>> oldNodes;
+    private final Deque<Node<K, V>> newNodes;
+    private MapChange<K, V> nextChange;
+
+    TreeDiffIterator(@Nonnull Comparator<K> comparator,
+                     @Nonnull Node<K, V> oldRoot,
+                     @Nonnull Node<K, V> newRoot)
+    {
+        this.comparator = comparator;
+        oldNodes = new ArrayDeque<>();
+        newNodes = new ArrayDeque<>();
+        push(oldNodes, oldRoot);
+        push(newNodes, newRoot);
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        while (nextChange == null) {
+            final Node<K, V> oldNode = oldNodes.peek();
+            final Node<K, V> newNode = newNodes.peek();
+            if (oldNode == null) {
+                if (newNode == null) {
+                    return false;
+                }
+                nextChange = added(newNodes);
+            } else if (newNode == null) {
+                nextChange = removed(oldNodes);
+            } else if (oldNode == newNode) {
+                oldNodes.pop();
+                newNodes.pop();
+            } else if ((oldNode instanceof LeafNode) && (newNode instanceof LeafNode)) {
+                nextChange = compareLeaves((LeafNode<K, V>)oldNode, (LeafNode<K, V>)newNode);
+            } else {
+                final int diff = comparator.compare(oldNode.baseKey(), newNode.baseKey());
+                if (diff < 0) {
+                    nextChange = removed(oldNodes);
+                } else if (diff > 0) {
+                    nextChange = added(newNodes);
+                } else if (oldNode.depth() > newNode.depth()) {
+                    expand(oldNodes);
+                } else if (oldNode.depth() < newNode.depth()) {
+                    expand(newNodes);
+                } else {
+                    expand(oldNodes);
+                    expand(newNodes);
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public MapChange<K, V> next()
+    {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final MapChange<K, V> answer = nextChange;
+        nextChange = null;
+        return answer;
+    }
+
+    private MapChange<K, V> compareLeaves(@Nonnull LeafNode<K, V> oldLeaf,
+                                          @Nonnull LeafNode<K, V> newLeaf)
+    {
+        final int diff = comparator.compare(oldLeaf.getKey(), newLeaf.getKey());
+        if (diff < 0) {
+            oldNodes.pop();
+            return MapChange.removed(oldLeaf.getKey(), oldLeaf.getValue());
+        } else if (diff > 0) {
+            newNodes.pop();
+            return MapChange.added(newLeaf.getKey(), newLeaf.getValue());
+        } else {
+            oldNodes.pop();
+            newNodes.pop();
+            if (Objects.equals(oldLeaf.getValue(), newLeaf.getValue())) {
+                return null;
+            } else {
+                return MapChange.changed(oldLeaf.getKey(), oldLeaf.getValue(), newLeaf.getValue());
+            }
+        }
+    }
+
+    /**
+     * Pops the head of the stack if it is a leaf and returns an ADDED change for it.
+     * Otherwise expands the head and returns null.
+     */
+    private MapChange<K, V> added(@Nonnull Deque<Node<K, V>> nodes)
+    {
+        if (nodes.peek() instanceof LeafNode) {
+            final LeafNode<K, V> leaf = (LeafNode<K, V>)nodes.pop();
+            return MapChange.added(leaf.getKey(), leaf.getValue());
+        } else {
+            expand(nodes);
+            return null;
+        }
+    }
+
+    /**
+     * Pops the head of the stack if it is a leaf and returns a REMOVED change for it.
+     * Otherwise expands the head and returns null.
+     */
+    private MapChange<K, V> removed(@Nonnull Deque<Node<K, V>> nodes)
+    {
+        if (nodes.peek() instanceof LeafNode) {
+            final LeafNode<K, V> leaf = (LeafNode<K, V>)nodes.pop();
+            return MapChange.removed(leaf.getKey(), leaf.getValue());
+        } else {
+            expand(nodes);
+            return null;
+        }
+    }
+
+    private void expand(@Nonnull Deque<Node<K, V>> nodes)
+    {
+        final Node<K, V>[] children = ((BranchNode<K, V>)nodes.pop()).getChildren();
+        for (int i = children.length - 1; i >= 0; --i) {
+            nodes.push(children[i]);
+        }
+    }
+
+    private static <K, V> void push(@Nonnull Deque<Node<K, V>> nodes,
+                                    @Nonnull Node<K, V> node)
+    {
+        if (!node.isEmpty()) {
+            nodes.push(node);
+        }
+    }
+}
@@ -0,0 +1,401 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.tree;
+
+import org.javimmutable.collections.Cursor;
+import org.javimmutable.collections.Cursorable;
+import org.javimmutable.collections.Holder;
+import org.javimmutable.collections.Holders;
+import org.javimmutable.collections.IterableStreamable;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.SplitableIterator;
+import org.javimmutable.collections.common.Conditions;
+import org.javimmutable.collections.common.StreamConstants;
+import org.javimmutable.collections.iterators.SplitableIterableStreamable;
+import org.javimmutable.collections.iterators.TransformStreamable;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import java.util.Comparator;
+
+/**
+ * Read only view of the entries of a JImmutableTreeMap whose keys lie within a range.  Creating
+ * a view takes constant time and does not copy any part of the map.  Lookups take O(log n) time
+ * and iterating over the k entries in the view takes O(log n + k) time since cursors and iterators
+ * seek directly to the start of the range and stop at its end.  The view always reflects the map
+ * it was created from so it remains valid even after new versions of that map have been created.
+ */
+@Immutable
+public class TreeMapRange<K, V>
+    implements IterableStreamable<JImmutableMap.Entry<K, V>>,
+               Cursorable<JImmutableMap.Entry<K, V>>
+{
+    private final Comparator<K> comparator;
+    private final Node<K, V> root;
+    private final KeyRange<K> range;
+
+    TreeMapRange(@Nonnull Comparator<K> comparator,
+                 @Nonnull Node<K, V> root,
+                 @Nonnull KeyRange<K> range)
+    {
+        this.comparator = comparator;
+        this.root = root;
+        this.range = range;
+    }
+
+    @Nonnull
+    public Comparator<K> getComparator()
+    {
+        return comparator;
+    }
+
+    public V get(@Nonnull K key)
+    {
+        return getValueOr(key, null);
+    }
+
+    public V getValueOr(@Nonnull K key,
+                        V defaultValue)
+    {
+        Conditions.stopNull(key);
+        return range.contains(comparator, key) ? root.getValueOr(comparator, key, defaultValue) : defaultValue;
+    }
+
+    @Nonnull
+    public Holder<V> find(@Nonnull K key)
+    {
+        Conditions.stopNull(key);
+        return range.contains(comparator, key) ? root.find(comparator, key) : Holders.of();
+    }
+
+    @Nonnull
+    public Holder<JImmutableMap.Entry<K, V>> findEntry(@Nonnull K key)
+    {
+        Conditions.stopNull(key);
+        return range.contains(comparator, key) ? root.findEntry(comparator, key) : Holders.of();
+    }
+
+    public boolean isEmpty()
+    {
+        return firstEntry().isEmpty();
+    }
+
+    /**
+     * Counts the entries in the view.  Takes O(log n) time.
+     */
+    public int size()
+    {
+        return Math.max(0, countBelowHigh() - countBelowLow());
+    }
+
+    /**
+     * Returns the entry at the specified position within the view in key order.  Takes O(log n) time.
+     *
+     * @throws IndexOutOfBoundsException if index is negative or not less than size()
+     */
+    @Nonnull
+    public JImmutableMap.Entry<K, V> getEntryAt(int index)
+    {
+        if ((index < 0) || (index >= size())) {
+            throw new IndexOutOfBoundsException();
+        }
+        return root.getEntryAt(countBelowLow() + index);
+    }
+
+    /**
+     * Returns the position of key within the view in key order or -1 if the view does not
+     * contain key.  Takes O(log n) time.
+     */
+    public int indexOf(@Nonnull K key)
+    {
+        return find(key).isFilled() ? root.countBelow(comparator, key, false) - countBelowLow() : -1;
+    }
+
+    /**
+     * Finds the entry with the least key in the view.
+     */
+    @Nonnull
+    public Holder<JImmutableMap.Entry<K, V>> firstEntry()
+    {
+        if (range.hasLow()) {
+            return withinHigh(root.findEntryAbove(comparator, range.getLow(), range.isLowInclusive()));
+        } else {
+            return withinHigh(root.firstEntry());
+        }
+    }
+
+    /**
+     * Finds the entry with the greatest key in the view.
+     */
+    @Nonnull
+    public Holder<JImmutableMap.Entry<K, V>> lastEntry()
+    {
+        if (range.hasHigh()) {
+            return withinLow(root.findEntryBelow(comparator, range.getHigh(), range.isHighInclusive()));
+        } else {
+            return withinLow(root.lastEntry());
+        }
+    }
+
+    /**
+     * Finds the entry in the view with the greatest key less than or equal to key.
+     */
+    @Nonnull
+    public Holder<JImmutableMap.Entry<K, V>> floorEntry(@Nonnull K key)
+    {
+        return below(key, true);
+    }
+
+    /**
+     * Finds the entry in the view with the least key greater than or equal to key.
+     */
+    @Nonnull
+    public Holder<JImmutableMap.Entry<K, V>> ceilingEntry(@Nonnull K key)
+    {
+        return above(key, true);
+    }
+
+    /**
+     * Finds the entry in the view with the greatest key strictly less than key.
+     */
+    @Nonnull
+    public Holder<JImmutableMap.Entry<K, V>> lowerEntry(@Nonnull K key)
+    {
+        return below(key, false);
+    }
+
+    /**
+     * Finds the entry in the view with the least key strictly greater than key.
+     */
+    @Nonnull
+    public Holder<JImmutableMap.Entry<K, V>> higherEntry(@Nonnull K key)
+    {
+        return above(key, false);
+    }
+
+    /**
+     * Narrows this view to the keys from fromKey (inclusive) to toKey (exclusive).
+     */
+    @Nonnull
+    public TreeMapRange<K, V> subMap(@Nonnull K fromKey,
+                                     @Nonnull K toKey)
+    {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    /**
+     * Narrows this view to the keys between fromKey and toKey.
+     */
+    @Nonnull
+    public TreeMapRange<K, V> subMap(@Nonnull K fromKey,
+                                     boolean fromInclusive,
+                                     @Nonnull K toKey,
+                                     boolean toInclusive)
+    {
+        Conditions.stopNull(fromKey, toKey);
+        return withRange(range.withLow(comparator, fromKey, fromInclusive).withHigh(comparator, toKey, toInclusive));
+    }
+
+    /**
+     * Narrows this view to the keys less than toKey.
+     */
+    @Nonnull
+    public TreeMapRange<K, V> headMap(@Nonnull K toKey)
+    {
+        return headMap(toKey, false);
+    }
+
+    /**
+     * Narrows this view to the keys less than (or equal to if inclusive is true) toKey.
+     */
+    @Nonnull
+    public TreeMapRange<K, V> headMap(@Nonnull K toKey,
+                                      boolean inclusive)
+    {
+        Conditions.stopNull(toKey);
+        return withRange(range.withHigh(comparator, toKey, inclusive));
+    }
+
+    /**
+     * Narrows this view to the keys greater than or equal to fromKey.
+     */
+    @Nonnull
+    public TreeMapRange<K, V> tailMap(@Nonnull K fromKey)
+    {
+        return tailMap(fromKey, true);
+    }
+
+    /**
+     * Narrows this view to the keys greater than (or equal to if inclusive is true) fromKey.
+     */
+    @Nonnull
+    public TreeMapRange<K, V> tailMap(@Nonnull K fromKey,
+                                      boolean inclusive)
+    {
+        Conditions.stopNull(fromKey);
+        return withRange(range.withLow(comparator, fromKey, inclusive));
+    }
+
+    @Nonnull
+    public IterableStreamable<K> keys()
+    {
+        return TransformStreamable.ofKeys(this);
+    }
+
+    @Nonnull
+    public IterableStreamable<V> values()
+    {
+        return TransformStreamable.ofValues(this);
+    }
+
+    /**
+     * Creates a new JImmutableTreeMap containing only the entries in the view.
+     */
+    @Nonnull
+    public JImmutableTreeMap<K, V> toMap()
+    {
+        JImmutableTreeMap<K, V> answer = JImmutableTreeMap.of(comparator);
+        for (SplitableIterator<JImmutableMap.Entry<K, V>> i = iterator(); i.hasNext(); ) {
+            final JImmutableMap.Entry<K, V> entry = i.next();
+            answer = answer.assign(entry.getKey(), entry.getValue());
+        }
+        return answer;
+    }
+
+    @Nonnull
+    @Override
+    public Cursor<JImmutableMap.Entry<K, V>> cursor()
+    {
+        return root.cursor(comparator, range);
+    }
+
+    @Nonnull
+    @Override
+    public SplitableIterator<JImmutableMap.Entry<K, V>> iterator()
+    {
+        return root.iterator(comparator, range);
+    }
+
+    /**
+     * Returns a Cursor over the entries in descending key order.  Finding the last entry takes
+     * O(log n) time and each following entry takes amortized constant time.
+     */
+    @Nonnull
+    public Cursor<JImmutableMap.Entry<K, V>> descendingCursor()
+    {
+        return root.descendingCursor(comparator, range);
+    }
+
+    /**
+     * Returns an iterator over the entries in descending key order.  Finding the last entry takes
+     * O(log n) time and each following entry takes amortized constant time.
+     */
+    @Nonnull
+    public SplitableIterator<JImmutableMap.Entry<K, V>> descendingIterator()
+    {
+        return root.descendingIterator(comparator, range);
+    }
+
+    /**
+     * Returns a view of the entries in descending key order, for example to stream the last
+     * entries of the range using limit().
+     */
+    @Nonnull
+    public IterableStreamable<JImmutableMap.Entry<K, V>> reverse()
+    {
+        return SplitableIterableStreamable.of(this::descendingIterator, StreamConstants.SPLITERATOR_ORDERED);
+    }
+
+    @Override
+    public int getSpliteratorCharacteristics()
+    {
+        return StreamConstants.SPLITERATOR_ORDERED;
+    }
+
+    KeyRange<K> getRange()
+    {
+        return range;
+    }
+
+    private int countBelowLow()
+    {
+        return range.hasLow() ? root.countBelow(comparator, range.getLow(), !range.isLowInclusive()) : 0;
+    }
+
+    private int countBelowHigh()
+    {
+        return range.hasHigh() ? root.countBelow(comparator, range.getHigh(), range.isHighInclusive()) : root.valueCount();
+    }
+
+    private TreeMapRange<K, V> withRange(@Nonnull KeyRange<K> newRange)
+    {
+        return (newRange == range) ? this : new TreeMapRange<>(comparator, root, newRange);
+    }
+
+    private Holder<JImmutableMap.Entry<K, V>> below(@Nonnull K key,
+                                                    boolean inclusive)
+    {
+        Conditions.stopNull(key);
+        final Holder<JImmutableMap.Entry<K, V>> answer = root.findEntryBelow(comparator, key, inclusive);
+        if (answer.isFilled() && range.isTooHigh(comparator, answer.getValue().getKey())) {
+            // key is above the range so every entry in the view is below it
+            return lastEntry();
+        }
+        return withinLow(answer);
+    }
+
+    private Holder<JImmutableMap.Entry<K, V>> above(@Nonnull K key,
+                                                    boolean inclusive)
+    {
+        Conditions.stopNull(key);
+        final Holder<JImmutableMap.Entry<K, V>> answer = root.findEntryAbove(comparator, key, inclusive);
+        if (answer.isFilled() && range.isTooLow(comparator, answer.getValue().getKey())) {
+            // key is below the range so every entry in the view is above it
+            return firstEntry();
+        }
+        return withinHigh(answer);
+    }
+
+    private Holder<JImmutableMap.Entry<K, V>> withinLow(@Nonnull Holder<JImmutableMap.Entry<K, V>> entry)
+    {
+        return entry.isFilled() && range.isTooLow(comparator, entry.getValue().getKey()) ? Holders.of() : entry;
+    }
+
+    private Holder<JImmutableMap.Entry<K, V>> withinHigh(@Nonnull Holder<JImmutableMap.Entry<K, V>> entry)
+    {
+        return entry.isFilled() && range.isTooHigh(comparator, entry.getValue().getKey()) ? Holders.of() : entry;
+    }
+}
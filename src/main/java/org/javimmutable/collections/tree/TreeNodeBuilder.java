@@ -0,0 +1,196 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.tree;
+
+import org.javimmutable.collections.JImmutableMap;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Mutable builder object for constructing well formed trees from a sequence of key/value
+ * pairs.  Keys are normally expected to arrive in ascending order and each one is compared
+ * only to its predecessor.  Keys added out of order are detected and the leaves are then
+ * sorted before the tree is built.  When a key is added more than once its last value is
+ * used just as with assign() so a repeated key replaces the original key only if its value
+ * is a different object.  The build() method can be called multiple times safely.
+ * <p>
+ * Trees are built bottom up by packing TARGET_CHILDREN nodes into each branch so that
+ * every branch has room for further inserts before it needs to be split.  No comparisons
+ * are needed to build the tree and each node is created exactly once.
+ */
+class TreeNodeBuilder<K, V>
+{
+    static final int TARGET_CHILDREN = (Node.MIN_CHILDREN + Node.MAX_CHILDREN) / 2;
+
+    private final Comparator<K> comparator;
+    private final List<LeafNode<K, V>> leaves;
+    private boolean sorted;
+
+    TreeNodeBuilder(@Nonnull Comparator<K> comparator)
+    {
+        this.comparator = comparator;
+        leaves = new ArrayList<>();
+        sorted = true;
+    }
+
+    int size()
+    {
+        normalize();
+        return leaves.size();
+    }
+
+    void add(@Nonnull K key,
+             V value)
+    {
+        add(new LeafNode<>(key, value));
+    }
+
+    /**
+     * Same as add(key, value) except that an entry which is already a LeafNode is added
+     * to the tree directly rather than copied.
+     */
+    void add(@Nonnull JImmutableMap.Entry<K, V> entry)
+    {
+        final LeafNode<K, V> leaf = (entry instanceof LeafNode) ? (LeafNode<K, V>)entry : new LeafNode<>(entry.getKey(), entry.getValue());
+        final int last = leaves.size() - 1;
+        if (last >= 0) {
+            final int diff = comparator.compare(leaves.get(last).getKey(), leaf.getKey());
+            if (diff == 0) {
+                if (leaves.get(last).getValue() != leaf.getValue()) {
+                    leaves.set(last, leaf);
+                }
+                return;
+            } else if (diff > 0) {
+                sorted = false;
+            }
+        }
+        leaves.add(leaf);
+    }
+
+    /**
+     * Appends all of the leaves of other to this builder.  The leaves remain sorted if
+     * every key in other is greater than every key in this builder.
+     */
+    void combineWith(@Nonnull TreeNodeBuilder<K, V> other)
+    {
+        if (!other.leaves.isEmpty()) {
+            if (!leaves.isEmpty()) {
+                final K lastKey = leaves.get(leaves.size() - 1).getKey();
+                final K otherFirstKey = other.leaves.get(0).getKey();
+                sorted = sorted && other.sorted && (comparator.compare(lastKey, otherFirstKey) < 0);
+            } else {
+                sorted = other.sorted;
+            }
+            leaves.addAll(other.leaves);
+        }
+    }
+
+    @Nonnull
+    Node<K, V> build()
+    {
+        normalize();
+        if (leaves.isEmpty()) {
+            return EmptyNode.of();
+        }
+        Node<K, V>[] nodes = leaves.toArray(allocate(leaves.size()));
+        while (nodes.length > 1) {
+            nodes = packLevel(nodes);
+        }
+        return nodes[0];
+    }
+
+    /**
+     * Sorts the leaves (if necessary) and removes all but one leaf for each key.  The sort is
+     * stable so the leaves for each key remain in the order they were added and can be
+     * resolved the same way add() resolves a repeated key.
+     */
+    private void normalize()
+    {
+        if (!sorted) {
+            leaves.sort((a, b) -> comparator.compare(a.getKey(), b.getKey()));
+            int count = 0;
+            for (LeafNode<K, V> leaf : leaves) {
+                if ((count > 0) && (comparator.compare(leaves.get(count - 1).getKey(), leaf.getKey()) == 0)) {
+                    if (leaves.get(count - 1).getValue() != leaf.getValue()) {
+                        leaves.set(count - 1, leaf);
+                    }
+                } else {
+                    leaves.set(count++, leaf);
+                }
+            }
+            leaves.subList(count, leaves.size()).clear();
+            sorted = true;
+        }
+    }
+
+    /**
+     * Groups the nodes of one level into branches for the level above it.  The nodes are
+     * divided as evenly as possible into groups of about TARGET_CHILDREN.  With more than
+     * MAX_CHILDREN nodes every group gets at least MIN_CHILDREN of them.
+     */
+    @Nonnull
+    private static <K, V> Node<K, V>[] packLevel(@Nonnull Node<K, V>[] nodes)
+    {
+        final int count = nodes.length;
+        if (count <= Node.MAX_CHILDREN) {
+            final Node<K, V>[] answer = allocate(1);
+            answer[0] = new BranchNode<>(nodes);
+            return answer;
+        }
+        final int groupCount = (count + TARGET_CHILDREN - 1) / TARGET_CHILDREN;
+        final int groupSize = count / groupCount;
+        final int largerGroupCount = count % groupCount;
+        final Node<K, V>[] answer = allocate(groupCount);
+        int offset = 0;
+        for (int i = 0; i < groupCount; ++i) {
+            final int limit = offset + groupSize + ((i < largerGroupCount) ? 1 : 0);
+            answer[i] = new BranchNode<>(Arrays.copyOfRange(nodes, offset, limit));
+            offset = limit;
+        }
+        return answer;
+    }
+
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V>[] allocate(int size)
+    {
+        return (Node<K, V>[])new Node[size];
+    }
+}
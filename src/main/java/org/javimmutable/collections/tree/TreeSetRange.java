@@ -0,0 +1,288 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.tree;
+
+import org.javimmutable.collections.Cursor;
+import org.javimmutable.collections.Cursorable;
+import org.javimmutable.collections.Holder;
+import org.javimmutable.collections.IterableStreamable;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.SplitableIterator;
+import org.javimmutable.collections.common.StreamConstants;
+import org.javimmutable.collections.cursors.TransformCursor;
+import org.javimmutable.collections.iterators.TransformIterator;
+import org.javimmutable.collections.iterators.TransformStreamable;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.util.Comparator;
+
+/**
+ * Read only view of the values of a JImmutableTreeSet that lie within a range.  Has the same
+ * performance characteristics as TreeMapRange.
+ */
+@Immutable
+public class TreeSetRange<T>
+    implements IterableStreamable<T>,
+               Cursorable<T>
+{
+    private final TreeMapRange<T, Boolean> map;
+
+    TreeSetRange(@Nonnull TreeMapRange<T, Boolean> map)
+    {
+        this.map = map;
+    }
+
+    @Nonnull
+    public Comparator<T> getComparator()
+    {
+        return map.getComparator();
+    }
+
+    public boolean contains(@Nullable T value)
+    {
+        return (value != null) && map.getValueOr(value, Boolean.FALSE);
+    }
+
+    public boolean isEmpty()
+    {
+        return map.isEmpty();
+    }
+
+    /**
+     * Counts the values in the view.  Takes O(log n) time.
+     */
+    public int size()
+    {
+        return map.size();
+    }
+
+    /**
+     * Returns the value at the specified position within the view in sorted order.  Takes O(log n) time.
+     *
+     * @throws IndexOutOfBoundsException if index is negative or not less than size()
+     */
+    @Nonnull
+    public T getValueAt(int index)
+    {
+        return map.getEntryAt(index).getKey();
+    }
+
+    /**
+     * Returns the position of value within the view in sorted order or -1 if the view does not
+     * contain value.  Takes O(log n) time.
+     */
+    public int indexOf(@Nonnull T value)
+    {
+        return map.indexOf(value);
+    }
+
+    /**
+     * Finds the least value in the view.
+     */
+    @Nonnull
+    public Holder<T> first()
+    {
+        return map.firstEntry().map(JImmutableMap.Entry::getKey);
+    }
+
+    /**
+     * Finds the greatest value in the view.
+     */
+    @Nonnull
+    public Holder<T> last()
+    {
+        return map.lastEntry().map(JImmutableMap.Entry::getKey);
+    }
+
+    /**
+     * Finds the greatest value in the view less than or equal to value.
+     */
+    @Nonnull
+    public Holder<T> floor(@Nonnull T value)
+    {
+        return map.floorEntry(value).map(JImmutableMap.Entry::getKey);
+    }
+
+    /**
+     * Finds the least value in the view greater than or equal to value.
+     */
+    @Nonnull
+    public Holder<T> ceiling(@Nonnull T value)
+    {
+        return map.ceilingEntry(value).map(JImmutableMap.Entry::getKey);
+    }
+
+    /**
+     * Finds the greatest value in the view strictly less than value.
+     */
+    @Nonnull
+    public Holder<T> lower(@Nonnull T value)
+    {
+        return map.lowerEntry(value).map(JImmutableMap.Entry::getKey);
+    }
+
+    /**
+     * Finds the least value in the view strictly greater than value.
+     */
+    @Nonnull
+    public Holder<T> higher(@Nonnull T value)
+    {
+        return map.higherEntry(value).map(JImmutableMap.Entry::getKey);
+    }
+
+    /**
+     * Narrows this view to the values from fromValue (inclusive) to toValue (exclusive).
+     */
+    @Nonnull
+    public TreeSetRange<T> subSet(@Nonnull T fromValue,
+                                  @Nonnull T toValue)
+    {
+        return withMap(map.subMap(fromValue, toValue));
+    }
+
+    /**
+     * Narrows this view to the values between fromValue and toValue.
+     */
+    @Nonnull
+    public TreeSetRange<T> subSet(@Nonnull T fromValue,
+                                  boolean fromInclusive,
+                                  @Nonnull T toValue,
+                                  boolean toInclusive)
+    {
+        return withMap(map.subMap(fromValue, fromInclusive, toValue, toInclusive));
+    }
+
+    /**
+     * Narrows this view to the values less than toValue.
+     */
+    @Nonnull
+    public TreeSetRange<T> headSet(@Nonnull T toValue)
+    {
+        return withMap(map.headMap(toValue));
+    }
+
+    /**
+     * Narrows this view to the values less than (or equal to if inclusive is true) toValue.
+     */
+    @Nonnull
+    public TreeSetRange<T> headSet(@Nonnull T toValue,
+                                   boolean inclusive)
+    {
+        return withMap(map.headMap(toValue, inclusive));
+    }
+
+    /**
+     * Narrows this view to the values greater than or equal to fromValue.
+     */
+    @Nonnull
+    public TreeSetRange<T> tailSet(@Nonnull T fromValue)
+    {
+        return withMap(map.tailMap(fromValue));
+    }
+
+    /**
+     * Narrows this view to the values greater than (or equal to if inclusive is true) fromValue.
+     */
+    @Nonnull
+    public TreeSetRange<T> tailSet(@Nonnull T fromValue,
+                                   boolean inclusive)
+    {
+        return withMap(map.tailMap(fromValue, inclusive));
+    }
+
+    /**
+     * Creates a new JImmutableTreeSet containing only the values in the view.
+     */
+    @Nonnull
+    public JImmutableTreeSet<T> toSet()
+    {
+        return new JImmutableTreeSet<>(map.toMap(), getComparator());
+    }
+
+    @Nonnull
+    @Override
+    public Cursor<T> cursor()
+    {
+        return TransformCursor.ofKeys(map.cursor());
+    }
+
+    @Nonnull
+    @Override
+    public SplitableIterator<T> iterator()
+    {
+        return TransformIterator.of(map.iterator(), JImmutableMap.Entry::getKey);
+    }
+
+    /**
+     * Returns a Cursor over the values in descending order.
+     */
+    @Nonnull
+    public Cursor<T> descendingCursor()
+    {
+        return TransformCursor.ofKeys(map.descendingCursor());
+    }
+
+    /**
+     * Returns an iterator over the values in descending order.
+     */
+    @Nonnull
+    public SplitableIterator<T> descendingIterator()
+    {
+        return TransformIterator.of(map.descendingIterator(), JImmutableMap.Entry::getKey);
+    }
+
+    /**
+     * Returns a view of the values in descending order.
+     */
+    @Nonnull
+    public IterableStreamable<T> reverse()
+    {
+        return TransformStreamable.ofKeys(map.reverse());
+    }
+
+    @Override
+    public int getSpliteratorCharacteristics()
+    {
+        return StreamConstants.SPLITERATOR_ORDERED;
+    }
+
+    private TreeSetRange<T> withMap(@Nonnull TreeMapRange<T, Boolean> newMap)
+    {
+        return (newMap == map) ? this : new TreeSetRange<>(newMap);
+    }
+}
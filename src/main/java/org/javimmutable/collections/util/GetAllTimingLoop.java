@@ -0,0 +1,120 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.util;
+
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.hash.JImmutableHashMap;
+import org.javimmutable.collections.tree.JImmutableTreeMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the time needed to look up batches of keys using one getValueOr() per key
+ * with the time needed using getAll() for hash (standard and compact) and tree maps.
+ */
+public final class GetAllTimingLoop
+{
+    private GetAllTimingLoop()
+    {
+    }
+
+    public static void main(String[] args)
+    {
+        final int size = (args.length > 0) ? Integer.parseInt(args[0]) : 1000000;
+        final int batchSize = (args.length > 1) ? Integer.parseInt(args[1]) : 200;
+        final int batches = (args.length > 2) ? Integer.parseInt(args[2]) : 5000;
+        final int passes = (args.length > 3) ? Integer.parseInt(args[3]) : 5;
+        final Random random = new Random(1000);
+
+        final JImmutableHashMap.Transient<Integer, Integer> hashBuilder = JImmutableHashMap.builder();
+        final JImmutableHashMap.Transient<Integer, Integer> compactBuilder = JImmutableHashMap.<Integer, Integer>compactOf().toTransient();
+        JImmutableMap<Integer, Integer> treeMap = JImmutableTreeMap.of();
+        for (int i = 0; i < size; ++i) {
+            final int key = random.nextInt(2 * size);
+            hashBuilder.assign(key, i);
+            compactBuilder.assign(key, i);
+            treeMap = treeMap.assign(key, i);
+        }
+        final JImmutableMap<Integer, Integer> hashMap = hashBuilder.freeze();
+        final JImmutableMap<Integer, Integer> compactMap = compactBuilder.freeze();
+
+        final List<List<Integer>> keyBatches = new ArrayList<>();
+        for (int b = 0; b < batches; ++b) {
+            final List<Integer> keys = new ArrayList<>(batchSize);
+            for (int i = 0; i < batchSize; ++i) {
+                keys.add(random.nextInt(2 * size));
+            }
+            keyBatches.add(keys);
+        }
+
+        for (int pass = 1; pass <= passes; ++pass) {
+            time(pass, "hash", hashMap, keyBatches);
+            time(pass, "compact", compactMap, keyBatches);
+            time(pass, "tree", treeMap, keyBatches);
+        }
+    }
+
+    private static void time(int pass,
+                             String name,
+                             JImmutableMap<Integer, Integer> map,
+                             List<List<Integer>> keyBatches)
+    {
+        long start = System.currentTimeMillis();
+        long singleTotal = 0;
+        for (List<Integer> keys : keyBatches) {
+            for (Integer key : keys) {
+                singleTotal += map.getValueOr(key, 0);
+            }
+        }
+        final long singleElapsed = System.currentTimeMillis() - start;
+
+        start = System.currentTimeMillis();
+        long batchTotal = 0;
+        for (List<Integer> keys : keyBatches) {
+            for (Integer value : map.getAll(keys, 0)) {
+                batchTotal += value;
+            }
+        }
+        final long batchElapsed = System.currentTimeMillis() - start;
+
+        if (singleTotal != batchTotal) {
+            throw new IllegalStateException("lookups do not match");
+        }
+        System.out.printf("pass %d %s single %d ms getAll %d ms%n", pass, name, singleElapsed, batchElapsed);
+    }
+}
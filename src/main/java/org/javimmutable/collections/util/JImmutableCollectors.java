@@ -103,7 +103,7 @@ public final class JImmutableCollectors
     @Nonnull
     public static <T extends Comparable<T>> Collector<T, ?, JImmutableSet<T>> toSortedSet()
     {
-        return JImmutables.<T>sortedSet().setCollector();
+        return JImmutables.sortedSetCollector();
     }
 
     /**
@@ -113,7 +113,7 @@ public final class JImmutableCollectors
     @Nonnull
     public static <T> Collector<T, ?, JImmutableSet<T>> toSortedSet(@Nonnull Comparator<T> comparator)
     {
-        return JImmutables.sortedSet(comparator).setCollector();
+        return JImmutables.sortedSetCollector(comparator);
     }
 
     /**
@@ -52,6 +52,8 @@ import org.javimmutable.collections.btree_list.JImmutableBtreeList;
 import org.javimmutable.collections.hash.JImmutableHashMap;
 import org.javimmutable.collections.hash.JImmutableHashMultiset;
 import org.javimmutable.collections.hash.JImmutableHashSet;
+import org.javimmutable.collections.hash.JImmutableIntHashMap;
+import org.javimmutable.collections.hash.JImmutableLongHashMap;
 import org.javimmutable.collections.indexed.IndexedArray;
 import org.javimmutable.collections.indexed.IndexedList;
 import org.javimmutable.collections.inorder.JImmutableInsertOrderMap;
@@ -59,6 +61,7 @@ import org.javimmutable.collections.inorder.JImmutableInsertOrderMultiset;
 import org.javimmutable.collections.inorder.JImmutableInsertOrderSet;
 import org.javimmutable.collections.list.JImmutableArrayList;
 import org.javimmutable.collections.list.JImmutableLinkedStack;
+import org.javimmutable.collections.list.JImmutableRrbList;
 import org.javimmutable.collections.listmap.JImmutableHashListMap;
 import org.javimmutable.collections.listmap.JImmutableInsertOrderListMap;
 import org.javimmutable.collections.listmap.JImmutableTreeListMap;
@@ -68,7 +71,10 @@ import org.javimmutable.collections.setmap.JImmutableHashSetMap;
 import org.javimmutable.collections.setmap.JImmutableInsertOrderSetMap;
 import org.javimmutable.collections.setmap.JImmutableTemplateSetMap;
 import org.javimmutable.collections.setmap.JImmutableTreeSetMap;
+import org.javimmutable.collections.tree.Aggregator;
 import org.javimmutable.collections.tree.ComparableComparator;
+import org.javimmutable.collections.tree.JImmutableAugmentedTreeMap;
+import org.javimmutable.collections.tree.JImmutableLongTreeMap;
 import org.javimmutable.collections.tree.JImmutableTreeMap;
 import org.javimmutable.collections.tree.JImmutableTreeMultiset;
 import org.javimmutable.collections.tree.JImmutableTreeSet;
@@ -269,6 +275,19 @@ public final class JImmutables
         return JImmutableBtreeList.of();
     }
 
+    /**
+     * Produces an empty JImmutableRandomAccessList built atop a relaxed radix balanced tree.
+     * <p>
+     * Implementation note: Lists built by appending are as fast to read as the 32-way tree lists.
+     * Inserts, deletes, concatenation and splitting anywhere in the list take O(log n) time but
+     * make reads of the affected parts of the list slightly slower.
+     */
+    @Nonnull
+    public static <T> JImmutableRrbList<T> rrblist()
+    {
+        return JImmutableRrbList.of();
+    }
+
     /**
      * Produces a MutableBuilder to efficiently construct a JImmutableRandomAccessList built atop a B-Tree.
      * <p>
@@ -403,6 +422,76 @@ public final class JImmutables
         }
     }
 
+    /**
+     * Constructs an empty unsorted map that uses the compact (CHAMP style) node layout.
+     * Compact maps use fewer objects per entry than the maps produced by map() which
+     * reduces memory use and speeds up iteration and lookups for large maps.
+     * <p>
+     * Implementation note: The map will adopt a hash code collision strategy based on
+     * the first key assigned to the map.  The same restrictions apply as for map().
+     * Transients created from compact maps do not edit nodes in place so use mapBuilder()
+     * when building a large map from many individual entries.
+     */
+    @Nonnull
+    public static <K, V> JImmutableMap<K, V> compactMap()
+    {
+        return JImmutableHashMap.compactOf();
+    }
+
+    /**
+     * Produces a Transient for efficiently constructing an unsorted map by modifying
+     * its nodes in place.  Call freeze() on the Transient to obtain the immutable map.
+     * <p>
+     * Implementation note: The map will adopt a hash code collision strategy based on
+     * the first key assigned to the Transient.  The same restrictions apply as for map().
+     */
+    @Nonnull
+    public static <K, V> JImmutableHashMap.Transient<K, V> mapBuilder()
+    {
+        return JImmutableHashMap.builder();
+    }
+
+    /**
+     * Constructs an empty unsorted map with int keys.  Keys are stored as primitives and the
+     * int based methods of the returned map never box their keys.
+     */
+    @Nonnull
+    public static <V> JImmutableIntHashMap<V> intMap()
+    {
+        return JImmutableIntHashMap.of();
+    }
+
+    /**
+     * Constructs an empty unsorted map with long keys.  Keys are stored as primitives and the
+     * long based methods of the returned map never box their keys.
+     */
+    @Nonnull
+    public static <V> JImmutableLongHashMap<V> longMap()
+    {
+        return JImmutableLongHashMap.of();
+    }
+
+    /**
+     * Constructs an empty map with long keys sorted in ascending order.  Keys are stored as
+     * primitives and the long based methods of the returned map never box their keys.
+     */
+    @Nonnull
+    public static <V> JImmutableLongTreeMap<V> sortedLongMap()
+    {
+        return JImmutableLongTreeMap.of();
+    }
+
+    /**
+     * Constructs an empty map that sorts keys in their natural sort order (using ComparableComparator)
+     * and maintains summaries of its entries using aggregator so that the summary of any range of
+     * keys can be computed in O(log n) time.
+     */
+    @Nonnull
+    public static <K extends Comparable<K>, V, S> JImmutableAugmentedTreeMap<K, V, S> augmentedMap(@Nonnull Aggregator<K, V, S> aggregator)
+    {
+        return JImmutableAugmentedTreeMap.of(aggregator);
+    }
+
     /**
      * Constructs an empty map that sorts keys in their natural sort order (using ComparableComparator).
      */
@@ -421,7 +510,7 @@ public final class JImmutables
     @Nonnull
     public static <K extends Comparable<K>, V> JImmutableMap<K, V> sortedMap(@Nonnull Map<K, V> source)
     {
-        return Functions.assignAll(JImmutableTreeMap.of(), source);
+        return sortedMap(ComparableComparator.of(), source);
     }
 
     /**
@@ -468,7 +557,11 @@ public final class JImmutables
     public static <K, V> JImmutableMap<K, V> sortedMap(@Nonnull Comparator<K> comparator,
                                                        @Nonnull Map<K, V> source)
     {
-        return Functions.assignAll(JImmutableTreeMap.of(comparator), source);
+        final JImmutableTreeMap.Builder<K, V> builder = JImmutableTreeMap.builder(comparator);
+        for (Map.Entry<K, V> entry : source.entrySet()) {
+            builder.add(entry.getKey(), entry.getValue());
+        }
+        return builder.build();
     }
 
     /**
@@ -494,7 +587,7 @@ public final class JImmutables
                 return source;
             }
         }
-        return Functions.assignAll(JImmutableTreeMap.of(comparator), source);
+        return JImmutableTreeMap.<K, V>builder(comparator).add(source).build();
     }
 
     /**
@@ -639,6 +732,31 @@ public final class JImmutables
         return JImmutables.<T>set().setCollector();
     }
 
+    /**
+     * Constructs an empty unsorted set that uses the compact (CHAMP style) node layout.
+     * <p>
+     * Implementation note: The set will adopt a hash code collision strategy based on
+     * the first value added to the set.  The same restrictions apply as for set().
+     */
+    @Nonnull
+    public static <T> JImmutableSet<T> compactSet()
+    {
+        return JImmutableHashSet.compactOf();
+    }
+
+    /**
+     * Produces a Transient for efficiently constructing an unsorted set by modifying
+     * its nodes in place.  Call freeze() on the Transient to obtain the immutable set.
+     * <p>
+     * Implementation note: The set will adopt a hash code collision strategy based on
+     * the first value added to the Transient.  The same restrictions apply as for set().
+     */
+    @Nonnull
+    public static <T> JImmutableHashSet.Transient<T> setBuilder()
+    {
+        return JImmutableHashSet.builder();
+    }
+
     /**
      * Constructs an empty set that sorts values in their natural sort order (using ComparableComparator).
      */
@@ -656,7 +774,7 @@ public final class JImmutables
     @SafeVarargs
     public static <T extends Comparable<T>> JImmutableSet<T> sortedSet(T... source)
     {
-        return JImmutableTreeSet.<T>of().insertAll(Arrays.asList(source));
+        return JImmutableTreeSet.<T>builder().add(source).build();
     }
 
     /**
@@ -666,7 +784,7 @@ public final class JImmutables
     @Nonnull
     public static <T extends Comparable<T>> JImmutableSet<T> sortedSet(@Nonnull Cursor<? extends T> source)
     {
-        return JImmutableTreeSet.<T>of().insertAll(source);
+        return JImmutableTreeSet.<T>builder().add(source).build();
     }
 
     /**
@@ -676,7 +794,7 @@ public final class JImmutables
     @Nonnull
     public static <T extends Comparable<T>> JImmutableSet<T> sortedSet(@Nonnull Iterable<? extends T> source)
     {
-        return JImmutableTreeSet.<T>of().insertAll(source);
+        return JImmutableTreeSet.<T>builder().add(source).build();
     }
 
     /**
@@ -686,7 +804,7 @@ public final class JImmutables
     @Nonnull
     public static <T extends Comparable<T>> JImmutableSet<T> sortedSet(@Nonnull Iterator<? extends T> source)
     {
-        return JImmutableTreeSet.<T>of().insertAll(source);
+        return JImmutableTreeSet.<T>builder().add(source).build();
     }
 
     /**
@@ -713,7 +831,7 @@ public final class JImmutables
     public static <T> JImmutableSet<T> sortedSet(@Nonnull Comparator<T> comparator,
                                                  @Nonnull Cursor<? extends T> source)
     {
-        return JImmutableTreeSet.of(comparator).insertAll(source);
+        return JImmutableTreeSet.builder(comparator).add(source).build();
     }
 
     /**
@@ -728,7 +846,7 @@ public final class JImmutables
     public static <T> JImmutableSet<T> sortedSet(@Nonnull Comparator<T> comparator,
                                                  T... source)
     {
-        return JImmutableTreeSet.of(comparator).insertAll(Arrays.asList(source));
+        return JImmutableTreeSet.builder(comparator).add(source).build();
     }
 
     /**
@@ -742,7 +860,7 @@ public final class JImmutables
     public static <T> JImmutableSet<T> sortedSet(@Nonnull Comparator<T> comparator,
                                                  @Nonnull Iterable<? extends T> source)
     {
-        return JImmutableTreeSet.of(comparator).insertAll(source);
+        return JImmutableTreeSet.builder(comparator).add(source).build();
     }
 
     /**
@@ -756,7 +874,7 @@ public final class JImmutables
     public static <T> JImmutableSet<T> sortedSet(@Nonnull Comparator<T> comparator,
                                                  @Nonnull Iterator<? extends T> source)
     {
-        return JImmutableTreeSet.of(comparator).insertAll(source);
+        return JImmutableTreeSet.builder(comparator).add(source).build();
     }
 
     /**
@@ -765,7 +883,7 @@ public final class JImmutables
     @Nonnull
     public static <T extends Comparable<T>> Collector<T, ?, JImmutableSet<T>> sortedSetCollector()
     {
-        return JImmutables.<T>sortedSet().setCollector();
+        return JImmutableTreeSet.collector();
     }
 
     /**
@@ -774,7 +892,7 @@ public final class JImmutables
     @Nonnull
     public static <T> Collector<T, ?, JImmutableSet<T>> sortedSetCollector(@Nonnull Comparator<T> comparator)
     {
-        return JImmutables.sortedSet(comparator).setCollector();
+        return JImmutableTreeSet.collector(comparator);
     }
 
     /**
@@ -0,0 +1,116 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections;
+
+import junit.framework.TestCase;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+public class HashStrategiesTest
+    extends TestCase
+{
+    public void testStandard()
+    {
+        final HashStrategy<String> strategy = HashStrategies.standard();
+        assertSame(strategy, HashStrategies.<Integer>standard());
+        assertEquals("abc".hashCode(), strategy.hash("abc"));
+        assertEquals(false, strategy.hasSecondaryHash());
+        try {
+            strategy.secondaryHash("abc");
+            fail();
+        } catch (UnsupportedOperationException ex) {
+            // expected
+        }
+    }
+
+    public void testMixed()
+    {
+        final HashStrategy<Integer> strategy = HashStrategies.mixed();
+        assertSame(strategy, HashStrategies.<String>mixed());
+        assertEquals(HashStrategies.mix(12), strategy.hash(12));
+        assertEquals(false, strategy.hasSecondaryHash());
+        assertEquals(strategy, HashStrategies.seeded(0));
+
+        // sequential hash codes should spread across all of the low order bits
+        final Set<Integer> lowBits = new HashSet<>();
+        for (int i = 0; i < 1024; ++i) {
+            lowBits.add(strategy.hash(i << 16) & 0x1f);
+        }
+        assertEquals(32, lowBits.size());
+    }
+
+    public void testMixIsBijective()
+    {
+        final Set<Integer> mixed = new HashSet<>();
+        for (int i = -50000; i <= 50000; ++i) {
+            assertEquals(true, mixed.add(HashStrategies.mix(i)));
+        }
+        assertEquals(0, HashStrategies.mix(0));
+    }
+
+    public void testSeeded()
+    {
+        final HashStrategy<String> a = HashStrategies.seeded(1234);
+        final HashStrategy<String> b = HashStrategies.seeded(1234);
+        final HashStrategy<String> c = HashStrategies.seeded(4321);
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertEquals(false, a.equals(c));
+        assertEquals(a.hash("abc"), b.hash("abc"));
+        assertEquals(false, a.hash("abc") == c.hash("abc"));
+        assertEquals(false, a.equals(HashStrategies.standard()));
+    }
+
+    public void testSecondary()
+    {
+        final HashStrategy<String> strategy = HashStrategies.withSecondaryHash(HashStrategies.seeded(99), String::length);
+        assertEquals(true, strategy.hasSecondaryHash());
+        assertEquals(HashStrategies.seeded(99).hash("abc"), strategy.hash("abc"));
+        assertEquals(3, strategy.secondaryHash("abc"));
+        assertEquals(5, strategy.secondaryHash("hello"));
+
+        final ToIntFunction<String> secondaryHash = String::length;
+        final HashStrategy<String> a = HashStrategies.withSecondaryHash(HashStrategies.seeded(99), secondaryHash);
+        final HashStrategy<String> b = HashStrategies.withSecondaryHash(HashStrategies.seeded(99), secondaryHash);
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertEquals(false, a.equals(HashStrategies.withSecondaryHash(HashStrategies.seeded(98), secondaryHash)));
+        assertEquals(false, a.equals(HashStrategies.<String>withSecondaryHash(HashStrategies.seeded(99), s -> s.length())));
+        assertEquals(false, a.equals(HashStrategies.seeded(99)));
+    }
+}
@@ -46,6 +46,7 @@ import org.javimmutable.collections.MapEntry;
 import org.javimmutable.collections.MutableBuilder;
 import org.javimmutable.collections.common.StandardMutableBuilderTests;
 import org.javimmutable.collections.common.StandardSerializableTests;
+import org.javimmutable.collections.common.StructureStats;
 import org.javimmutable.collections.cursors.StandardCursorTest;
 import org.javimmutable.collections.indexed.IndexedList;
 
@@ -197,6 +198,21 @@ public class JImmutableTrieArrayTest
         assertEquals(0x0ff0, (0xff00 >>> shift));
     }
 
+    public void testStats()
+    {
+        JImmutableTrieArray<Integer> array = JImmutableTrieArray.of();
+        for (int i = 0; i < 1000; ++i) {
+            array = array.assign(i, i);
+        }
+        final StructureStats stats = array.stats();
+        assertEquals("JImmutableTrieArray", stats.getName());
+        assertEquals(1000, stats.getSize());
+        assertEquals(1000, stats.getNodeCount("LeafTrieNode"));
+        assertEquals(2, stats.getMaxDepth());
+        assertEquals(1000.0 / (32 * 32), stats.getFillFactor());
+        assertEquals(1, stats.getUnderfilledNodeCount());
+    }
+
     public void testCursor()
     {
         JImmutableArray<Integer> array = JImmutableTrieArray.of();
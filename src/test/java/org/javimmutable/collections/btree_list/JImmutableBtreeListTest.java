@@ -46,11 +46,13 @@ import org.javimmutable.collections.common.StandardIterableStreamableTests;
 import org.javimmutable.collections.common.StandardJImmutableListTests;
 import org.javimmutable.collections.common.StandardMutableBuilderTests;
 import org.javimmutable.collections.common.StandardSerializableTests;
+import org.javimmutable.collections.common.StructureStats;
 import org.javimmutable.collections.cursors.IterableCursorable;
 import org.javimmutable.collections.cursors.StandardCursor;
 import org.javimmutable.collections.cursors.StandardCursorTest;
 import org.javimmutable.collections.indexed.IndexedArray;
 import org.javimmutable.collections.indexed.IndexedList;
+import org.javimmutable.collections.list.JImmutableRrbList;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -68,6 +70,7 @@ public class JImmutableBtreeListTest
     public void testStandard()
     {
         StandardJImmutableListTests.standardTests(JImmutableBtreeList.of());
+        StandardJImmutableListTests.verifyRangeOperations(JImmutableBtreeList.of());
     }
 
     public void test()
@@ -1236,6 +1239,21 @@ public class JImmutableBtreeListTest
         assertSame(JImmutableBtreeList.of(), list.deleteAll());
     }
 
+    public void testStats()
+    {
+        JImmutableBtreeList<Integer> list = JImmutableBtreeList.of();
+        for (int i = 0; i < 1000; ++i) {
+            list = list.insertLast(i);
+        }
+        final StructureStats stats = list.stats();
+        assertEquals("JImmutableBtreeList", stats.getName());
+        assertEquals(1000, stats.getSize());
+        assertEquals(1, stats.getDepthHistogram().size());
+        assertTrue(stats.getNodeCount("BtreeLeafNode") >= 1000 / BtreeNode.MAX_CHILDREN);
+        assertTrue(stats.getFillFactor() >= 0.5);
+        assertEquals(0, stats.getUnderfilledNodeCount());
+    }
+
     public void testSelect()
     {
         JImmutableRandomAccessList<Integer> list = ralist();
@@ -1372,6 +1390,98 @@ public class JImmutableBtreeListTest
                                                      "H4sIAAAAAAAAAFvzloG1uIjBK78oXS8rsSwzN7e0JDEpJ1UvOT8nJzW5JDM/r1ivOLUoMzEnsyoRxNXz8oQpCkrMS8nPdUxOTi0u9sksLgkoyq+o/A8C/1SMeRgYKooY3Egw2DGpuKQoMbkEYQFWQwvKORgYmF8yAIkSBsZEIE4C4uQKAKP4XnfLAAAA");
     }
 
+    public void testConcat()
+    {
+        final Random random = new Random(1300L);
+        for (int loop = 1; loop <= 300; ++loop) {
+            final int leftSize = (loop <= 100) ? random.nextInt(40) : random.nextInt(20000);
+            final int rightSize = ((loop % 2) == 0) ? random.nextInt(40) : random.nextInt(20000);
+            final List<Integer> expected = new ArrayList<>();
+            final JImmutableBtreeList.Builder<Integer> leftBuilder = JImmutableBtreeList.builder();
+            final JImmutableBtreeList.Builder<Integer> rightBuilder = JImmutableBtreeList.builder();
+            for (int i = 0; i < leftSize; ++i) {
+                leftBuilder.add(i);
+                expected.add(i);
+            }
+            for (int i = 0; i < rightSize; ++i) {
+                rightBuilder.add(-i);
+                expected.add(-i);
+            }
+            final JImmutableBtreeList<Integer> left = leftBuilder.build();
+            final JImmutableBtreeList<Integer> right = rightBuilder.build();
+            final JImmutableBtreeList<Integer> joined = left.concat(right);
+            joined.checkInvariants();
+            assertEquals(expected, joined.getList());
+            assertEquals(joined, left.concat(JImmutableRrbList.<Integer>builder().add(right.iterator()).build()));
+            assertEquals(joined, left.insertAllLast(right));
+            assertEquals(joined, right.insertAllFirst(left));
+        }
+
+        JImmutableBtreeList<Integer> merged = JImmutableBtreeList.of();
+        final List<Integer> expected = new ArrayList<>();
+        for (int shard = 0; shard < 200; ++shard) {
+            final JImmutableBtreeList.Builder<Integer> builder = JImmutableBtreeList.builder();
+            for (int i = 0, limit = random.nextInt(3000); i < limit; ++i) {
+                builder.add(shard);
+                expected.add(shard);
+            }
+            merged = merged.concat(builder.build());
+            merged.checkInvariants();
+        }
+        assertEquals(expected, merged.getList());
+    }
+
+    public void testSlice()
+    {
+        for (int size = 0; size <= 400; size += 19) {
+            final List<Integer> expected = new ArrayList<>();
+            JImmutableBtreeList<Integer> list = JImmutableBtreeList.of();
+            for (int i = 0; i < size; ++i) {
+                list = list.insert(i);
+                expected.add(i);
+            }
+            for (int from = 0; from <= size; ++from) {
+                for (int to = from; to <= size; ++to) {
+                    final JImmutableBtreeList<Integer> slice = list.slice(from, to);
+                    slice.checkInvariants();
+                    assertEquals(expected.subList(from, to), slice.getList());
+                }
+            }
+            assertSame(list, list.slice(0, size));
+            assertSame(JImmutableBtreeList.of(), list.slice(size, size));
+        }
+
+        final Random random = new Random(1200L);
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 250000; ++i) {
+            expected.add(i);
+        }
+        final JImmutableBtreeList<Integer> list = JImmutableBtreeList.of(IndexedList.retained(expected));
+        for (int loop = 1; loop <= 200; ++loop) {
+            final int from = random.nextInt(expected.size());
+            final int to = from + random.nextInt(expected.size() - from + 1);
+            final JImmutableBtreeList<Integer> slice = list.slice(from, to);
+            slice.checkInvariants();
+            assertEquals(to - from, slice.size());
+            if (from < to) {
+                assertEquals(expected.get(from), slice.get(0));
+                assertEquals(expected.get(to - 1), slice.get(slice.size() - 1));
+                assertEquals(expected.get((from + to) / 2), slice.get((to - from) / 2));
+            }
+            final JImmutableBtreeList<Integer> inner = slice.slice((to - from) / 3, (to - from) / 2);
+            inner.checkInvariants();
+            assertEquals(expected.subList(from + (to - from) / 3, from + (to - from) / 2), inner.getList());
+        }
+
+        for (int[] bounds : new int[][]{{-1, 0}, {0, expected.size() + 1}, {2, 1}}) {
+            try {
+                list.slice(bounds[0], bounds[1]);
+                fail();
+            } catch (IndexOutOfBoundsException ignored) {
+            }
+        }
+    }
+
     private JImmutableRandomAccessList<Integer> ralist(Integer... values)
     {
         return JImmutableBtreeList.of(IndexedArray.retained(values));
@@ -1396,4 +1506,89 @@ public class JImmutableBtreeListTest
     {
         return IterableCursorable.of(values).cursor();
     }
+
+    public void testEditor()
+    {
+        final Random random = new Random(2100L);
+        for (int loop = 1; loop <= 100; ++loop) {
+            final int size = (loop <= 50) ? random.nextInt(40) : random.nextInt(5000);
+            final List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < size; ++i) {
+                expected.add(i);
+            }
+            final JImmutableBtreeList<Integer> original = JImmutableBtreeList.of(IndexedList.retained(expected));
+            final JImmutableBtreeList.Editor<Integer> editor = original.editor();
+            JImmutableBtreeList<Integer> persistent = original;
+            for (int edit = 0, limit = random.nextInt(4 * size + 40); edit < limit; ++edit) {
+                final int command = random.nextInt(10);
+                final int value = random.nextInt();
+                if ((command < 4) || expected.isEmpty()) {
+                    final int index = random.nextInt(expected.size() + 1);
+                    expected.add(index, value);
+                    editor.insert(index, value);
+                    persistent = persistent.insert(index, value);
+                } else if (command < 8) {
+                    final int index = random.nextInt(expected.size());
+                    expected.remove(index);
+                    editor.delete(index);
+                    persistent = persistent.delete(index);
+                } else if (command < 9) {
+                    final int index = random.nextInt(expected.size());
+                    expected.set(index, value);
+                    editor.assign(index, value);
+                    persistent = persistent.assign(index, value);
+                } else {
+                    expected.add(value);
+                    editor.add(value);
+                    persistent = persistent.insertLast(value);
+                }
+                assertEquals(expected.size(), editor.size());
+                if ((edit % 100) == 0) {
+                    final JImmutableBtreeList<Integer> built = editor.build();
+                    built.checkInvariants();
+                    assertEquals(persistent, built);
+                }
+            }
+            for (int i = 0; i < expected.size(); ++i) {
+                assertEquals(expected.get(i), editor.get(i));
+            }
+            final JImmutableBtreeList<Integer> built = editor.build();
+            built.checkInvariants();
+            assertEquals(expected, built.getList());
+            assertEquals(persistent, built);
+            assertEquals(size, original.size());
+            original.checkInvariants();
+            for (int i = 0; i < size; ++i) {
+                assertEquals(Integer.valueOf(i), original.get(i));
+            }
+
+            // further edits must not change lists built earlier
+            while (editor.size() > 0) {
+                editor.delete(random.nextInt(editor.size()));
+            }
+            assertSame(JImmutableBtreeList.of(), editor.build());
+            assertEquals(expected, built.getList());
+            built.checkInvariants();
+        }
+
+        final JImmutableBtreeList.Editor<Integer> editor = JImmutableBtreeList.<Integer>of().editor();
+        verifyOutOfBounds(() -> editor.get(0));
+        verifyOutOfBounds(() -> editor.assign(0, 1));
+        verifyOutOfBounds(() -> editor.delete(0));
+        verifyOutOfBounds(() -> editor.insert(1, 1));
+        verifyOutOfBounds(() -> editor.insert(-1, 1));
+        editor.insert(0, 1);
+        assertEquals(Integer.valueOf(1), editor.get(0));
+        verifyOutOfBounds(() -> editor.get(1));
+    }
+
+    private static void verifyOutOfBounds(Runnable action)
+    {
+        try {
+            action.run();
+            fail();
+        } catch (IndexOutOfBoundsException ignored) {
+            // expected
+        }
+    }
 }
@@ -38,6 +38,18 @@ package org.javimmutable.collections.common;
 import junit.framework.Assert;
 import org.javimmutable.collections.Holders;
 import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableRandomAccessList;
+import org.javimmutable.collections.cursors.StandardCursorTest;
+import org.javimmutable.collections.indexed.IndexedHelper;
+import org.javimmutable.collections.indexed.IndexedList;
+import org.javimmutable.collections.iterators.StandardIteratorTests;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
 
 public class StandardJImmutableListTests
 {
@@ -46,6 +58,7 @@ public class StandardJImmutableListTests
         verifyInsertAllFirst(empty);
         verifyInsertAllLast(empty);
         verifyTransform(empty);
+        verifyDescending(empty);
     }
 
     public static void verifyInsertAllFirst(JImmutableList<Integer> empty)
@@ -88,6 +101,72 @@ public class StandardJImmutableListTests
         Assert.assertEquals(appendAll(empty, 1, 10), transformed);
     }
 
+    public static void verifyDescending(JImmutableList<Integer> empty)
+    {
+        StandardCursorTest.emptyCursorTest(empty.descendingCursor());
+        StandardCursorTest.emptyIteratorTest(empty.descendingIterator());
+        for (int size : Arrays.asList(1, 31, 33, 1000, 40_000)) {
+            final JImmutableList<Integer> list = appendAll(empty, 1, size);
+            final List<Integer> expected = new ArrayList<>(list.getList());
+            Collections.reverse(expected);
+            StandardCursorTest.listCursorTest(expected, list.descendingCursor());
+            StandardCursorTest.listIteratorTest(expected, list.descendingIterator());
+            StandardIteratorTests.verifyOrderedIterable(expected, list.reverse());
+            Assert.assertEquals(expected.subList(0, Math.min(10, size)), list.reverse().stream().limit(10).collect(Collectors.toList()));
+        }
+    }
+
+    public static void verifyRangeOperations(JImmutableRandomAccessList<Integer> empty)
+    {
+        final Random random = new Random(2400L);
+        for (int size : Arrays.asList(0, 1, 17, 33, 1000, 40_000)) {
+            final List<Integer> values = new ArrayList<>();
+            for (int i = 0; i < size; ++i) {
+                values.add(i);
+            }
+            final JImmutableRandomAccessList<Integer> list = empty.insertAll(values);
+            for (int loop = 1; loop <= 100; ++loop) {
+                final int from = random.nextInt(size + 1);
+                final int to = from + random.nextInt(size - from + 1);
+
+                final List<Integer> deleted = new ArrayList<>(values);
+                deleted.subList(from, to).clear();
+                final JImmutableRandomAccessList<Integer> afterDelete = list.deleteRange(from, to);
+                afterDelete.checkInvariants();
+                Assert.assertEquals(deleted, afterDelete.getList());
+
+                final List<Integer> replacements = new ArrayList<>();
+                for (int i = from; i < to; ++i) {
+                    replacements.add(-i);
+                }
+                final List<Integer> assigned = new ArrayList<>(values);
+                for (int i = from; i < to; ++i) {
+                    assigned.set(i, -i);
+                }
+                final JImmutableRandomAccessList<Integer> afterAssign = list.assignRange(from, IndexedList.retained(replacements));
+                afterAssign.checkInvariants();
+                Assert.assertEquals(assigned, afterAssign.getList());
+            }
+            Assert.assertSame(list, list.deleteRange(size, size));
+            Assert.assertSame(list, list.assignRange(size, IndexedHelper.empty()));
+            Assert.assertEquals(0, list.deleteRange(0, size).size());
+            verifyOutOfBounds(() -> list.deleteRange(-1, 0));
+            verifyOutOfBounds(() -> list.deleteRange(0, size + 1));
+            verifyOutOfBounds(() -> list.deleteRange(1, 0));
+            verifyOutOfBounds(() -> list.assignRange(-1, IndexedHelper.empty()));
+            verifyOutOfBounds(() -> list.assignRange(size, IndexedHelper.indexed(1)));
+        }
+    }
+
+    private static void verifyOutOfBounds(Runnable operation)
+    {
+        try {
+            operation.run();
+            Assert.fail();
+        } catch (IndexOutOfBoundsException ignored) {
+        }
+    }
+
     private static JImmutableList<Integer> appendAll(JImmutableList<Integer> answer,
                                                      int first,
                                                      int last)
@@ -35,16 +35,21 @@
 
 package org.javimmutable.collections.common;
 
+import org.javimmutable.collections.Cursor;
 import org.javimmutable.collections.Func1;
 import org.javimmutable.collections.Holder;
 import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.MapChange;
 import org.javimmutable.collections.MapEntry;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -118,6 +123,52 @@ public class StandardJImmutableMapTests
         testCollector(map.assignAll(expectedMap), map);
     }
 
+    /**
+     * Verifies that oldMap.diff(newMap) produces exactly the changes computed by looking up
+     * every key of each map in the other map.
+     */
+    public static <K, V> void verifyDiff(@Nonnull JImmutableMap<K, V> oldMap,
+                                         @Nonnull JImmutableMap<K, V> newMap)
+    {
+        final List<MapChange<K, V>> expected = new ArrayList<>();
+        for (JImmutableMap.Entry<K, V> e : oldMap) {
+            final Holder<V> newValue = newMap.find(e.getKey());
+            if (newValue.isEmpty()) {
+                expected.add(MapChange.removed(e.getKey(), e.getValue()));
+            } else if (!Objects.equals(e.getValue(), newValue.getValue())) {
+                expected.add(MapChange.changed(e.getKey(), e.getValue(), newValue.getValue()));
+            }
+        }
+        for (JImmutableMap.Entry<K, V> e : newMap) {
+            if (oldMap.find(e.getKey()).isEmpty()) {
+                expected.add(MapChange.added(e.getKey(), e.getValue()));
+            }
+        }
+        final List<MapChange<K, V>> actual = new ArrayList<>();
+        for (Cursor<MapChange<K, V>> c = oldMap.diff(newMap).start(); c.hasValue(); c = c.next()) {
+            actual.add(c.getValue());
+        }
+        assertEquals(expected.size(), actual.size());
+        assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+    }
+
+    /**
+     * Verifies that getAll() returns the same values as individual calls to getValueOr().
+     */
+    public static <K, V> void verifyGetAll(@Nonnull JImmutableMap<K, V> map,
+                                           @Nonnull List<K> keys,
+                                           V defaultValue)
+    {
+        final List<V> expected = new ArrayList<>();
+        final List<V> expectedNulls = new ArrayList<>();
+        for (K key : keys) {
+            expected.add(map.getValueOr(key, defaultValue));
+            expectedNulls.add(map.get(key));
+        }
+        assertEquals(expected, map.getAll(keys, defaultValue));
+        assertEquals(expectedNulls, map.getAll(keys));
+    }
+
     private static Func1<Holder<Integer>, Integer> generator(int newValue)
     {
         return h -> h.isEmpty() ? newValue : h.getValue() * 10 + 1;
@@ -0,0 +1,113 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.common;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+
+public class StructureStatsTest
+    extends TestCase
+{
+    public void testSizes()
+    {
+        assertEquals(16, StructureStats.objectBytes(0, 0));
+        assertEquals(24, StructureStats.objectBytes(2, 0));
+        assertEquals(24, StructureStats.objectBytes(2, 4));
+        assertEquals(32, StructureStats.objectBytes(3, 8));
+        assertEquals(16, StructureStats.arrayBytes(0, 4));
+        assertEquals(24, StructureStats.arrayBytes(1, 4));
+        assertEquals(144, StructureStats.arrayBytes(32, 4));
+    }
+
+    public void testEmpty()
+    {
+        final StructureStats stats = new StructureStats.Builder(this).build();
+        assertEquals("StructureStatsTest", stats.getName());
+        assertEquals(0, stats.getSize());
+        assertEquals(0, stats.getMaxDepth());
+        assertEquals(0.0, stats.getAverageDepth());
+        assertEquals(0, stats.getTotalNodeCount());
+        assertEquals(0, stats.getMaxCollisionLength());
+        assertEquals(0.0, stats.getFillFactor());
+        assertEquals(0, stats.getUnderfilledNodeCount());
+        assertEquals(0, stats.getEstimatedBytes());
+    }
+
+    public void testBuilder()
+    {
+        final StructureStats stats = new StructureStats.Builder("x")
+            .addBytes(8)
+            .addNode(1, 40)
+            .addNode(2, 16)
+            .addNode("a", 24)
+            .addValues(1, 3)
+            .addValues(2, 1)
+            .addValues(1, 2)
+            .addValues(3, 0)
+            .addCollisionGroup(1)
+            .addCollisionGroup(1)
+            .addCollisionGroup(3)
+            .addFill(10, 32)
+            .addFill(22, 32)
+            .build();
+        assertEquals("String", stats.getName());
+        assertEquals(6, stats.getSize());
+        assertEquals(2, stats.getMaxDepth());
+        assertEquals(7.0 / 6.0, stats.getAverageDepth(), 0.0001);
+        assertEquals(Arrays.asList(1, 2), Arrays.asList(stats.getDepthHistogram().keySet().toArray()));
+        assertEquals(Integer.valueOf(5), stats.getDepthHistogram().get(1));
+        assertEquals(Integer.valueOf(1), stats.getDepthHistogram().get(2));
+        assertEquals(2, stats.getNodeCount("Integer"));
+        assertEquals(1, stats.getNodeCount("String"));
+        assertEquals(0, stats.getNodeCount("Long"));
+        assertEquals(3, stats.getTotalNodeCount());
+        assertEquals(Integer.valueOf(2), stats.getCollisionHistogram().get(1));
+        assertEquals(Integer.valueOf(1), stats.getCollisionHistogram().get(3));
+        assertEquals(3, stats.getMaxCollisionLength());
+        assertEquals(0.5, stats.getFillFactor());
+        assertEquals(1, stats.getUnderfilledNodeCount());
+        assertEquals(88, stats.getEstimatedBytes());
+        assertEquals("String[size=6, maxDepth=2, averageDepth=1.17, depths={1=5, 2=1}, nodes={Integer=2, String=1}, collisions={1=2, 3=1}, fillFactor=0.500, underfilledNodes=1, estimatedBytes=88]",
+                     stats.toString());
+        try {
+            stats.getNodeCounts().put("Long", 1);
+            fail();
+        } catch (UnsupportedOperationException ignored) {
+            // expected
+        }
+    }
+}
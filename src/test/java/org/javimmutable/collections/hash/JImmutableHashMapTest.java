@@ -37,24 +37,33 @@ package org.javimmutable.collections.hash;
 
 import junit.framework.TestCase;
 import org.javimmutable.collections.Func1;
+import org.javimmutable.collections.HashStrategies;
+import org.javimmutable.collections.HashStrategy;
 import org.javimmutable.collections.Holder;
 import org.javimmutable.collections.JImmutableMap;
 import org.javimmutable.collections.MapEntry;
 import org.javimmutable.collections.common.StandardJImmutableMapTests;
 import org.javimmutable.collections.common.StandardSerializableTests;
+import org.javimmutable.collections.common.StructureStats;
+import org.javimmutable.collections.hash.collision_map.SecondaryHashCollisionMap;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
+import static org.javimmutable.collections.common.StandardJImmutableMapTests.verifyDiff;
 import static org.javimmutable.collections.common.StandardJImmutableMapTests.verifyEnumeration;
+import static org.javimmutable.collections.common.StandardJImmutableMapTests.verifyGetAll;
 import static org.javimmutable.collections.cursors.StandardCursorTest.*;
 
 public class JImmutableHashMapTest
@@ -79,6 +88,45 @@ public class JImmutableHashMapTest
 
         StandardJImmutableMapTests.verifyMiscellaneous(JImmutableHashMap.usingList());
         StandardJImmutableMapTests.verifyMiscellaneous(JImmutableHashMap.usingTree());
+        StandardJImmutableMapTests.verifyMiscellaneous(JImmutableHashMap.compactUsingList());
+        StandardJImmutableMapTests.verifyMiscellaneous(JImmutableHashMap.compactUsingTree());
+    }
+
+    public void testCompact()
+    {
+        final Random random = new Random(300);
+        final Map<Integer, Integer> expected = new HashMap<>();
+        JImmutableMap<Integer, Integer> map = JImmutableHashMap.compactOf();
+        JImmutableMap<Integer, Integer> standard = JImmutableHashMap.of();
+        for (int i = 0; i < 20000; ++i) {
+            final Integer key = random.nextInt(25000);
+            if (random.nextInt(4) == 0) {
+                map = map.delete(key);
+                standard = standard.delete(key);
+                expected.remove(key);
+            } else {
+                map = map.assign(key, i);
+                standard = standard.assign(key, i);
+                expected.put(key, i);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        map.checkInvariants();
+        assertEquals(true, ((JImmutableHashMap)map).isCompact());
+        assertEquals(expected, map.getMap());
+        assertEquals(standard, map);
+        assertEquals(map, standard);
+        assertEquals(map.hashCode(), standard.hashCode());
+        assertEquals(expected.size(), map.stream().count());
+        assertEquals(expected.size(), map.stream().parallel().count());
+
+        for (Integer key : expected.keySet()) {
+            map = map.delete(key);
+        }
+        assertSame(JImmutableHashMap.compactOf(), map);
+        assertSame(JImmutableHashMap.of(), standard.deleteAll());
+        assertSame(JImmutableHashMap.compactOf(), JImmutableHashMap.compactOf().assign(1, 1).deleteAll());
+        assertEquals(true, JImmutableHashMap.compactOf().assign(new Object(), 1) instanceof JImmutableHashMap);
     }
 
     public void testValueIdentity()
@@ -286,6 +334,331 @@ public class JImmutableHashMapTest
 
     }
 
+    public void testMerge()
+    {
+        final Random random = new Random(2000L);
+        for (int loop = 0; loop < 400; ++loop) {
+            final boolean compact = (loop % 4) >= 2;
+            final boolean usingTree = (loop % 2) == 0;
+            final boolean collisions = (loop % 8) >= 4;
+            final int maxKey = 1 + random.nextInt(3000);
+            JImmutableMap<ManualHashKey, Integer> base = emptyMap(compact, usingTree);
+            for (int i = random.nextInt(maxKey); i > 0; --i) {
+                base = base.assign(mergeKey(random.nextInt(maxKey), collisions), random.nextInt(1000));
+            }
+            // keys above maxKey are never in base so some subtrees of other are reused intact
+            final int otherKeyOffset = ((loop % 16) >= 8) ? maxKey : 0;
+            JImmutableMap<ManualHashKey, Integer> other = (random.nextBoolean()) ? base : emptyMap(compact, usingTree);
+            for (int i = random.nextInt(maxKey); i > 0; --i) {
+                final ManualHashKey key = mergeKey(otherKeyOffset + random.nextInt(maxKey), collisions);
+                other = (random.nextInt(4) == 0) ? other.delete(key) : other.assign(key, random.nextInt(1000));
+            }
+
+            final Map<ManualHashKey, Integer> expectedAssign = new HashMap<>(base.getMap());
+            final Map<ManualHashKey, Integer> expectedMerge = new HashMap<>(base.getMap());
+            for (JImmutableMap.Entry<ManualHashKey, Integer> e : other) {
+                expectedAssign.put(e.getKey(), e.getValue());
+                expectedMerge.merge(e.getKey(), e.getValue(), (a, b) -> a - b);
+            }
+
+            final JImmutableMap<ManualHashKey, Integer> assigned = base.assignAll(other);
+            assigned.checkInvariants();
+            assertEquals(expectedAssign.size(), assigned.size());
+            assertEquals(expectedAssign, assigned.getMap());
+
+            final JImmutableMap<ManualHashKey, Integer> merged = base.merge(other, (a, b) -> a - b);
+            merged.checkInvariants();
+            assertEquals(expectedMerge.size(), merged.size());
+            assertEquals(expectedMerge, merged.getMap());
+
+            final JImmutableMap<ManualHashKey, Integer> mixed = base.merge(emptyMap(!compact, usingTree).assignAll(other), (a, b) -> a - b);
+            mixed.checkInvariants();
+            assertEquals(expectedMerge, mixed.getMap());
+
+            assertSame(base, base.assignAll(base));
+            assertSame(base, base.assignAll(base.deleteAll()));
+            if (usingTree && !other.isEmpty()) {
+                // empty map selects the same collision map as other so other can be reused
+                assertSame(other, base.deleteAll().assignAll(other));
+            }
+        }
+    }
+
+    public void testDiff()
+    {
+        final Random random = new Random(3000L);
+        for (int loop = 0; loop < 400; ++loop) {
+            final boolean compact = (loop % 4) >= 2;
+            final boolean usingTree = (loop % 2) == 0;
+            final boolean collisions = (loop % 8) >= 4;
+            final int maxKey = 1 + random.nextInt(3000);
+            JImmutableMap<ManualHashKey, Integer> base = emptyMap(compact, usingTree);
+            for (int i = random.nextInt(maxKey); i > 0; --i) {
+                base = base.assign(mergeKey(random.nextInt(maxKey), collisions), random.nextInt(1000));
+            }
+            JImmutableMap<ManualHashKey, Integer> other = (random.nextBoolean()) ? base : emptyMap(compact, usingTree);
+            for (int i = random.nextInt(maxKey / 10 + 1); i > 0; --i) {
+                final ManualHashKey key = mergeKey(random.nextInt(maxKey), collisions);
+                other = (random.nextInt(4) == 0) ? other.delete(key) : other.assign(key, random.nextInt(1000));
+            }
+
+            verifyDiff(base, other);
+            verifyDiff(other, base);
+            verifyDiff(base, emptyMap(!compact, usingTree).assignAll(other));
+            verifyDiff(base, base.deleteAll());
+            verifyDiff(base.deleteAll(), base);
+            assertEquals(false, base.diff(base).start().hasValue());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testHashStrategy()
+    {
+        final HashStrategy<CollidingKey> secondary = HashStrategies.withSecondaryHash(HashStrategies.randomlySeeded(), key -> key.value);
+        final Random random = new Random(5000L);
+        for (HashStrategy<CollidingKey> strategy : asList(HashStrategies.<CollidingKey>mixed(), HashStrategies.<CollidingKey>seeded(12345), secondary)) {
+            for (boolean compact : asList(false, true)) {
+                final EmptyHashMap<CollidingKey, Integer> empty = compact ? JImmutableHashMap.compactUsingStrategy(strategy) : JImmutableHashMap.usingStrategy(strategy);
+                assertSame(strategy, empty.getHashStrategy());
+                assertEquals(compact, empty.isCompact());
+
+                JImmutableMap<CollidingKey, Integer> map = empty;
+                final Map<CollidingKey, Integer> expected = new HashMap<>();
+                for (int i = 0; i < 5000; ++i) {
+                    final CollidingKey key = new CollidingKey(random.nextInt(2000));
+                    if (random.nextInt(4) == 0) {
+                        map = map.delete(key);
+                        expected.remove(key);
+                    } else {
+                        final int value = random.nextInt(1000);
+                        map = map.assign(key, value);
+                        expected.put(key, value);
+                    }
+                }
+                map.checkInvariants();
+                assertEquals(expected, map.getMap());
+                assertEquals(JImmutableHashMap.<CollidingKey, Integer>of().assignAll(expected), map);
+
+                final JImmutableHashMap<?, CollidingKey, Integer> hashMap = (JImmutableHashMap<?, CollidingKey, Integer>)map;
+                assertSame(strategy, hashMap.getHashStrategy());
+                assertEquals(compact, hashMap.isCompact());
+                assertEquals(strategy.hasSecondaryHash(), hashMap.getCollisionMap() instanceof SecondaryHashCollisionMap);
+                assertSame(strategy, ((EmptyHashMap<CollidingKey, Integer>)map.deleteAll()).getHashStrategy());
+
+                JImmutableMap<CollidingKey, Integer> other = map.deleteAll();
+                for (int i = 0; i < 500; ++i) {
+                    other = other.assign(new CollidingKey(random.nextInt(2000)), random.nextInt(1000));
+                }
+                final Map<CollidingKey, Integer> expectedAssign = new HashMap<>(expected);
+                expectedAssign.putAll(other.getMap());
+                final JImmutableMap<CollidingKey, Integer> assigned = map.assignAll(other);
+                assigned.checkInvariants();
+                assertEquals(expectedAssign, assigned.getMap());
+                verifyDiff(map, assigned);
+                verifyDiff(map, other);
+
+                JImmutableHashMap.Transient<CollidingKey, Integer> builder = empty.toTransient();
+                for (Map.Entry<CollidingKey, Integer> entry : expected.entrySet()) {
+                    builder = builder.assign(entry.getKey(), entry.getValue());
+                }
+                final JImmutableMap<CollidingKey, Integer> built = builder.build();
+                built.checkInvariants();
+                assertEquals(map, built);
+                assertSame(strategy, ((JImmutableHashMap<?, CollidingKey, Integer>)built).getHashStrategy());
+                assertSame(strategy, ((JImmutableHashMap<?, CollidingKey, Integer>)hashMap.toTransient().build()).getHashStrategy());
+            }
+        }
+    }
+
+    public void testGetAll()
+    {
+        final Random random = new Random(8000L);
+        for (JImmutableMap<Integer, Integer> empty : asList(JImmutableHashMap.<Integer, Integer>of(), JImmutableHashMap.<Integer, Integer>compactOf())) {
+            JImmutableMap<Integer, Integer> map = empty;
+            verifyGetAll(map, asList(1, 2, 3), -1);
+            verifyGetAll(map.assign(0, 0), asList(0, 32, 0, 1024), -1);
+            for (int i = 0; i < 10000; ++i) {
+                final int key = random.nextInt();
+                map = map.assign(key, i);
+                map = map.assign(key >>> 5, i);
+                map = map.assign(key << 5, i);
+            }
+            map = map.assign(0, -5).assign(1 << 31, -6).assign(-1, -7);
+            final List<Integer> keys = new ArrayList<>();
+            for (JImmutableMap.Entry<Integer, Integer> entry : map) {
+                if (random.nextBoolean()) {
+                    keys.add(entry.getKey());
+                }
+                if (random.nextInt(10) == 0) {
+                    keys.add(random.nextInt());
+                }
+            }
+            keys.addAll(asList(0, 1 << 31, -1, 0, 32, 1 << 30));
+            Collections.shuffle(keys, random);
+            verifyGetAll(map, keys, -1);
+            verifyGetAll(map, Collections.emptyList(), -1);
+        }
+
+        JImmutableMap<ManualHashKey, Integer> collisions = JImmutableHashMap.usingTree();
+        JImmutableMap<CollidingKey, Integer> lists = JImmutableHashMap.compactOf();
+        final List<ManualHashKey> collisionKeys = new ArrayList<>();
+        final List<CollidingKey> listKeys = new ArrayList<>();
+        for (int i = 0; i < 2000; ++i) {
+            collisions = collisions.assign(mergeKey(random.nextInt(1000), true), i);
+            lists = lists.assign(new CollidingKey(random.nextInt(1000)), i);
+            collisionKeys.add(mergeKey(random.nextInt(1500), true));
+            listKeys.add(new CollidingKey(random.nextInt(1500)));
+        }
+        verifyGetAll(collisions, collisionKeys, -1);
+        verifyGetAll(lists, listKeys, -1);
+    }
+
+    public void testDeleteAllKeys()
+    {
+        final Random random = new Random(9000L);
+        for (JImmutableMap<Integer, Integer> empty : asList(JImmutableHashMap.<Integer, Integer>of(), JImmutableHashMap.<Integer, Integer>compactOf())) {
+            assertSame(empty, empty.deleteAll(asList(1, 2, 3)));
+            JImmutableMap<Integer, Integer> map = empty;
+            final List<Integer> allKeys = new ArrayList<>();
+            for (int i = 0; i < 5000; ++i) {
+                final int key = random.nextInt();
+                for (int k : asList(key, key >>> 5, key >>> 20, key << 5, key & 0x3ff)) {
+                    map = map.assign(k, i);
+                    allKeys.add(k);
+                }
+            }
+            map = map.assign(0, -5).assign(1 << 31, -6).assign(-1, -7);
+            allKeys.addAll(asList(0, 1 << 31, -1));
+            final List<Integer> missingKeys = new ArrayList<>();
+            while (missingKeys.size() < 100) {
+                final int key = random.nextInt();
+                if (map.find(key).isEmpty()) {
+                    missingKeys.add(key);
+                }
+            }
+            assertSame(map, map.deleteAll(missingKeys).deleteAll(Collections.emptyList()));
+            for (int loop = 0; loop < 20; ++loop) {
+                final List<Integer> keys = new ArrayList<>();
+                for (Integer key : allKeys) {
+                    if (random.nextInt(20) <= loop) {
+                        keys.add(key);
+                    }
+                }
+                keys.add(random.nextInt());
+                Collections.shuffle(keys, random);
+                JImmutableMap<Integer, Integer> expected = map;
+                for (Integer key : keys) {
+                    expected = expected.delete(key);
+                }
+                final JImmutableMap<Integer, Integer> deleted = map.deleteAll(keys);
+                deleted.checkInvariants();
+                assertEquals(expected.size(), deleted.size());
+                assertEquals(expected, deleted);
+                assertEquals(expected.getMap(), deleted.getMap());
+            }
+            assertSame(empty, map.deleteAll(allKeys));
+        }
+
+        JImmutableMap<ManualHashKey, Integer> collisions = JImmutableHashMap.usingTree();
+        JImmutableMap<CollidingKey, Integer> lists = JImmutableHashMap.compactOf();
+        final List<ManualHashKey> collisionKeys = new ArrayList<>();
+        final List<CollidingKey> listKeys = new ArrayList<>();
+        for (int i = 0; i < 2000; ++i) {
+            collisions = collisions.assign(mergeKey(random.nextInt(1000), true), i);
+            lists = lists.assign(new CollidingKey(random.nextInt(1000)), i);
+            collisionKeys.add(mergeKey(random.nextInt(1000), true));
+            listKeys.add(new CollidingKey(random.nextInt(1000)));
+        }
+        final JImmutableMap<ManualHashKey, Integer> collisionsDeleted = collisions.deleteAll(collisionKeys);
+        collisionsDeleted.checkInvariants();
+        final Map<ManualHashKey, Integer> expectedCollisions = new HashMap<>(collisions.getMap());
+        expectedCollisions.keySet().removeAll(collisionKeys);
+        assertEquals(expectedCollisions, collisionsDeleted.getMap());
+        assertEquals(expectedCollisions.size(), collisionsDeleted.size());
+        final JImmutableMap<CollidingKey, Integer> listsDeleted = lists.deleteAll(listKeys);
+        listsDeleted.checkInvariants();
+        final Map<CollidingKey, Integer> expectedLists = new HashMap<>(lists.getMap());
+        expectedLists.keySet().removeAll(listKeys);
+        assertEquals(expectedLists, listsDeleted.getMap());
+        assertEquals(expectedLists.size(), listsDeleted.size());
+    }
+
+    public void testFromParallel()
+    {
+        assertSame(JImmutableHashMap.of(), JImmutableHashMap.fromParallel(Stream.<JImmutableMap.Entry<Integer, Integer>>empty()));
+        assertEquals(JImmutableHashMap.of().assign(32, 7), JImmutableHashMap.fromParallel(Stream.of(MapEntry.of(32, 7))));
+
+        final Random random = new Random(7000L);
+        for (boolean compact : asList(false, true)) {
+            final EmptyHashMap<Integer, Integer> empty = compact ? JImmutableHashMap.compactOf() : JImmutableHashMap.of();
+            verifyFromParallel(empty, asList(0));
+            verifyFromParallel(empty, asList(0, 32, 0, 64));
+            verifyFromParallel(empty, asList(5, 37, 5 + 32 * 32));
+            verifyFromParallel(empty, asList(3, 4));
+            for (int size : asList(100, 5000, 25000)) {
+                final List<Integer> keys = new ArrayList<>();
+                for (int i = 0; i < size; ++i) {
+                    keys.add(random.nextInt(size));
+                }
+                verifyFromParallel(empty, keys);
+            }
+
+            final List<ManualHashKey> comparableKeys = new ArrayList<>();
+            final List<CollidingKey> collidingKeys = new ArrayList<>();
+            for (int i = 0; i < 5000; ++i) {
+                comparableKeys.add(mergeKey(random.nextInt(2000), true));
+                collidingKeys.add(new CollidingKey(random.nextInt(2000)));
+            }
+            verifyFromParallel(compact ? JImmutableHashMap.compactOf() : JImmutableHashMap.of(), comparableKeys);
+            verifyFromParallel(compact ? JImmutableHashMap.compactOf() : JImmutableHashMap.of(), collidingKeys);
+
+            final HashStrategy<CollidingKey> strategy = HashStrategies.withSecondaryHash(HashStrategies.mixed(), key -> key.value);
+            final EmptyHashMap<CollidingKey, Integer> strategyEmpty = compact ? JImmutableHashMap.compactUsingStrategy(strategy) : JImmutableHashMap.usingStrategy(strategy);
+            final JImmutableMap<CollidingKey, Integer> map = verifyFromParallel(strategyEmpty, collidingKeys);
+            assertSame(strategy, ((JImmutableHashMap<?, CollidingKey, Integer>)map).getHashStrategy());
+            assertEquals(compact, ((JImmutableHashMap<?, CollidingKey, Integer>)map).isCompact());
+        }
+    }
+
+    private static <K> JImmutableMap<K, Integer> verifyFromParallel(EmptyHashMap<K, Integer> empty,
+                                                                    List<K> keys)
+    {
+        final List<JImmutableMap.Entry<K, Integer>> entries = new ArrayList<>();
+        JImmutableMap<K, Integer> expected = empty;
+        for (int i = 0; i < keys.size(); ++i) {
+            entries.add(MapEntry.of(keys.get(i), i));
+            expected = expected.assign(keys.get(i), i);
+        }
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final JImmutableMap<K, Integer> map = JImmutableHashMap.fromParallel(empty, entries.parallelStream(), pool);
+            map.checkInvariants();
+            assertEquals(expected.size(), map.size());
+            assertEquals(expected, map);
+            // structure matches the sequentially built map so iteration order does too
+            assertEquals(expected.keys().stream().collect(Collectors.toList()), map.keys().stream().collect(Collectors.toList()));
+            return map;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static JImmutableMap<ManualHashKey, Integer> emptyMap(boolean compact,
+                                                                  boolean usingTree)
+    {
+        if (compact) {
+            return usingTree ? JImmutableHashMap.compactUsingTree() : JImmutableHashMap.compactUsingList();
+        } else {
+            return usingTree ? JImmutableHashMap.usingTree() : JImmutableHashMap.usingList();
+        }
+    }
+
+    private static ManualHashKey mergeKey(int keyValue,
+                                          boolean collisions)
+    {
+        return new ManualHashKey(collisions ? (keyValue % 100) : (keyValue * 0x9e3779b9), String.valueOf(keyValue));
+    }
+
     public void testEnumeration()
     {
         JImmutableMap<Integer, Integer> map = JImmutableHashMap.usingList();
@@ -351,6 +724,86 @@ public class JImmutableHashMapTest
         assertSame(JImmutableHashMap.of(), map);
     }
 
+    public void testStats()
+    {
+        for (JImmutableMap<Integer, Integer> map : Arrays.asList(JImmutableHashMap.<Integer, Integer>usingList(), JImmutableHashMap.<Integer, Integer>compactUsingList())) {
+            for (int i = 0; i < 5000; ++i) {
+                map = map.assign(i, i);
+            }
+            final StructureStats stats = ((JImmutableHashMap<?, Integer, Integer>)map).stats();
+            assertEquals("JImmutableHashMap", stats.getName());
+            assertEquals(5000, stats.getSize());
+            assertEquals(1, stats.getCollisionHistogram().size());
+            assertEquals(Integer.valueOf(5000), stats.getCollisionHistogram().get(1));
+            assertEquals(5000, stats.getNodeCount("SingleValueListNode"));
+            assertTrue(stats.getMaxDepth() <= 3);
+            assertTrue(stats.getEstimatedBytes() > 5000 * StructureStats.objectBytes(2, 0));
+        }
+
+        JImmutableMap<CollidingKey, Integer> map = JImmutableHashMap.usingList();
+        for (int i = 0; i < 100; ++i) {
+            map = map.assign(new CollidingKey(i), i);
+        }
+        final StructureStats stats = ((JImmutableHashMap<?, CollidingKey, Integer>)map).stats();
+        assertEquals(100, stats.getSize());
+        assertEquals(1, stats.getCollisionHistogram().size());
+        assertEquals(Integer.valueOf(4), stats.getCollisionHistogram().get(25));
+        assertEquals(25, stats.getMaxCollisionLength());
+        assertEquals(4, stats.getNodeCount("MultiValueListNode"));
+    }
+
+    public void testTransient()
+    {
+        final JImmutableHashMap.Transient<Integer, Integer> builder = JImmutableHashMap.builder();
+        assertEquals(0, builder.size());
+        assertSame(JImmutableHashMap.of(), builder.freeze());
+
+        final Map<Integer, Integer> expected = new HashMap<>();
+        final Random random = new Random(200);
+        for (int i = 0; i < 25000; ++i) {
+            final Integer key = random.nextInt(50000);
+            builder.assign(key, i);
+            expected.put(key, i);
+        }
+        assertEquals(expected.size(), builder.size());
+        assertEquals(expected.get(5), builder.getValueOr(5, null));
+        final JImmutableMap<Integer, Integer> map = builder.freeze();
+        map.checkInvariants();
+        assertEquals(expected, map.getMap());
+        assertSame(JImmutableHashMap.TREE_COLLISION_MAP, ((JImmutableHashMap)map).getCollisionMap());
+
+        final Map<Integer, Integer> modified = new HashMap<>(expected);
+        final JImmutableHashMap.Transient<Integer, Integer> updater = ((JImmutableHashMap<?, Integer, Integer>)map).toTransient();
+        for (int i = 0; i < 25000; ++i) {
+            final Integer key = random.nextInt(50000);
+            if (random.nextBoolean()) {
+                updater.delete(key);
+                modified.remove(key);
+            } else {
+                updater.update(key, h -> h.getValueOr(0) + 1);
+                modified.put(key, modified.getOrDefault(key, 0) + 1);
+            }
+            assertEquals(modified.size(), updater.size());
+        }
+        final JImmutableMap<Integer, Integer> updated = updater.freeze();
+        updated.checkInvariants();
+        assertEquals(modified, updated.getMap());
+        assertEquals(expected, map.getMap());
+
+        for (Integer key : modified.keySet()) {
+            updater.delete(key);
+        }
+        assertEquals(0, updater.size());
+        assertSame(JImmutableHashMap.of(), updater.freeze());
+        assertEquals(modified, updated.getMap());
+
+        final JImmutableHashMap.Transient<ManualHashKey, Integer> collisions = JImmutableHashMap.<ManualHashKey, Integer>of().toTransient();
+        collisions.add(MapEntry.of(new ManualHashKey(1000, "a"), 1)).add(MapEntry.of(new ManualHashKey(1000, "b"), 2));
+        final JImmutableMap<ManualHashKey, Integer> collisionMap = collisions.build();
+        assertEquals(2, collisionMap.size());
+        assertEquals(Integer.valueOf(2), collisionMap.get(new ManualHashKey(1000, "b")));
+    }
+
     public void testTransformSelection()
     {
         assertSame(JImmutableHashMap.LIST_EMPTY, JImmutableHashMap.forKey(new Object()));
@@ -387,6 +840,31 @@ public class JImmutableHashMapTest
                                                      "H4sIAAAAAAAAAFvzloG1uIjBMb8oXS8rsSwzN7e0JDEpJ1UvOT8nJzW5JDM/r1ivOLUoMzEnsyoRxNXz8oQp8kgszvBNLAgoyq+o/A8C/1SMeRgYKooYXEkwzzGpuKQoMbkEYS42MwvKORgYmF8yAAmgewWBZifq5STmpet55pWkpqcWCT1asOR7Y7sFEwOjJwNrWWJOaSrQHQIIdX6luUmpRW1rpspyT3nQzQQysgFoWgkDY2JxIUMdAzOQwwjkJUF49UCrgbzkCgB7GrcPIgEAAA==");
     }
 
+    /**
+     * Key that is not Comparable and whose hashCode() only takes a few distinct values.
+     */
+    private static class CollidingKey
+    {
+        private final int value;
+
+        private CollidingKey(int value)
+        {
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return value & 3;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            return (o instanceof CollidingKey) && (((CollidingKey)o).value == value);
+        }
+    }
+
     private static class ManualHashKey
         implements Comparable<ManualHashKey>
     {
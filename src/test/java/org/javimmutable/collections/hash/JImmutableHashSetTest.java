@@ -50,8 +50,10 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 import static java.util.Arrays.asList;
 
@@ -61,6 +63,7 @@ public class JImmutableHashSetTest
     public void testStandard()
     {
         StandardJImmutableSetTests.verifySet(JImmutableHashSet.of());
+        StandardJImmutableSetTests.verifySet(JImmutableHashSet.compactOf());
         StandardCursorTest.emptyCursorTest(JImmutableHashSet.<Integer>of().cursor());
         StandardCursorTest.listCursorTest(asList(1, 2, 3), JImmutableHashSet.<Integer>of().union(asList(1, 2, 3)).cursor());
     }
@@ -202,6 +205,62 @@ public class JImmutableHashSetTest
         assertEquals(asList(), iterToList(jet.intersection((Collection)tset)));
     }
 
+    public void testTransient()
+    {
+        final JImmutableHashSet.Transient<Integer> builder = JImmutableHashSet.builder();
+        assertSame(JImmutableHashSet.of(), builder.freeze());
+        final Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < 5000; i += 3) {
+            builder.add(i);
+            expected.add(i);
+        }
+        final JImmutableSet<Integer> set = builder.freeze();
+        set.checkInvariants();
+        assertEquals(expected, set.getSet());
+
+        final JImmutableHashSet.Transient<Integer> updater = ((JImmutableHashSet<Integer>)set).toTransient();
+        for (int i = 0; i < 5000; i += 2) {
+            updater.delete(i);
+        }
+        assertEquals(false, updater.contains(6));
+        assertEquals(true, updater.contains(9));
+        final JImmutableSet<Integer> updated = updater.build();
+        updated.checkInvariants();
+        assertEquals(expected.stream().filter(i -> i % 2 != 0).collect(Collectors.toSet()), updated.getSet());
+        assertEquals(expected, set.getSet());
+
+        final JImmutableHashSet.Transient<Integer> compact = JImmutableHashSet.<Integer>compactOf().toTransient();
+        compact.add(1).add(2).add(3).delete(2);
+        final JImmutableSet<Integer> compactSet = compact.freeze();
+        assertEquals(true, ((JImmutableHashSet<Integer>)compactSet).isCompact());
+        assertEquals(new HashSet<>(asList(1, 3)), compactSet.getSet());
+        assertSame(JImmutableHashSet.compactOf(), compactSet.deleteAll());
+    }
+
+    public void testUnion()
+    {
+        final Random random = new Random(3000L);
+        for (int loop = 0; loop < 100; ++loop) {
+            final boolean compact = (loop % 2) == 0;
+            JImmutableSet<Integer> base = compact ? JImmutableHashSet.compactOf() : JImmutableHashSet.of();
+            for (int i = random.nextInt(2000); i > 0; --i) {
+                base = base.insert(random.nextInt(5000));
+            }
+            JImmutableSet<Integer> other = (random.nextBoolean()) ? base : base.deleteAll();
+            for (int i = random.nextInt(2000); i > 0; --i) {
+                other = other.insert(random.nextInt(5000)).delete(random.nextInt(5000));
+            }
+            final Set<Integer> expected = new HashSet<>(base.getSet());
+            expected.addAll(other.getSet());
+            final JImmutableSet<Integer> union = base.union(other);
+            union.checkInvariants();
+            assertEquals(expected, union.getSet());
+            assertEquals(compact, ((JImmutableHashSet<Integer>)union).isCompact());
+            assertEquals(expected, base.insertAll(other).getSet());
+            assertSame(base, base.union(base));
+        }
+    }
+
     public void testStreams()
     {
         JImmutableSet<Integer> mset = JImmutableHashSet.<Integer>of().insert(4).insert(3).insert(4).insert(2).insert(1).insert(3);
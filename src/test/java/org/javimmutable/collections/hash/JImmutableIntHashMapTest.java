@@ -0,0 +1,164 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.hash;
+
+import junit.framework.TestCase;
+import org.javimmutable.collections.Holders;
+import org.javimmutable.collections.common.StandardJImmutableMapTests;
+import org.javimmutable.collections.common.StandardSerializableTests;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static org.javimmutable.collections.common.StandardJImmutableMapTests.verifyEnumeration;
+
+public class JImmutableIntHashMapTest
+    extends TestCase
+{
+    public void test()
+    {
+        JImmutableIntHashMap<String> map = JImmutableIntHashMap.of();
+        assertEquals(true, map.isEmpty());
+        assertEquals(Holders.<String>of(), map.find(10));
+        map = map.assignInt(10, "a");
+        assertEquals(1, map.size());
+        assertEquals("a", map.get(10));
+        assertEquals("a", map.get(Integer.valueOf(10)));
+        assertEquals("z", map.getValueOrInt(11, "z"));
+        assertEquals(true, map.containsKey(10));
+        assertSame(map, map.assignInt(10, "a"));
+        assertSame(map, map.assign(Integer.valueOf(10), "a"));
+        assertSame(map, map.delete(11));
+        map = map.assign(10, null);
+        assertEquals(1, map.size());
+        assertEquals(Holders.<String>of(null), map.find(10));
+        map = map.delete(10);
+        assertSame(JImmutableIntHashMap.of(), map);
+
+        StandardJImmutableMapTests.verifyMiscellaneous(JImmutableIntHashMap.<Integer>of());
+    }
+
+    public void testBoxedValues()
+    {
+        JImmutableIntHashMap<Integer> map = JImmutableIntHashMap.of();
+        map = map.assign(1, 2);
+        map = map.assignInt(3, 4);
+        assertEquals(Integer.valueOf(2), map.get(1));
+        assertEquals(Integer.valueOf(4), map.get(3));
+        assertEquals(Integer.valueOf(2), map.getValueOr(1, 9));
+        assertEquals(Integer.valueOf(9), map.getValueOrInt(5, 9));
+        assertSame(map, map.assignInt(1, map.get(1)));
+        map.checkInvariants();
+    }
+
+    public void testExtremeKeys()
+    {
+        final List<Integer> keys = asList(Integer.MIN_VALUE, Integer.MAX_VALUE, 0, -1, 1, 0x20, 0x40, Integer.MIN_VALUE + 1, Integer.MAX_VALUE - 1);
+        JImmutableIntHashMap<Integer> map = JImmutableIntHashMap.of();
+        for (Integer key : keys) {
+            map = map.assignInt(key.intValue(), key);
+            map.checkInvariants();
+        }
+        assertEquals(keys.size(), map.size());
+        for (Integer key : keys) {
+            assertEquals(key, map.get(key.intValue()));
+        }
+        final List<Integer> sortedKeys = new ArrayList<>(keys);
+        Collections.sort(sortedKeys);
+        assertEquals(sortedKeys, map.intKeysStream().sorted().boxed().collect(Collectors.toList()));
+        for (Integer key : keys) {
+            map = map.delete(key.intValue());
+            map.checkInvariants();
+            assertEquals(null, map.get(key.intValue()));
+        }
+        assertSame(JImmutableIntHashMap.of(), map);
+    }
+
+    public void testRandom()
+    {
+        final Random r = new Random(1003L);
+        for (int loop = 0; loop < 20; ++loop) {
+            final HashMap<Integer, Integer> expected = new HashMap<>();
+            JImmutableIntHashMap<Integer> map = JImmutableIntHashMap.of();
+            final int size = 1 + r.nextInt(4000);
+            for (int i = 0; i < size; ++i) {
+                final int key = (loop % 2 == 0) ? r.nextInt() : r.nextInt(size);
+                expected.put(key, Integer.valueOf(key));
+                map = map.assignInt(key, Integer.valueOf(key));
+            }
+            map.checkInvariants();
+            assertEquals(expected.size(), map.size());
+            verifyEnumeration(expected, map);
+            assertEquals(expected.keySet(), map.intKeysStream().boxed().collect(Collectors.toSet()));
+
+            int count = 0;
+            for (PrimitiveIterator.OfInt i = map.intKeysIterator(); i.hasNext(); ) {
+                final int key = i.nextInt();
+                assertEquals(expected.get(key), map.get(key));
+                count += 1;
+            }
+            assertEquals(expected.size(), count);
+
+            final List<Integer> keys = new ArrayList<>(expected.keySet());
+            Collections.shuffle(keys, r);
+            for (Integer key : keys) {
+                final JImmutableIntHashMap<Integer> next = map.delete(key.intValue());
+                assertEquals(map.size() - 1, next.size());
+                assertEquals(null, next.get(key.intValue()));
+                map = next;
+                if (map.size() % 100 == 0) {
+                    map.checkInvariants();
+                }
+            }
+            assertSame(JImmutableIntHashMap.of(), map);
+        }
+    }
+
+    public void testSerialization()
+        throws Exception
+    {
+        final JImmutableIntHashMap<String> empty = JImmutableIntHashMap.of();
+        StandardSerializableTests.verifySerializable(null, empty);
+        StandardSerializableTests.verifySerializable(null, empty.assign(1, "a"));
+        StandardSerializableTests.verifySerializable(null, empty.assign(Integer.MIN_VALUE, "a").assign(1, "b").assign(Integer.MAX_VALUE, "c"));
+    }
+}
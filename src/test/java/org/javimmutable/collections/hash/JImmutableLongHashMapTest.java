@@ -0,0 +1,161 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.hash;
+
+import junit.framework.TestCase;
+import org.javimmutable.collections.Holders;
+import org.javimmutable.collections.common.StandardSerializableTests;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static org.javimmutable.collections.common.StandardJImmutableMapTests.verifyEnumeration;
+
+public class JImmutableLongHashMapTest
+    extends TestCase
+{
+    public void test()
+    {
+        JImmutableLongHashMap<String> map = JImmutableLongHashMap.of();
+        assertEquals(true, map.isEmpty());
+        assertEquals(Holders.<String>of(), map.find(10L));
+        map = map.assignLong(10L, "a");
+        assertEquals(1, map.size());
+        assertEquals("a", map.get(10L));
+        assertEquals("a", map.get(Integer.valueOf(10).longValue()));
+        assertEquals("z", map.getValueOrLong(11L, "z"));
+        assertEquals(true, map.containsKey(10L));
+        assertSame(map, map.assignLong(10L, "a"));
+        assertSame(map, map.assign(Long.valueOf(10L), "a"));
+        assertSame(map, map.delete(11L));
+        map = map.assign(10L, null);
+        assertEquals(1, map.size());
+        assertEquals(Holders.<String>of(null), map.find(10L));
+        map = map.delete(10L);
+        assertSame(JImmutableLongHashMap.of(), map);
+    }
+
+    public void testBoxedValues()
+    {
+        JImmutableLongHashMap<Long> map = JImmutableLongHashMap.of();
+        map = map.assign(1L, 2L);
+        map = map.assignLong(3L, 4L);
+        assertEquals(Long.valueOf(2L), map.get(1L));
+        assertEquals(Long.valueOf(4L), map.get(3L));
+        assertEquals(Long.valueOf(2L), map.getValueOr(1L, 9L));
+        assertEquals(Long.valueOf(9L), map.getValueOrLong(5L, 9L));
+        assertSame(map, map.assignLong(1L, map.get(1L)));
+        map.checkInvariants();
+    }
+
+    public void testExtremeKeys()
+    {
+        final List<Long> keys = asList(Long.MIN_VALUE, Long.MAX_VALUE, 0L, -1L, 1L, (long)0x20, (long)0x40, Long.MIN_VALUE + 1, Long.MAX_VALUE - 1);
+        JImmutableLongHashMap<Long> map = JImmutableLongHashMap.of();
+        for (Long key : keys) {
+            map = map.assignLong(key.longValue(), key);
+            map.checkInvariants();
+        }
+        assertEquals(keys.size(), map.size());
+        for (Long key : keys) {
+            assertEquals(key, map.get(key.longValue()));
+        }
+        final List<Long> sortedKeys = new ArrayList<>(keys);
+        Collections.sort(sortedKeys);
+        assertEquals(sortedKeys, map.longKeysStream().sorted().boxed().collect(Collectors.toList()));
+        for (Long key : keys) {
+            map = map.delete(key.longValue());
+            map.checkInvariants();
+            assertEquals(null, map.get(key.longValue()));
+        }
+        assertSame(JImmutableLongHashMap.of(), map);
+    }
+
+    public void testRandom()
+    {
+        final Random r = new Random(1004L);
+        for (int loop = 0; loop < 20; ++loop) {
+            final HashMap<Long, Long> expected = new HashMap<>();
+            JImmutableLongHashMap<Long> map = JImmutableLongHashMap.of();
+            final int size = 1 + r.nextInt(4000);
+            for (int i = 0; i < size; ++i) {
+                final long key = (loop % 2 == 0) ? r.nextLong() : r.nextInt(size);
+                expected.put(key, Long.valueOf(key));
+                map = map.assignLong(key, Long.valueOf(key));
+            }
+            map.checkInvariants();
+            assertEquals(expected.size(), map.size());
+            verifyEnumeration(expected, map);
+            assertEquals(expected.keySet(), map.longKeysStream().boxed().collect(Collectors.toSet()));
+
+            int count = 0;
+            for (PrimitiveIterator.OfLong i = map.longKeysIterator(); i.hasNext(); ) {
+                final long key = i.nextLong();
+                assertEquals(expected.get(key), map.get(key));
+                count += 1;
+            }
+            assertEquals(expected.size(), count);
+
+            final List<Long> keys = new ArrayList<>(expected.keySet());
+            Collections.shuffle(keys, r);
+            for (Long key : keys) {
+                final JImmutableLongHashMap<Long> next = map.delete(key.longValue());
+                assertEquals(map.size() - 1, next.size());
+                assertEquals(null, next.get(key.longValue()));
+                map = next;
+                if (map.size() % 100 == 0) {
+                    map.checkInvariants();
+                }
+            }
+            assertSame(JImmutableLongHashMap.of(), map);
+        }
+    }
+
+    public void testSerialization()
+        throws Exception
+    {
+        final JImmutableLongHashMap<String> empty = JImmutableLongHashMap.of();
+        StandardSerializableTests.verifySerializable(null, empty);
+        StandardSerializableTests.verifySerializable(null, empty.assign(1L, "a"));
+        StandardSerializableTests.verifySerializable(null, empty.assign(Long.MIN_VALUE, "a").assign(1L, "b").assign(Long.MAX_VALUE, "c"));
+    }
+}
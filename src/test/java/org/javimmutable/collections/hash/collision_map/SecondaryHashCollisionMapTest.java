@@ -0,0 +1,170 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.hash.collision_map;
+
+import junit.framework.TestCase;
+import org.javimmutable.collections.HashStrategies;
+import org.javimmutable.collections.HashStrategy;
+import org.javimmutable.collections.Holders;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.MapEntry;
+import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.hash.hamt.HamtNode;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+public class SecondaryHashCollisionMapTest
+    extends TestCase
+{
+    private static final HashStrategy<Key> STRATEGY = HashStrategies.withSecondaryHash(HashStrategies.standard(), key -> key.value.hashCode());
+
+    public void testUpdateDelete()
+    {
+        final SecondaryHashCollisionMap<Key, Integer> transforms = new SecondaryHashCollisionMap<>(STRATEGY);
+        MutableDelta delta = new MutableDelta();
+        HamtNode<ListNode<Key, Integer>, Key, Integer> value = transforms.update(null, key("a"), 100, delta);
+        assertEquals(1, delta.getValue());
+        assertEquals(Holders.of(100), transforms.findValue(value, key("a")));
+
+        delta = new MutableDelta();
+        value = transforms.update(value, key("a"), 1000, delta);
+        assertEquals(0, delta.getValue());
+        assertEquals(Holders.of(1000), transforms.findValue(value, key("a")));
+
+        delta = new MutableDelta();
+        value = transforms.update(value, key("b"), 60, delta);
+        assertEquals(1, delta.getValue());
+        assertEquals(Holders.of(1000), transforms.findValue(value, key("a")));
+        assertEquals(Holders.of(60), transforms.findValue(value, key("b")));
+
+        delta = new MutableDelta();
+        value = transforms.update(value, key("b"), h -> h.getValue() + 1, delta);
+        assertEquals(0, delta.getValue());
+        assertEquals(Holders.of(61), transforms.findValue(value, key("b")));
+
+        delta = new MutableDelta();
+        HamtNode<ListNode<Key, Integer>, Key, Integer> deleted = transforms.delete(value, key("z"), delta);
+        assertSame(value, deleted);
+        assertEquals(0, delta.getValue());
+
+        delta = new MutableDelta();
+        deleted = transforms.delete(deleted, key("a"), delta);
+        assertNotNull(deleted);
+        assertEquals(-1, delta.getValue());
+        assertEquals(Holders.<Integer>of(), transforms.findValue(deleted, key("a")));
+        assertEquals(Holders.of(61), transforms.findValue(deleted, key("b")));
+
+        delta = new MutableDelta();
+        deleted = transforms.delete(deleted, key("b"), delta);
+        assertNull(deleted);
+        assertEquals(-1, delta.getValue());
+    }
+
+    public void testFindGet()
+    {
+        final SecondaryHashCollisionMap<Key, Integer> transforms = new SecondaryHashCollisionMap<>(STRATEGY);
+        final MutableDelta delta = new MutableDelta();
+        final Map<Key, Integer> expected = new HashMap<>();
+        HamtNode<ListNode<Key, Integer>, Key, Integer> value = null;
+        for (int i = 0; i < 500; ++i) {
+            value = transforms.update(value, key(String.valueOf(i)), i, delta);
+            expected.put(key(String.valueOf(i)), i);
+        }
+        assertEquals(500, delta.getValue());
+        value.checkInvariants();
+
+        for (int i = 0; i < 500; ++i) {
+            final Key key = key(String.valueOf(i));
+            assertEquals(Holders.of(i), transforms.findValue(value, key));
+            assertEquals(Integer.valueOf(i), transforms.getValueOr(value, key, -1));
+            assertEquals(Holders.<JImmutableMap.Entry<Key, Integer>>of(MapEntry.of(key, i)), transforms.findEntry(value, key));
+        }
+        assertEquals(Holders.<Integer>of(), transforms.findValue(value, key("x")));
+        assertEquals(Integer.valueOf(-1), transforms.getValueOr(value, key("x"), -1));
+        assertEquals(Holders.<JImmutableMap.Entry<Key, Integer>>of(), transforms.findEntry(value, key("x")));
+
+        final Map<Key, Integer> actual = new HashMap<>();
+        for (Iterator<JImmutableMap.Entry<Key, Integer>> i = transforms.iterator(value); i.hasNext(); ) {
+            final JImmutableMap.Entry<Key, Integer> entry = i.next();
+            actual.put(entry.getKey(), entry.getValue());
+        }
+        assertEquals(expected, actual);
+    }
+
+    public void testStrategy()
+    {
+        try {
+            new SecondaryHashCollisionMap<>(HashStrategies.mixed());
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        assertEquals(new SecondaryHashCollisionMap<>(STRATEGY), new SecondaryHashCollisionMap<>(STRATEGY));
+        assertEquals(false, new SecondaryHashCollisionMap<>(STRATEGY).equals(new SecondaryHashCollisionMap<>(HashStrategies.withSecondaryHash(HashStrategies.standard(), key -> 0))));
+    }
+
+    private static Key key(String value)
+    {
+        return new Key(value);
+    }
+
+    /**
+     * Key that is not Comparable and has the worst possible hashCode().
+     */
+    private static class Key
+    {
+        private final String value;
+
+        private Key(String value)
+        {
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 7;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            return (o instanceof Key) && ((Key)o).value.equals(value);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.hash.hamt;
+
+import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.hash.collision_map.ListCollisionMap;
+import org.javimmutable.collections.hash.collision_map.ListNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class HamtCompactNodeTest
+    extends TestCase
+{
+    public void testAssignDelete()
+    {
+        final ListCollisionMap<Checked, Integer> collisionMap = new ListCollisionMap<>();
+        final Checked a = new Checked(0, 1);
+        final Checked b = new Checked(0, 2);
+        final Checked c = new Checked(32, 3);
+        final Checked d = new Checked(-1, 4);
+        final Checked e = new Checked(1 << 30, 5);
+        final MutableDelta delta = new MutableDelta();
+
+        HamtNode<ListNode<Checked, Integer>, Checked, Integer> node = HamtCompactNode.of();
+        assertEquals(true, node.isEmpty());
+        node = node.assign(collisionMap, a.hashCode, a, 10, delta);
+        node = node.assign(collisionMap, b.hashCode, b, 20, delta);
+        node = node.assign(collisionMap, c.hashCode, c, 30, delta);
+        node = node.assign(collisionMap, d.hashCode, d, 40, delta);
+        node = node.assign(collisionMap, e.hashCode, e, 50, delta);
+        assertEquals(5, delta.getValue());
+        node.checkInvariants();
+        assertSame(node, node.assign(collisionMap, c.hashCode, c, 30, delta));
+        assertEquals(Integer.valueOf(10), node.getValueOr(collisionMap, a.hashCode, a, null));
+        assertEquals(Integer.valueOf(20), node.find(collisionMap, b.hashCode, b).getValue());
+        assertEquals(Integer.valueOf(30), node.getValueOr(collisionMap, c.hashCode, c, null));
+        assertEquals(Integer.valueOf(40), node.getValueOr(collisionMap, d.hashCode, d, null));
+        assertEquals(Integer.valueOf(50), node.getValueOr(collisionMap, e.hashCode, e, null));
+        assertEquals(true, node.find(collisionMap, 64, new Checked(64, 1)).isEmpty());
+        assertSame(node, node.delete(collisionMap, 64, new Checked(64, 1), delta));
+
+        node = node.delete(collisionMap, a.hashCode, a, delta);
+        node.checkInvariants();
+        node = node.delete(collisionMap, c.hashCode, c, delta);
+        node.checkInvariants();
+        node = node.delete(collisionMap, e.hashCode, e, delta);
+        node.checkInvariants();
+        assertEquals(2, delta.getValue());
+        assertEquals(null, node.getValueOr(collisionMap, a.hashCode, a, null));
+        assertEquals(Integer.valueOf(20), node.getValueOr(collisionMap, b.hashCode, b, null));
+        node = node.delete(collisionMap, b.hashCode, b, delta);
+        node = node.delete(collisionMap, d.hashCode, d, delta);
+        assertEquals(0, delta.getValue());
+        assertSame(HamtCompactNode.of(), node);
+    }
+
+    public void testRandom()
+    {
+        final ListCollisionMap<Checked, Integer> collisionMap = new ListCollisionMap<>();
+        final Random random = new Random(500);
+        final MutableDelta delta = new MutableDelta();
+        final Map<Checked, Integer> expected = new HashMap<>();
+        final List<Checked> keys = new ArrayList<>();
+        HamtNode<ListNode<Checked, Integer>, Checked, Integer> node = HamtCompactNode.of();
+        for (int i = 0; i < 5000; ++i) {
+            final int hashCode = random.nextBoolean() ? random.nextInt() : random.nextInt(64);
+            final Checked key = new Checked(hashCode, random.nextInt(4));
+            node = node.assign(collisionMap, key.hashCode, key, i, delta);
+            expected.put(key, i);
+            keys.add(key);
+        }
+        assertEquals(expected.size(), delta.getValue());
+        verifyContents(collisionMap, node, expected);
+
+        Collections.shuffle(keys, random);
+        HamtNode<ListNode<Checked, Integer>, Checked, Integer> reordered = HamtCompactNode.of();
+        for (Checked key : keys) {
+            reordered = reordered.assign(collisionMap, key.hashCode, key, expected.get(key), new MutableDelta());
+        }
+        verifyContents(collisionMap, reordered, expected);
+
+        for (int i = 0; i < keys.size(); i += 2) {
+            final Checked key = keys.get(i);
+            node = node.delete(collisionMap, key.hashCode, key, delta);
+            expected.remove(key);
+            if (i % 500 == 0) {
+                verifyContents(collisionMap, node, expected);
+            }
+        }
+        assertEquals(expected.size(), delta.getValue());
+        verifyContents(collisionMap, node, expected);
+
+        for (Checked key : keys) {
+            node = node.delete(collisionMap, key.hashCode, key, delta);
+        }
+        assertEquals(0, delta.getValue());
+        assertSame(HamtCompactNode.of(), node);
+    }
+
+    private void verifyContents(ListCollisionMap<Checked, Integer> collisionMap,
+                                HamtNode<ListNode<Checked, Integer>, Checked, Integer> node,
+                                Map<Checked, Integer> expected)
+    {
+        node.checkInvariants();
+        int count = 0;
+        for (JImmutableMap.Entry<Checked, Integer> entry : node.cursor(collisionMap)) {
+            assertEquals(expected.get(entry.getKey()), entry.getValue());
+            count += 1;
+        }
+        assertEquals(expected.size(), count);
+        count = 0;
+        for (Iterator<JImmutableMap.Entry<Checked, Integer>> iterator = node.iterator(collisionMap); iterator.hasNext(); ) {
+            final JImmutableMap.Entry<Checked, Integer> entry = iterator.next();
+            assertEquals(expected.get(entry.getKey()), entry.getValue());
+            count += 1;
+        }
+        assertEquals(expected.size(), count);
+        for (Map.Entry<Checked, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), node.getValueOr(collisionMap, entry.getKey().hashCode, entry.getKey(), null));
+        }
+    }
+}
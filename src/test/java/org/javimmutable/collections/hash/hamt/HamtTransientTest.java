@@ -0,0 +1,143 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.hash.hamt;
+
+import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.common.MutableDelta;
+import org.javimmutable.collections.hash.collision_map.ListCollisionMap;
+import org.javimmutable.collections.hash.collision_map.ListNode;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class HamtTransientTest
+    extends TestCase
+{
+    public void testAssignDeleteFromEmpty()
+    {
+        final ListCollisionMap<Checked, Integer> collisionMap = new ListCollisionMap<>();
+        final HamtTransient<ListNode<Checked, Integer>, Checked, Integer> hamt = new HamtTransient<>(collisionMap, HamtEmptyNode.of());
+        final Checked a = new Checked(0, 1);
+        final Checked b = new Checked(1, 2);
+        final Checked c = new Checked(33, 3);
+        final Checked d = new Checked(33, 4);
+        hamt.assign(a.hashCode, a, 10);
+        hamt.assign(b.hashCode, b, 20);
+        hamt.assign(c.hashCode, c, 30);
+        hamt.assign(d.hashCode, d, 40);
+        assertEquals(4, hamt.getSizeDelta());
+        assertEquals(Integer.valueOf(10), hamt.getValueOr(a.hashCode, a, null));
+        assertEquals(Integer.valueOf(40), hamt.find(d.hashCode, d).getValue());
+        assertEquals(true, hamt.find(1025, new Checked(1025, 1)).isEmpty());
+
+        final HamtNode<ListNode<Checked, Integer>, Checked, Integer> frozen = hamt.freeze();
+        frozen.checkInvariants();
+        assertEquals(Integer.valueOf(20), frozen.getValueOr(collisionMap, b.hashCode, b, null));
+        assertEquals(Integer.valueOf(30), frozen.getValueOr(collisionMap, c.hashCode, c, null));
+
+        hamt.delete(a.hashCode, a);
+        hamt.delete(b.hashCode, b);
+        hamt.delete(c.hashCode, c);
+        assertEquals(1, hamt.getSizeDelta());
+        final HamtNode<ListNode<Checked, Integer>, Checked, Integer> single = hamt.freeze();
+        single.checkInvariants();
+        assertEquals(true, single instanceof HamtLeafNode);
+        assertEquals(Integer.valueOf(40), single.getValueOr(collisionMap, d.hashCode, d, null));
+
+        // earlier freeze is not affected by later changes
+        assertEquals(Integer.valueOf(10), frozen.getValueOr(collisionMap, a.hashCode, a, null));
+
+        hamt.delete(d.hashCode, d);
+        assertEquals(0, hamt.getSizeDelta());
+        assertSame(HamtEmptyNode.of(), hamt.freeze());
+    }
+
+    public void testRandom()
+    {
+        final ListCollisionMap<Checked, Integer> collisionMap = new ListCollisionMap<>();
+        final Random random = new Random(100);
+        final Map<Checked, Integer> expected = new HashMap<>();
+        HamtNode<ListNode<Checked, Integer>, Checked, Integer> original = HamtEmptyNode.of();
+        final MutableDelta ignored = new MutableDelta();
+        for (int i = 0; i < 2000; ++i) {
+            final Checked key = new Checked(random.nextInt(), random.nextInt(3));
+            original = original.assign(collisionMap, key.hashCode, key, i, ignored);
+            expected.put(key, i);
+        }
+        final Map<Checked, Integer> originalExpected = new HashMap<>(expected);
+
+        final HamtTransient<ListNode<Checked, Integer>, Checked, Integer> hamt = new HamtTransient<>(collisionMap, original);
+        final Checked[] keys = expected.keySet().toArray(new Checked[0]);
+        for (int i = 0; i < 10000; ++i) {
+            final int command = random.nextInt(3);
+            final Checked key = (command == 0) ? new Checked(random.nextInt(), random.nextInt(3)) : keys[random.nextInt(keys.length)];
+            if (command == 2) {
+                hamt.delete(key.hashCode, key);
+                expected.remove(key);
+            } else {
+                hamt.assign(key.hashCode, key, i);
+                expected.put(key, i);
+            }
+            if (i % 2500 == 0) {
+                verifyContents(collisionMap, hamt.freeze(), expected);
+            }
+        }
+        assertEquals(expected.size(), originalExpected.size() + hamt.getSizeDelta());
+        verifyContents(collisionMap, hamt.freeze(), expected);
+        for (Map.Entry<Checked, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), hamt.getValueOr(entry.getKey().hashCode, entry.getKey(), null));
+        }
+        verifyContents(collisionMap, original, originalExpected);
+    }
+
+    private void verifyContents(ListCollisionMap<Checked, Integer> collisionMap,
+                                HamtNode<ListNode<Checked, Integer>, Checked, Integer> node,
+                                Map<Checked, Integer> expected)
+    {
+        node.checkInvariants();
+        int count = 0;
+        for (JImmutableMap.Entry<Checked, Integer> entry : node.cursor(collisionMap)) {
+            assertEquals(expected.get(entry.getKey()), entry.getValue());
+            count += 1;
+        }
+        assertEquals(expected.size(), count);
+        for (Map.Entry<Checked, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), node.getValueOr(collisionMap, entry.getKey().hashCode, entry.getKey(), null));
+        }
+    }
+}
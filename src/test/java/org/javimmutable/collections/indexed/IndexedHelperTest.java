@@ -53,6 +53,15 @@ public class IndexedHelperTest
         verifyIndexed(asList(1, 2, 3), IndexedHelper.indexed(1, 2, 3));
     }
 
+    public void testReversed()
+    {
+        verifyIndexed(asList(), IndexedHelper.reversed(IndexedHelper.<Integer>empty()));
+        verifyIndexed(asList(1), IndexedHelper.reversed(IndexedHelper.indexed(1)));
+        verifyIndexed(asList(3, 2, 1), IndexedHelper.reversed(IndexedHelper.indexed(1, 2, 3)));
+        assertThatExceptionOfType(ArrayIndexOutOfBoundsException.class)
+            .isThrownBy(() -> IndexedHelper.reversed(IndexedHelper.indexed(1, 2, 3)).get(3));
+    }
+
     private void verifyIndexed(List<Integer> expected,
                                Indexed<Integer> actual)
     {
@@ -43,6 +43,7 @@ import org.javimmutable.collections.common.StandardIterableStreamableTests;
 import org.javimmutable.collections.common.StandardJImmutableListTests;
 import org.javimmutable.collections.common.StandardMutableBuilderTests;
 import org.javimmutable.collections.common.StandardSerializableTests;
+import org.javimmutable.collections.common.StructureStats;
 import org.javimmutable.collections.cursors.IterableCursorable;
 import org.javimmutable.collections.cursors.StandardCursor;
 import org.javimmutable.collections.cursors.StandardCursorTest;
@@ -123,6 +124,20 @@ public class JImmutableArrayListTest
         StandardCursorTest.indexedIteratorTest(list, list.size(), list.iterator());
     }
 
+    public void testStats()
+    {
+        JImmutableArrayList<Integer> list = JImmutableArrayList.of();
+        for (int i = 0; i < 1000; ++i) {
+            list = list.insertLast(i);
+        }
+        final StructureStats stats = list.stats();
+        assertEquals("JImmutableArrayList", stats.getName());
+        assertEquals(1000, stats.getSize());
+        assertEquals(32, stats.getNodeCount("LeafNode"));
+        assertEquals(1000.0 / (32 * 32), stats.getFillFactor());
+        assertEquals(1, stats.getUnderfilledNodeCount());
+    }
+
     public void testInsertIterable()
     {
         JImmutableArrayList<Integer> list = JImmutableArrayList.of();
@@ -0,0 +1,331 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.list;
+
+import junit.framework.TestCase;
+import org.javimmutable.collections.Func0;
+import org.javimmutable.collections.Func2;
+import org.javimmutable.collections.JImmutableRandomAccessList;
+import org.javimmutable.collections.MutableBuilder;
+import org.javimmutable.collections.Tuple2;
+import org.javimmutable.collections.btree_list.JImmutableBtreeList;
+import org.javimmutable.collections.common.StandardIterableStreamableTests;
+import org.javimmutable.collections.common.StandardJImmutableListTests;
+import org.javimmutable.collections.common.StandardMutableBuilderTests;
+import org.javimmutable.collections.common.StandardSerializableTests;
+import org.javimmutable.collections.cursors.StandardCursorTest;
+import org.javimmutable.collections.indexed.IndexedList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static java.util.Arrays.asList;
+
+public class JImmutableRrbListTest
+    extends TestCase
+{
+    public void testStandard()
+    {
+        StandardJImmutableListTests.standardTests(JImmutableRrbList.of());
+        StandardJImmutableListTests.verifyRangeOperations(JImmutableRrbList.of());
+    }
+
+    public void testAppendAndPrepend()
+    {
+        JImmutableRrbList<Integer> appended = JImmutableRrbList.of();
+        JImmutableRrbList<Integer> prepended = JImmutableRrbList.of();
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 5000; ++i) {
+            appended = appended.insertLast(i);
+            prepended = prepended.insertFirst(4999 - i);
+            expected.add(i);
+        }
+        appended.checkInvariants();
+        prepended.checkInvariants();
+        assertEquals(expected, appended.getList());
+        assertEquals(expected, prepended.getList());
+        assertEquals(appended, JImmutableRrbList.of(IndexedList.retained(expected)));
+        assertEquals(1.0, appended.stats().getFillFactor(), 0.01);
+        StandardCursorTest.listCursorTest(expected, appended.cursor());
+        StandardCursorTest.listIteratorTest(expected, appended.iterator());
+        StandardIterableStreamableTests.verifyOrderedUsingCollection(expected, prepended);
+
+        while (!appended.isEmpty()) {
+            appended = appended.deleteLast();
+            prepended = prepended.deleteFirst();
+            expected.remove(0);
+            if ((expected.size() % 97) == 0) {
+                appended.checkInvariants();
+                prepended.checkInvariants();
+                assertEquals(expected, prepended.getList());
+                assertEquals(expected.size(), appended.size());
+            }
+        }
+        assertSame(JImmutableRrbList.of(), appended);
+        assertSame(JImmutableRrbList.of(), prepended);
+    }
+
+    public void testConcat()
+    {
+        final Random random = new Random(1000L);
+        for (int loop = 1; loop <= 200; ++loop) {
+            final List<Integer> leftValues = makeValues(random, random.nextInt(3000), 0);
+            final List<Integer> rightValues = makeValues(random, random.nextInt(3000), 10000);
+            final JImmutableRrbList<Integer> left = JImmutableRrbList.of(IndexedList.retained(leftValues));
+            final JImmutableRrbList<Integer> right = JImmutableRrbList.of(IndexedList.retained(rightValues));
+            final List<Integer> expected = new ArrayList<>(leftValues);
+            expected.addAll(rightValues);
+
+            final JImmutableRrbList<Integer> joined = left.concat(right);
+            joined.checkInvariants();
+            assertEquals(expected, joined.getList());
+            for (int i = 0; i < expected.size(); ++i) {
+                assertEquals(expected.get(i), joined.get(i));
+            }
+            assertEquals(joined, left.insertAllLast(right));
+            assertEquals(joined, right.insertAllFirst(left));
+            assertEquals(joined, left.concat(JImmutableBtreeList.of(IndexedList.retained(rightValues))));
+        }
+        assertSame(JImmutableRrbList.of(), JImmutableRrbList.of().concat(JImmutableRrbList.of()));
+    }
+
+    public void testRepeatedConcat()
+    {
+        final Random random = new Random(5000L);
+        JImmutableRrbList<Integer> list = JImmutableRrbList.of();
+        final List<Integer> expected = new ArrayList<>();
+        for (int loop = 1; loop <= 2000; ++loop) {
+            final List<Integer> values = makeValues(random, random.nextInt(100), expected.size());
+            final JImmutableRrbList<Integer> other = JImmutableRrbList.of(IndexedList.retained(values));
+            if (random.nextBoolean()) {
+                list = list.concat(other);
+                expected.addAll(values);
+            } else {
+                list = other.concat(list);
+                expected.addAll(0, values);
+            }
+            if ((loop % 100) == 0) {
+                list.checkInvariants();
+                assertEquals(expected, list.getList());
+            }
+        }
+        list.checkInvariants();
+        assertEquals(expected, list.getList());
+        assertTrue(list.stats().getMaxDepth() <= 4);
+    }
+
+    public void testSplitAt()
+    {
+        final List<Integer> values = makeValues(new Random(2000L), 40000, 0);
+        final JImmutableRrbList<Integer> list = JImmutableRrbList.of(IndexedList.retained(values));
+        for (int index = 0; index <= values.size(); index += 37) {
+            final Tuple2<JImmutableRrbList<Integer>, JImmutableRrbList<Integer>> split = list.splitAt(index);
+            split.getFirst().checkInvariants();
+            split.getSecond().checkInvariants();
+            assertEquals(values.subList(0, index), split.getFirst().getList());
+            assertEquals(values.subList(index, values.size()), split.getSecond().getList());
+            assertEquals(list, split.getFirst().concat(split.getSecond()));
+            assertEquals(split.getFirst(), list.prefix(index));
+            assertEquals(split.getSecond(), list.suffix(index));
+        }
+        assertSame(list, list.prefix(values.size()));
+        assertSame(list, list.suffix(0));
+        assertSame(JImmutableRrbList.of(), list.prefix(0));
+        assertSame(JImmutableRrbList.of(), list.suffix(values.size()));
+        try {
+            list.splitAt(-1);
+            fail();
+        } catch (IndexOutOfBoundsException ignored) {
+        }
+        try {
+            list.splitAt(values.size() + 1);
+            fail();
+        } catch (IndexOutOfBoundsException ignored) {
+        }
+    }
+
+    public void testRandomEdits()
+    {
+        final Random random = new Random(3000L);
+        for (int loop = 1; loop <= 20; ++loop) {
+            JImmutableRrbList<Integer> list = JImmutableRrbList.of();
+            final List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 5000; ++i) {
+                final int command = random.nextInt(10);
+                if ((command <= 4) || expected.isEmpty()) {
+                    final int index = random.nextInt(expected.size() + 1);
+                    list = list.insert(index, i);
+                    expected.add(index, i);
+                } else if (command <= 6) {
+                    final int index = random.nextInt(expected.size());
+                    list = list.delete(index);
+                    expected.remove(index);
+                } else if (command == 7) {
+                    final int index = random.nextInt(expected.size());
+                    list = list.assign(index, -i);
+                    expected.set(index, -i);
+                } else if (command == 8) {
+                    final int index = random.nextInt(expected.size() + 1);
+                    final List<Integer> values = makeValues(random, random.nextInt(70), -i);
+                    list = list.insertAll(index, values);
+                    expected.addAll(index, values);
+                } else {
+                    final int index = random.nextInt(expected.size() + 1);
+                    final Tuple2<JImmutableRrbList<Integer>, JImmutableRrbList<Integer>> split = list.splitAt(index);
+                    list = split.getSecond().concat(split.getFirst());
+                    final List<Integer> rotated = new ArrayList<>(expected.subList(index, expected.size()));
+                    rotated.addAll(expected.subList(0, index));
+                    expected.clear();
+                    expected.addAll(rotated);
+                }
+                assertEquals(expected.size(), list.size());
+                if ((i % 250) == 0) {
+                    list.checkInvariants();
+                    assertEquals(expected, list.getList());
+                }
+            }
+            list.checkInvariants();
+            assertEquals(expected, list.getList());
+            for (int i = 0; i < expected.size(); ++i) {
+                assertEquals(expected.get(i), list.get(i));
+            }
+            StandardIterableStreamableTests.verifyOrderedUsingCollection(expected, list);
+        }
+    }
+
+    public void testIndexChecks()
+    {
+        final JImmutableRrbList<Integer> list = JImmutableRrbList.<Integer>of().insertAll(asList(1, 2, 3));
+        for (int index : asList(-1, 3)) {
+            try {
+                list.assign(index, 0);
+                fail();
+            } catch (IndexOutOfBoundsException ignored) {
+            }
+            try {
+                list.delete(index);
+                fail();
+            } catch (IndexOutOfBoundsException ignored) {
+            }
+        }
+        try {
+            list.insert(4, 0);
+            fail();
+        } catch (IndexOutOfBoundsException ignored) {
+        }
+        try {
+            JImmutableRrbList.of().deleteFirst();
+            fail();
+        } catch (IndexOutOfBoundsException ignored) {
+        }
+        try {
+            JImmutableRrbList.of().deleteLast();
+            fail();
+        } catch (IndexOutOfBoundsException ignored) {
+        }
+    }
+
+    public void testBuilder()
+        throws InterruptedException
+    {
+        final List<Integer> expected = new ArrayList<>();
+        final JImmutableRrbList.Builder<Integer> builder = JImmutableRrbList.builder();
+        for (int i = 0; i <= 5000; ++i) {
+            expected.add(i);
+            builder.add(i);
+            assertEquals(i + 1, builder.size());
+            if ((i % 31) == 0) {
+                final JImmutableRrbList<Integer> list = builder.build();
+                list.checkInvariants();
+                assertEquals(expected, list.getList());
+            }
+        }
+
+        Func0<? extends MutableBuilder<Integer, JImmutableRandomAccessList<Integer>>> factory = (Func0<JImmutableRrbList.Builder<Integer>>)() -> JImmutableRrbList.builder();
+
+        Func2<List<Integer>, JImmutableRandomAccessList<Integer>, Boolean> comparator = (list, tree) -> {
+            tree.checkInvariants();
+            for (int i = 0; i < list.size(); ++i) {
+                assertEquals(list.get(i), tree.get(i));
+            }
+            return true;
+        };
+
+        StandardMutableBuilderTests.verifyBuilder(expected, factory, comparator);
+        StandardMutableBuilderTests.verifyThreadSafety(() -> JImmutableRrbList.builder());
+    }
+
+    public void testCombineBuilders()
+    {
+        for (int size = 0; size <= 3000; size += 7) {
+            final JImmutableRrbList.Builder<Integer> a = JImmutableRrbList.builder();
+            final JImmutableRrbList.Builder<Integer> b = JImmutableRrbList.builder();
+            final List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < size; ++i) {
+                a.add(i);
+                expected.add(i);
+            }
+            for (int i = size; i < 3000; ++i) {
+                b.add(i);
+                expected.add(i);
+            }
+            final JImmutableRrbList<Integer> combined = a.combineWith(b).build();
+            combined.checkInvariants();
+            assertEquals(expected, combined.getList());
+        }
+    }
+
+    public void testSerialization()
+        throws Exception
+    {
+        final JImmutableRrbList<String> empty = JImmutableRrbList.of();
+        StandardSerializableTests.verifySerializable(null, empty);
+        StandardSerializableTests.verifySerializable(null, empty.insert("a"));
+        StandardSerializableTests.verifySerializable(null, empty.insertAll(asList("a", "b", "c")).insert(1, "d"));
+    }
+
+    private List<Integer> makeValues(Random random,
+                                     int size,
+                                     int base)
+    {
+        final List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < size; ++i) {
+            values.add(base + random.nextInt(1000));
+        }
+        return values;
+    }
+}
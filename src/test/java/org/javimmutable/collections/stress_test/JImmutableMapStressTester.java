@@ -104,6 +104,9 @@ public class JImmutableMapStressTester<K extends KeyWrapper<String>>
             if (factory instanceof ComparableRegularKeyFactory || factory instanceof ComparableBadHashKeyFactory) {
                 option = "comparable" + option;
             }
+            if (((JImmutableHashMap)map).isCompact()) {
+                option = "compact" + option;
+            }
         }
         return option;
     }
@@ -119,6 +122,9 @@ public class JImmutableMapStressTester<K extends KeyWrapper<String>>
             if (factory instanceof ComparableRegularKeyFactory || factory instanceof ComparableBadHashKeyFactory) {
                 name = "Comparable" + name;
             }
+            if (((JImmutableHashMap)map).isCompact()) {
+                name = "Compact" + name;
+            }
             return "JImmutable" + name;
         } else {
             return getName(map);
@@ -38,6 +38,8 @@ package org.javimmutable.collections.stress_test;
 import joptsimple.OptionParser;
 import joptsimple.OptionSet;
 import joptsimple.OptionSpec;
+import org.javimmutable.collections.HashStrategies;
+import org.javimmutable.collections.HashStrategy;
 import org.javimmutable.collections.JImmutableList;
 import org.javimmutable.collections.JImmutableSet;
 import org.javimmutable.collections.hash.JImmutableHashMap;
@@ -80,6 +82,7 @@ public class StressTestLoop
             .insert(new JImmutableRandomAccessListStressTester(JImmutables.ralist()))
 
             .insert(new JImmutableSetStressTester(JImmutables.set(), HashSet.class, CursorOrder.UNORDERED))
+            .insert(new JImmutableSetStressTester(JImmutables.compactSet(), HashSet.class, CursorOrder.UNORDERED))
             .insert(new JImmutableSetStressTester(JImmutables.insertOrderSet(), LinkedHashSet.class, CursorOrder.INSERT_ORDER))
             .insert(new JImmutableSetStressTester(JImmutables.sortedSet(), TreeSet.class, CursorOrder.ORDERED))
             .insert(new JImmutableSetStressTester(JImmutables.multiset(), HashSet.class, CursorOrder.UNORDERED))
@@ -94,6 +97,12 @@ public class StressTestLoop
             .insert(new JImmutableMapStressTester<>(JImmutableHashMap.usingTree(), HashMap.class, new ComparableRegularKeyFactory()))
             .insert(new JImmutableMapStressTester<>(JImmutableHashMap.usingList(), HashMap.class, new BadHashKeyFactory()))
             .insert(new JImmutableMapStressTester<>(JImmutableHashMap.usingTree(), HashMap.class, new ComparableBadHashKeyFactory()))
+            .insert(new JImmutableMapStressTester<>(JImmutableHashMap.compactUsingList(), HashMap.class, new RegularKeyFactory()))
+            .insert(new JImmutableMapStressTester<>(JImmutableHashMap.compactUsingTree(), HashMap.class, new ComparableRegularKeyFactory()))
+            .insert(new JImmutableMapStressTester<>(JImmutableHashMap.compactUsingList(), HashMap.class, new BadHashKeyFactory()))
+            .insert(new JImmutableMapStressTester<>(JImmutableHashMap.compactUsingTree(), HashMap.class, new ComparableBadHashKeyFactory()))
+            .insert(new JImmutableMapStressTester<>(JImmutableHashMap.usingStrategy(badHashStrategy()), HashMap.class, new BadHashKeyFactory()))
+            .insert(new JImmutableMapStressTester<>(JImmutableHashMap.compactUsingStrategy(badHashStrategy()), HashMap.class, new BadHashKeyFactory()))
 
             .insert(new JImmutableMapStressTester<>(JImmutables.insertOrderMap(), LinkedHashMap.class, new ComparableRegularKeyFactory()))
             .insert(new JImmutableMapStressTester<>(JImmutables.sortedMap(), TreeMap.class, new ComparableRegularKeyFactory()))
@@ -191,4 +200,13 @@ public class StressTestLoop
         }
         return parser;
     }
+
+    /**
+     * Strategy that works around the poor hashCode() of BadHashKey by using the hash code of the
+     * wrapped value as a secondary hash.
+     */
+    private static HashStrategy<KeyWrapper.BadHashKey<String>> badHashStrategy()
+    {
+        return HashStrategies.withSecondaryHash(HashStrategies.randomlySeeded(), key -> key.getValue().hashCode());
+    }
 }
@@ -36,6 +36,12 @@
 package org.javimmutable.collections.tree;
 
 import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.Tuple2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 public class BranchNodeTest
     extends TestCase
@@ -49,4 +55,102 @@ public class BranchNodeTest
         Node<Integer, String> d1 = branch.delete(comparator, 1);
         Node<Integer, String> d2 = d1.delete(comparator, 2);
     }
+
+    public void testFindChildIndex()
+    {
+        final ComparableComparator<Integer> comparator = ComparableComparator.of();
+        // sizes on both sides of the switch from linear to binary search
+        for (int length = 1; length <= Node.MAX_CHILDREN; ++length) {
+            final Integer[] keys = new Integer[length];
+            for (int i = 0; i < length; ++i) {
+                keys[i] = 10 * i;
+            }
+            assertEquals(-1, BranchNode.findChildIndex(comparator, -5, keys, -1));
+            assertEquals(0, BranchNode.findChildIndex(comparator, -5, keys, 0));
+            for (int key = 0; key < 10 * length + 10; ++key) {
+                assertEquals(Math.min(key / 10, length - 1), BranchNode.findChildIndex(comparator, key, keys, -1));
+            }
+        }
+    }
+
+    public void testSplitJoin()
+    {
+        final ComparableComparator<Integer> comparator = ComparableComparator.of();
+        final Random random = new Random(1400);
+        for (int size : new int[]{0, 1, 2, 31, 32, 33, 500, 1025, 40000}) {
+            final Node<Integer, Integer> node = build(comparator, 0, size);
+            for (int loop = 0; loop < 50; ++loop) {
+                final int key = random.nextInt(size + 2) - 1;
+                final Tuple2<Node<Integer, Integer>, Node<Integer, Integer>> split = node.split(comparator, key);
+                final Node<Integer, Integer> low = split.getFirst().compress();
+                final Node<Integer, Integer> high = split.getSecond().compress();
+                verifyKeys(comparator, low, 0, Math.max(0, Math.min(key, size)));
+                verifyKeys(comparator, high, Math.max(0, Math.min(key, size)), size);
+                verifyKeys(comparator, low.join(high).compress(), 0, size);
+            }
+        }
+    }
+
+    public void testJoinUnevenDepths()
+    {
+        final ComparableComparator<Integer> comparator = ComparableComparator.of();
+        for (int leftSize : new int[]{0, 1, 15, 17, 33, 600, 20000}) {
+            for (int rightSize : new int[]{0, 1, 16, 31, 513, 20000}) {
+                final Node<Integer, Integer> left = build(comparator, 0, leftSize);
+                final Node<Integer, Integer> right = build(comparator, leftSize, leftSize + rightSize);
+                verifyKeys(comparator, left.join(right).compress(), 0, leftSize + rightSize);
+            }
+        }
+    }
+
+    private static Node<Integer, Integer> build(ComparableComparator<Integer> comparator,
+                                                int first,
+                                                int last)
+    {
+        Node<Integer, Integer> answer = EmptyNode.of();
+        for (int key = first; key < last; ++key) {
+            final UpdateResult<Integer, Integer> result = answer.assign(comparator, key, key);
+            if (result.type == UpdateResult.Type.SPLIT) {
+                answer = new BranchNode<>(result.newNode, result.extraNode);
+            } else {
+                answer = result.newNode;
+            }
+        }
+        return answer;
+    }
+
+    private static void verifyKeys(ComparableComparator<Integer> comparator,
+                                   Node<Integer, Integer> node,
+                                   int first,
+                                   int last)
+    {
+        node.checkInvariants(comparator);
+        verifyChildCounts(node, true);
+        final List<Integer> expected = new ArrayList<>();
+        for (int key = first; key < last; ++key) {
+            expected.add(key);
+        }
+        final List<Integer> actual = new ArrayList<>();
+        for (JImmutableMap.Entry<Integer, Integer> entry : node) {
+            actual.add(entry.getKey());
+        }
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), node.valueCount());
+    }
+
+    private static void verifyChildCounts(Node<Integer, Integer> node,
+                                          boolean isRoot)
+    {
+        if (node instanceof BranchNode) {
+            final Node<Integer, Integer>[] children = ((BranchNode<Integer, Integer>)node).getChildren();
+            if (isRoot) {
+                assertTrue(children.length >= 2);
+            } else {
+                assertTrue(children.length >= Node.MIN_CHILDREN);
+            }
+            for (Node<Integer, Integer> child : children) {
+                verifyChildCounts(child, false);
+            }
+        }
+    }
 }
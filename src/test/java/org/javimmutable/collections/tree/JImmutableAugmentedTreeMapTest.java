@@ -0,0 +1,285 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.tree;
+
+import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.Tuple2;
+import org.javimmutable.collections.common.StandardJImmutableMapTests;
+import org.javimmutable.collections.common.StandardSerializableTests;
+import org.javimmutable.collections.hash.JImmutableHashMap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class JImmutableAugmentedTreeMapTest
+    extends TestCase
+{
+    private static final Aggregator<Integer, Integer, Long> SUM = Aggregator.of(0L, (k, v) -> (long)v, (a, b) -> a + b);
+    private static final Aggregator<Integer, Integer, Integer> MAX = Aggregator.of(Integer.MIN_VALUE, (k, v) -> v, Math::max);
+
+    public void test()
+    {
+        StandardJImmutableMapTests.verifyMiscellaneous(JImmutableAugmentedTreeMap.of(SUM));
+    }
+
+    public void testAggregate()
+    {
+        JImmutableAugmentedTreeMap<Integer, Integer, Long> sums = JImmutableAugmentedTreeMap.of(SUM);
+        JImmutableAugmentedTreeMap<Integer, Integer, Integer> maxes = JImmutableAugmentedTreeMap.of(MAX);
+        assertEquals(Long.valueOf(0), sums.aggregate());
+        assertEquals(Long.valueOf(0), sums.aggregate(1, 10));
+
+        final Random random = new Random(1900);
+        final TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int loop = 0; loop < 20000; ++loop) {
+            final int key = random.nextInt(5000);
+            if (random.nextInt(4) == 0) {
+                expected.remove(key);
+                sums = sums.delete(key);
+                maxes = maxes.delete(key);
+            } else {
+                final int value = random.nextInt(1000) - 500;
+                expected.put(key, value);
+                sums = sums.assign(key, value);
+                maxes = maxes.assign(key, value);
+            }
+            if (loop % 250 == 0) {
+                final int from = random.nextInt(5200) - 100;
+                final int to = from + random.nextInt(2000);
+                assertEquals(Long.valueOf(sum(expected.subMap(from, to))), sums.aggregate(from, to));
+                assertEquals(Integer.valueOf(max(expected.subMap(from, to))), maxes.aggregate(from, to));
+                assertEquals(Long.valueOf(sum(expected)), sums.aggregate());
+                sums.checkInvariants();
+                maxes.checkInvariants();
+            }
+        }
+        assertEquals(expected.size(), sums.size());
+        assertEquals(expected, sums.getMap());
+        assertEquals(expected, sums.getTreeMap().getMap());
+
+        // the summaries of an existing tree map are computed when the augmented map is created
+        final JImmutableAugmentedTreeMap<Integer, Integer, Long> copy = JImmutableAugmentedTreeMap.of(maxes.getTreeMap(), SUM);
+        copy.checkInvariants();
+        assertEquals(sums.aggregate(), copy.aggregate());
+        assertEquals(sums.aggregate(1000, 2000), copy.aggregate(1000, 2000));
+    }
+
+    public void testAggregateOrder()
+    {
+        // combine() is applied in key order so it need not be commutative
+        final Aggregator<Integer, Integer, String> keys = Aggregator.of("", (k, v) -> k + ",", String::concat);
+        JImmutableAugmentedTreeMap<Integer, Integer, String> map = JImmutableAugmentedTreeMap.of(keys);
+        final StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 3000; ++i) {
+            map = map.assign(2999 - i, i);
+        }
+        for (int i = 1000; i < 1500; ++i) {
+            expected.append(i).append(",");
+        }
+        map.checkInvariants();
+        assertEquals(expected.toString(), map.aggregate(1000, 1500));
+        assertEquals("", map.aggregate(1500, 1000));
+        assertEquals("", map.aggregate(1500, 1500));
+        assertEquals("2998,2999,", map.aggregate(2998, 5000));
+        assertEquals("0,1,", map.aggregate(-5, 2));
+    }
+
+    public void testSplitAndConcat()
+    {
+        final Random random = new Random(2100);
+        final TreeMap<Integer, Integer> expected = new TreeMap<>();
+        JImmutableAugmentedTreeMap<Integer, Integer, Long> map = JImmutableAugmentedTreeMap.of(SUM);
+        for (int i = 0; i < 10000; ++i) {
+            final int value = random.nextInt(1000);
+            expected.put(i, value);
+            map = map.assign(i, value);
+        }
+        for (int loop = 0; loop < 100; ++loop) {
+            final int key = random.nextInt(10200) - 100;
+            final Tuple2<JImmutableAugmentedTreeMap<Integer, Integer, Long>, JImmutableAugmentedTreeMap<Integer, Integer, Long>> split = map.splitAt(key);
+            split.getFirst().checkInvariants();
+            split.getSecond().checkInvariants();
+            assertEquals(Long.valueOf(sum(expected.headMap(key))), split.getFirst().aggregate());
+            assertEquals(Long.valueOf(sum(expected.tailMap(key))), split.getSecond().aggregate());
+
+            final JImmutableAugmentedTreeMap<Integer, Integer, Long> joined = split.getFirst().concat(split.getSecond());
+            joined.checkInvariants();
+            assertEquals(expected, joined.getMap());
+            assertEquals(Long.valueOf(sum(expected)), joined.aggregate());
+
+            final int to = key + random.nextInt(3000);
+            final JImmutableAugmentedTreeMap<Integer, Integer, Long> deleted = map.deleteRange(key, to);
+            deleted.checkInvariants();
+            assertEquals(Long.valueOf(sum(expected) - sum(expected.subMap(key, to))), deleted.aggregate());
+        }
+
+        // summaries computed with a different aggregator are not reused
+        final Aggregator<Integer, Integer, Long> doubled = Aggregator.of(0L, (k, v) -> 2L * v, (a, b) -> a + b);
+        final Tuple2<JImmutableAugmentedTreeMap<Integer, Integer, Long>, JImmutableAugmentedTreeMap<Integer, Integer, Long>> split = map.splitAt(5000);
+        final JImmutableAugmentedTreeMap<Integer, Integer, Long> other = JImmutableAugmentedTreeMap.of(split.getSecond().getTreeMap(), doubled);
+        final JImmutableAugmentedTreeMap<Integer, Integer, Long> joined = split.getFirst().concat(other);
+        joined.checkInvariants();
+        assertEquals(Long.valueOf(sum(expected)), joined.aggregate());
+        assertSame(joined, joined.assignAll(JImmutableAugmentedTreeMap.of(doubled)));
+    }
+
+    public void testDeleteAll()
+    {
+        JImmutableAugmentedTreeMap<Integer, Integer, Long> map = JImmutableAugmentedTreeMap.of(SUM);
+        final TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 2000; ++i) {
+            expected.put(i, i);
+            map = map.assign(i, i);
+        }
+        final TreeMap<Integer, Integer> deleted = new TreeMap<>();
+        for (int i = 0; i < 2000; i += 3) {
+            expected.remove(i);
+            deleted.put(i, i);
+        }
+        map = map.deleteAll(deleted.keySet());
+        map.checkInvariants();
+        assertEquals(expected, map.getMap());
+        assertEquals(Long.valueOf(sum(expected)), map.aggregate());
+        assertEquals(Long.valueOf(0), map.deleteAll().aggregate());
+    }
+
+    public void testAssignAll()
+    {
+        final TreeMap<Integer, Integer> expected = new TreeMap<>();
+        JImmutableAugmentedTreeMap<Integer, Integer, Long> map = JImmutableAugmentedTreeMap.of(SUM);
+        JImmutableTreeMap<Integer, Integer> tree = JImmutableTreeMap.of();
+        final Map<Integer, Integer> hashed = new HashMap<>();
+        for (int i = 0; i < 3000; ++i) {
+            expected.put(i, i);
+            if (i < 1000) {
+                map = map.assign(i, i);
+            } else if (i < 2000) {
+                tree = tree.assign(i, i);
+            } else {
+                hashed.put(i, i);
+            }
+        }
+        map = map.assignAll(tree);
+        map.checkInvariants();
+        map = map.assignAll(hashed);
+        map.checkInvariants();
+        assertEquals(expected, map.getMap());
+        assertEquals(Long.valueOf(sum(expected)), map.aggregate());
+
+        final JImmutableMap<Integer, Integer> unsorted = JImmutableHashMap.<Integer, Integer>of().assign(-1, 10).assign(-2, 20);
+        map = map.assignAll(unsorted).assignAll(JImmutableAugmentedTreeMap.of(SUM).assign(-3, 30));
+        map.checkInvariants();
+        assertEquals(Long.valueOf(sum(expected) + 60), map.aggregate());
+        assertEquals(Long.valueOf(60), map.aggregate(-10, 0));
+    }
+
+    public void testSerialization()
+        throws Exception
+    {
+        final JImmutableAugmentedTreeMap<Integer, Integer, Long> empty = JImmutableAugmentedTreeMap.of(new SerializableSum());
+        StandardSerializableTests.verifySerializable(JImmutableAugmentedTreeMapTest::extraSerializationChecks, empty);
+        StandardSerializableTests.verifySerializable(JImmutableAugmentedTreeMapTest::extraSerializationChecks, empty.assign(1, 10));
+        JImmutableAugmentedTreeMap<Integer, Integer, Long> map = empty;
+        for (int i = 0; i < 5000; ++i) {
+            map = map.assign(i, i);
+        }
+        StandardSerializableTests.verifySerializable(JImmutableAugmentedTreeMapTest::extraSerializationChecks, map);
+
+        try (ObjectOutputStream out = new ObjectOutputStream(new ByteArrayOutputStream())) {
+            out.writeObject(JImmutableAugmentedTreeMap.of(SUM).assign(1, 10));
+            fail();
+        } catch (NotSerializableException ex) {
+            // expected since SUM is not Serializable
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static void extraSerializationChecks(Object a,
+                                                Object b)
+    {
+        final JImmutableAugmentedTreeMap<Integer, Integer, Long> mapA = (JImmutableAugmentedTreeMap<Integer, Integer, Long>)a;
+        final JImmutableAugmentedTreeMap<Integer, Integer, Long> mapB = (JImmutableAugmentedTreeMap<Integer, Integer, Long>)b;
+        mapB.checkInvariants();
+        assertEquals(mapA.getComparator(), mapB.getComparator());
+        assertEquals(mapA.getAggregator().getClass(), mapB.getAggregator().getClass());
+        assertEquals(mapA.aggregate(), mapB.aggregate());
+        assertEquals(mapA.aggregate(100, 1000), mapB.aggregate(100, 1000));
+    }
+
+    private static long sum(Map<Integer, Integer> map)
+    {
+        return map.values().stream().mapToLong(Integer::longValue).sum();
+    }
+
+    private static int max(Map<Integer, Integer> map)
+    {
+        return map.values().stream().mapToInt(Integer::intValue).max().orElse(Integer.MIN_VALUE);
+    }
+
+    private static class SerializableSum
+        implements Aggregator<Integer, Integer, Long>,
+                   Serializable
+    {
+        private static final long serialVersionUID = -121805;
+
+        @Override
+        public Long identity()
+        {
+            return 0L;
+        }
+
+        @Override
+        public Long summarize(Integer key,
+                              Integer value)
+        {
+            return (long)value;
+        }
+
+        @Override
+        public Long combine(Long left,
+                            Long right)
+        {
+            return left + right;
+        }
+    }
+}
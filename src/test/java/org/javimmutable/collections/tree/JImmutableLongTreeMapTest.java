@@ -0,0 +1,209 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.tree;
+
+import junit.framework.TestCase;
+import org.javimmutable.collections.Holders;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.MapEntry;
+import org.javimmutable.collections.common.StandardSerializableTests;
+import org.javimmutable.collections.cursors.StandardCursorTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static org.javimmutable.collections.common.StandardJImmutableMapTests.verifyEnumeration;
+
+public class JImmutableLongTreeMapTest
+    extends TestCase
+{
+    public void test()
+    {
+        JImmutableLongTreeMap<String> map = JImmutableLongTreeMap.of();
+        assertEquals(true, map.isEmpty());
+        assertEquals(Holders.<String>of(), map.find(10L));
+        assertEquals(true, map.firstEntry().isEmpty());
+        map = map.assignLong(10L, "a");
+        assertEquals(1, map.size());
+        assertEquals("a", map.get(10L));
+        assertEquals("a", map.get(Long.valueOf(10)));
+        assertEquals("z", map.getValueOrLong(11L, "z"));
+        assertEquals(true, map.containsKey(10L));
+        assertSame(map, map.assignLong(10L, "a"));
+        assertSame(map, map.assign(Long.valueOf(10L), "a"));
+        assertSame(map, map.delete(11L));
+        map = map.assign(10L, null);
+        assertEquals(1, map.size());
+        assertEquals(Holders.<String>of(null), map.find(10L));
+        map = map.delete(10L);
+        assertSame(JImmutableLongTreeMap.of(), map);
+    }
+
+    public void testBoxedValues()
+    {
+        JImmutableLongTreeMap<Long> map = JImmutableLongTreeMap.of();
+        map = map.assign(1L, 2L);
+        map = map.assignLong(3L, 4L);
+        assertEquals(Long.valueOf(2L), map.get(1L));
+        assertEquals(Long.valueOf(4L), map.get(3L));
+        assertEquals(Long.valueOf(2L), map.getValueOr(1L, 9L));
+        assertEquals(Long.valueOf(9L), map.getValueOrLong(5L, 9L));
+        assertSame(map, map.assignLong(1L, map.get(1L)));
+        map.checkInvariants();
+    }
+
+    public void testExtremeKeys()
+    {
+        final List<Long> keys = asList(Long.MIN_VALUE, Long.MAX_VALUE, 0L, -1L, 1L, Long.MIN_VALUE + 1, Long.MAX_VALUE - 1);
+        JImmutableLongTreeMap<Long> map = JImmutableLongTreeMap.of();
+        for (Long key : keys) {
+            map = map.assignLong(key.longValue(), key);
+            map.checkInvariants();
+        }
+        assertEquals(keys.size(), map.size());
+        final List<Long> sortedKeys = new ArrayList<>(keys);
+        Collections.sort(sortedKeys);
+        assertEquals(sortedKeys, map.longKeysStream().boxed().collect(Collectors.toList()));
+        assertEquals(sortedKeys.subList(0, sortedKeys.size() - 1), map.keys().stream().limit(sortedKeys.size() - 1).collect(Collectors.toList()));
+        assertEquals(Long.valueOf(Long.MIN_VALUE), map.firstEntry().getValue().getKey());
+        assertEquals(Long.valueOf(Long.MAX_VALUE), map.lastEntry().getValue().getKey());
+        assertEquals(true, map.lowerEntry(Long.MIN_VALUE).isEmpty());
+        assertEquals(true, map.higherEntry(Long.MAX_VALUE).isEmpty());
+        assertEquals(keys.size() - 1, map.size(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(0, map.size(Long.MAX_VALUE, Long.MIN_VALUE));
+        StandardCursorTest.emptyCursorTest(map.cursor(5L, 5L));
+        for (Long key : keys) {
+            map = map.delete(key.longValue());
+            map.checkInvariants();
+            assertEquals(null, map.get(key.longValue()));
+        }
+        assertSame(JImmutableLongTreeMap.of(), map);
+    }
+
+    public void testRandom()
+    {
+        final Random r = new Random(1019L);
+        for (int loop = 0; loop < 20; ++loop) {
+            final TreeMap<Long, Long> expected = new TreeMap<>();
+            JImmutableLongTreeMap<Long> map = JImmutableLongTreeMap.of();
+            final int size = 1 + r.nextInt(20000);
+            for (int i = 0; i < size; ++i) {
+                final long key = (loop % 2 == 0) ? r.nextLong() : r.nextInt(size);
+                expected.put(key, Long.valueOf(key));
+                map = map.assignLong(key, Long.valueOf(key));
+            }
+            map.checkInvariants();
+            assertEquals(expected.size(), map.size());
+            verifyEnumeration(expected, map);
+
+            int count = 0;
+            final PrimitiveIterator.OfLong i = map.longKeysIterator();
+            for (Long key : expected.keySet()) {
+                assertEquals(key.longValue(), i.nextLong());
+                count += 1;
+            }
+            assertEquals(false, i.hasNext());
+            assertEquals(expected.size(), count);
+
+            final List<Long> keys = new ArrayList<>(expected.keySet());
+            Collections.shuffle(keys, r);
+            for (Long key : keys) {
+                final JImmutableLongTreeMap<Long> next = map.delete(key.longValue());
+                assertEquals(map.size() - 1, next.size());
+                assertEquals(null, next.get(key.longValue()));
+                map = next;
+                if (map.size() % 500 == 0) {
+                    map.checkInvariants();
+                }
+            }
+            assertSame(JImmutableLongTreeMap.of(), map);
+        }
+    }
+
+    public void testNavigationAndRanges()
+    {
+        final Random r = new Random(2019L);
+        final TreeMap<Long, Integer> expected = new TreeMap<>();
+        JImmutableLongTreeMap<Integer> map = JImmutableLongTreeMap.of();
+        for (int i = 0; i < 10000; ++i) {
+            final long key = r.nextInt(40000) - 20000;
+            expected.put(key, i);
+            map = map.assignLong(key, Integer.valueOf(i));
+        }
+        map.checkInvariants();
+        for (int i = 0; i < 2000; ++i) {
+            final long key = r.nextInt(42000) - 21000;
+            assertEquals(entry(expected.floorEntry(key)), map.floorEntry(key).getValueOr(null));
+            assertEquals(entry(expected.ceilingEntry(key)), map.ceilingEntry(key).getValueOr(null));
+            assertEquals(entry(expected.lowerEntry(key)), map.lowerEntry(key).getValueOr(null));
+            assertEquals(entry(expected.higherEntry(key)), map.higherEntry(key).getValueOr(null));
+        }
+        for (int i = 0; i < 200; ++i) {
+            final long from = r.nextInt(42000) - 21000;
+            final long to = from + r.nextInt(5000);
+            final List<JImmutableMap.Entry<Long, Integer>> entries = new ArrayList<>();
+            for (Map.Entry<Long, Integer> entry : expected.subMap(from, to).entrySet()) {
+                entries.add(MapEntry.of(entry));
+            }
+            assertEquals(entries.size(), map.size(from, to));
+            StandardCursorTest.listCursorTest(entries, map.cursor(from, to));
+            StandardCursorTest.listIteratorTest(entries, map.iterator(from, to));
+        }
+        StandardCursorTest.emptyCursorTest(map.cursor(10L, 10L));
+        assertEquals(false, map.iterator(10L, 5L).hasNext());
+    }
+
+    public void testSerialization()
+        throws Exception
+    {
+        final JImmutableLongTreeMap<String> empty = JImmutableLongTreeMap.of();
+        StandardSerializableTests.verifySerializable(null, empty);
+        StandardSerializableTests.verifySerializable(null, empty.assign(1L, "a"));
+        StandardSerializableTests.verifySerializable(null, empty.assign(Long.MIN_VALUE, "a").assign(1L, "b").assign(Long.MAX_VALUE, "c"));
+    }
+
+    private static JImmutableMap.Entry<Long, Integer> entry(Map.Entry<Long, Integer> entry)
+    {
+        return (entry == null) ? null : MapEntry.of(entry);
+    }
+}
@@ -36,17 +36,23 @@
 package org.javimmutable.collections.tree;
 
 import junit.framework.TestCase;
+import org.javimmutable.collections.Cursor;
 import org.javimmutable.collections.Func1;
 import org.javimmutable.collections.Holder;
 import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.MapChange;
 import org.javimmutable.collections.MapEntry;
+import org.javimmutable.collections.Tuple2;
 import org.javimmutable.collections.common.StandardJImmutableMapTests;
 import org.javimmutable.collections.common.StandardSerializableTests;
+import org.javimmutable.collections.common.StructureStats;
 import org.javimmutable.collections.cursors.StandardCursorTest;
+import org.javimmutable.collections.iterators.StandardIteratorTests;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -303,6 +309,329 @@ public class JImmutableTreeMapTest
 
     }
 
+    public void testDiff()
+    {
+        final Random random = new Random(4000L);
+        for (int loop = 0; loop < 100; ++loop) {
+            final int maxKey = 1 + random.nextInt(5000);
+            JImmutableTreeMap<Integer, Integer> base = JImmutableTreeMap.of();
+            for (int i = random.nextInt(maxKey); i > 0; --i) {
+                base = base.assign(random.nextInt(maxKey), random.nextInt(1000));
+            }
+            JImmutableTreeMap<Integer, Integer> other = (random.nextBoolean()) ? base : JImmutableTreeMap.of();
+            for (int i = random.nextInt(maxKey / 10 + 1); i > 0; --i) {
+                final int key = random.nextInt(maxKey);
+                other = (random.nextInt(4) == 0) ? other.delete(key) : other.assign(key, random.nextInt(1000));
+            }
+
+            verifyDiff(base, other);
+            verifyDiff(other, base);
+            verifyDiff(base, JImmutableTreeMap.<Integer, Integer>of(Comparator.reverseOrder()).assignAll(other));
+            verifyDiff(base, base.deleteAll());
+            verifyDiff(base.deleteAll(), base);
+            assertEquals(false, base.diff(base).start().hasValue());
+
+            // changes between two tree maps are produced in key order
+            Integer lastKey = null;
+            for (Cursor<MapChange<Integer, Integer>> c = base.diff(other).start(); c.hasValue(); c = c.next()) {
+                final Integer key = c.getValue().getKey();
+                assertTrue(lastKey == null || lastKey < key);
+                lastKey = key;
+            }
+        }
+    }
+
+    public void testGetAll()
+    {
+        final Random random = new Random(8000L);
+        for (Comparator<Integer> comparator : Arrays.<Comparator<Integer>>asList(ComparableComparator.of(), Comparator.reverseOrder())) {
+            JImmutableMap<Integer, Integer> map = JImmutableTreeMap.of(comparator);
+            verifyGetAll(map, asList(1, 2, 3), -1);
+            verifyGetAll(map.assign(5, 5), asList(1, 5, 9, 5), -1);
+            for (int i = 0; i < 20000; ++i) {
+                map = map.assign(random.nextInt(50000), i);
+            }
+            final List<Integer> keys = new ArrayList<>();
+            for (int i = 0; i < 5000; ++i) {
+                keys.add(random.nextInt(60000) - 5000);
+            }
+            verifyGetAll(map, keys, -1);
+            Collections.sort(keys);
+            verifyGetAll(map, keys, -1);
+            verifyGetAll(map, Collections.emptyList(), -1);
+        }
+        try {
+            JImmutableTreeMap.<Integer, Integer>of().getAll(asList(1, null));
+            fail();
+        } catch (NullPointerException ignored) {
+            // expected
+        }
+    }
+
+    public void testDeleteAllKeys()
+    {
+        final Random random = new Random(9000L);
+        final JImmutableTreeMap<Integer, Integer> empty = JImmutableTreeMap.of();
+        assertSame(empty, empty.deleteAll(asList(1, 2, 3)));
+        for (int size : asList(1, 40, 1000, 30000)) {
+            JImmutableTreeMap<Integer, Integer> map = empty;
+            final List<Integer> allKeys = new ArrayList<>();
+            for (int i = 0; i < size; ++i) {
+                map = map.assign(i, i);
+                allKeys.add(i);
+            }
+            assertSame(map, map.deleteAll(asList(-1, size, size + 10)));
+            for (int loop = 0; loop < 20; ++loop) {
+                final List<Integer> keys = new ArrayList<>();
+                if (loop % 4 == 0) {
+                    // delete a contiguous range to empty whole subtrees
+                    final int start = random.nextInt(size);
+                    keys.addAll(allKeys.subList(start, Math.min(size, start + random.nextInt(size))));
+                } else {
+                    for (Integer key : allKeys) {
+                        if (random.nextInt(20) <= loop) {
+                            keys.add(key);
+                        }
+                    }
+                }
+                keys.add(-5);
+                Collections.shuffle(keys, random);
+                final TreeMap<Integer, Integer> expected = new TreeMap<>(map.getMap());
+                expected.keySet().removeAll(keys);
+                final JImmutableTreeMap<Integer, Integer> deleted = map.deleteAll(keys);
+                deleted.checkInvariants();
+                assertEquals(expected.size(), deleted.size());
+                assertEquals(expected, deleted.getMap());
+                assertEquals(new ArrayList<>(expected.keySet()), deleted.keys().stream().collect(Collectors.toList()));
+                final JImmutableTreeMap<Integer, Integer> reassigned = deleted.assign(-10, -10).assign(size + 10, 10);
+                reassigned.checkInvariants();
+                assertEquals(expected.size() + 2, reassigned.size());
+            }
+            assertSame(empty, map.deleteAll(allKeys));
+        }
+    }
+
+    public void testNavigation()
+    {
+        for (int size : asList(0, 1, 2, 33, 1000, 5000)) {
+            final TreeMap<Integer, Integer> expected = new TreeMap<>();
+            JImmutableTreeMap<Integer, Integer> map = JImmutableTreeMap.of();
+            for (int i = 0; i < size; ++i) {
+                expected.put(2 * i, i);
+                map = map.assign(2 * i, i);
+            }
+            assertEquals(expected.isEmpty() ? null : expected.firstKey(), keyOf(map.firstEntry()));
+            assertEquals(expected.isEmpty() ? null : expected.lastKey(), keyOf(map.lastEntry()));
+            for (int key = -2; key <= 2 * size + 1; ++key) {
+                assertEquals(expected.floorKey(key), keyOf(map.floorEntry(key)));
+                assertEquals(expected.ceilingKey(key), keyOf(map.ceilingEntry(key)));
+                assertEquals(expected.lowerKey(key), keyOf(map.lowerEntry(key)));
+                assertEquals(expected.higherKey(key), keyOf(map.higherEntry(key)));
+            }
+            if (size > 0) {
+                assertEquals(Integer.valueOf(size - 1), map.floorEntry(2 * size).getValue().getValue());
+            }
+        }
+
+        JImmutableTreeMap<String, Integer> map = JImmutableTreeMap.of(Comparator.<String>reverseOrder());
+        map = map.assign("b", 1).assign("d", 2).assign("f", 3);
+        assertEquals("d", keyOf(map.floorEntry("c")));
+        assertEquals("b", keyOf(map.ceilingEntry("c")));
+        assertEquals("f", keyOf(map.lowerEntry("d")));
+        assertEquals("b", keyOf(map.higherEntry("d")));
+        assertEquals("f", keyOf(map.firstEntry()));
+        assertEquals("b", keyOf(map.lastEntry()));
+        try {
+            map.floorEntry(null);
+            fail();
+        } catch (NullPointerException ignored) {
+            // expected
+        }
+    }
+
+    public void testOrderStatistics()
+    {
+        final Random random = new Random(1300);
+        final TreeMap<Integer, Integer> expected = new TreeMap<>();
+        JImmutableTreeMap<Integer, Integer> map = JImmutableTreeMap.of();
+        for (int i = 0; i < 20000; ++i) {
+            final int key = random.nextInt(10000);
+            if (random.nextInt(4) == 0) {
+                expected.remove(key);
+                map = map.delete(key);
+            } else {
+                expected.put(key, i);
+                map = map.assign(key, i);
+            }
+        }
+        map.checkInvariants();
+        final List<Integer> keys = new ArrayList<>(expected.keySet());
+        for (int i = 0; i < keys.size(); ++i) {
+            final Integer key = keys.get(i);
+            assertEquals(key, map.getEntryAt(i).getKey());
+            assertEquals(expected.get(key), map.getEntryAt(i).getValue());
+            assertEquals(i, map.indexOf(key));
+        }
+        for (int key = -1; key <= 10000; ++key) {
+            if (!expected.containsKey(key)) {
+                assertEquals(-1, map.indexOf(key));
+            }
+        }
+        for (int i = 0; i < 1000; ++i) {
+            final int from = random.nextInt(10200) - 100;
+            final int to = from + random.nextInt(3000);
+            assertEquals(expected.subMap(from, to).size(), map.size(from, to));
+        }
+        assertEquals(0, map.size(500, 400));
+        assertEquals(map.size(), map.size(-1, 10000));
+        for (int index : asList(-1, map.size())) {
+            try {
+                map.getEntryAt(index);
+                fail();
+            } catch (IndexOutOfBoundsException ignored) {
+                // expected
+            }
+        }
+        try {
+            JImmutableTreeMap.<Integer, Integer>of().getEntryAt(0);
+            fail();
+        } catch (IndexOutOfBoundsException ignored) {
+            // expected
+        }
+    }
+
+    public void testDeleteRangeSplitAndConcat()
+    {
+        final Random random = new Random(1400);
+        final TreeMap<Integer, Integer> expected = new TreeMap<>();
+        JImmutableTreeMap<Integer, Integer> map = JImmutableTreeMap.of();
+        for (int i = 0; i < 30000; ++i) {
+            final int key = random.nextInt(50000);
+            expected.put(key, i);
+            map = map.assign(key, i);
+        }
+        assertSame(map, map.deleteRange(500, 500));
+        assertSame(map, map.deleteRange(600, 500));
+        assertSame(map, map.deleteRange(-100, -1));
+        for (int loop = 0; loop < 200; ++loop) {
+            final int from = random.nextInt(51000) - 500;
+            final int to = from + random.nextInt(10000);
+            final TreeMap<Integer, Integer> expectedDeleted = new TreeMap<>(expected);
+            expectedDeleted.subMap(from, to).clear();
+            final JImmutableTreeMap<Integer, Integer> deleted = map.deleteRange(from, to);
+            deleted.checkInvariants();
+            assertEquals(expectedDeleted, deleted.getMap());
+
+            final Tuple2<JImmutableTreeMap<Integer, Integer>, JImmutableTreeMap<Integer, Integer>> split = map.splitAt(from);
+            split.getFirst().checkInvariants();
+            split.getSecond().checkInvariants();
+            assertEquals(expected.headMap(from), split.getFirst().getMap());
+            assertEquals(expected.tailMap(from), split.getSecond().getMap());
+
+            final JImmutableTreeMap<Integer, Integer> joined = split.getFirst().concat(split.getSecond());
+            joined.checkInvariants();
+            assertEquals(expected, joined.getMap());
+            final JImmutableTreeMap<Integer, Integer> reversed = split.getSecond().concat(split.getFirst());
+            reversed.checkInvariants();
+            assertEquals(expected, reversed.getMap());
+        }
+
+        // overlapping ranges fall back to assigning entries with the argument's values winning
+        final JImmutableTreeMap<Integer, Integer> a = JImmutableTreeMap.<Integer, Integer>of().assign(1, 1).assign(3, 3).assign(5, 5);
+        final JImmutableTreeMap<Integer, Integer> b = JImmutableTreeMap.<Integer, Integer>of().assign(2, 20).assign(3, 30);
+        assertEquals(asList(1, 2, 3, 5), a.concat(b).getKeysList());
+        assertEquals(Integer.valueOf(30), a.concat(b).get(3));
+        assertEquals(Integer.valueOf(3), b.concat(a).get(3));
+        assertSame(a, a.concat(JImmutableTreeMap.of()));
+        assertSame(a, JImmutableTreeMap.<Integer, Integer>of().concat(a));
+        assertEquals(asList(1, 3, 5, 10), ((JImmutableTreeMap<Integer, Integer>)a.assignAll(JImmutableTreeMap.<Integer, Integer>of().assign(10, 10))).getKeysList());
+
+        final JImmutableTreeMap<Integer, Integer> reverse = JImmutableTreeMap.<Integer, Integer>of(Comparator.reverseOrder()).assign(7, 7);
+        final JImmutableTreeMap<Integer, Integer> mixed = a.concat(reverse);
+        mixed.checkInvariants();
+        assertEquals(asList(1, 3, 5, 7), mixed.getKeysList());
+    }
+
+    public void testBuilder()
+    {
+        final Random random = new Random(1500);
+        for (int size : asList(0, 1, 31, 32, 33, 1000, 50000)) {
+            final JImmutableTreeMap.Builder<Integer, Integer> builder = JImmutableTreeMap.builder();
+            JImmutableTreeMap<Integer, Integer> expected = JImmutableTreeMap.of();
+            for (int i = 0; i < size; ++i) {
+                builder.add(i, i + 1);
+                expected = expected.assign(i, i + 1);
+            }
+            final JImmutableTreeMap<Integer, Integer> map = builder.build();
+            map.checkInvariants();
+            assertEquals(size, map.size());
+            assertEquals(expected, map);
+            assertEquals(expected.getKeysList(), map.getKeysList());
+        }
+        assertSame(JImmutableTreeMap.of(), JImmutableTreeMap.<Integer, Integer>builder().build());
+
+        final TreeMap<Integer, Integer> expected = new TreeMap<>(Comparator.reverseOrder());
+        final JImmutableTreeMap.Builder<Integer, Integer> builder = JImmutableTreeMap.builder(Comparator.<Integer>reverseOrder());
+        for (int i = 0; i < 10000; ++i) {
+            final int key = random.nextInt(3000);
+            expected.put(key, i);
+            builder.add(MapEntry.of(key, i));
+        }
+        assertEquals(expected.size(), builder.size());
+        final JImmutableTreeMap<Integer, Integer> map = builder.build();
+        map.checkInvariants();
+        assertEquals(expected, map.getMap());
+        assertEquals(new ArrayList<>(expected.keySet()), map.getKeysList());
+        assertEquals(map, map.stream().parallel().collect(JImmutableTreeMap.collector(Comparator.<Integer>reverseOrder())));
+
+        try {
+            JImmutableTreeMap.<Integer, Integer>builder().add(null, 1);
+            fail();
+        } catch (NullPointerException ignored) {
+            // expected
+        }
+    }
+
+    public void testDescending()
+    {
+        final JImmutableTreeMap<Integer, Integer> empty = JImmutableTreeMap.of();
+        emptyCursorTest(empty.descendingCursor());
+        StandardCursorTest.emptyIteratorTest(empty.descendingIterator());
+        final Random random = new Random(1600);
+        final TreeMap<Integer, Integer> expected = new TreeMap<>();
+        JImmutableTreeMap<Integer, Integer> map = JImmutableTreeMap.of();
+        for (int i = 0; i < 25000; ++i) {
+            final int key = random.nextInt(100000);
+            expected.put(key, i);
+            map = map.assign(key, i);
+        }
+        final List<JImmutableMap.Entry<Integer, Integer>> reversed = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : expected.descendingMap().entrySet()) {
+            reversed.add(MapEntry.of(entry));
+        }
+        StandardCursorTest.listCursorTest(reversed, map.descendingCursor());
+        StandardCursorTest.listIteratorTest(reversed, map.descendingIterator());
+        StandardIteratorTests.verifyOrderedIterable(reversed, map.reverse());
+        assertEquals(reversed.subList(0, 100), map.reverse().stream().limit(100).collect(Collectors.toList()));
+    }
+
+    public void testStats()
+    {
+        JImmutableTreeMap<Integer, Integer> map = JImmutableTreeMap.of();
+        for (int i = 0; i < 1000; ++i) {
+            map = map.assign(i, i);
+        }
+        final StructureStats stats = map.stats();
+        assertEquals("JImmutableTreeMap", stats.getName());
+        assertEquals(1000, stats.getSize());
+        assertEquals(1, stats.getDepthHistogram().size());
+        assertEquals(1000, stats.getNodeCount("LeafNode"));
+        assertEquals(0, stats.getUnderfilledNodeCount());
+        assertTrue(stats.getFillFactor() >= 0.5);
+        assertEquals(0, stats.getMaxCollisionLength());
+        assertTrue(stats.getEstimatedBytes() > 1000 * StructureStats.objectBytes(2, 0));
+    }
+
     public void testStreams()
     {
         final JImmutableMap<Integer, Integer> treeMap = JImmutableTreeMap.of();
@@ -425,4 +754,9 @@ public class JImmutableTreeMapTest
         assertEquals(true, treeMap.find(value).isEmpty());
         return treeMap;
     }
+
+    private static <K, V> K keyOf(Holder<JImmutableMap.Entry<K, V>> entry)
+    {
+        return entry.isFilled() ? entry.getValue().getKey() : null;
+    }
 }
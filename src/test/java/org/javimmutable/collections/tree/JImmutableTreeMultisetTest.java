@@ -36,6 +36,7 @@
 package org.javimmutable.collections.tree;
 
 import com.google.common.collect.Multiset;
+import com.google.common.collect.Multisets;
 import com.google.common.collect.TreeMultiset;
 import junit.framework.TestCase;
 import org.javimmutable.collections.Cursor;
@@ -269,6 +270,71 @@ public class JImmutableTreeMultisetTest
         StandardCursorTest.emptyCursorTest(cleared.cursor());
     }
 
+    public void testNavigation()
+    {
+        final JImmutableTreeMultiset<String> empty = JImmutableTreeMultiset.of();
+        assertEquals(true, empty.first().isEmpty());
+        assertEquals(true, empty.last().isEmpty());
+        assertEquals(true, empty.lower("b").isEmpty());
+        assertEquals(true, empty.higher("b").isEmpty());
+
+        final JImmutableTreeMultiset<String> multi = (JImmutableTreeMultiset<String>)empty.insert("b", 3).insert("d").insert("f", 2);
+        assertEquals("b", multi.first().getValue());
+        assertEquals("f", multi.last().getValue());
+        assertEquals(true, multi.floor("a").isEmpty());
+        assertEquals("b", multi.floor("b").getValue());
+        assertEquals("b", multi.floor("c").getValue());
+        assertEquals("d", multi.ceiling("c").getValue());
+        assertEquals("d", multi.ceiling("d").getValue());
+        assertEquals("b", multi.lower("d").getValue());
+        assertEquals("f", multi.higher("d").getValue());
+        assertEquals(true, multi.higher("f").isEmpty());
+        assertEquals(true, multi.ceiling("g").isEmpty());
+        assertEquals("f", multi.floor("z").getValue());
+    }
+
+    public void testMergeOperations()
+    {
+        final Random random = new Random(1800);
+        for (int loop = 0; loop < 20; ++loop) {
+            final Multiset<Integer> expected1 = TreeMultiset.create();
+            final Multiset<Integer> expected2 = TreeMultiset.create();
+            JImmutableMultiset<Integer> jmet1 = JImmutableTreeMultiset.of();
+            JImmutableMultiset<Integer> jmet2 = JImmutableTreeMultiset.of();
+            final int size1 = random.nextInt(3000);
+            final int size2 = (loop == 0) ? 0 : random.nextInt(3000);
+            for (int i = 0; i < size1; ++i) {
+                final int value = random.nextInt(1500);
+                expected1.add(value);
+                jmet1 = jmet1.insert(value);
+            }
+            for (int i = 0; i < size2; ++i) {
+                final int value = random.nextInt(1500);
+                expected2.add(value);
+                jmet2 = jmet2.insert(value);
+            }
+
+            verifyMerged(Multisets.union(expected1, expected2), jmet1.union(jmet2));
+            verifyMerged(Multisets.union(expected2, expected1), jmet2.union(jmet1));
+            verifyMerged(Multisets.intersection(expected1, expected2), jmet1.intersection(jmet2));
+            verifyMerged(Multisets.intersection(expected2, expected1), jmet2.intersection(jmet1));
+            verifyMerged(Multisets.sum(expected1, expected2), jmet1.insertAll(jmet2));
+            verifyMerged(Multisets.difference(expected1, expected2), jmet1.deleteAllOccurrences(jmet2));
+        }
+
+        final JImmutableMultiset<Integer> jmet = JImmutableTreeMultiset.<Integer>of().insert(1, 2).insert(2).insert(3, 3);
+        assertSame(jmet, jmet.union(JImmutableTreeMultiset.<Integer>of().insert(1).insert(3, 3)));
+        assertSame(jmet, jmet.intersection(JImmutableTreeMultiset.<Integer>of().insert(0).insert(1, 5).insert(2).insert(3, 4)));
+        assertSame(jmet, jmet.deleteAllOccurrences(JImmutableTreeMultiset.<Integer>of().insert(4).insert(5)));
+
+        // multisets with different comparators fall back to the standard algorithms
+        final JImmutableMultiset<Integer> reversed = JImmutableTreeMultiset.<Integer>of((a, b) -> b.compareTo(a)).insert(3).insert(4, 2);
+        assertEquals(Arrays.asList(1, 1, 2, 3, 3, 3, 4, 4), asList(jmet.union(reversed)));
+        assertEquals(Arrays.asList(3), asList(jmet.intersection(reversed)));
+        assertEquals(Arrays.asList(1, 1, 2, 3, 3, 3, 3, 4, 4), asList(jmet.insertAll(reversed)));
+        assertEquals(Arrays.asList(1, 1, 2, 3, 3), asList(jmet.deleteAllOccurrences(reversed)));
+    }
+
     public void testStreams()
     {
         JImmutableMultiset<Integer> mset = JImmutableTreeMultiset.<Integer>of().insert(4).insert(3).insert(4).insert(2).insert(1).insert(3);
@@ -336,6 +402,15 @@ public class JImmutableTreeMultisetTest
         return jmet.insertAll(collect);
     }
 
+    private void verifyMerged(Multiset<Integer> expected,
+                              JImmutableMultiset<Integer> actual)
+    {
+        actual.checkInvariants();
+        assertEquals(expected.elementSet().size(), actual.size());
+        assertEquals(expected.size(), actual.occurrenceCount());
+        assertEquals(new ArrayList<>(TreeMultiset.create(expected)), asList(actual));
+    }
+
     private ArrayList<Integer> asList(JImmutableMultiset<Integer> jmet)
     {
         Cursor<Integer> cursor = jmet.occurrenceCursor();
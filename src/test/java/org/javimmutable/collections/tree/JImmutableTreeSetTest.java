@@ -296,6 +296,116 @@ public class JImmutableTreeSetTest
         assertEquals(asList("Hello"), iterToList(jet.intersection((Collection)hset)));
     }
 
+    public void testNavigation()
+    {
+        final JImmutableTreeSet<Integer> empty = JImmutableTreeSet.of();
+        assertEquals(true, empty.first().isEmpty());
+        assertEquals(true, empty.last().isEmpty());
+        assertEquals(true, empty.floor(1).isEmpty());
+        assertEquals(true, empty.ceiling(1).isEmpty());
+
+        final TreeSet<Integer> expected = new TreeSet<>();
+        final Random random = new Random(7);
+        JImmutableSet<Integer> set = empty;
+        for (int i = 0; i < 2000; ++i) {
+            final int value = random.nextInt(10000);
+            expected.add(value);
+            set = set.insert(value);
+        }
+        final JImmutableTreeSet<Integer> treeSet = (JImmutableTreeSet<Integer>)set;
+        assertEquals(expected.first(), treeSet.first().getValue());
+        assertEquals(expected.last(), treeSet.last().getValue());
+        for (int value = -1; value <= 10000; ++value) {
+            assertEquals(expected.floor(value), treeSet.floor(value).getValueOr(null));
+            assertEquals(expected.ceiling(value), treeSet.ceiling(value).getValueOr(null));
+            assertEquals(expected.lower(value), treeSet.lower(value).getValueOr(null));
+            assertEquals(expected.higher(value), treeSet.higher(value).getValueOr(null));
+        }
+    }
+
+    public void testBuilder()
+    {
+        final JImmutableTreeSet.Builder<Integer> builder = JImmutableTreeSet.builder();
+        for (int i = 0; i < 5000; ++i) {
+            builder.add(i);
+        }
+        final JImmutableTreeSet<Integer> sorted = builder.build();
+        sorted.checkInvariants();
+        assertEquals(5000, sorted.size());
+        assertEquals(Integer.valueOf(0), sorted.first().getValue());
+        assertEquals(Integer.valueOf(4999), sorted.last().getValue());
+
+        final JImmutableTreeSet<String> strings = JImmutableTreeSet.builder(String.CASE_INSENSITIVE_ORDER).add("c", "B", "a", "b", "C").build();
+        strings.checkInvariants();
+        assertEquals(asList("a", "B", "c"), new ArrayList<>(strings.getSet()));
+        assertEquals(0, JImmutableTreeSet.<Integer>builder().build().size());
+
+        final List<Integer> values = new ArrayList<>();
+        final Random random = new Random(1500);
+        for (int i = 0; i < 10000; ++i) {
+            values.add(random.nextInt(4000));
+        }
+        final JImmutableSet<Integer> collected = values.parallelStream().collect(JImmutableTreeSet.collector());
+        collected.checkInvariants();
+        assertEquals(new TreeSet<>(values), collected.getSet());
+    }
+
+    public void testMergeOperations()
+    {
+        final Random random = new Random(1700);
+        for (int loop = 0; loop < 20; ++loop) {
+            final TreeSet<Integer> expected1 = new TreeSet<>();
+            final TreeSet<Integer> expected2 = new TreeSet<>();
+            JImmutableSet<Integer> set1 = JImmutableTreeSet.of();
+            JImmutableSet<Integer> set2 = JImmutableTreeSet.of();
+            final int size1 = random.nextInt(3000);
+            final int size2 = (loop == 0) ? 0 : random.nextInt(3000);
+            for (int i = 0; i < size1; ++i) {
+                final int value = random.nextInt(4000);
+                expected1.add(value);
+                set1 = set1.insert(value);
+            }
+            for (int i = 0; i < size2; ++i) {
+                final int value = random.nextInt(4000);
+                expected2.add(value);
+                set2 = set2.insert(value);
+            }
+
+            final TreeSet<Integer> union = new TreeSet<>(expected1);
+            union.addAll(expected2);
+            verifyMerged(union, set1.union(set2));
+            verifyMerged(union, set1.insertAll(set2));
+            verifyMerged(union, set2.union(set1));
+
+            final TreeSet<Integer> intersection = new TreeSet<>(expected1);
+            intersection.retainAll(expected2);
+            verifyMerged(intersection, set1.intersection(set2));
+            verifyMerged(intersection, set1.intersection((Iterable<Integer>)set2));
+            verifyMerged(intersection, set2.intersection(set1));
+
+            final TreeSet<Integer> difference = new TreeSet<>(expected1);
+            difference.removeAll(expected2);
+            verifyMerged(difference, set1.deleteAll(set2));
+        }
+
+        final JImmutableSet<Integer> set = JImmutableTreeSet.<Integer>of().insert(1).insert(2).insert(3);
+        assertSame(set, set.union(JImmutableTreeSet.<Integer>of().insert(2).insert(3)));
+        assertSame(set, set.intersection(JImmutableTreeSet.<Integer>of().insert(0).insert(1).insert(2).insert(3)));
+        assertSame(set, set.deleteAll(JImmutableTreeSet.<Integer>of().insert(4).insert(5)));
+
+        // sets with different comparators fall back to the standard algorithms
+        final JImmutableSet<Integer> reversed = JImmutableTreeSet.<Integer>of((a, b) -> b.compareTo(a)).insert(3).insert(4);
+        assertEquals(asList(1, 2, 3, 4), iterToList(set.union(reversed)));
+        assertEquals(asList(3), iterToList(set.intersection(reversed)));
+        assertEquals(asList(1, 2), iterToList(set.deleteAll(reversed)));
+
+        // keys from this set are kept when the comparator considers two keys equal
+        final JImmutableSet<String> strings = JImmutableTreeSet.of(String.CASE_INSENSITIVE_ORDER).insert("a").insert("B");
+        final JImmutableSet<String> upper = JImmutableTreeSet.of(String.CASE_INSENSITIVE_ORDER).insert("A").insert("b").insert("C");
+        assertEquals(asList("a", "B", "C"), iterToList(strings.union(upper)));
+        assertEquals(asList("a", "B"), iterToList(strings.intersection(upper)));
+    }
+
     public void testStreams()
     {
         JImmutableSet<Integer> mset = JImmutableTreeSet.<Integer>of().insert(4).insert(3).insert(4).insert(2).insert(1).insert(3);
@@ -332,10 +442,18 @@ public class JImmutableTreeSetTest
         JImmutableTreeMapTest.extraSerializationChecks(setA.getMap(), setB.getMap());
     }
 
-    private List<String> iterToList(Iterable<String> source)
+    private void verifyMerged(TreeSet<Integer> expected,
+                              JImmutableSet<Integer> actual)
+    {
+        actual.checkInvariants();
+        assertEquals(expected.size(), actual.size());
+        assertEquals(new ArrayList<>(expected), iterToList(actual));
+    }
+
+    private <T> List<T> iterToList(Iterable<T> source)
     {
-        List<String> answer = new ArrayList<>();
-        for (String value : source) {
+        List<T> answer = new ArrayList<>();
+        for (T value : source) {
             answer.add(value);
         }
         return answer;
@@ -0,0 +1,188 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.tree;
+
+import junit.framework.TestCase;
+import org.javimmutable.collections.Holder;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.cursors.StandardCursorTest;
+import org.javimmutable.collections.cursors.TransformCursor;
+import org.javimmutable.collections.iterators.StandardIteratorTests;
+import org.javimmutable.collections.iterators.TransformIterator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class TreeMapRangeTest
+    extends TestCase
+{
+    public void testEmpty()
+    {
+        final TreeMapRange<Integer, Integer> range = JImmutableTreeMap.<Integer, Integer>of().subMap(1, 10);
+        assertEquals(true, range.isEmpty());
+        assertEquals(0, range.size());
+        assertEquals(true, range.firstEntry().isEmpty());
+        assertEquals(true, range.lastEntry().isEmpty());
+        assertEquals(true, range.floorEntry(5).isEmpty());
+        StandardCursorTest.emptyCursorTest(range.cursor());
+        StandardCursorTest.emptyIteratorTest(range.iterator());
+        assertEquals(0, range.toMap().size());
+    }
+
+    public void testRandomRanges()
+    {
+        final Random random = new Random(1200);
+        final TreeMap<Integer, Integer> expected = new TreeMap<>();
+        JImmutableTreeMap<Integer, Integer> map = JImmutableTreeMap.of();
+        for (int i = 0; i < 3000; ++i) {
+            expected.put(2 * i, i);
+            map = map.assign(2 * i, i);
+        }
+        for (int loop = 0; loop < 500; ++loop) {
+            final int low = random.nextInt(6200) - 100;
+            final int high = low + random.nextInt(1000);
+            final boolean lowInclusive = random.nextBoolean();
+            final boolean highInclusive = random.nextBoolean();
+            final NavigableMap<Integer, Integer> expectedRange = expected.subMap(low, lowInclusive, high, highInclusive);
+            final TreeMapRange<Integer, Integer> range = map.subMap(low, lowInclusive, high, highInclusive);
+            verifyRange(expectedRange, range, random);
+
+            final int innerLow = low + random.nextInt(500) - 250;
+            final int innerHigh = high + random.nextInt(500) - 250;
+            if (innerLow <= innerHigh) {
+                final int expectedLow = Math.max(low, innerLow);
+                final int expectedHigh = Math.min(high, innerHigh);
+                final NavigableMap<Integer, Integer> expectedInner;
+                if (expectedLow <= expectedHigh) {
+                    expectedInner = expected.subMap(expectedLow, (innerLow > low) || lowInclusive,
+                                                    expectedHigh, (innerHigh < high) || highInclusive);
+                } else {
+                    expectedInner = Collections.emptyNavigableMap();
+                }
+                verifyRange(expectedInner, range.subMap(innerLow, true, innerHigh, true), random);
+            }
+        }
+        verifyRange(expected.headMap(1001, false), map.headMap(1001), random);
+        verifyRange(expected.headMap(1000, false), map.headMap(1000), random);
+        verifyRange(expected.headMap(1000, true), map.headMap(1000, true), random);
+        verifyRange(expected.tailMap(4001, true), map.tailMap(4001), random);
+        verifyRange(expected.tailMap(4000, true), map.tailMap(4000), random);
+        verifyRange(expected.tailMap(4000, false), map.tailMap(4000, false), random);
+        verifyRange(expected, map.range(), random);
+        verifyRange(expected.subMap(100, true, 4000, false), map.tailMap(100).headMap(4000), random);
+        verifyRange(expected.subMap(500, true, 600, false), map.subMap(500, 900).subMap(100, 600).tailMap(500), random);
+        verifyRange(Collections.emptyNavigableMap(), map.subMap(500, 900).subMap(1000, 2000), random);
+        verifyRange(Collections.emptyNavigableMap(), map.subMap(500, 500), random);
+    }
+
+    public void testViewIgnoresLaterChanges()
+    {
+        JImmutableTreeMap<Integer, Integer> map = JImmutableTreeMap.of();
+        for (int i = 0; i < 100; ++i) {
+            map = map.assign(i, i);
+        }
+        final TreeMapRange<Integer, Integer> range = map.subMap(10, 20);
+        map = map.delete(15).assign(16, -16);
+        assertEquals(10, range.size());
+        assertEquals(Integer.valueOf(15), range.get(15));
+        assertEquals(Integer.valueOf(16), range.get(16));
+        assertEquals(null, range.get(20));
+        assertEquals(Integer.valueOf(-1), range.getValueOr(9, -1));
+        assertEquals(Integer.valueOf(-16), map.get(16));
+    }
+
+    private static void verifyRange(NavigableMap<Integer, Integer> expected,
+                                    TreeMapRange<Integer, Integer> range,
+                                    Random random)
+    {
+        final List<Integer> keys = new ArrayList<>(expected.keySet());
+        final List<Integer> values = new ArrayList<>(expected.values());
+        assertEquals(expected.size(), range.size());
+        assertEquals(expected.isEmpty(), range.isEmpty());
+        assertEquals(keys, range.keys().stream().collect(java.util.stream.Collectors.toList()));
+        assertEquals(keys, range.keys().parallelStream().collect(java.util.stream.Collectors.toList()));
+        StandardIteratorTests.verifyOrderedIterable(values, range.values());
+        StandardCursorTest.listCursorTest(keys, TransformCursor.ofKeys(range.cursor()));
+        StandardCursorTest.listIteratorTest(keys, range.keys().iterator());
+        final List<Integer> reversedKeys = new ArrayList<>(expected.descendingKeySet());
+        StandardCursorTest.listCursorTest(reversedKeys, TransformCursor.ofKeys(range.descendingCursor()));
+        StandardCursorTest.listIteratorTest(reversedKeys, TransformIterator.of(range.descendingIterator(), JImmutableMap.Entry::getKey));
+        assertEquals(reversedKeys.subList(0, Math.min(5, reversedKeys.size())),
+                     range.reverse().stream().limit(5).map(JImmutableMap.Entry::getKey).collect(java.util.stream.Collectors.toList()));
+        assertEquals(expected.isEmpty() ? null : expected.firstKey(), keyOf(range.firstEntry()));
+        assertEquals(expected.isEmpty() ? null : expected.lastKey(), keyOf(range.lastEntry()));
+        for (int i = 0; i < 20; ++i) {
+            final int key = random.nextInt(6200) - 100;
+            assertEquals(expected.get(key), range.get(key));
+            assertEquals(expected.containsKey(key), range.find(key).isFilled());
+            assertEquals(expected.containsKey(key), range.findEntry(key).isFilled());
+            assertEquals(expected.floorKey(key), keyOf(range.floorEntry(key)));
+            assertEquals(expected.ceilingKey(key), keyOf(range.ceilingEntry(key)));
+            assertEquals(expected.lowerKey(key), keyOf(range.lowerEntry(key)));
+            assertEquals(expected.higherKey(key), keyOf(range.higherEntry(key)));
+        }
+        for (int i = 0; i < keys.size(); ++i) {
+            assertEquals(keys.get(i), range.getEntryAt(i).getKey());
+            assertEquals(i, range.indexOf(keys.get(i)));
+        }
+        for (int index : Arrays.asList(-1, keys.size())) {
+            try {
+                range.getEntryAt(index);
+                fail();
+            } catch (IndexOutOfBoundsException ignored) {
+                // expected
+            }
+        }
+        assertEquals(-1, range.indexOf(-1));
+        if (!expected.isEmpty()) {
+            assertEquals(-1, range.indexOf(expected.firstKey() - 2));
+            assertEquals(-1, range.indexOf(expected.lastKey() + 2));
+        }
+        final JImmutableTreeMap<Integer, Integer> copy = range.toMap();
+        copy.checkInvariants();
+        assertEquals(expected, copy.getMap());
+    }
+
+    private static <K, V> K keyOf(Holder<JImmutableMap.Entry<K, V>> entry)
+    {
+        return entry.isFilled() ? entry.getValue().getKey() : null;
+    }
+}
@@ -0,0 +1,150 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.tree;
+
+import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class TreeNodeBuilderTest
+    extends TestCase
+{
+    private final ComparableComparator<Integer> comparator = ComparableComparator.of();
+
+    public void testSortedInput()
+    {
+        for (int size = 0; size <= 3000; size = (size < 100) ? size + 1 : size + 97) {
+            final TreeNodeBuilder<Integer, Integer> builder = new TreeNodeBuilder<>(comparator);
+            for (int i = 0; i < size; ++i) {
+                builder.add(i, -i);
+            }
+            assertEquals(size, builder.size());
+            final Node<Integer, Integer> root = builder.build();
+            verifyShape(root, true);
+            root.checkInvariants(comparator);
+            assertEquals(size, root.valueCount());
+            int expected = 0;
+            for (JImmutableMap.Entry<Integer, Integer> entry : root) {
+                assertEquals(Integer.valueOf(expected), entry.getKey());
+                assertEquals(Integer.valueOf(-expected), entry.getValue());
+                expected += 1;
+            }
+            assertEquals(size, expected);
+        }
+    }
+
+    public void testUnsortedInputWithDuplicates()
+    {
+        final Random random = new Random(1500);
+        final TreeMap<Integer, Integer> expected = new TreeMap<>();
+        final TreeNodeBuilder<Integer, Integer> builder = new TreeNodeBuilder<>(comparator);
+        for (int i = 0; i < 20000; ++i) {
+            final int key = random.nextInt(5000);
+            expected.put(key, i);
+            builder.add(key, i);
+        }
+        assertEquals(expected.size(), builder.size());
+        final Node<Integer, Integer> root = builder.build();
+        verifyShape(root, true);
+        root.checkInvariants(comparator);
+        verifyContents(expected, root);
+
+        // adding after a build continues from the already sorted leaves
+        for (int i = 0; i < 1000; ++i) {
+            final int key = random.nextInt(10000);
+            expected.put(key, -i);
+            builder.add(key, -i);
+        }
+        verifyContents(expected, builder.build());
+    }
+
+    public void testCombineWith()
+    {
+        final TreeNodeBuilder<Integer, Integer> a = new TreeNodeBuilder<>(comparator);
+        final TreeNodeBuilder<Integer, Integer> b = new TreeNodeBuilder<>(comparator);
+        final TreeNodeBuilder<Integer, Integer> c = new TreeNodeBuilder<>(comparator);
+        final TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 500; ++i) {
+            a.add(i, i);
+            b.add(i + 500, i + 500);
+            c.add(999 - i, -i);
+            expected.put(i, i);
+            expected.put(i + 500, i + 500);
+        }
+        a.combineWith(b);
+        verifyContents(expected, a.build());
+        a.combineWith(c);
+        for (int i = 0; i < 500; ++i) {
+            expected.put(999 - i, -i);
+        }
+        verifyContents(expected, a.build());
+        verifyShape(a.build(), true);
+    }
+
+    private void verifyContents(TreeMap<Integer, Integer> expected,
+                                Node<Integer, Integer> root)
+    {
+        final List<Integer> expectedKeys = new ArrayList<>(expected.keySet());
+        final List<Integer> keys = new ArrayList<>();
+        for (JImmutableMap.Entry<Integer, Integer> entry : root) {
+            keys.add(entry.getKey());
+            assertEquals(expected.get(entry.getKey()), entry.getValue());
+        }
+        assertEquals(expectedKeys, keys);
+    }
+
+    private static void verifyShape(Node<Integer, Integer> node,
+                                    boolean isRoot)
+    {
+        if (node instanceof BranchNode) {
+            final Node<Integer, Integer>[] children = ((BranchNode<Integer, Integer>)node).getChildren();
+            assertTrue(children.length <= Node.MAX_CHILDREN);
+            if (isRoot) {
+                assertTrue(children.length >= 2);
+            } else {
+                assertTrue(children.length >= Node.MIN_CHILDREN);
+                assertTrue(children.length <= TreeNodeBuilder.TARGET_CHILDREN);
+            }
+            for (Node<Integer, Integer> child : children) {
+                verifyShape(child, false);
+            }
+        }
+    }
+}
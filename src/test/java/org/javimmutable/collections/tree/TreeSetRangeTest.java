@@ -0,0 +1,101 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2018, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.collections.tree;
+
+import junit.framework.TestCase;
+import org.javimmutable.collections.cursors.StandardCursor;
+import org.javimmutable.collections.cursors.StandardCursorTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class TreeSetRangeTest
+    extends TestCase
+{
+    public void test()
+    {
+        final JImmutableTreeSet<String> set = (JImmutableTreeSet<String>)JImmutableTreeSet.<String>of().union(Arrays.asList("a", "c", "e", "g", "i", "k"));
+        final TreeSetRange<String> range = set.subSet("b", "i");
+        assertEquals(3, range.size());
+        assertEquals(false, range.isEmpty());
+        assertEquals(true, range.contains("c"));
+        assertEquals(false, range.contains("a"));
+        assertEquals(false, range.contains("i"));
+        assertEquals(false, range.contains(null));
+        assertEquals("c", range.first().getValue());
+        assertEquals("g", range.last().getValue());
+        assertEquals("e", range.floor("f").getValue());
+        assertEquals("g", range.ceiling("f").getValue());
+        assertEquals("g", range.floor("z").getValue());
+        assertEquals("c", range.ceiling("a").getValue());
+        assertEquals(true, range.lower("c").isEmpty());
+        assertEquals(true, range.higher("g").isEmpty());
+        StandardCursorTest.listCursorTest(Arrays.asList("c", "e", "g"), range.cursor());
+        StandardCursorTest.listIteratorTest(Arrays.asList("c", "e", "g"), range.iterator());
+        assertEquals(Arrays.asList("e", "g"), new ArrayList<>(range.tailSet("d").toSet().getSet()));
+        assertEquals(Arrays.asList("c", "e"), new ArrayList<>(range.headSet("e", true).headSet("g").toSet().getSet()));
+        assertEquals(Collections.singletonList("e"), new ArrayList<>(range.subSet("c", false, "g", false).toSet().getSet()));
+
+        assertEquals(Arrays.asList("a", "c"), new ArrayList<>(set.headSet("c", true).toSet().getSet()));
+        assertEquals(Arrays.asList("i", "k"), new ArrayList<>(set.tailSet("g", false).toSet().getSet()));
+        assertEquals(Arrays.asList("c", "e", "g"), new ArrayList<>(set.subSet("c", true, "g", true).toSet().getSet()));
+        assertEquals(6, set.range().size());
+        assertEquals(Arrays.asList("k", "i", "g", "e", "c", "a"), StandardCursor.makeList(set.descendingCursor()));
+        assertEquals(Arrays.asList("k", "i", "g", "e", "c", "a"), StandardCursor.makeList(set.descendingIterator()));
+        assertEquals(Arrays.asList("i", "g"), set.reverse().stream().skip(1).limit(2).collect(Collectors.toList()));
+        assertEquals(Arrays.asList("g", "e", "c"), StandardCursor.makeList(range.descendingCursor()));
+        assertEquals(Arrays.asList("g", "e", "c"), StandardCursor.makeList(range.descendingIterator()));
+        assertEquals(Arrays.asList("g", "e"), range.reverse().stream().limit(2).collect(Collectors.toList()));
+        assertEquals("e", range.getValueAt(1));
+        assertEquals(2, range.indexOf("g"));
+        assertEquals(-1, range.indexOf("a"));
+        assertEquals("a", set.getValueAt(0));
+        assertEquals("k", set.getValueAt(5));
+        assertEquals(4, set.indexOf("i"));
+        assertEquals(-1, set.indexOf("b"));
+        assertEquals(2, set.size("b", "f"));
+        assertEquals(3, set.subSet("c", true, "g", true).size());
+
+        final List<String> values = new ArrayList<>();
+        set.tailSet("e").stream().forEach(values::add);
+        assertEquals(Arrays.asList("e", "g", "i", "k"), values);
+        assertEquals(true, set.subSet("d", "e").isEmpty());
+        assertSame(set.subSet("d", "e").toSet().getComparator(), set.getComparator());
+    }
+}